@@ -0,0 +1,74 @@
+package io.github.frc5024.lib5k.logging;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-call cost of finding the method that called the logger.
+ *
+ * Run with: ./gradlew :lib5k:jmh -Pjmh.includes=CallerResolutionBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CallerResolutionBenchmark {
+
+    /**
+     * Stands in for RobotLogger, so every lookup has to skip one logger frame,
+     * just like a real log call
+     */
+    static class FakeLogger {
+        private final CallerResolver resolver;
+
+        FakeLogger(CallerResolver.Mode mode) {
+            this.resolver = new CallerResolver(mode, FakeLogger.class);
+        }
+
+        String log() {
+            return resolver.resolve();
+        }
+
+        String legacyLog() {
+            // This is what RobotLogger did before CallerResolver existed
+            StackTraceElement lastMethod = Thread.currentThread().getStackTrace()[2];
+            return RobotLogger.getPackageName(lastMethod);
+        }
+    }
+
+    private final FakeLogger fullStackTrace = new FakeLogger(CallerResolver.Mode.kFullStackTrace);
+    private final FakeLogger stackWalker = new FakeLogger(CallerResolver.Mode.kStackWalker);
+    private final FakeLogger none = new FakeLogger(CallerResolver.Mode.kNone);
+
+    @Benchmark
+    public String legacyStackTrace() {
+        return fullStackTrace.legacyLog();
+    }
+
+    @Benchmark
+    public String fullStackTrace() {
+        return fullStackTrace.log();
+    }
+
+    @Benchmark
+    public String cachedStackWalker() {
+        return stackWalker.log();
+    }
+
+    @Benchmark
+    public String disabled() {
+        return none.log();
+    }
+
+}
@@ -0,0 +1,96 @@
+package io.github.frc5024.lib5k.logging;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Log line throughput of the old USBLogger write loop (one format, append, and
+ * flush per line) against {@link BatchedFileWriter} (one encode and write per
+ * cycle). Each invocation writes one logging cycle worth of lines.
+ *
+ * Run with: ./gradlew :lib5k:jmh -Pjmh.includes=USBLogWriteBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(USBLogWriteBenchmark.LINES_PER_CYCLE)
+public class USBLogWriteBenchmark {
+
+    // Roughly what a busy robot produces in one 500ms USBLogger cycle
+    static final int LINES_PER_CYCLE = 64;
+
+    // Only applies to the batched writer. The old writer never forced
+    @Param({ "false", "true" })
+    public boolean force;
+
+    private Path legacyPath;
+    private Path batchedPath;
+    private FileWriter legacyWriter;
+    private BatchedFileWriter batchedWriter;
+    private String[] lines;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        legacyPath = Files.createTempFile("USBLogWriteBenchmark-legacy", ".log");
+        batchedPath = Files.createTempFile("USBLogWriteBenchmark-batched", ".log");
+
+        legacyWriter = new FileWriter(legacyPath.toFile());
+        batchedWriter = new BatchedFileWriter(batchedPath);
+        batchedWriter.setForceOnFlush(force);
+
+        // Build some realistic log lines
+        lines = new String[LINES_PER_CYCLE];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = String.format(
+                    "DEBUG at %.2fs: io...common_drive.DriveTrainBase::runIteration() -> Position goal is: %d", i * 0.02,
+                    i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        legacyWriter.close();
+        batchedWriter.close();
+        Files.deleteIfExists(legacyPath);
+        Files.deleteIfExists(batchedPath);
+    }
+
+    @Benchmark
+    public void legacyPerLineFlush() throws IOException {
+        // This is what USBLogger.update() used to do
+        for (String line : lines) {
+            legacyWriter.append(String.format("%s%n", line));
+            legacyWriter.flush();
+        }
+    }
+
+    @Benchmark
+    public void batchedFlushPerCycle() throws IOException {
+        for (String line : lines) {
+            batchedWriter.appendLine(line);
+        }
+        batchedWriter.flush();
+    }
+
+}
@@ -0,0 +1,108 @@
+package io.github.frc5024.purepursuit;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.wpi.first.wpilibj.geometry.Pose2d;
+import edu.wpi.first.wpilibj.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.geometry.Translation2d;
+import edu.wpi.first.wpilibj.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj.kinematics.DifferentialDriveWheelSpeeds;
+import io.github.frc5024.purepursuit.pathgen.Path;
+
+/**
+ * Per-loop cost of a pure pursuit update, through the Pose2d API and the
+ * allocation-free primitive API.
+ *
+ * Run with: ./gradlew :lib5k:jmh -Pjmh.includes=PurePursuitBenchmark
+ *
+ * Add -Pjmh.profilers=gc to see gc.alloc.rate.norm, which should be 0 bytes per
+ * operation for primitiveTank and primitiveHolonomic. This is the check for
+ * steady-state allocation in the controller. It is not a unit test, since JIT
+ * compilation can allocate at any time during a short test run.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PurePursuitBenchmark {
+
+    // Robot positions to step through. The robot drives along the path, then
+    // starts over
+    private static final int STEPS = 1000;
+
+    private PurePursuitController poseController;
+    private PurePursuitController primitiveController;
+    private PurePursuitController holonomicController;
+    private final DifferentialDriveWheelSpeeds output = new DifferentialDriveWheelSpeeds();
+    private final ChassisSpeeds holonomicOutput = new ChassisSpeeds();
+    private Pose2d[] poses;
+    private int step = 0;
+
+    @Setup
+    public void setUp() {
+        Path path = new Path(new Translation2d(0.0, 0.0), new Translation2d(5.0, 2.0), new Translation2d(10.0, 0.0));
+        poseController = new PurePursuitController(path, 0.2, 0.1, 0.7, 1.0);
+        primitiveController = new PurePursuitController(path, 0.2, 0.1, 0.7, 1.0);
+        holonomicController = new PurePursuitController(path, 0.2, 0.1, 0.7, 1.0);
+
+        // Poses are made up front, so making them is not measured
+        poses = new Pose2d[STEPS];
+        for (int i = 0; i < STEPS; i++) {
+            poses[i] = new Pose2d(i * 0.01, 0.1, new Rotation2d(0.05));
+        }
+    }
+
+    /**
+     * Move on to the next robot position
+     *
+     * @return Position index
+     */
+    private int nextStep() {
+        int current = step;
+        step = (step + 1) % STEPS;
+        return current;
+    }
+
+    @Benchmark
+    public DifferentialDriveWheelSpeeds poseTank() {
+        int i = nextStep();
+        if (i == 0) {
+            poseController.reset();
+        }
+        return poseController.calculateTank(poses[i]);
+    }
+
+    @Benchmark
+    public DifferentialDriveWheelSpeeds primitiveTank() {
+        int i = nextStep();
+        if (i == 0) {
+            primitiveController.reset();
+        }
+        primitiveController.calculateTank(i * 0.01, 0.1, 0.05, output);
+        return output;
+    }
+
+    @Benchmark
+    public ChassisSpeeds primitiveHolonomic() {
+        int i = nextStep();
+        if (i == 0) {
+            holonomicController.reset();
+        }
+        holonomicController.calculateHolonomic(i * 0.01, 0.1, holonomicOutput);
+        return holonomicOutput;
+    }
+
+}
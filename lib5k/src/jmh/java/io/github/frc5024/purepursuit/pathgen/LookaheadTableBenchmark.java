@@ -0,0 +1,119 @@
+package io.github.frc5024.purepursuit.pathgen;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.wpi.first.wpilibj.geometry.Translation2d;
+import io.github.frc5024.purepursuit.Follower;
+
+/**
+ * Cost of picking a lookahead goal on long paths, with a binary search and with
+ * a {@link LookaheadTable}, both on its own and as part of a full
+ * {@link Follower} update.
+ *
+ * Run with: ./gradlew :lib5k:jmh -Pjmh.includes=LookaheadTableBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LookaheadTableBenchmark {
+
+    // Lookahead settings. The table covers lookaheads up to 15cm
+    private static final double LOOKAHEAD = 0.2;
+    private static final double RESOLUTION = 0.01;
+    private static final int LEVELS = 16;
+
+    // Robot steps along the path, 4cm per update
+    private static final double STEP = 0.04;
+
+    // Number of path points, 1cm apart
+    @Param({ "1000", "100000" })
+    public int size;
+
+    private PathIndex index;
+    private LookaheadTable table;
+    private Follower searchFollower;
+    private Follower tableFollower;
+    private double[] distances;
+    private int point = 0;
+    private int step = 0;
+
+    @Setup
+    public void setUp() {
+        Path path = new Path(0.01, new Translation2d(0.0, 0.0), new Translation2d(size * 0.01, 0.0));
+        index = path.getIndex();
+        table = new LookaheadTable(path.getBuffer(), RESOLUTION, LEVELS);
+
+        searchFollower = new Follower(path, LOOKAHEAD, 0.1, 0.7);
+        tableFollower = new Follower(path, LOOKAHEAD, 0.1, 0.7);
+        tableFollower.setLookaheadTable(table);
+
+        // Lookahead distances to cycle through
+        distances = new double[LEVELS];
+        for (int i = 0; i < LEVELS; i++) {
+            distances[i] = i * RESOLUTION * 1.03;
+        }
+    }
+
+    /**
+     * Move on to the next path point and distance
+     *
+     * @return Distance index
+     */
+    private int nextPoint() {
+        point = (point + 7) % index.getBuffer().size();
+        return point % LEVELS;
+    }
+
+    /**
+     * Move the robot along the path, starting over at the end
+     *
+     * @return Robot X position
+     */
+    private double nextStep() {
+        step++;
+        if (step * STEP >= index.getBuffer().getLength()) {
+            step = 0;
+            searchFollower.reset();
+            tableFollower.reset();
+        }
+        return step * STEP;
+    }
+
+    @Benchmark
+    public int searchGoal() {
+        int d = nextPoint();
+        return index.getIndexAhead(point, distances[d]);
+    }
+
+    @Benchmark
+    public int tableGoal() {
+        int d = nextPoint();
+        return table.getIndexAhead(point, distances[d]);
+    }
+
+    @Benchmark
+    public int searchFollower() {
+        return searchFollower.getNextIndex(nextStep(), 0.05);
+    }
+
+    @Benchmark
+    public int tableFollower() {
+        return tableFollower.getNextIndex(nextStep(), 0.05);
+    }
+
+}
@@ -0,0 +1,93 @@
+package io.github.frc5024.purepursuit.util;
+
+import java.io.StringReader;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import edu.wpi.first.wpilibj.geometry.Translation2d;
+import io.github.frc5024.purepursuit.pathgen.PathBuffer;
+import io.github.frc5024.purepursuit.pathgen.RawPath;
+
+/**
+ * Time to import a PathWeaver trajectory of a given length, with the old
+ * reflection-based importer and the streaming importer.
+ *
+ * Run with: ./gradlew :lib5k:jmh -Pjmh.includes=PathImporterBenchmark
+ * -Pjmh.profilers=gc to also see allocation per import
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathImporterBenchmark {
+
+    // Number of trajectory points. PathWeaver makes ~100 for a short auto path
+    @Param({ "100", "10000", "100000" })
+    public int size;
+
+    private String json;
+
+    @Setup
+    public void setUp() {
+
+        // A PathWeaver style trajectory along a gentle curve
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            double t = i * 0.02;
+            builder.append(i == 0 ? "" : ",");
+            builder.append(String.format(
+                    "{\"time\":%s,\"velocity\":1.5,\"acceleration\":0.0,\"pose\":{\"translation\":{\"x\":%s,\"y\":%s},"
+                            + "\"rotation\":{\"radians\":%s}},\"curvature\":0.1}",
+                    t, t * 1.5, Math.sin(t * 0.1), Math.cos(t * 0.1) * 0.1));
+        }
+        json = builder.append("]").toString();
+    }
+
+    /**
+     * This is what PathImporter.jsonToPath() did before it streamed. Every point
+     * is parsed into objects, copied into an array, then copied into the path
+     *
+     * @return Imported path
+     */
+    @Benchmark
+    public RawPath legacy() {
+        Type listType = new TypeToken<List<WPI_PathPoint>>() {
+        }.getType();
+        List<WPI_PathPoint> rawPoints = new Gson().fromJson(new StringReader(json), listType);
+
+        Translation2d[] points = new Translation2d[rawPoints.size()];
+        int i = 0;
+        for (WPI_PathPoint point : rawPoints) {
+            Translation2d genPose = point.getTranslation();
+            points[i] = new Translation2d(genPose.getX(), genPose.getY() + (8.23 / 2.0));
+            i++;
+        }
+
+        return new RawPath(points);
+    }
+
+    @Benchmark
+    public RawPath streaming() throws Exception {
+        PathBuffer buffer = PathImporter.jsonToBuffer(new StringReader(json));
+        return new RawPath(buffer);
+    }
+
+}
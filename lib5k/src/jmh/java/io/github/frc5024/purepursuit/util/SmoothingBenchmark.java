@@ -0,0 +1,130 @@
+package io.github.frc5024.purepursuit.util;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.wpi.first.wpilibj.geometry.Translation2d;
+
+/**
+ * Time to smooth a path of a given length, with the old list-based smoother and
+ * each {@link Smoothing.Method}.
+ *
+ * Run with: ./gradlew :lib5k:jmh -Pjmh.includes=SmoothingBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SmoothingBenchmark {
+
+    // Same weights as the SmoothPath example in the docs
+    private static final double WEIGHT_DATA = 0.5;
+    private static final double WEIGHT_SMOOTH = 0.5;
+    private static final double TOLERANCE = 0.001;
+
+    // Number of path points. 200 is a 30m path at the default spacing
+    @Param({ "200", "2000", "20000" })
+    public int size;
+
+    private double[] x;
+    private double[] y;
+
+    @Setup
+    public void setUp() {
+
+        // A zig-zag with 1m legs, sampled every 15cm
+        x = new double[size];
+        y = new double[size];
+        for (int i = 0; i < size; i++) {
+            double along = i * 0.15;
+            x[i] = along;
+            y[i] = ((int) along % 2 == 0) ? along % 1.0 : 1.0 - along % 1.0;
+        }
+    }
+
+    /**
+     * This is what Smoothing.smooth() did before it worked on arrays. It updates
+     * the list it is given, so it has to be handed a fresh copy every time
+     *
+     * @param positions     Positions to smooth in place
+     * @param weight_data   Data weight
+     * @param weight_smooth Smoothing weight
+     * @param tolerance     Change tolerance
+     * @return Smoothed positions
+     */
+    static ArrayList<Translation2d> legacySmooth(ArrayList<Translation2d> positions, double weight_data,
+            double weight_smooth, double tolerance) {
+        ArrayList<Translation2d> newPositions = positions;
+        double change = tolerance;
+        int countdown = 10000;
+
+        while (change >= tolerance && countdown > 0) {
+            change = 0.0;
+            for (int i = 1; i < positions.size() - 1; i++) {
+                Translation2d previousPointState = newPositions.get(i);
+                Translation2d firstFactor = previousPointState
+                        .plus(positions.get(i).minus(previousPointState).times(weight_data));
+                Translation2d secondFactor = newPositions.get(i - 1).plus(newPositions.get(i + 1))
+                        .minus(previousPointState.times(2.0)).times(weight_smooth);
+                newPositions.set(i, firstFactor.plus(secondFactor));
+                Translation2d erosionDifference = previousPointState.minus(newPositions.get(i));
+                change += Math.abs(erosionDifference.getX()) + Math.abs(erosionDifference.getY());
+            }
+            countdown -= 1;
+        }
+
+        return newPositions;
+    }
+
+    @Benchmark
+    public ArrayList<Translation2d> legacy() {
+        ArrayList<Translation2d> positions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            positions.add(new Translation2d(x[i], y[i]));
+        }
+        return legacySmooth(positions, WEIGHT_DATA, WEIGHT_SMOOTH, TOLERANCE);
+    }
+
+    /**
+     * Smooth a copy of the test path
+     *
+     * @param method Smoothing method
+     * @return Smoothed Y positions
+     */
+    private double[] smoothCopy(Smoothing.Method method) {
+        double[] outX = x.clone();
+        double[] outY = y.clone();
+        Smoothing.smooth(outX, outY, WEIGHT_DATA, WEIGHT_SMOOTH, TOLERANCE, method);
+        return outY;
+    }
+
+    @Benchmark
+    public double[] direct() {
+        return smoothCopy(Smoothing.Method.kDirect);
+    }
+
+    @Benchmark
+    public double[] sor() {
+        return smoothCopy(Smoothing.Method.kSOR);
+    }
+
+    @Benchmark
+    public double[] parallelRedBlack() {
+        return smoothCopy(Smoothing.Method.kParallelRedBlack);
+    }
+
+}
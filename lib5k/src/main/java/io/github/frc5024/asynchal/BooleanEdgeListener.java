@@ -0,0 +1,16 @@
+package io.github.frc5024.asynchal;
+
+/**
+ * A listener for edges on a binary sensor
+ */
+@FunctionalInterface
+public interface BooleanEdgeListener {
+
+    /**
+     * Called when the sensor changes state
+     *
+     * @param rising True if the sensor went from low to high, false if it went from
+     *               high to low
+     */
+    public void onEdge(boolean rising);
+}
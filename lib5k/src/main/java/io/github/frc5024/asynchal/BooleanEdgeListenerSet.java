@@ -0,0 +1,18 @@
+package io.github.frc5024.asynchal;
+
+/**
+ * A copy-on-write set of {@link BooleanEdgeListener}s
+ */
+public final class BooleanEdgeListenerSet extends ListenerSet<BooleanEdgeListener> {
+
+    /**
+     * Call every listener
+     *
+     * @param rising Was this a rising edge?
+     */
+    public void fire(boolean rising) {
+        for (Object listener : getListeners()) {
+            ((BooleanEdgeListener) listener).onEdge(rising);
+        }
+    }
+}
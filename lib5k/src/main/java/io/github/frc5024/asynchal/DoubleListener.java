@@ -0,0 +1,16 @@
+package io.github.frc5024.asynchal;
+
+/**
+ * A listener for changes in a sensor reading. Readings are passed as a
+ * primitive, so nothing is boxed
+ */
+@FunctionalInterface
+public interface DoubleListener {
+
+    /**
+     * Called when the reading changes
+     *
+     * @param value New reading
+     */
+    public void onChange(double value);
+}
@@ -0,0 +1,18 @@
+package io.github.frc5024.asynchal;
+
+/**
+ * A copy-on-write set of {@link DoubleListener}s
+ */
+public final class DoubleListenerSet extends ListenerSet<DoubleListener> {
+
+    /**
+     * Call every listener
+     *
+     * @param value New reading
+     */
+    public void fire(double value) {
+        for (Object listener : getListeners()) {
+            ((DoubleListener) listener).onChange(value);
+        }
+    }
+}
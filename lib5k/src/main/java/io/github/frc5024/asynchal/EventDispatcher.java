@@ -0,0 +1,335 @@
+package io.github.frc5024.asynchal;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import io.github.frc5024.lib5k.hardware.ni.roborio.fpga.FPGAClock;
+import io.github.frc5024.lib5k.logging.RobotLogger;
+import io.github.frc5024.lib5k.logging.RobotLogger.Level;
+import io.github.frc5024.lib5k.utils.RingBuffer;
+import io.github.frc5024.lib5k.utils.RingBuffer.OverflowPolicy;
+
+/**
+ * EventDispatcher moves sensor events off of the {@link Poller} thread.
+ *
+ * A sensor posts timestamped events from {@link Pollable#checkForUpdates()}.
+ * Posting only fills a preallocated slot in a bounded lock-free queue, so a
+ * slow callback can never hold up sampling. The events are then handed to the
+ * sensor's handler on an {@link Executor}. Events from one dispatcher are
+ * always handled one at a time, in order, even if the executor has many
+ * threads.
+ *
+ * When the queue is full, new events are dropped and counted.
+ */
+public class EventDispatcher {
+
+    /**
+     * Queue size used when none is given
+     */
+    public static final int DEFAULT_QUEUE_SIZE = 64;
+
+    // Shared callback thread, created on first use
+    private static ExecutorService sharedExecutor;
+    private static Executor defaultExecutor;
+
+    // Event queue
+    private final RingBuffer<SensorEvent> queue;
+    private final Consumer<SensorEvent> handler;
+    private volatile Executor executor;
+
+    // Set while a drain is queued or running on the executor
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    // Statistics
+    private final AtomicLong postedCount = new AtomicLong(0);
+    private final AtomicLong handledCount = new AtomicLong(0);
+    private final AtomicLong failedCount = new AtomicLong(0);
+    private final AtomicLong latencySamples = new AtomicLong(0);
+    private final AtomicLong totalLatencyMicros = new AtomicLong(0);
+    private final AtomicLong maxLatencyMicros = new AtomicLong(0);
+    private final AtomicLong maxCallbackMicros = new AtomicLong(0);
+    private volatile int maxQueueDepth = 0;
+
+    /**
+     * Create an EventDispatcher that runs on the default executor
+     *
+     * @param handler Event handler. Called on the executor
+     */
+    public EventDispatcher(Consumer<SensorEvent> handler) {
+        this(handler, DEFAULT_QUEUE_SIZE, null);
+    }
+
+    /**
+     * Create an EventDispatcher
+     *
+     * @param handler   Event handler. Called on the executor
+     * @param queueSize Minimum number of events that can be waiting at once. This
+     *                  is rounded up to the next power of two
+     * @param executor  Executor to handle events on, or null to use the default
+     *                  executor
+     */
+    public EventDispatcher(Consumer<SensorEvent> handler, int queueSize, Executor executor) {
+        this.handler = handler;
+        this.queue = new RingBuffer<>(queueSize, SensorEvent::new, OverflowPolicy.kDropNewest);
+        this.executor = executor;
+    }
+
+    /**
+     * Set the executor used by dispatchers that have not been given one. By
+     * default, every dispatcher shares a single daemon thread
+     *
+     * @param executor Executor, or null to go back to the shared thread
+     */
+    public static synchronized void setDefaultExecutor(Executor executor) {
+        defaultExecutor = executor;
+    }
+
+    /**
+     * Get the executor used by dispatchers that have not been given one
+     *
+     * @return Default executor
+     */
+    public static synchronized Executor getDefaultExecutor() {
+        if (defaultExecutor != null) {
+            return defaultExecutor;
+        }
+
+        if (sharedExecutor == null) {
+            sharedExecutor = Executors.newSingleThreadExecutor((r) -> {
+                Thread thread = new Thread(r, "Asynchal callbacks");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return sharedExecutor;
+    }
+
+    /**
+     * Set the executor for this dispatcher
+     *
+     * @param executor Executor, or null to use the default executor
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Post an event. This never blocks, and is meant to be called from the
+     * {@link Poller} thread
+     *
+     * @param type  Event type
+     * @param value Sensor reading
+     * @return Was the event queued? False if the queue was full
+     */
+    public boolean post(SensorEvent.Type type, double value) {
+        long timestamp = getFPGAMicros();
+
+        // Fill a slot
+        long sequence = queue.claim();
+        if (sequence < 0) {
+            return false;
+        }
+        SensorEvent event = queue.get(sequence);
+        event.type = type;
+        event.value = value;
+        event.timestampMicros = timestamp;
+        queue.publish(sequence);
+        postedCount.incrementAndGet();
+
+        // Track the deepest the queue has been
+        int depth = queue.size();
+        if (depth > maxQueueDepth) {
+            maxQueueDepth = depth;
+        }
+
+        // Make sure a drain is coming
+        schedule();
+        return true;
+    }
+
+    /**
+     * Queue a drain on the executor, unless one is already queued or running
+     */
+    private void schedule() {
+        if (!scheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        Executor target = executor;
+        if (target == null) {
+            target = getDefaultExecutor();
+        }
+
+        try {
+            target.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            // Leave the events queued. The next post will try again
+            scheduled.set(false);
+        }
+    }
+
+    /**
+     * Handle every queued event. Runs on the executor
+     */
+    private void drain() {
+        do {
+            queue.drain(this::handle);
+            scheduled.set(false);
+
+            // An event may have been posted after the queue was drained, but before
+            // the flag was cleared. If so, its post did not schedule a drain
+        } while (queue.size() > 0 && scheduled.compareAndSet(false, true));
+    }
+
+    /**
+     * Run the handler for a single event
+     *
+     * @param event Event
+     */
+    private void handle(SensorEvent event) {
+        long start = getFPGAMicros();
+
+        try {
+            handler.accept(event);
+        } catch (RuntimeException e) {
+            failedCount.incrementAndGet();
+            RobotLogger.getInstance().log("Sensor callback threw %s: %s", Level.kWarning, e.getClass().getSimpleName(),
+                    e.getMessage());
+        }
+
+        // Record timing
+        long end = getFPGAMicros();
+        long latency = start - event.timestampMicros;
+        handledCount.incrementAndGet();
+        latencySamples.incrementAndGet();
+        totalLatencyMicros.addAndGet(latency);
+        updateMax(maxLatencyMicros, latency);
+        updateMax(maxCallbackMicros, end - start);
+    }
+
+    /**
+     * Get the number of events waiting to be handled
+     *
+     * @return Queue depth
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Get the largest number of events that have been waiting at once
+     *
+     * @return Maximum queue depth
+     */
+    public int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    /**
+     * Get the number of events that have been queued
+     *
+     * @return Posted event count
+     */
+    public long getPostedCount() {
+        return postedCount.get();
+    }
+
+    /**
+     * Get the number of events that have been handled
+     *
+     * @return Handled event count
+     */
+    public long getHandledCount() {
+        return handledCount.get();
+    }
+
+    /**
+     * Get the number of events that were lost because the queue was full
+     *
+     * @return Dropped event count
+     */
+    public long getDroppedCount() {
+        return queue.getDroppedCount();
+    }
+
+    /**
+     * Get the number of events whose handler threw an exception
+     *
+     * @return Failed event count
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * Get the average time between an event being sampled and its handler starting
+     *
+     * @return Average callback latency in seconds
+     */
+    public double getAverageLatency() {
+        long samples = latencySamples.get();
+        if (samples == 0) {
+            return 0.0;
+        }
+        return (totalLatencyMicros.get() / (double) samples) / 1000000.0;
+    }
+
+    /**
+     * Get the longest time between an event being sampled and its handler starting
+     *
+     * @return Maximum callback latency in seconds
+     */
+    public double getMaxLatency() {
+        return maxLatencyMicros.get() / 1000000.0;
+    }
+
+    /**
+     * Get the longest time a single handler call has taken
+     *
+     * @return Maximum callback execution time in seconds
+     */
+    public double getMaxCallbackTime() {
+        return maxCallbackMicros.get() / 1000000.0;
+    }
+
+    /**
+     * Reset the latency and queue depth statistics. Event counts are kept
+     */
+    public void resetStatistics() {
+        latencySamples.set(0);
+        totalLatencyMicros.set(0);
+        maxLatencyMicros.set(0);
+        maxCallbackMicros.set(0);
+        maxQueueDepth = 0;
+    }
+
+    /**
+     * Raise an atomic maximum
+     *
+     * @param max   Maximum
+     * @param value New value
+     */
+    private static void updateMax(AtomicLong max, long value) {
+        long current;
+        while (value > (current = max.get())) {
+            if (max.compareAndSet(current, value)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Get the current FPGA time
+     *
+     * @return FPGA time in microseconds
+     */
+    private static long getFPGAMicros() {
+        return (long) (FPGAClock.getFPGASeconds() * 1000000.0);
+    }
+
+}
@@ -0,0 +1,89 @@
+package io.github.frc5024.asynchal;
+
+/**
+ * A copy-on-write set of listeners. Adding and removing listeners copies the
+ * backing array, so firing never locks, allocates, or sees a half-updated set.
+ * Listeners are called in the order they were added.
+ *
+ * @param <L> Listener type
+ */
+public abstract class ListenerSet<L> {
+
+    private static final Object[] EMPTY = new Object[0];
+
+    private volatile Object[] listeners = EMPTY;
+
+    /**
+     * Add a listener. Adding the same listener twice has no effect
+     *
+     * @param listener Listener
+     */
+    public synchronized void add(L listener) {
+        Object[] current = listeners;
+        for (Object l : current) {
+            if (l == listener) {
+                return;
+            }
+        }
+
+        Object[] updated = new Object[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, current.length);
+        updated[current.length] = listener;
+        listeners = updated;
+    }
+
+    /**
+     * Remove a listener
+     *
+     * @param listener Listener
+     * @return Was the listener in the set?
+     */
+    public synchronized boolean remove(L listener) {
+        Object[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                Object[] updated = new Object[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                listeners = (updated.length == 0) ? EMPTY : updated;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Remove every listener
+     */
+    public synchronized void clear() {
+        listeners = EMPTY;
+    }
+
+    /**
+     * Check if there are no listeners. Sensors use this to skip queueing events
+     * nobody is listening for
+     *
+     * @return Is empty?
+     */
+    public boolean isEmpty() {
+        return listeners.length == 0;
+    }
+
+    /**
+     * Get the number of listeners
+     *
+     * @return Listener count
+     */
+    public int size() {
+        return listeners.length;
+    }
+
+    /**
+     * Get the current listeners. The array must not be modified
+     *
+     * @return Listeners
+     */
+    protected Object[] getListeners() {
+        return listeners;
+    }
+}
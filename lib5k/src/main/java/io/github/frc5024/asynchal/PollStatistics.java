@@ -0,0 +1,140 @@
+package io.github.frc5024.asynchal;
+
+/**
+ * Timing statistics for a single {@link Pollable}, or for the {@link Poller}
+ * cycle as a whole.
+ *
+ * The Poller keeps one live copy per pollable. Use
+ * {@link Poller#getStatistics(Pollable)} or
+ * {@link Poller#getCycleStatistics()} to get a snapshot.
+ */
+public class PollStatistics {
+
+    // Identity
+    private final String name;
+    private final double period;
+
+    // Timing
+    private final TimingHistogram executionTime = new TimingHistogram();
+    private final TimingHistogram jitter = new TimingHistogram();
+
+    // Counters. Only written by the polling thread
+    private volatile long overrunCount = 0;
+    private volatile long missedPollCount = 0;
+
+    /**
+     * Create a PollStatistics
+     *
+     * @param name   Name used for telemetry
+     * @param period Configured period in seconds
+     */
+    PollStatistics(String name, double period) {
+        this.name = name;
+        this.period = period;
+    }
+
+    /**
+     * Record one poll
+     *
+     * @param lateMicros      How late the poll started, or -1 if it has no due
+     *                        time
+     * @param durationMicros  How long the poll took
+     * @param overrun         Did the poll run past its period?
+     * @param missedPollCount Number of polls skipped because this one was late
+     */
+    void record(long lateMicros, long durationMicros, boolean overrun, long missedPollCount) {
+        executionTime.record(durationMicros);
+        if (lateMicros >= 0) {
+            jitter.record(lateMicros);
+        }
+        if (overrun) {
+            overrunCount++;
+        }
+        if (missedPollCount > 0) {
+            this.missedPollCount += missedPollCount;
+        }
+    }
+
+    /**
+     * Make a copy of these statistics
+     *
+     * @return Snapshot
+     */
+    PollStatistics copy() {
+        PollStatistics snapshot = new PollStatistics(name, period);
+        executionTime.copyTo(snapshot.executionTime);
+        jitter.copyTo(snapshot.jitter);
+        snapshot.overrunCount = overrunCount;
+        snapshot.missedPollCount = missedPollCount;
+        return snapshot;
+    }
+
+    /**
+     * Clear every statistic
+     */
+    void reset() {
+        executionTime.reset();
+        jitter.reset();
+        overrunCount = 0;
+        missedPollCount = 0;
+    }
+
+    /**
+     * Get the name used for telemetry
+     *
+     * @return Name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the configured period
+     *
+     * @return Period in seconds
+     */
+    public double getPeriod() {
+        return period;
+    }
+
+    /**
+     * Get the histogram of execution times. For a pollable, this is the time spent
+     * in {@link Pollable#checkForUpdates()}. For the cycle, this is the time spent
+     * polling everything that was due
+     *
+     * @return Execution time histogram
+     */
+    public TimingHistogram getExecutionTime() {
+        return executionTime;
+    }
+
+    /**
+     * Get the histogram of how late polls started compared to when they were due
+     *
+     * @return Jitter histogram
+     */
+    public TimingHistogram getJitter() {
+        return jitter;
+    }
+
+    /**
+     * Get the number of overruns. For a pollable, this is the number of polls that
+     * took longer than its period. For the cycle, this is the number of cycles
+     * that ran past the time the next pollable was due
+     *
+     * @return Overrun count
+     */
+    public long getOverrunCount() {
+        return overrunCount;
+    }
+
+    /**
+     * Get the number of polls that were skipped because the poller fell behind
+     *
+     * @return Missed poll count
+     */
+    public long getMissedPollCount() {
+        return missedPollCount;
+    }
+
+}
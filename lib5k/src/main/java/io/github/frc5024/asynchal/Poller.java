@@ -1,37 +1,193 @@
 package io.github.frc5024.asynchal;
 
 import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEntry;
 import edu.wpi.first.wpilibj.Notifier;
+import io.github.frc5024.lib5k.hardware.ni.roborio.fpga.FPGAClock;
+import io.github.frc5024.lib5k.telemetry.ComponentTelemetry;
 
 /**
  * You have been lied to. This library is not fully real-time. I don't want to
  * deal with writing a JNI wrapper for some FPGA DMA code, so this quick-refresh
  * loop is the best you'll get for callbacks.
+ *
+ * Every {@link Pollable} is registered with its own period and priority, and
+ * all of them share one thread. Pollables are kept in a timing wheel with 1ms
+ * slots, so each cycle only touches the pollables that are actually due, and
+ * the thread sleeps until the next one is. When several pollables are due at
+ * once, higher priorities are polled first.
+ *
+ * Pollables may be registered and de-registered from any thread, including
+ * from inside {@link Pollable#checkForUpdates()}.
+ *
+ * The time spent in every pollable, how late it was polled, and how often it
+ * overran its period are recorded in {@link PollStatistics}, and published to
+ * the "Poller" telemetry table once a second.
  */
 public class Poller {
     private static Poller instance;
 
+    /**
+     * Period used by {@link #register(Pollable)}
+     */
+    public static final double DEFAULT_PERIOD = 0.01;
+
+    /**
+     * Priority used when none is given. Higher priorities are polled first
+     */
+    public static final int DEFAULT_PRIORITY = 0;
+
+    // Timing wheel resolution and size. Components with periods longer than the
+    // wheel are skipped until the trip around it where they are due
+    static final long TICK_MICROS = 1000;
+    private static final int WHEEL_SLOTS = 256;
+
+    // Time between telemetry updates
+    private static final long TELEMETRY_PERIOD_MICROS = 1000000;
+
+    // Used to give every registration a unique telemetry name
+    private static final AtomicInteger registrationCount = new AtomicInteger(0);
+
+    /**
+     * NetworkTables entries for one set of statistics
+     */
+    private static class TelemetryEntries {
+        final NetworkTableEntry polls;
+        final NetworkTableEntry meanTime;
+        final NetworkTableEntry p95Time;
+        final NetworkTableEntry maxTime;
+        final NetworkTableEntry maxJitter;
+        final NetworkTableEntry overruns;
+        final NetworkTableEntry missedPolls;
+        final NetworkTableEntry histogram;
+        final double[] histogramBuffer = new double[TimingHistogram.getBucketCount()];
+
+        TelemetryEntries(NetworkTable table) {
+            this.polls = table.getEntry("Polls");
+            this.meanTime = table.getEntry("Mean Time (ms)");
+            this.p95Time = table.getEntry("P95 Time (ms)");
+            this.maxTime = table.getEntry("Max Time (ms)");
+            this.maxJitter = table.getEntry("Max Jitter (ms)");
+            this.overruns = table.getEntry("Overruns");
+            this.missedPolls = table.getEntry("Missed Polls");
+            this.histogram = table.getEntry("Time Histogram");
+        }
+
+        /**
+         * Publish a set of statistics
+         *
+         * @param statistics Statistics
+         */
+        void publish(PollStatistics statistics) {
+            TimingHistogram time = statistics.getExecutionTime();
+            for (int i = 0; i < histogramBuffer.length; i++) {
+                histogramBuffer[i] = time.getCount(i);
+            }
+
+            polls.setDouble(time.getSampleCount());
+            meanTime.setDouble(time.getMeanMicros() / 1000.0);
+            p95Time.setDouble(time.getPercentileMicros(0.95) / 1000.0);
+            maxTime.setDouble(time.getMaxMicros() / 1000.0);
+            maxJitter.setDouble(statistics.getJitter().getMaxMicros() / 1000.0);
+            overruns.setDouble(statistics.getOverrunCount());
+            missedPolls.setDouble(statistics.getMissedPollCount());
+            histogram.setDoubleArray(histogramBuffer);
+        }
+    }
+
+    /**
+     * A pollable's place in the wheel
+     */
+    private static class Registration {
+        final Pollable pollable;
+        final long periodTicks;
+        final int priority;
+
+        // Set from any thread when de-registered. The wheel drops it on the next
+        // visit
+        volatile boolean cancelled = false;
+
+        // Tick this is due at. Only touched by the polling thread
+        long nextTick;
+
+        // Instrumentation. Telemetry entries are created on first publish
+        final PollStatistics statistics;
+        TelemetryEntries telemetry;
+
+        Registration(Pollable pollable, long periodTicks, int priority) {
+            this.pollable = pollable;
+            this.periodTicks = periodTicks;
+            this.priority = priority;
+            this.statistics = new PollStatistics(String.format("%s-%d", pollable.getClass().getSimpleName(),
+                    registrationCount.incrementAndGet()), periodTicks * TICK_MICROS / 1000000.0);
+        }
+    }
+
     private Notifier thread;
 
-    private ArrayList<Pollable> pollables = new ArrayList<>();
+    // Current registrations, by pollable. Used to find what to cancel
+    private final ConcurrentHashMap<Pollable, Registration> registrations = new ConcurrentHashMap<>();
+
+    // New registrations waiting to be put in the wheel by the polling thread
+    private final ConcurrentLinkedQueue<Registration> pendingRegistrations = new ConcurrentLinkedQueue<>();
+
+    // The wheel. Each slot is sorted by priority. Only touched by the polling
+    // thread
+    private final ArrayList<Registration>[] slots;
+    private ArrayList<Registration> spareSlot = new ArrayList<>();
+    private final long epochMicros;
+    private long lastTick = -1;
+
+    // Instrumentation. The poll clock is the end time of the last poll, so each
+    // poll only needs one clock read
+    private final PollStatistics cycleStatistics = new PollStatistics("Cycle", 0.0);
+    private long expectedWakeMicros = -1;
+    private long pollClockMicros;
+    private int cyclePollCount;
+    private NetworkTable telemetryTable;
+    private TelemetryEntries cycleTelemetry;
+    private long nextTelemetryMicros = 0;
 
     /**
      * Poller constructor
      */
     private Poller() {
+        this(true);
+    }
+
+    /**
+     * Create a Poller
+     *
+     * @param startThread Should the polling thread be started? If not,
+     *                    {@link #update(long)} must be called manually
+     */
+    @SuppressWarnings("unchecked")
+    Poller(boolean startThread) {
+        this.slots = new ArrayList[WHEEL_SLOTS];
+        for (int i = 0; i < WHEEL_SLOTS; i++) {
+            slots[i] = new ArrayList<>();
+        }
+        this.epochMicros = getFPGAMicros();
 
         // Start up the polling thread
-        this.thread = new Notifier(this::update);
-        this.thread.startPeriodic(0.01);
+        if (startThread) {
+            this.thread = new Notifier(this::update);
+            this.thread.setName("Poller");
+            this.thread.startSingle(0.0);
+        }
     }
 
     /**
      * Get a poller instance
-     * 
+     *
      * @return Instance
      */
-    public static Poller getInstance() {
+    public static synchronized Poller getInstance() {
         if (instance == null) {
             instance = new Poller();
         }
@@ -39,30 +195,300 @@ public class Poller {
     }
 
     /**
-     * Register a pollable component
-     * 
+     * Register a pollable component to be polled every 10ms
+     *
      * @param p Pollable
      */
     public void register(Pollable p) {
-        pollables.add(p);
+        register(p, DEFAULT_PERIOD, DEFAULT_PRIORITY);
+    }
+
+    /**
+     * Register a pollable component
+     *
+     * @param p      Pollable
+     * @param period Time between polls in seconds. This is rounded to the nearest
+     *               millisecond
+     */
+    public void register(Pollable p, double period) {
+        register(p, period, DEFAULT_PRIORITY);
+    }
+
+    /**
+     * Register a pollable component. Registering a component again replaces its
+     * period and priority
+     *
+     * @param p        Pollable
+     * @param period   Time between polls in seconds. This is rounded to the nearest
+     *                 millisecond
+     * @param priority Polling priority. When multiple components are due at once,
+     *                 higher priorities are polled first
+     */
+    public void register(Pollable p, double period, int priority) {
+        if (!(period > 0.0)) {
+            throw new IllegalArgumentException("Poll period must be positive");
+        }
+
+        Registration registration = new Registration(p,
+                Math.max(1, Math.round(period * 1000000.0 / TICK_MICROS)), priority);
+
+        // Replace any old registration
+        Registration old = registrations.put(p, registration);
+        if (old != null) {
+            old.cancelled = true;
+        }
+
+        // Hand it to the polling thread, and wake it up so the new component is
+        // polled right away
+        pendingRegistrations.add(registration);
+        if (thread != null) {
+            thread.startSingle(0.0);
+        }
     }
 
     /**
      * de-Register a pollable component
-     * 
+     *
      * @param p Pollable
      */
     public void deregister(Pollable p) {
-        pollables.remove(p);
+        Registration registration = registrations.remove(p);
+        if (registration != null) {
+            registration.cancelled = true;
+        }
+    }
+
+    /**
+     * Check if a component is registered
+     *
+     * @param p Pollable
+     * @return Is registered?
+     */
+    public boolean isRegistered(Pollable p) {
+        return registrations.containsKey(p);
+    }
+
+    /**
+     * Get a snapshot of a component's timing statistics
+     *
+     * @param p Pollable
+     * @return Statistics, or null if the component is not registered
+     */
+    public PollStatistics getStatistics(Pollable p) {
+        Registration registration = registrations.get(p);
+        return (registration == null) ? null : registration.statistics.copy();
+    }
+
+    /**
+     * Get a snapshot of the timing statistics for whole polling cycles. The cycle
+     * has no fixed period, so its period is reported as 0
+     *
+     * @return Cycle statistics
+     */
+    public PollStatistics getCycleStatistics() {
+        return cycleStatistics.copy();
+    }
+
+    /**
+     * Clear the statistics for every component, and for the cycle
+     */
+    public void resetStatistics() {
+        for (Registration registration : registrations.values()) {
+            registration.statistics.reset();
+        }
+        cycleStatistics.reset();
     }
 
     /**
      * Update the thread
      */
     private void update() {
-        for (Pollable p : pollables) {
-            p.checkForUpdates();
+        long nowMicros = getFPGAMicros();
+        long nextMicros = update(nowMicros);
+
+        // Publish statistics
+        if (nowMicros >= nextTelemetryMicros) {
+            nextTelemetryMicros = nowMicros + TELEMETRY_PERIOD_MICROS;
+            publishTelemetry();
+        }
+
+        // Sleep until the next component is due
+        thread.startSingle(Math.max(0, nextMicros - nowMicros) / 1000000.0);
+
+        // A registration that came in while polling would otherwise wait for the
+        // next wakeup
+        if (!pendingRegistrations.isEmpty()) {
+            thread.startSingle(0.0);
+        }
+    }
+
+    /**
+     * Poll every component that is due
+     *
+     * @param nowMicros Current FPGA time in microseconds
+     * @return FPGA time in microseconds of the next time anything is due
+     */
+    long update(long nowMicros) {
+        long nowTick = (nowMicros - epochMicros) / TICK_MICROS;
+
+        // Put new registrations in the wheel
+        Registration registration;
+        while ((registration = pendingRegistrations.poll()) != null) {
+            if (!registration.cancelled) {
+                schedule(registration, Math.max(nowTick, lastTick + 1));
+            }
+        }
+
+        // Visit every slot since the last update. If we fell more than a full turn
+        // behind, each slot is only visited once
+        pollClockMicros = nowMicros;
+        cyclePollCount = 0;
+        long firstTick = Math.max(lastTick + 1, nowTick - WHEEL_SLOTS + 1);
+        for (long tick = firstTick; tick <= nowTick; tick++) {
+            runSlot(tick, nowTick);
+        }
+        lastTick = Math.max(lastTick, nowTick);
+
+        // Find the next slot with anything in it
+        long nextMicros = epochMicros + (nowTick + WHEEL_SLOTS) * TICK_MICROS;
+        for (int i = 1; i <= WHEEL_SLOTS; i++) {
+            if (!slots[slotIndex(nowTick + i)].isEmpty()) {
+                nextMicros = epochMicros + (nowTick + i) * TICK_MICROS;
+                break;
+            }
+        }
+
+        // Record the cycle. Wakeups with nothing to poll are not counted. Early
+        // wakeups (for new registrations) have no jitter
+        if (cyclePollCount > 0) {
+            long late = (expectedWakeMicros >= 0 && nowMicros >= expectedWakeMicros)
+                    ? nowMicros - expectedWakeMicros
+                    : -1;
+            cycleStatistics.record(late, pollClockMicros - nowMicros, pollClockMicros > nextMicros, 0);
         }
+        expectedWakeMicros = nextMicros;
+
+        return nextMicros;
+    }
+
+    /**
+     * Poll every component in a slot that is due, and schedule its next poll
+     *
+     * @param tick    Tick the slot is being visited for
+     * @param nowTick Current tick
+     */
+    private void runSlot(long tick, long nowTick) {
+        int index = slotIndex(tick);
+        if (slots[index].isEmpty()) {
+            return;
+        }
+
+        // Swap in an empty list, so components can be re-scheduled into this slot
+        ArrayList<Registration> due = slots[index];
+        slots[index] = spareSlot;
+        spareSlot = due;
+
+        for (int i = 0; i < due.size(); i++) {
+            Registration registration = due.get(i);
+
+            // Drop de-registered components
+            if (registration.cancelled) {
+                continue;
+            }
+
+            // Not due until a later trip around the wheel
+            if (registration.nextTick > tick) {
+                insert(slots[index], registration);
+                continue;
+            }
+
+            long start = pollClockMicros;
+            registration.pollable.checkForUpdates();
+            pollClockMicros = getFPGAMicros();
+            cyclePollCount++;
+
+            // Schedule the next poll. A component that fell behind skips the polls
+            // it missed, instead of running them back to back
+            long next = registration.nextTick + registration.periodTicks;
+            long missed = 0;
+            if (next <= nowTick) {
+                missed = (nowTick - next) / registration.periodTicks + 1;
+                next = nowTick + 1;
+            }
+
+            // Record how late and how long the poll was
+            long dueMicros = epochMicros + registration.nextTick * TICK_MICROS;
+            long duration = pollClockMicros - start;
+            registration.statistics.record(start - dueMicros, duration,
+                    duration > registration.periodTicks * TICK_MICROS, missed);
+
+            schedule(registration, next);
+        }
+        due.clear();
+    }
+
+    /**
+     * Publish the statistics for every component, and for the cycle
+     */
+    private void publishTelemetry() {
+        if (telemetryTable == null) {
+            telemetryTable = ComponentTelemetry.getInstance().getTableForComponent("Poller");
+            cycleTelemetry = new TelemetryEntries(telemetryTable.getSubTable("Cycle"));
+        }
+
+        cycleTelemetry.publish(cycleStatistics);
+        for (Registration registration : registrations.values()) {
+            if (registration.telemetry == null) {
+                registration.telemetry = new TelemetryEntries(
+                        telemetryTable.getSubTable(registration.statistics.getName()));
+            }
+            registration.telemetry.publish(registration.statistics);
+        }
+    }
+
+    /**
+     * Put a registration in the wheel
+     *
+     * @param registration Registration
+     * @param tick         Tick to poll it at
+     */
+    private void schedule(Registration registration, long tick) {
+        registration.nextTick = tick;
+        insert(slots[slotIndex(tick)], registration);
+    }
+
+    /**
+     * Insert a registration into a slot, after everything of the same or higher
+     * priority
+     *
+     * @param slot         Slot
+     * @param registration Registration
+     */
+    private static void insert(ArrayList<Registration> slot, Registration registration) {
+        int i = slot.size();
+        while (i > 0 && slot.get(i - 1).priority < registration.priority) {
+            i--;
+        }
+        slot.add(i, registration);
+    }
+
+    /**
+     * Get the wheel slot for a tick
+     *
+     * @param tick Tick
+     * @return Slot index
+     */
+    private static int slotIndex(long tick) {
+        return (int) Math.floorMod(tick, (long) WHEEL_SLOTS);
+    }
+
+    /**
+     * Get the current FPGA time
+     *
+     * @return FPGA time in microseconds
+     */
+    private static long getFPGAMicros() {
+        return (long) (FPGAClock.getFPGASeconds() * 1000000.0);
     }
 
-}
\ No newline at end of file
+}
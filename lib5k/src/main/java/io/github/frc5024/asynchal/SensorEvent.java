@@ -0,0 +1,67 @@
+package io.github.frc5024.asynchal;
+
+/**
+ * A timestamped sensor event. Events are preallocated by an
+ * {@link EventDispatcher} and reused, so handlers must copy anything they need
+ * to keep.
+ */
+public class SensorEvent {
+
+    /**
+     * Kinds of sensor events
+     */
+    public enum Type {
+        /** Input went from low to high */
+        kRisingEdge,
+        /** Input went from high to low */
+        kFallingEdge,
+        /** Reading changed */
+        kChange,
+        /** Rate of change moved */
+        kRateChange,
+        /** Reading moved by more than a threshold */
+        kMotion;
+    }
+
+    // Event data
+    Type type;
+    double value;
+    long timestampMicros;
+
+    /**
+     * Get the event type
+     *
+     * @return Event type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Get the sensor reading at the time of the event
+     *
+     * @return Sensor reading
+     */
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * Get the FPGA time the event was sampled at
+     *
+     * @return FPGA time in microseconds
+     */
+    public long getTimestampMicros() {
+        return timestampMicros;
+    }
+
+    /**
+     * Get the FPGA time the event was sampled at
+     *
+     * @return FPGA time in seconds
+     */
+    public double getTimestamp() {
+        return timestampMicros / 1000000.0;
+    }
+
+}
@@ -0,0 +1,154 @@
+package io.github.frc5024.asynchal;
+
+/**
+ * A histogram of durations with fixed bucket limits. Recording a sample never
+ * allocates, so it is safe to do from the {@link Poller} thread every cycle.
+ *
+ * Recording and copying are synchronized, so a copy made from another thread
+ * is always consistent.
+ */
+public class TimingHistogram {
+
+    /**
+     * Upper limit of each bucket in microseconds. Anything longer than the last
+     * limit goes in one extra overflow bucket
+     */
+    private static final long[] BUCKET_LIMITS_MICROS = { 50, 100, 250, 500, 1000, 2500, 5000, 10000, 25000 };
+
+    // Data
+    private final long[] counts = new long[BUCKET_LIMITS_MICROS.length + 1];
+    private long sampleCount = 0;
+    private long totalMicros = 0;
+    private long maxMicros = 0;
+
+    /**
+     * Get the number of buckets, including the overflow bucket
+     *
+     * @return Bucket count
+     */
+    public static int getBucketCount() {
+        return BUCKET_LIMITS_MICROS.length + 1;
+    }
+
+    /**
+     * Get the upper limit of a bucket
+     *
+     * @param bucket Bucket index
+     * @return Upper limit in microseconds, or Long.MAX_VALUE for the overflow
+     *         bucket
+     */
+    public static long getBucketLimitMicros(int bucket) {
+        return (bucket < BUCKET_LIMITS_MICROS.length) ? BUCKET_LIMITS_MICROS[bucket] : Long.MAX_VALUE;
+    }
+
+    /**
+     * Record a sample
+     *
+     * @param micros Duration in microseconds. Negative durations are counted as 0
+     */
+    synchronized void record(long micros) {
+        if (micros < 0) {
+            micros = 0;
+        }
+
+        // Find the bucket. There are few enough that a linear scan is fastest
+        int bucket = 0;
+        while (bucket < BUCKET_LIMITS_MICROS.length && micros > BUCKET_LIMITS_MICROS[bucket]) {
+            bucket++;
+        }
+        counts[bucket]++;
+
+        sampleCount++;
+        totalMicros += micros;
+        if (micros > maxMicros) {
+            maxMicros = micros;
+        }
+    }
+
+    /**
+     * Copy this histogram into another one
+     *
+     * @param other Histogram to overwrite
+     */
+    synchronized void copyTo(TimingHistogram other) {
+        synchronized (other) {
+            System.arraycopy(counts, 0, other.counts, 0, counts.length);
+            other.sampleCount = sampleCount;
+            other.totalMicros = totalMicros;
+            other.maxMicros = maxMicros;
+        }
+    }
+
+    /**
+     * Clear every sample
+     */
+    synchronized void reset() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = 0;
+        }
+        sampleCount = 0;
+        totalMicros = 0;
+        maxMicros = 0;
+    }
+
+    /**
+     * Get the number of samples in a bucket
+     *
+     * @param bucket Bucket index
+     * @return Sample count
+     */
+    public synchronized long getCount(int bucket) {
+        return counts[bucket];
+    }
+
+    /**
+     * Get the number of samples recorded
+     *
+     * @return Sample count
+     */
+    public synchronized long getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * Get the longest sample
+     *
+     * @return Longest sample in microseconds
+     */
+    public synchronized long getMaxMicros() {
+        return maxMicros;
+    }
+
+    /**
+     * Get the average sample
+     *
+     * @return Average in microseconds
+     */
+    public synchronized double getMeanMicros() {
+        return (sampleCount == 0) ? 0.0 : totalMicros / (double) sampleCount;
+    }
+
+    /**
+     * Get an upper bound on a percentile. This is the limit of the bucket the
+     * percentile falls in, or the longest sample if it is in the overflow bucket
+     *
+     * @param percentile Percentile from 0 to 1
+     * @return Upper bound in microseconds
+     */
+    public synchronized long getPercentileMicros(double percentile) {
+        if (sampleCount == 0) {
+            return 0;
+        }
+
+        long target = (long) Math.ceil(percentile * sampleCount);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_LIMITS_MICROS.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(BUCKET_LIMITS_MICROS[i], maxMicros);
+            }
+        }
+        return maxMicros;
+    }
+
+}
@@ -4,24 +4,43 @@ import java.util.function.Consumer;
 
 import ca.retrylife.ewmath.MathUtils;
 import edu.wpi.first.wpilibj.ADXRS450_Gyro;
+import io.github.frc5024.asynchal.DoubleListener;
+import io.github.frc5024.asynchal.DoubleListenerSet;
+import io.github.frc5024.asynchal.EventDispatcher;
 import io.github.frc5024.asynchal.Pollable;
 import io.github.frc5024.asynchal.Poller;
+import io.github.frc5024.asynchal.SensorEvent;
 
+/**
+ * An asynchronous wrapper for {@link ADXRS450_Gyro}. The gyro is sampled on the
+ * {@link Poller} thread, and callbacks are run by an {@link EventDispatcher}
+ */
 public class AsyncADXRS450_Gyro extends ADXRS450_Gyro implements Pollable {
 
     /**
      * Default-construct an AsyncADXRS450_Gyro connected to the onboard SPI port
      */
     public AsyncADXRS450_Gyro() {
+        this(Poller.DEFAULT_PERIOD);
+    }
+
+    /**
+     * Construct an AsyncADXRS450_Gyro connected to the onboard SPI port, polled at
+     * a custom rate
+     * 
+     * @param period Time between polls in seconds
+     */
+    public AsyncADXRS450_Gyro(double period) {
         super();
 
-        Poller.getInstance().register(this);
+        Poller.getInstance().register(this, period);
     }
 
     private double lastAngle = 0.0;
-    private Consumer<Double> angleCallback = null;
-    private Runnable motionCallback = null;
-    private double motionThresh = Double.POSITIVE_INFINITY;
+    private final DoubleListenerSet angleListeners = new DoubleListenerSet();
+    private final DoubleListenerSet motionListeners = new DoubleListenerSet();
+    private volatile double motionThresh = Double.POSITIVE_INFINITY;
+    private final EventDispatcher dispatcher = new EventDispatcher(this::handleEvent);
 
     @Override
     public void checkForUpdates() {
@@ -29,17 +48,15 @@ public class AsyncADXRS450_Gyro extends ADXRS450_Gyro implements Pollable {
         // Read current angle
         double currentAngle = getAngle();
 
-        // Handle angle callback
-        if (currentAngle != lastAngle) {
-            if (angleCallback != null) {
-                angleCallback.accept(currentAngle);
-            }
+        // Queue an angle event
+        if (currentAngle != lastAngle && !angleListeners.isEmpty()) {
+            dispatcher.post(SensorEvent.Type.kChange, currentAngle);
         }
 
-        // Handle motion callback
-        if (motionCallback != null) {
+        // Queue a motion event
+        if (!motionListeners.isEmpty()) {
             if (!MathUtils.epsilonEquals(currentAngle, lastAngle, motionThresh)) {
-                motionCallback.run();
+                dispatcher.post(SensorEvent.Type.kMotion, currentAngle);
             }
         }
 
@@ -49,12 +66,86 @@ public class AsyncADXRS450_Gyro extends ADXRS450_Gyro implements Pollable {
     }
 
     /**
-     * Register a callback for changes in gyro angle in degrees.
+     * Run the listeners for an event. Called by the dispatcher
+     * 
+     * @param event Angle or motion event
+     */
+    private void handleEvent(SensorEvent event) {
+        if (event.getType() == SensorEvent.Type.kMotion) {
+            motionListeners.fire(event.getValue());
+        } else {
+            angleListeners.fire(event.getValue());
+        }
+    }
+
+    /**
+     * Add a listener for changes in gyro angle in degrees
+     * 
+     * @param listener Angle listener
+     */
+    public void addAngleListener(DoubleListener listener) {
+        angleListeners.add(listener);
+    }
+
+    /**
+     * Remove an angle listener
+     * 
+     * @param listener Angle listener
+     */
+    public void removeAngleListener(DoubleListener listener) {
+        angleListeners.remove(listener);
+    }
+
+    /**
+     * Add a listener for gyro motion. Listeners are given the new angle in degrees
+     * whenever it moves more than the motion threshold in one poll. This is useful
+     * for detecting if a robot has been hit during aiming.
+     * 
+     * @param listener Motion listener
+     */
+    public void addMotionListener(DoubleListener listener) {
+        motionListeners.add(listener);
+    }
+
+    /**
+     * Remove a motion listener
+     * 
+     * @param listener Motion listener
+     */
+    public void removeMotionListener(DoubleListener listener) {
+        motionListeners.remove(listener);
+    }
+
+    /**
+     * Set the threshold for motion events
+     * 
+     * @param motionThreshold Threshold for motion in degrees
+     */
+    public void setMotionThreshold(double motionThreshold) {
+        this.motionThresh = motionThreshold;
+    }
+
+    /**
+     * Get the dispatcher that runs this gyro's callbacks. This can be used to
+     * change the callback executor, or read queue and latency statistics
+     * 
+     * @return Event dispatcher
+     */
+    public EventDispatcher getEventDispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * Register a callback for changes in gyro angle in degrees. This adds to any
+     * callbacks already registered
      * 
      * @param callback Callback function
+     * @deprecated Use {@link #addAngleListener(DoubleListener)}, which does not box
+     *             every reading
      */
+    @Deprecated(since = "October 2026", forRemoval = false)
     public void registerAngleCallback(Consumer<Double> callback) {
-        this.angleCallback = callback;
+        addAngleListener(callback::accept);
     }
 
     /**
@@ -63,10 +154,13 @@ public class AsyncADXRS450_Gyro extends ADXRS450_Gyro implements Pollable {
      * 
      * @param callback        Callback function
      * @param motionThreshold Threshold for motion in degrees
+     * @deprecated Use {@link #addMotionListener(DoubleListener)} and
+     *             {@link #setMotionThreshold(double)}
      */
+    @Deprecated(since = "October 2026", forRemoval = false)
     public void registerMotionCallback(Runnable callback, double motionThreshold) {
-        this.motionCallback = callback;
-        this.motionThresh = motionThreshold;
+        setMotionThreshold(motionThreshold);
+        addMotionListener((angle) -> callback.run());
     }
 
     @Override
@@ -0,0 +1,120 @@
+package io.github.frc5024.asynchal.sensors;
+
+import edu.wpi.first.wpilibj.AnalogInput;
+import io.github.frc5024.asynchal.DoubleListener;
+import io.github.frc5024.asynchal.DoubleListenerSet;
+import io.github.frc5024.asynchal.EventDispatcher;
+import io.github.frc5024.asynchal.Pollable;
+import io.github.frc5024.asynchal.Poller;
+import io.github.frc5024.asynchal.SensorEvent;
+
+/**
+ * An asynchronous wrapper for {@link AnalogInput}. The averaged voltage is
+ * sampled on the {@link Poller} thread, and listeners are told when it moves
+ * more than a deadband from the last voltage they were given
+ */
+public class AsyncAnalogInput extends AnalogInput implements Pollable {
+
+    /* Sensor state tracking */
+    private double lastReported = Double.NaN;
+    private volatile double deadband;
+    private final DoubleListenerSet voltageListeners = new DoubleListenerSet();
+    private final EventDispatcher dispatcher = new EventDispatcher(this::handleEvent);
+
+    /**
+     * Create an AsyncAnalogInput that reports every change
+     * 
+     * @param channel The channel number. 0-3 are on-board, 4-7 are on the MXP port
+     */
+    public AsyncAnalogInput(int channel) {
+        this(channel, Poller.DEFAULT_PERIOD, 0.0);
+    }
+
+    /**
+     * Create an AsyncAnalogInput
+     * 
+     * @param channel  The channel number. 0-3 are on-board, 4-7 are on the MXP port
+     * @param period   Time between polls in seconds
+     * @param deadband Smallest change in volts that is reported
+     */
+    public AsyncAnalogInput(int channel, double period, double deadband) {
+        super(channel);
+        this.deadband = deadband;
+
+        // Register with the poller
+        Poller.getInstance().register(this, period);
+    }
+
+    @Override
+    public void checkForUpdates() {
+
+        // Skip the read if nobody is listening
+        if (voltageListeners.isEmpty()) {
+            return;
+        }
+
+        // Report the voltage if it moved far enough
+        double voltage = getAverageVoltage();
+        if (Double.isNaN(lastReported) || Math.abs(voltage - lastReported) > deadband) {
+            if (dispatcher.post(SensorEvent.Type.kChange, voltage)) {
+                lastReported = voltage;
+            }
+        }
+    }
+
+    /**
+     * Run the listeners for a voltage change. Called by the dispatcher
+     * 
+     * @param event Change event
+     */
+    private void handleEvent(SensorEvent event) {
+        voltageListeners.fire(event.getValue());
+    }
+
+    /**
+     * Add a listener for voltage changes. The first poll after a listener is added
+     * may report the current voltage
+     * 
+     * @param listener Voltage listener
+     */
+    public void addVoltageListener(DoubleListener listener) {
+        voltageListeners.add(listener);
+    }
+
+    /**
+     * Remove a voltage listener
+     * 
+     * @param listener Voltage listener
+     */
+    public void removeVoltageListener(DoubleListener listener) {
+        voltageListeners.remove(listener);
+    }
+
+    /**
+     * Set the smallest change that is reported
+     * 
+     * @param deadband Deadband in volts
+     */
+    public void setDeadband(double deadband) {
+        this.deadband = deadband;
+    }
+
+    /**
+     * Get the dispatcher that runs this input's listeners. This can be used to
+     * change the callback executor, or read queue and latency statistics
+     * 
+     * @return Event dispatcher
+     */
+    public EventDispatcher getEventDispatcher() {
+        return dispatcher;
+    }
+
+    @Override
+    public void close() {
+        super.close();
+
+        // Remove from poller
+        Poller.getInstance().deregister(this);
+    }
+
+}
@@ -1,18 +1,23 @@
 package io.github.frc5024.asynchal.sensors;
 
 import edu.wpi.first.wpilibj.DigitalInput;
+import io.github.frc5024.asynchal.BooleanEdgeListener;
+import io.github.frc5024.asynchal.BooleanEdgeListenerSet;
+import io.github.frc5024.asynchal.EventDispatcher;
 import io.github.frc5024.asynchal.Pollable;
 import io.github.frc5024.asynchal.Poller;
+import io.github.frc5024.asynchal.SensorEvent;
 
 /**
- * An asynchronous wrapper for {@link DigitalInput}
+ * An asynchronous wrapper for {@link DigitalInput}. The input is sampled on the
+ * {@link Poller} thread, and callbacks are run by an {@link EventDispatcher}
  */
 public class AsyncDigitalInput extends DigitalInput implements Pollable {
 
     /* Sensor state tracking */
     private boolean lastState = false;
-    private Runnable triggerCallback = null;
-    private Runnable releaseCallback = null;
+    private final BooleanEdgeListenerSet edgeListeners = new BooleanEdgeListenerSet();
+    private final EventDispatcher dispatcher = new EventDispatcher(this::handleEvent);
 
     /**
      * Create an instance of a Digital Input class. Creates a digital input given a
@@ -22,10 +27,23 @@ public class AsyncDigitalInput extends DigitalInput implements Pollable {
      *                are on the MXP
      */
     public AsyncDigitalInput(int channel) {
+        this(channel, Poller.DEFAULT_PERIOD);
+    }
+
+    /**
+     * Create an instance of a Digital Input class. Creates a digital input given a
+     * channel with asynchronous capabilities, polled at a custom rate. Limit
+     * switches that must not miss a short press should use a small period.
+     *
+     * @param channel the DIO channel for the digital input 0-9 are on-board, 10-25
+     *                are on the MXP
+     * @param period  Time between polls in seconds
+     */
+    public AsyncDigitalInput(int channel, double period) {
         super(channel);
 
         // Register with the poller
-        Poller.getInstance().register(this);
+        Poller.getInstance().register(this, period);
     }
 
     @Override
@@ -34,16 +52,12 @@ public class AsyncDigitalInput extends DigitalInput implements Pollable {
         // Read the sensor state
         boolean currentState = get();
 
-        // Compare states
-        if (currentState != lastState) {
+        // Compare states, and queue an edge event if anyone is listening
+        if (currentState != lastState && !edgeListeners.isEmpty()) {
             if (currentState) {
-                if (triggerCallback != null) {
-                    triggerCallback.run();
-                }
+                dispatcher.post(SensorEvent.Type.kRisingEdge, 1.0);
             } else {
-                if (releaseCallback != null) {
-                    releaseCallback.run();
-                }
+                dispatcher.post(SensorEvent.Type.kFallingEdge, 0.0);
             }
         }
 
@@ -53,21 +67,72 @@ public class AsyncDigitalInput extends DigitalInput implements Pollable {
     }
 
     /**
-     * Register a callback function to be run when the input is pulled high
+     * Run the listeners for an edge event. Called by the dispatcher
+     * 
+     * @param event Edge event
+     */
+    private void handleEvent(SensorEvent event) {
+        edgeListeners.fire(event.getType() == SensorEvent.Type.kRisingEdge);
+    }
+
+    /**
+     * Add a listener for both rising and falling edges
+     * 
+     * @param listener Edge listener
+     */
+    public void addEdgeListener(BooleanEdgeListener listener) {
+        edgeListeners.add(listener);
+    }
+
+    /**
+     * Remove an edge listener
+     * 
+     * @param listener Edge listener
+     */
+    public void removeEdgeListener(BooleanEdgeListener listener) {
+        edgeListeners.remove(listener);
+    }
+
+    /**
+     * Get the dispatcher that runs this input's callbacks. This can be used to
+     * change the callback executor, or read queue and latency statistics
+     * 
+     * @return Event dispatcher
+     */
+    public EventDispatcher getEventDispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * Register a callback function to be run when the input is pulled high. This
+     * adds to any callbacks already registered
      * 
      * @param callback Callback function
+     * @deprecated Use {@link #addEdgeListener(BooleanEdgeListener)}
      */
+    @Deprecated(since = "October 2026", forRemoval = false)
     public void registerTriggerCallback(Runnable callback) {
-        this.triggerCallback = callback;
+        addEdgeListener((rising) -> {
+            if (rising) {
+                callback.run();
+            }
+        });
     }
 
     /**
-     * Register a callback function to be run when the input is pulled low
+     * Register a callback function to be run when the input is pulled low. This
+     * adds to any callbacks already registered
      * 
      * @param callback Callback function
+     * @deprecated Use {@link #addEdgeListener(BooleanEdgeListener)}
      */
+    @Deprecated(since = "October 2026", forRemoval = false)
     public void registerReleaseCallback(Runnable callback) {
-        this.releaseCallback = callback;
+        addEdgeListener((rising) -> {
+            if (!rising) {
+                callback.run();
+            }
+        });
     }
 
     @Override
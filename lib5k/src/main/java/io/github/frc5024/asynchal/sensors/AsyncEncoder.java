@@ -0,0 +1,205 @@
+package io.github.frc5024.asynchal.sensors;
+
+import io.github.frc5024.asynchal.DoubleListener;
+import io.github.frc5024.asynchal.DoubleListenerSet;
+import io.github.frc5024.asynchal.EventDispatcher;
+import io.github.frc5024.asynchal.Pollable;
+import io.github.frc5024.asynchal.Poller;
+import io.github.frc5024.asynchal.SensorEvent;
+import io.github.frc5024.lib5k.hardware.common.sensors.interfaces.CommonEncoder;
+
+/**
+ * An asynchronous wrapper for any {@link CommonEncoder}, such as a
+ * {@link io.github.frc5024.lib5k.hardware.generic.sensors.GenericEncoder}.
+ * Position and velocity are sampled on the {@link Poller} thread, and listeners
+ * are told when either moves more than its deadband from the last value they
+ * were given.
+ *
+ * This is also a CommonEncoder, so it can be dropped in wherever the wrapped
+ * encoder was used.
+ */
+public class AsyncEncoder implements CommonEncoder, Pollable {
+
+    // Wrapped encoder
+    private final CommonEncoder encoder;
+
+    /* Sensor state tracking */
+    private double lastPosition = Double.NaN;
+    private double lastVelocity = Double.NaN;
+    private volatile double positionDeadband;
+    private volatile double velocityDeadband;
+    private final DoubleListenerSet positionListeners = new DoubleListenerSet();
+    private final DoubleListenerSet velocityListeners = new DoubleListenerSet();
+    private final EventDispatcher dispatcher = new EventDispatcher(this::handleEvent);
+
+    /**
+     * Create an AsyncEncoder that reports every change
+     * 
+     * @param encoder Encoder to wrap
+     */
+    public AsyncEncoder(CommonEncoder encoder) {
+        this(encoder, Poller.DEFAULT_PERIOD, 0.0, 0.0);
+    }
+
+    /**
+     * Create an AsyncEncoder
+     * 
+     * @param encoder          Encoder to wrap
+     * @param period           Time between polls in seconds
+     * @param positionDeadband Smallest position change in rotations that is
+     *                         reported
+     * @param velocityDeadband Smallest velocity change in RPM that is reported
+     */
+    public AsyncEncoder(CommonEncoder encoder, double period, double positionDeadband, double velocityDeadband) {
+        this.encoder = encoder;
+        this.positionDeadband = positionDeadband;
+        this.velocityDeadband = velocityDeadband;
+
+        // Register with the poller
+        Poller.getInstance().register(this, period);
+    }
+
+    @Override
+    public void checkForUpdates() {
+
+        // Report the position if it moved far enough
+        if (!positionListeners.isEmpty()) {
+            double position = encoder.getPosition();
+            if (Double.isNaN(lastPosition) || Math.abs(position - lastPosition) > positionDeadband) {
+                if (dispatcher.post(SensorEvent.Type.kChange, position)) {
+                    lastPosition = position;
+                }
+            }
+        }
+
+        // Report the velocity if it moved far enough
+        if (!velocityListeners.isEmpty()) {
+            double velocity = encoder.getVelocity();
+            if (Double.isNaN(lastVelocity) || Math.abs(velocity - lastVelocity) > velocityDeadband) {
+                if (dispatcher.post(SensorEvent.Type.kRateChange, velocity)) {
+                    lastVelocity = velocity;
+                }
+            }
+        }
+    }
+
+    /**
+     * Run the listeners for an event. Called by the dispatcher
+     * 
+     * @param event Position or velocity event
+     */
+    private void handleEvent(SensorEvent event) {
+        if (event.getType() == SensorEvent.Type.kRateChange) {
+            velocityListeners.fire(event.getValue());
+        } else {
+            positionListeners.fire(event.getValue());
+        }
+    }
+
+    /**
+     * Add a listener for position changes in rotations
+     * 
+     * @param listener Position listener
+     */
+    public void addPositionListener(DoubleListener listener) {
+        positionListeners.add(listener);
+    }
+
+    /**
+     * Remove a position listener
+     * 
+     * @param listener Position listener
+     */
+    public void removePositionListener(DoubleListener listener) {
+        positionListeners.remove(listener);
+    }
+
+    /**
+     * Add a listener for velocity changes in RPM
+     * 
+     * @param listener Velocity listener
+     */
+    public void addVelocityListener(DoubleListener listener) {
+        velocityListeners.add(listener);
+    }
+
+    /**
+     * Remove a velocity listener
+     * 
+     * @param listener Velocity listener
+     */
+    public void removeVelocityListener(DoubleListener listener) {
+        velocityListeners.remove(listener);
+    }
+
+    /**
+     * Set the smallest position change that is reported
+     * 
+     * @param deadband Deadband in rotations
+     */
+    public void setPositionDeadband(double deadband) {
+        this.positionDeadband = deadband;
+    }
+
+    /**
+     * Set the smallest velocity change that is reported
+     * 
+     * @param deadband Deadband in RPM
+     */
+    public void setVelocityDeadband(double deadband) {
+        this.velocityDeadband = deadband;
+    }
+
+    /**
+     * Get the dispatcher that runs this encoder's listeners. This can be used to
+     * change the callback executor, or read queue and latency statistics
+     * 
+     * @return Event dispatcher
+     */
+    public EventDispatcher getEventDispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * Get the wrapped encoder
+     * 
+     * @return Encoder
+     */
+    public CommonEncoder getEncoder() {
+        return encoder;
+    }
+
+    @Override
+    public void setPhaseInverted(boolean inverted) {
+        encoder.setPhaseInverted(inverted);
+    }
+
+    @Override
+    public boolean getInverted() {
+        return encoder.getInverted();
+    }
+
+    @Override
+    public double getPosition() {
+        return encoder.getPosition();
+    }
+
+    @Override
+    public double getVelocity() {
+        return encoder.getVelocity();
+    }
+
+    @Override
+    public void reset() {
+        encoder.reset();
+    }
+
+    @Override
+    public void close() throws Exception {
+        // Remove from poller
+        Poller.getInstance().deregister(this);
+
+        encoder.close();
+    }
+
+}
@@ -0,0 +1,175 @@
+package io.github.frc5024.asynchal.sensors;
+
+import io.github.frc5024.asynchal.DoubleListener;
+import io.github.frc5024.asynchal.DoubleListenerSet;
+import io.github.frc5024.asynchal.EventDispatcher;
+import io.github.frc5024.asynchal.Pollable;
+import io.github.frc5024.asynchal.Poller;
+import io.github.frc5024.asynchal.SensorEvent;
+import io.github.frc5024.lib5k.hardware.common.sensors.interfaces.IGyroscope;
+
+/**
+ * An asynchronous wrapper for any {@link IGyroscope}, such as a
+ * {@link io.github.frc5024.lib5k.hardware.kauai.gyroscopes.NavX}. The angle is
+ * sampled on the {@link Poller} thread, and listeners are told when it moves
+ * more than a deadband from the last angle they were given.
+ *
+ * This is also an IGyroscope, so it can be dropped in wherever the wrapped gyro
+ * was used.
+ */
+public class AsyncGyroscope implements IGyroscope, Pollable {
+
+    // Wrapped gyro
+    private final IGyroscope gyro;
+
+    /* Sensor state tracking */
+    private double lastReported = Double.NaN;
+    private volatile double deadband;
+    private final DoubleListenerSet angleListeners = new DoubleListenerSet();
+    private final EventDispatcher dispatcher = new EventDispatcher(this::handleEvent);
+
+    /**
+     * Create an AsyncGyroscope that reports every change
+     * 
+     * @param gyro Gyroscope to wrap
+     */
+    public AsyncGyroscope(IGyroscope gyro) {
+        this(gyro, Poller.DEFAULT_PERIOD, 0.0);
+    }
+
+    /**
+     * Create an AsyncGyroscope
+     * 
+     * @param gyro     Gyroscope to wrap
+     * @param period   Time between polls in seconds
+     * @param deadband Smallest angle change in degrees that is reported
+     */
+    public AsyncGyroscope(IGyroscope gyro, double period, double deadband) {
+        this.gyro = gyro;
+        this.deadband = deadband;
+
+        // Register with the poller
+        Poller.getInstance().register(this, period);
+    }
+
+    @Override
+    public void checkForUpdates() {
+
+        // Skip the read if nobody is listening
+        if (angleListeners.isEmpty()) {
+            return;
+        }
+
+        // Report the angle if it moved far enough
+        double angle = gyro.getAngle();
+        if (Double.isNaN(lastReported) || Math.abs(angle - lastReported) > deadband) {
+            if (dispatcher.post(SensorEvent.Type.kChange, angle)) {
+                lastReported = angle;
+            }
+        }
+    }
+
+    /**
+     * Run the listeners for an angle change. Called by the dispatcher
+     * 
+     * @param event Change event
+     */
+    private void handleEvent(SensorEvent event) {
+        angleListeners.fire(event.getValue());
+    }
+
+    /**
+     * Add a listener for changes in angle in degrees
+     * 
+     * @param listener Angle listener
+     */
+    public void addAngleListener(DoubleListener listener) {
+        angleListeners.add(listener);
+    }
+
+    /**
+     * Remove an angle listener
+     * 
+     * @param listener Angle listener
+     */
+    public void removeAngleListener(DoubleListener listener) {
+        angleListeners.remove(listener);
+    }
+
+    /**
+     * Set the smallest change that is reported
+     * 
+     * @param deadband Deadband in degrees
+     */
+    public void setDeadband(double deadband) {
+        this.deadband = deadband;
+    }
+
+    /**
+     * Get the dispatcher that runs this gyro's listeners. This can be used to
+     * change the callback executor, or read queue and latency statistics
+     * 
+     * @return Event dispatcher
+     */
+    public EventDispatcher getEventDispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * Get the wrapped gyroscope
+     * 
+     * @return Gyroscope
+     */
+    public IGyroscope getGyroscope() {
+        return gyro;
+    }
+
+    @Override
+    public void calibrate() {
+        gyro.calibrate();
+    }
+
+    @Override
+    public void reset() {
+        gyro.reset();
+    }
+
+    @Override
+    public double getAngle() {
+        return gyro.getAngle();
+    }
+
+    @Override
+    public double getRate() {
+        return gyro.getRate();
+    }
+
+    @Override
+    public void setInverted(boolean inverted) {
+        gyro.setInverted(inverted);
+    }
+
+    @Override
+    public boolean getInverted() {
+        return gyro.getInverted();
+    }
+
+    @Override
+    public boolean getCalibrated() {
+        return gyro.getCalibrated();
+    }
+
+    @Override
+    public double getHeading() {
+        return gyro.getHeading();
+    }
+
+    @Override
+    public void close() throws Exception {
+        // Remove from poller
+        Poller.getInstance().deregister(this);
+
+        gyro.close();
+    }
+
+}
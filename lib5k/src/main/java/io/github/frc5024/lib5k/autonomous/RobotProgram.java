@@ -8,6 +8,7 @@ import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
 
 import io.github.frc5024.lib5k.logging.RobotLogger;
+import io.github.frc5024.lib5k.hardware.common.sensors.snapshot.SensorSnapshotCache;
 import io.github.frc5024.lib5k.hardware.ni.roborio.FaultReporter;
 import io.github.frc5024.lib5k.hardware.ni.roborio.fpga.RR_HAL;
 
@@ -27,6 +28,9 @@ public abstract class RobotProgram extends TimedRobot {
     // Scheduler
     private CommandScheduler scheduler;
 
+    // Sensor snapshots
+    private SensorSnapshotCache sensorCache = SensorSnapshotCache.getInstance();
+
     // Settings
     private boolean runSchedulerInTestMode;
     private boolean stopAutonomousInTeleop;
@@ -131,6 +135,15 @@ public abstract class RobotProgram extends TimedRobot {
      */
     public abstract void test(boolean init);
 
+    @Override
+    protected void loopFunc() {
+
+        // Sample every cached sensor once, before anything reads them
+        sensorCache.sample();
+
+        super.loopFunc();
+    }
+
     @Override
     public void robotInit() {
 
@@ -1,5 +1,7 @@
 package io.github.frc5024.lib5k.bases.drivetrain;
 
+import java.util.concurrent.CompletableFuture;
+
 import edu.wpi.first.wpilibj.geometry.Pose2d;
 import edu.wpi.first.wpilibj.geometry.Rotation2d;
 import edu.wpi.first.wpilibj.geometry.Translation2d;
@@ -230,6 +232,21 @@ public abstract class AbstractDriveTrain extends SubsystemBase
         return new PathFollowerCommand(this, path, epsRadius);
     }
 
+    /**
+     * Create and configure a command that will follow a path that may still be
+     * generating. If the path is not ready when the command starts, the robot is
+     * held still until it is, so this can be called at init with a path from
+     * {@link io.github.frc5024.purepursuit.pathgen.PathGenerationService}
+     * 
+     * @param path      Future path to follow
+     * @param epsRadius Radius in meters around the final pose for trigger
+     *                  isFinished()
+     * @return Path following command
+     */
+    public PathFollowerCommand createPathingCommand(CompletableFuture<Path> path, double epsRadius) {
+        return new PathFollowerCommand(this, path, epsRadius);
+    }
+
     /**
      * Create a new TurnToCommand for this drivetrain.
      * 
@@ -2,6 +2,8 @@ package io.github.frc5024.lib5k.bases.drivetrain.commands;
 
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import edu.wpi.first.wpilibj.geometry.Pose2d;
 import edu.wpi.first.wpilibj.geometry.Translation2d;
@@ -10,12 +12,13 @@ import edu.wpi.first.wpilibj2.command.CommandBase;
 import io.github.frc5024.lib5k.bases.drivetrain.AbstractDriveTrain;
 import io.github.frc5024.lib5k.bases.drivetrain.Chassis;
 import io.github.frc5024.lib5k.hardware.ni.roborio.fpga.FPGAClock;
-import io.github.frc5024.lib5k.logging.CSVFile;
+import io.github.frc5024.lib5k.logging.ColumnarCSVFile;
 import io.github.frc5024.lib5k.logging.RobotLogger;
 import io.github.frc5024.lib5k.logging.RobotLogger.Level;
 import io.github.frc5024.lib5k.utils.FileManagement;
 import io.github.frc5024.lib5k.utils.RobotMath;
 import io.github.frc5024.purepursuit.pathgen.Path;
+import io.github.frc5024.purepursuit.pathgen.Trajectory;
 import io.github.frc5024.purepursuit.Follower;
 
 /**
@@ -23,14 +26,24 @@ import io.github.frc5024.purepursuit.Follower;
  * {@link AbstractDriveTrain}, and can be used to follow paths with the
  * drivetrain. In the background, it also logs the robot's current position vs
  * the goal position for match analysis.
+ *
+ * The path can be given as a future, so the command can be built while the
+ * path is still being generated. If the path is not ready when the command
+ * starts, the robot is held still until it is. The scheduler thread is never
+ * blocked waiting for it.
  */
 public class PathFollowerCommand extends CommandBase {
 
     // Logger
     private RobotLogger logger = RobotLogger.getInstance();
 
-    // Path follower
-    private Follower follower;
+    // Path follower. Created once the path is ready
+    private CompletableFuture<Path> path;
+    private Follower follower = null;
+    private double lookaheadMeters = 0.2;
+
+    // Has the path arrived, and following started, since the last initialize()?
+    private boolean following = false;
 
     // DriveTrain
     private AbstractDriveTrain driveTrain;
@@ -40,12 +53,17 @@ public class PathFollowerCommand extends CommandBase {
     private double epsRadius;
 
     // Logfile
-    private CSVFile logFile;
+    private ColumnarCSVFile logFile;
     private double initTime;
 
     // Max speed
     private double maxSpeed = 1.0;
 
+    // Velocity plan. Made once the path is ready
+    private boolean useTrajectory = false;
+    private double maxVelocity, maxAcceleration, maxCentripetalAcceleration;
+    private Trajectory trajectory = null;
+
     // Most recent goal
     private Translation2d mostRecentGoal = null;
 
@@ -58,12 +76,25 @@ public class PathFollowerCommand extends CommandBase {
      * @param epsRadius  Radius around the final pose for trigger isFinished()
      */
     public PathFollowerCommand(AbstractDriveTrain driveTrain, Path path, double epsRadius) {
+        this(driveTrain, CompletableFuture.completedFuture(path), epsRadius);
+    }
+
+    /**
+     * Create a PathFollowCommand for a path that may still be generating. This
+     * should not be called from user code. To create one of these, call
+     * AbstractDriveTrain.createPathingCommand() instead.
+     * 
+     * @param driveTrain DriveTrain to control
+     * @param path       Future path to follow
+     * @param epsRadius  Radius around the final pose for trigger isFinished()
+     */
+    public PathFollowerCommand(AbstractDriveTrain driveTrain, CompletableFuture<Path> path, double epsRadius) {
 
         // Some WPILib magic
         addRequirements(driveTrain);
 
-        // Configure the follower
-        follower = new Follower(path, 0.2, 0.2, driveTrain.getWidthMeters());
+        // The follower is configured once the path is ready
+        this.path = path;
         this.epsRadius = epsRadius;
 
         // Store the drivetrain
@@ -91,7 +122,10 @@ public class PathFollowerCommand extends CommandBase {
      * @return This Object
      */
     public PathFollowerCommand withLookahead(double lookaheadMeters) {
-        this.follower.setLookaheadDistance(lookaheadMeters);
+        this.lookaheadMeters = lookaheadMeters;
+        if (follower != null) {
+            follower.setLookaheadDistance(lookaheadMeters);
+        }
         return this;
     }
 
@@ -106,17 +140,96 @@ public class PathFollowerCommand extends CommandBase {
         return this;
     }
 
-    @Override
-    public void initialize() {
-        // Reset the follower
+    /**
+     * A builder-style method for following a velocity plan. Instead of driving the
+     * whole path at the max speed, the speed cap is set to the planned speed at
+     * the robot's position, so the robot speeds up on straights and slows down for
+     * turns and the end of the path. The max velocity should be the robot's speed
+     * at full output, and the plan replaces the cap set by
+     * {@link #withMaxSpeed(double)}
+     * 
+     * @param maxVelocity                Max velocity in meters per second
+     * @param maxAcceleration            Max acceleration in meters per second
+     *                                   squared
+     * @param maxCentripetalAcceleration Max acceleration towards the centre of
+     *                                   turns in meters per second squared
+     * @return This Object
+     */
+    public PathFollowerCommand withTrajectory(double maxVelocity, double maxAcceleration,
+            double maxCentripetalAcceleration) {
+        this.useTrajectory = true;
+        this.maxVelocity = maxVelocity;
+        this.maxAcceleration = maxAcceleration;
+        this.maxCentripetalAcceleration = maxCentripetalAcceleration;
+        this.trajectory = null;
+        return this;
+    }
+
+    /**
+     * Build the follower once the path is ready
+     * 
+     * @return True if the path is ready
+     */
+    private boolean buildFollower() {
+        if (follower != null) {
+            return true;
+        }
+
+        // Never wait for the path here, this runs on the scheduler thread
+        if (!path.isDone() || path.isCompletedExceptionally()) {
+            return false;
+        }
+
+        follower = new Follower(path.join(), lookaheadMeters, 0.2, driveTrain.getWidthMeters());
+        return true;
+    }
+
+    /**
+     * Make the velocity plan, if one was asked for
+     */
+    private void buildTrajectory() {
+        if (useTrajectory && trajectory == null) {
+            trajectory = new Trajectory(follower.m_path, maxVelocity, maxAcceleration, maxCentripetalAcceleration);
+            logger.log("Planned path to take %.2f seconds", trajectory.getTotalTime());
+        }
+    }
+
+    /**
+     * Get the planned speed at the point nearest the robot, near where the
+     * follower has tracked it to. The plan's max velocity is full output
+     * 
+     * @return Speed percent
+     */
+    private double getPlannedSpeedPercent() {
+        Translation2d position = driveTrain.getPose().getTranslation();
+        return trajectory.getSpeedPercent(follower.getNearestTrackedIndex(position.getX(), position.getY()));
+    }
+
+    /**
+     * Start following the path, if it is ready
+     * 
+     * @return True if following has started
+     */
+    private boolean startFollowing() {
+        if (following) {
+            return true;
+        }
+
+        // Build or reset the follower
+        if (!buildFollower()) {
+            return false;
+        }
         follower.reset();
         logger.log("Reset path follower");
+        buildTrajectory();
 
         // Attempt to open a log file
         try {
             logger.log("Opening a CSV logfile to save path progress to");
-            this.logFile = new CSVFile("PathFollowCommand", "Timestamp (seconds)", "Robot X", "Robot Y", "Robot Theta",
-                    "Goal X", "Goal Y");
+            this.logFile = new ColumnarCSVFile("PathFollowCommand",
+                    new ColumnarCSVFile.Schema().addDoubleColumn("Timestamp (seconds)").addDoubleColumn("Robot X")
+                            .addDoubleColumn("Robot Y").addDoubleColumn("Robot Theta").addDoubleColumn("Goal X")
+                            .addDoubleColumn("Goal Y"));
         } catch (IOException e) {
             logger.log("Failed to open CSV logfile. Not going to log data");
         }
@@ -128,12 +241,45 @@ public class PathFollowerCommand extends CommandBase {
         driveTrain.setFrontSide(frontSide);
 
         // Set the speed cap
-        driveTrain.setMaxSpeedPercent(maxSpeed);
+        driveTrain.setMaxSpeedPercent((trajectory != null) ? getPlannedSpeedPercent() : maxSpeed);
+
+        following = true;
+        return true;
+    }
+
+    /**
+     * Get the reason the path could not be generated
+     * 
+     * @return Failure reason, or null if the path did not fail
+     */
+    private Throwable getPathFailure() {
+        Throwable error = path.handle((result, e) -> e).getNow(null);
+        if (error instanceof CompletionException && error.getCause() != null) {
+            return error.getCause();
+        }
+        return error;
+    }
+
+    @Override
+    public void initialize() {
+        following = false;
+        mostRecentGoal = null;
+
+        // Hold the robot still while the path generates
+        if (!startFollowing() && !path.isDone()) {
+            logger.log("Path is still generating. Waiting for it", Level.kWarning);
+            driveTrain.stop();
+        }
     }
 
     @Override
     public void execute() {
 
+        // Nothing to follow until the path is ready
+        if (!startFollowing()) {
+            return;
+        }
+
         // Get the robot's current position
         Pose2d currentPose = driveTrain.getPose();
 
@@ -141,6 +287,11 @@ public class PathFollowerCommand extends CommandBase {
         Translation2d goalPose = follower.getNextPoint(currentPose);
         mostRecentGoal = goalPose;
 
+        // Follow the planned speed at the point nearest the robot
+        if (trajectory != null) {
+            driveTrain.setMaxSpeedPercent(getPlannedSpeedPercent());
+        }
+
         // Drive to that pose
         // Using a fake epsilon here because we override the check in isFinished.
         driveTrain.setGoalPose(goalPose, new Translation2d(0.000001, 0.000001));
@@ -152,13 +303,9 @@ public class PathFollowerCommand extends CommandBase {
             double curTime = FPGAClock.getFPGASeconds();
             double dt = curTime - initTime;
 
-            // Write line to the logfile
-            try {
-                logFile.writeRow(dt, currentPose.getTranslation().getX(), currentPose.getTranslation().getY(),
-                        currentPose.getRotation().getDegrees(), goalPose.getX(), goalPose.getY());
-            } catch (IOException e) {
-                logger.log("Failed to write line to logFile");
-            }
+            // Write line to the logfile. This is written to disk in the background
+            logFile.writeRow(dt, currentPose.getTranslation().getX(), currentPose.getTranslation().getY(),
+                    currentPose.getRotation().getDegrees(), goalPose.getX(), goalPose.getY());
         }
 
     }
@@ -168,13 +315,20 @@ public class PathFollowerCommand extends CommandBase {
 
         if (interrupted) {
             logger.log("Path following was interrupted.");
+        } else if (!following) {
+            logger.log("Path generation failed. Not following: %s", Level.kWarning, getPathFailure());
         } else {
             logger.log("Robot successfully reached goal pose: %s", follower.getFinalPose());
+            if (trajectory != null) {
+                logger.log("Path took %.2f seconds (planned %.2f)", FPGAClock.getFPGASeconds() - initTime,
+                        trajectory.getTotalTime());
+            }
         }
 
         // Stop the robot
         driveTrain.reset();
         mostRecentGoal = null;
+        following = false;
 
         // Save the logfile
         if (logFile != null) {
@@ -201,6 +355,14 @@ public class PathFollowerCommand extends CommandBase {
     @Override
     public boolean isFinished() {
 
+        // Give up if there is no path, and keep waiting if it is still generating
+        if (path.isCompletedExceptionally()) {
+            return true;
+        }
+        if (!following) {
+            return false;
+        }
+
         // Get the robot's position
         Translation2d robotPosition = driveTrain.getPose().getTranslation();
 
@@ -0,0 +1,132 @@
+package io.github.frc5024.lib5k.hardware.common.sensors.snapshot;
+
+import io.github.frc5024.lib5k.hardware.common.sensors.interfaces.CommonEncoder;
+
+/**
+ * An encoder whose readings are served from the {@link SensorSnapshotCache}.
+ * The wrapped encoder is read once per cycle, and every call to
+ * {@link #getPosition()} and {@link #getVelocity()} in that cycle returns the
+ * same values.
+ *
+ * Code that truly needs a fresh reading should use the getFresh methods. Calls
+ * that change the encoder, like {@link #reset()}, take a new sample right away,
+ * so the rest of the cycle sees the change.
+ */
+public class CachedEncoder implements CommonEncoder, SnapshotSource {
+
+    // Wrapped encoder
+    private final CommonEncoder encoder;
+    private final SensorSnapshotCache cache;
+
+    // Snapshot
+    private volatile double position;
+    private volatile double velocity;
+    private volatile double timestamp;
+
+    /**
+     * Create a CachedEncoder, and register it with the cache
+     * 
+     * @param encoder Encoder to wrap
+     */
+    public CachedEncoder(CommonEncoder encoder) {
+        this(encoder, SensorSnapshotCache.getInstance());
+    }
+
+    /**
+     * Create a CachedEncoder, and register it with a cache
+     * 
+     * @param encoder Encoder to wrap
+     * @param cache Cache to register with
+     */
+    CachedEncoder(CommonEncoder encoder, SensorSnapshotCache cache) {
+        this.encoder = encoder;
+        this.cache = cache;
+        cache.register(this);
+    }
+
+    @Override
+    public void sample() {
+        position = encoder.getPosition();
+        velocity = encoder.getVelocity();
+        timestamp = cache.getCycleTimestamp();
+    }
+
+    /**
+     * Get the FPGA time the cached readings were taken at
+     * 
+     * @return Snapshot time in seconds
+     */
+    public double getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Read the position straight from the encoder, skipping the cache
+     * 
+     * @return Number of rotations
+     */
+    public double getFreshPosition() {
+        return encoder.getPosition();
+    }
+
+    /**
+     * Read the velocity straight from the encoder, skipping the cache
+     * 
+     * @return Velocity in RPM
+     */
+    public double getFreshVelocity() {
+        return encoder.getVelocity();
+    }
+
+    /**
+     * Get the wrapped encoder
+     * 
+     * @return Encoder
+     */
+    public CommonEncoder getEncoder() {
+        return encoder;
+    }
+
+    @Override
+    public double getPosition() {
+        return cache.isActive() ? position : encoder.getPosition();
+    }
+
+    @Override
+    public double getVelocity() {
+        return cache.isActive() ? velocity : encoder.getVelocity();
+    }
+
+    @Override
+    public void setPhaseInverted(boolean inverted) {
+        encoder.setPhaseInverted(inverted);
+        resample();
+    }
+
+    @Override
+    public boolean getInverted() {
+        return encoder.getInverted();
+    }
+
+    @Override
+    public void reset() {
+        encoder.reset();
+        resample();
+    }
+
+    @Override
+    public void close() throws Exception {
+        cache.deregister(this);
+        encoder.close();
+    }
+
+    /**
+     * Update the snapshot after the encoder was changed
+     */
+    private void resample() {
+        if (cache.isActive()) {
+            sample();
+        }
+    }
+
+}
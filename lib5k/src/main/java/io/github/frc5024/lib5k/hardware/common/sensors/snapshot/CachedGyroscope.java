@@ -0,0 +1,160 @@
+package io.github.frc5024.lib5k.hardware.common.sensors.snapshot;
+
+import io.github.frc5024.lib5k.hardware.common.sensors.interfaces.IGyroscope;
+
+/**
+ * A gyroscope whose readings are served from the {@link SensorSnapshotCache}.
+ * The wrapped gyro is read once per cycle, and every call to
+ * {@link #getAngle()}, {@link #getHeading()} and {@link #getRate()} in that
+ * cycle returns the same values.
+ *
+ * Code that truly needs a fresh reading, such as a fast inner control loop,
+ * should use the getFresh methods. Calls that change the gyro, like
+ * {@link #reset()}, take a new sample right away, so the rest of the cycle
+ * sees the change.
+ */
+public class CachedGyroscope implements IGyroscope, SnapshotSource {
+
+    // Wrapped gyro
+    private final IGyroscope gyro;
+    private final SensorSnapshotCache cache;
+
+    // Snapshot
+    private volatile double angle;
+    private volatile double heading;
+    private volatile double rate;
+    private volatile double timestamp;
+
+    /**
+     * Create a CachedGyroscope, and register it with the cache
+     * 
+     * @param gyro Gyroscope to wrap
+     */
+    public CachedGyroscope(IGyroscope gyro) {
+        this(gyro, SensorSnapshotCache.getInstance());
+    }
+
+    /**
+     * Create a CachedGyroscope, and register it with a cache
+     * 
+     * @param gyro  Gyroscope to wrap
+     * @param cache Cache to register with
+     */
+    CachedGyroscope(IGyroscope gyro, SensorSnapshotCache cache) {
+        this.gyro = gyro;
+        this.cache = cache;
+        cache.register(this);
+    }
+
+    @Override
+    public void sample() {
+        angle = gyro.getAngle();
+        heading = gyro.getHeading();
+        rate = gyro.getRate();
+        timestamp = cache.getCycleTimestamp();
+    }
+
+    /**
+     * Get the FPGA time the cached readings were taken at
+     * 
+     * @return Snapshot time in seconds
+     */
+    public double getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Read the angle straight from the gyro, skipping the cache
+     * 
+     * @return Angle in degrees
+     */
+    public double getFreshAngle() {
+        return gyro.getAngle();
+    }
+
+    /**
+     * Read the heading straight from the gyro, skipping the cache
+     * 
+     * @return Heading in degrees, from -180 to 180
+     */
+    public double getFreshHeading() {
+        return gyro.getHeading();
+    }
+
+    /**
+     * Read the rate straight from the gyro, skipping the cache
+     * 
+     * @return Rate in degrees per second
+     */
+    public double getFreshRate() {
+        return gyro.getRate();
+    }
+
+    /**
+     * Get the wrapped gyroscope
+     * 
+     * @return Gyroscope
+     */
+    public IGyroscope getGyroscope() {
+        return gyro;
+    }
+
+    @Override
+    public double getAngle() {
+        return cache.isActive() ? angle : gyro.getAngle();
+    }
+
+    @Override
+    public double getHeading() {
+        return cache.isActive() ? heading : gyro.getHeading();
+    }
+
+    @Override
+    public double getRate() {
+        return cache.isActive() ? rate : gyro.getRate();
+    }
+
+    @Override
+    public void calibrate() {
+        gyro.calibrate();
+        resample();
+    }
+
+    @Override
+    public void reset() {
+        gyro.reset();
+        resample();
+    }
+
+    @Override
+    public void setInverted(boolean inverted) {
+        gyro.setInverted(inverted);
+        resample();
+    }
+
+    @Override
+    public boolean getInverted() {
+        return gyro.getInverted();
+    }
+
+    @Override
+    public boolean getCalibrated() {
+        return gyro.getCalibrated();
+    }
+
+    @Override
+    public void close() throws Exception {
+        cache.deregister(this);
+        gyro.close();
+    }
+
+    /**
+     * Update the snapshot after the gyro was changed
+     */
+    private void resample() {
+        if (cache.isActive()) {
+            sample();
+        }
+    }
+
+}
@@ -0,0 +1,141 @@
+package io.github.frc5024.lib5k.hardware.common.sensors.snapshot;
+
+import io.github.frc5024.lib5k.hardware.ni.roborio.fpga.FPGAClock;
+
+/**
+ * SensorSnapshotCache samples every registered sensor once at the start of each
+ * robot cycle. Reads made during the cycle are then served from the snapshot,
+ * so the drivetrain, commands, telemetry and odometry all see the same values,
+ * and a CAN sensor is only read over JNI once per cycle.
+ *
+ * {@link io.github.frc5024.lib5k.autonomous.RobotProgram} calls
+ * {@link #sample()} before every loop. Programs that do not use RobotProgram
+ * must call it themselves. Until the first sample, cached sensors read straight
+ * from the hardware.
+ */
+public class SensorSnapshotCache {
+    private static SensorSnapshotCache instance = null;
+
+    private static final SnapshotSource[] EMPTY = new SnapshotSource[0];
+
+    // Registered sensors. Copied on write, so sampling never locks
+    private volatile SnapshotSource[] sources = EMPTY;
+
+    // Cycle tracking
+    private volatile boolean enabled = true;
+    private volatile long cycleCount = 0;
+    private volatile double cycleTimestamp = 0.0;
+
+    /**
+     * Create a SensorSnapshotCache. Outside of tests, use {@link #getInstance()}
+     */
+    SensorSnapshotCache() {
+    }
+
+    /**
+     * Get the SensorSnapshotCache instance
+     * 
+     * @return Instance
+     */
+    public static synchronized SensorSnapshotCache getInstance() {
+        if (instance == null) {
+            instance = new SensorSnapshotCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Add a sensor to be sampled every cycle
+     * 
+     * @param source Sensor
+     */
+    public synchronized void register(SnapshotSource source) {
+        for (SnapshotSource s : sources) {
+            if (s == source) {
+                return;
+            }
+        }
+
+        SnapshotSource[] updated = new SnapshotSource[sources.length + 1];
+        System.arraycopy(sources, 0, updated, 0, sources.length);
+        updated[sources.length] = source;
+        sources = updated;
+
+        // Give the new sensor a snapshot for the current cycle
+        if (cycleCount > 0) {
+            source.sample();
+        }
+    }
+
+    /**
+     * Stop sampling a sensor
+     * 
+     * @param source Sensor
+     */
+    public synchronized void deregister(SnapshotSource source) {
+        SnapshotSource[] current = sources;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == source) {
+                SnapshotSource[] updated = new SnapshotSource[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                sources = updated;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sample every registered sensor. This should be called once, at the start of
+     * each cycle
+     */
+    public void sample() {
+        if (!enabled) {
+            return;
+        }
+
+        cycleTimestamp = FPGAClock.getFPGASeconds();
+        for (SnapshotSource source : sources) {
+            source.sample();
+        }
+        cycleCount++;
+    }
+
+    /**
+     * Enable or disable the cache. While disabled, every read goes to the hardware
+     * 
+     * @param enabled Should reads be cached?
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Check if reads should be served from the cache. This is false while the
+     * cache is disabled, and before the first sample
+     * 
+     * @return Is the cache active?
+     */
+    public boolean isActive() {
+        return enabled && cycleCount > 0;
+    }
+
+    /**
+     * Get the number of cycles that have been sampled
+     * 
+     * @return Cycle count
+     */
+    public long getCycleCount() {
+        return cycleCount;
+    }
+
+    /**
+     * Get the FPGA time the current snapshot was taken at
+     * 
+     * @return Snapshot time in seconds
+     */
+    public double getCycleTimestamp() {
+        return cycleTimestamp;
+    }
+
+}
@@ -0,0 +1,13 @@
+package io.github.frc5024.lib5k.hardware.common.sensors.snapshot;
+
+/**
+ * A sensor that can be sampled by the {@link SensorSnapshotCache}
+ */
+public interface SnapshotSource {
+
+    /**
+     * Read the sensor, and store the readings until the next sample. This is
+     * called once at the start of each cycle
+     */
+    public void sample();
+}
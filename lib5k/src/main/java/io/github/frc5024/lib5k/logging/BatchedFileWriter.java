@@ -0,0 +1,268 @@
+package io.github.frc5024.lib5k.logging;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * BatchedFileWriter collects text lines in memory, and writes them to disk in
+ * large batches. Each call to {@link #flush()} encodes everything collected
+ * since the last flush to UTF-8 once, writes it with a single channel write
+ * (as long as it fits in the buffer), and optionally forces it to the storage
+ * device.
+ *
+ * Once the file grows past a configurable size, it is rotated. The full file is
+ * renamed to name.1, name.2, and so on, and a fresh file is started under the
+ * original name.
+ *
+ * Lines may be appended from any thread. Flushing should be done from a single
+ * background thread.
+ */
+public class BatchedFileWriter implements AutoCloseable {
+
+    /**
+     * Default size of the write buffer in bytes
+     */
+    public static final int DEFAULT_BUFFER_BYTES = 64 * 1024;
+
+    /**
+     * Use this as a segment size to never rotate the file
+     */
+    public static final long NO_ROTATION = Long.MAX_VALUE;
+
+    // File info
+    private final Path path;
+    private final long maxSegmentBytes;
+    private FileChannel channel;
+    private long segmentBytes = 0;
+    private int segmentCount = 0;
+
+    // Lines waiting to be written. These are swapped on each flush
+    private StringBuilder pending = new StringBuilder();
+    private StringBuilder writing = new StringBuilder();
+
+    // Encoding state. Only touched while holding flushLock
+    private final Object flushLock = new Object();
+    private final ByteBuffer buffer;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+
+    // Settings and stats
+    private volatile boolean forceOnFlush = false;
+    private volatile long totalBytesWritten = 0;
+    private long lastFlushMillis = System.currentTimeMillis();
+    private boolean closed = false;
+
+    /**
+     * Create a BatchedFileWriter. Any existing file at the path is replaced.
+     *
+     * @param path            File path
+     * @param bufferBytes     Size of the write buffer in bytes
+     * @param maxSegmentBytes Size at which the file is rotated, or
+     *                        {@link #NO_ROTATION}
+     * @throws IOException Thrown if the file cannot be opened
+     */
+    public BatchedFileWriter(Path path, int bufferBytes, long maxSegmentBytes) throws IOException {
+        this.path = path;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.buffer = ByteBuffer.allocateDirect(bufferBytes);
+        this.channel = open(path);
+    }
+
+    /**
+     * Create a BatchedFileWriter that never rotates. Any existing file at the path
+     * is replaced.
+     *
+     * @param path File path
+     * @throws IOException Thrown if the file cannot be opened
+     */
+    public BatchedFileWriter(Path path) throws IOException {
+        this(path, DEFAULT_BUFFER_BYTES, NO_ROTATION);
+    }
+
+    /**
+     * Set if every flush should also force the data onto the storage device. This
+     * is safer if the robot loses power, but much slower on flash storage.
+     *
+     * @param force Force on flush?
+     */
+    public void setForceOnFlush(boolean force) {
+        this.forceOnFlush = force;
+    }
+
+    /**
+     * Queue a line of text. A newline is added automatically.
+     *
+     * @param line Line to write
+     */
+    public synchronized void appendLine(CharSequence line) {
+        pending.append(line).append('\n');
+    }
+
+    /**
+     * Get the number of characters waiting to be flushed
+     *
+     * @return Pending characters
+     */
+    public synchronized int getPendingChars() {
+        return pending.length();
+    }
+
+    /**
+     * Write every queued line to the file, but only if enough time has passed
+     * since the last flush, or enough text is waiting
+     *
+     * @param nowMillis       System time in milliseconds
+     * @param periodMillis    Maximum time between flushes
+     * @param maxPendingChars Number of waiting characters that will force a flush
+     * @return True if the file was flushed
+     * @throws IOException Thrown if the file cannot be written
+     */
+    public boolean flushIfDue(long nowMillis, long periodMillis, int maxPendingChars) throws IOException {
+        synchronized (flushLock) {
+            if (nowMillis - lastFlushMillis < periodMillis && getPendingChars() < maxPendingChars) {
+                return false;
+            }
+
+            flush();
+            return true;
+        }
+    }
+
+    /**
+     * Write every queued line to the file
+     *
+     * @throws IOException Thrown if the file cannot be written
+     */
+    public void flush() throws IOException {
+        synchronized (flushLock) {
+            if (closed) {
+                return;
+            }
+            lastFlushMillis = System.currentTimeMillis();
+
+            // Swap the buffers, so appending can continue while we write
+            synchronized (this) {
+                if (pending.length() == 0) {
+                    return;
+                }
+                StringBuilder batch = pending;
+                pending = writing;
+                writing = batch;
+            }
+
+            // Start a new segment if this one is full
+            if (segmentBytes >= maxSegmentBytes) {
+                rotate();
+            }
+
+            // Encode the whole batch at once. This only writes more than once if the batch
+            // is bigger than the buffer
+            try {
+                CharBuffer chars = CharBuffer.wrap(writing);
+                encoder.reset();
+                while (encoder.encode(chars, buffer, true) == CoderResult.OVERFLOW) {
+                    writeBuffer();
+                }
+                while (encoder.flush(buffer) == CoderResult.OVERFLOW) {
+                    writeBuffer();
+                }
+                writeBuffer();
+            } finally {
+                // A failed batch is dropped rather than written twice
+                writing.setLength(0);
+                buffer.clear();
+            }
+
+            if (forceOnFlush) {
+                channel.force(false);
+            }
+        }
+    }
+
+    /**
+     * Get the total number of bytes written across all segments
+     *
+     * @return Bytes written
+     */
+    public long getTotalBytesWritten() {
+        return totalBytesWritten;
+    }
+
+    /**
+     * Get the number of times the file has been rotated
+     *
+     * @return Rotation count
+     */
+    public int getRotationCount() {
+        synchronized (flushLock) {
+            return segmentCount;
+        }
+    }
+
+    /**
+     * Flush anything left, and close the file
+     *
+     * @throws IOException Thrown if the file cannot be written or closed
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+        synchronized (flushLock) {
+            if (!closed) {
+                closed = true;
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Write the contents of the byte buffer to the file
+     *
+     * @throws IOException Thrown if the file cannot be written
+     */
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            int written = channel.write(buffer);
+            segmentBytes += written;
+            totalBytesWritten += written;
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Move the current file to the next numbered segment, and start a new one
+     *
+     * @throws IOException Thrown if the file cannot be moved or re-opened
+     */
+    private void rotate() throws IOException {
+        channel.close();
+
+        segmentCount++;
+        Files.move(path, path.resolveSibling(String.format("%s.%d", path.getFileName(), segmentCount)),
+                StandardCopyOption.REPLACE_EXISTING);
+
+        channel = open(path);
+        segmentBytes = 0;
+    }
+
+    /**
+     * Open a file for writing, replacing anything already there
+     *
+     * @param path File path
+     * @return Channel
+     * @throws IOException Thrown if the file cannot be opened
+     */
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+}
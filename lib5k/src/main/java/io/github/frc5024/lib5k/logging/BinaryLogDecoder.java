@@ -0,0 +1,255 @@
+package io.github.frc5024.lib5k.logging;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import io.github.frc5024.lib5k.logging.BinaryLogReader.Record;
+import io.github.frc5024.lib5k.logging.RobotLogger.Level;
+
+/**
+ * BinaryLogDecoder turns binary logs written by {@link BinaryLogWriter} back
+ * into text, with optional filtering by level, package, and time. Files are
+ * streamed one record at a time, so a full practice day can be searched
+ * without loading it into memory.
+ *
+ * This is also a command line tool. From the lib5k project, run:
+ *
+ * <pre>
+ * ./gradlew :lib5k:decodeLogs -PlogArgs="--level WARNING --package frc.robot /path/to/session"
+ * </pre>
+ *
+ * Lines are printed in the same format as the text log, except that times are
+ * FPGA seconds.
+ */
+public class BinaryLogDecoder {
+
+    // Filters
+    private Level minimumLevel = Level.kDebug;
+    private List<String> packages = new ArrayList<>();
+    private long fromMicros = Long.MIN_VALUE;
+    private long toMicros = Long.MAX_VALUE;
+
+    /**
+     * Only show messages at or above a level
+     *
+     * @param level Minimum level
+     */
+    public void setMinimumLevel(Level level) {
+        this.minimumLevel = level;
+    }
+
+    /**
+     * Only show messages from a package (or class). This can be called multiple
+     * times to allow multiple packages
+     *
+     * @param packagePrefix Package name. For example: io.github.frc5024.libkontrol
+     */
+    public void addPackage(String packagePrefix) {
+        this.packages.add(packagePrefix);
+    }
+
+    /**
+     * Only show messages inside a time range
+     *
+     * @param fromSeconds Start time in FPGA seconds (inclusive)
+     * @param toSeconds   End time in FPGA seconds (inclusive)
+     */
+    public void setTimeRange(double fromSeconds, double toSeconds) {
+        this.fromMicros = (long) (fromSeconds * 1000000.0);
+        this.toMicros = (long) (toSeconds * 1000000.0);
+    }
+
+    /**
+     * Check if a record passes every filter
+     *
+     * @param record Record
+     * @return Should be shown?
+     */
+    public boolean matches(Record record) {
+
+        // Check level and time first, since they are cheap
+        if (record.level.severity < minimumLevel.severity || record.fpgaMicros < fromMicros
+                || record.fpgaMicros > toMicros) {
+            return false;
+        }
+
+        // Check package
+        if (packages.isEmpty()) {
+            return true;
+        }
+        String className = record.getClassName();
+        for (String packagePrefix : packages) {
+            if (LogLevelFilter.matchesPrefix(className, packagePrefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Find every binary log segment in a session directory, in the order they were
+     * written. A single file is returned as-is
+     *
+     * @param path Session directory or segment file
+     * @return Segment files
+     * @throws IOException Thrown if the directory cannot be read
+     */
+    public static List<Path> findSegments(Path path) throws IOException {
+        if (!Files.isDirectory(path)) {
+            return List.of(path);
+        }
+
+        // Any file with a binary log header counts, no matter its name
+        List<Path> files;
+        try (Stream<Path> entries = Files.list(path)) {
+            files = entries.filter(BinaryLogReader::isBinaryLog).collect(Collectors.toCollection(ArrayList::new));
+        }
+
+        // Sort by the segment index in each header
+        Map<Path, Integer> indices = new HashMap<>();
+        for (Path file : files) {
+            try (BinaryLogReader reader = new BinaryLogReader(file)) {
+                indices.put(file, reader.getSegmentIndex());
+            }
+        }
+        files.sort(Comparator.comparing(indices::get));
+        return files;
+    }
+
+    /**
+     * Decode every matching message in a session directory or segment file
+     *
+     * @param path   Session directory or segment file
+     * @param output Called with each matching line
+     * @return Number of lines output
+     * @throws IOException Thrown if a file cannot be read, or is corrupt
+     */
+    public long decode(Path path, Consumer<String> output) throws IOException {
+        long count = 0;
+        Record record = new Record();
+
+        for (Path segment : findSegments(path)) {
+            try (BinaryLogReader reader = new BinaryLogReader(segment)) {
+                while (reader.next(record)) {
+                    if (matches(record)) {
+                        output.accept(format(record));
+                        count++;
+                    }
+                }
+
+                if (reader.wasTruncated()) {
+                    output.accept(String.format("WARNING: %s ends with an incomplete record", segment.getFileName()));
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Format a record as a log line
+     *
+     * @param record Record
+     * @return Log line
+     */
+    public static String format(Record record) {
+        return String.format("%s at %.3fs: %s -> %s", record.level.name, record.fpgaMicros / 1000000.0,
+                record.getCallerName(), record.formatMessage());
+    }
+
+    /**
+     * Print command line usage
+     *
+     * @param stream Stream to print to
+     */
+    private static void printUsage(PrintStream stream) {
+        stream.println("usage: BinaryLogDecoder [-l LEVEL] [-p PACKAGE] [-f SECONDS] [-t SECONDS] path...");
+        stream.println();
+        stream.println("Decode lib5k binary logs from session directories or segment files");
+        stream.println();
+        stream.println("  -l, --level LEVEL      Minimum level to show (DEBUG, INFO, WARNING)");
+        stream.println("  -p, --package PACKAGE  Only show messages from these packages or classes.");
+        stream.println("                         Comma-seperated, and may be repeated");
+        stream.println("  -f, --from SECONDS     Only show messages at or after this FPGA time");
+        stream.println("  -t, --to SECONDS       Only show messages at or before this FPGA time");
+        stream.println("  -h, --help             Show this message");
+    }
+
+    /**
+     * Command line entry point
+     *
+     * @param args Command line arguments
+     */
+    public static void main(String[] args) {
+        BinaryLogDecoder decoder = new BinaryLogDecoder();
+        List<Path> paths = new ArrayList<>();
+        double from = Double.NEGATIVE_INFINITY;
+        double to = Double.POSITIVE_INFINITY;
+
+        // Parse arguments
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "-h":
+                    case "--help":
+                        printUsage(System.out);
+                        return;
+                    case "-l":
+                    case "--level":
+                        decoder.setMinimumLevel(LogLevelFilter.parseLevel(args[++i]));
+                        break;
+                    case "-p":
+                    case "--package":
+                        for (String packagePrefix : args[++i].split(",")) {
+                            if (!packagePrefix.isBlank()) {
+                                decoder.addPackage(packagePrefix.trim());
+                            }
+                        }
+                        break;
+                    case "-f":
+                    case "--from":
+                        from = Double.parseDouble(args[++i]);
+                        break;
+                    case "-t":
+                    case "--to":
+                        to = Double.parseDouble(args[++i]);
+                        break;
+                    default:
+                        paths.add(Paths.get(args[i]));
+                        break;
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            System.err.println((e instanceof ArrayIndexOutOfBoundsException) ? "Missing option value" : e.getMessage());
+            printUsage(System.err);
+            System.exit(1);
+        }
+
+        if (paths.isEmpty()) {
+            printUsage(System.err);
+            System.exit(1);
+        }
+        decoder.setTimeRange(from, to);
+
+        // Decode everything
+        try {
+            for (Path path : paths) {
+                decoder.decode(path, System.out::println);
+            }
+        } catch (IOException e) {
+            System.err.println(String.format("Failed to read log: %s", e.getMessage()));
+            System.exit(1);
+        }
+    }
+}
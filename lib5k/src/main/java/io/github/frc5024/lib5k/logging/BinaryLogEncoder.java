@@ -0,0 +1,333 @@
+package io.github.frc5024.lib5k.logging;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * BinaryLogEncoder turns {@link LogEvent}s into the record format described in
+ * {@link BinaryLogWriter}, and collects the bytes in a growable buffer. It
+ * keeps the string table and time anchor of the segment being written, but
+ * knows nothing about where the bytes end up, so the same encoding is shared by
+ * the file and network sinks.
+ *
+ * This class is not thread safe.
+ */
+class BinaryLogEncoder {
+
+    // Output buffer
+    private byte[] out;
+    private int outLength = 0;
+
+    // Time anchor for the current segment
+    private long anchorWallMillis;
+    private long anchorFpgaMicros;
+    private long lastFpgaMicros;
+
+    // Per-segment string table. Call sites are indexed by CallerResolver id, and
+    // store the string id + 1 (0 means not yet defined)
+    private int[] callSiteStrings = new int[64];
+    private final HashMap<String, Integer> formatStrings = new HashMap<>();
+    private int nextStringId = 0;
+
+    /**
+     * Create a BinaryLogEncoder
+     *
+     * @param initialCapacity Initial output buffer size in bytes
+     */
+    BinaryLogEncoder(int initialCapacity) {
+        this.out = new byte[Math.max(initialCapacity, 64)];
+    }
+
+    /**
+     * Start a new segment. This resets the string table, and writes a segment
+     * header to the buffer
+     *
+     * @param segmentIndex Segment index
+     * @param wallMillis   System time in milliseconds
+     * @param fpgaMicros   FPGA time in microseconds, taken at the same moment
+     */
+    void beginSegment(int segmentIndex, long wallMillis, long fpgaMicros) {
+
+        // Reset the string table
+        Arrays.fill(callSiteStrings, 0);
+        formatStrings.clear();
+        nextStringId = 0;
+
+        // Tie wall clock time to FPGA time
+        anchorWallMillis = wallMillis;
+        anchorFpgaMicros = fpgaMicros;
+        lastFpgaMicros = fpgaMicros;
+
+        // Write the header
+        ensureCapacity(BinaryLogWriter.MAGIC.length);
+        System.arraycopy(BinaryLogWriter.MAGIC, 0, out, outLength, BinaryLogWriter.MAGIC.length);
+        outLength += BinaryLogWriter.MAGIC.length;
+        putByte(BinaryLogWriter.VERSION);
+        putVarLong(segmentIndex);
+        putVarLong(wallMillis);
+        putVarLong(fpgaMicros);
+    }
+
+    /**
+     * Encode a single event, along with any strings it needs
+     *
+     * @param event    Event to encode
+     * @param resolver Resolver that produced the event's call site id
+     */
+    void encode(LogEvent event, CallerResolver resolver) {
+
+        // Make sure every string this event needs is defined
+        int callSiteId = defineCallSite(event.callSite, resolver);
+        int formatId = defineFormat(event.format);
+
+        // Convert the wall clock timestamp to FPGA time
+        long fpgaMicros = anchorFpgaMicros + (event.timestampMillis - anchorWallMillis) * 1000;
+
+        // Header
+        putByte(BinaryLogWriter.TAG_EVENT);
+        putSignedVarLong(fpgaMicros - lastFpgaMicros);
+        putByte((byte) event.level.ordinal());
+        putVarLong(callSiteId);
+        putVarLong(formatId);
+        lastFpgaMicros = fpgaMicros;
+
+        // Arguments
+        int count = event.getTotalArgCount();
+        putVarLong(count);
+        for (int i = 0; i < count; i++) {
+            if (event.overflowArgs == null && i < event.argCount) {
+                switch (event.argTypes[i]) {
+                    case LogEvent.TYPE_DOUBLE:
+                        putDouble(event.doubleArgs[i]);
+                        continue;
+                    case LogEvent.TYPE_LONG:
+                        putLong(event.longArgs[i]);
+                        continue;
+                    case LogEvent.TYPE_BOOLEAN:
+                        putBoolean(event.longArgs[i] != 0);
+                        continue;
+                    case LogEvent.TYPE_CHAR:
+                        putChar((char) event.longArgs[i]);
+                        continue;
+                    default:
+                        break;
+                }
+            }
+            putObject(event.getArg(i));
+        }
+    }
+
+    /**
+     * Get the output buffer. Only the first {@link #getLength()} bytes are valid
+     *
+     * @return Output buffer
+     */
+    byte[] getBuffer() {
+        return out;
+    }
+
+    /**
+     * Get the number of encoded bytes waiting in the buffer
+     *
+     * @return Byte count
+     */
+    int getLength() {
+        return outLength;
+    }
+
+    /**
+     * Empty the output buffer. The string table is kept
+     */
+    void clearBuffer() {
+        outLength = 0;
+    }
+
+    /**
+     * Get the string id of a call site, defining it if needed
+     *
+     * @param callSite Call site id
+     * @param resolver Call site resolver
+     * @return String id
+     */
+    private int defineCallSite(int callSite, CallerResolver resolver) {
+        if (callSite < 0) {
+            callSite = CallerResolver.UNKNOWN_CALLER_ID;
+        }
+
+        // Check if already defined in this segment
+        if (callSite < callSiteStrings.length && callSiteStrings[callSite] != 0) {
+            return callSiteStrings[callSite] - 1;
+        }
+        if (callSite >= callSiteStrings.length) {
+            callSiteStrings = Arrays.copyOf(callSiteStrings, Math.max(callSite + 1, callSiteStrings.length * 2));
+        }
+
+        // Store the full class name, so readers can filter by package
+        String className = resolver.getClassName(callSite);
+        String name = resolver.getName(callSite);
+        String fullName = className.isEmpty() ? CallerResolver.UNKNOWN_CALLER
+                : className + name.substring(name.lastIndexOf("::"));
+
+        int id = defineString(fullName);
+        callSiteStrings[callSite] = id + 1;
+        return id;
+    }
+
+    /**
+     * Get the string id of a format string, defining it if needed
+     *
+     * @param format Format string
+     * @return String id
+     */
+    private int defineFormat(String format) {
+        if (format == null) {
+            format = "null";
+        }
+
+        Integer id = formatStrings.get(format);
+        if (id == null) {
+            id = defineString(format);
+            formatStrings.put(format, id);
+        }
+        return id;
+    }
+
+    /**
+     * Write a string table entry
+     *
+     * @param value String
+     * @return New string id
+     */
+    private int defineString(String value) {
+        int id = nextStringId++;
+        putByte(BinaryLogWriter.TAG_STRING);
+        putVarLong(id);
+        putString(value);
+        return id;
+    }
+
+    /**
+     * Write an object argument, keeping numbers in binary form where possible
+     *
+     * @param value Argument
+     */
+    private void putObject(Object value) {
+        if (value == null) {
+            putByte(BinaryLogWriter.ARG_NULL);
+        } else if (value instanceof Double || value instanceof Float) {
+            putDouble(((Number) value).doubleValue());
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short
+                || value instanceof Byte) {
+            putLong(((Number) value).longValue());
+        } else if (value instanceof Boolean) {
+            putBoolean((Boolean) value);
+        } else if (value instanceof Character) {
+            putChar((Character) value);
+        } else {
+            putByte(BinaryLogWriter.ARG_STRING);
+            putString(String.valueOf(value));
+        }
+    }
+
+    /**
+     * Write a double argument
+     *
+     * @param value Argument
+     */
+    private void putDouble(double value) {
+        putByte(BinaryLogWriter.ARG_DOUBLE);
+        ensureCapacity(8);
+        long bits = Double.doubleToRawLongBits(value);
+        for (int i = 0; i < 8; i++) {
+            out[outLength++] = (byte) (bits >>> (8 * i));
+        }
+    }
+
+    /**
+     * Write an integer argument
+     *
+     * @param value Argument
+     */
+    private void putLong(long value) {
+        putByte(BinaryLogWriter.ARG_LONG);
+        putSignedVarLong(value);
+    }
+
+    /**
+     * Write a boolean argument
+     *
+     * @param value Argument
+     */
+    private void putBoolean(boolean value) {
+        putByte(BinaryLogWriter.ARG_BOOLEAN);
+        putByte((byte) (value ? 1 : 0));
+    }
+
+    /**
+     * Write a character argument
+     *
+     * @param value Argument
+     */
+    private void putChar(char value) {
+        putByte(BinaryLogWriter.ARG_CHAR);
+        putVarLong(value);
+    }
+
+    /**
+     * Write a length-prefixed UTF-8 string
+     *
+     * @param value String
+     */
+    private void putString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putVarLong(bytes.length);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, out, outLength, bytes.length);
+        outLength += bytes.length;
+    }
+
+    /**
+     * Write a single byte
+     *
+     * @param value Byte
+     */
+    private void putByte(byte value) {
+        ensureCapacity(1);
+        out[outLength++] = value;
+    }
+
+    /**
+     * Write a zigzag encoded varint
+     *
+     * @param value Value
+     */
+    private void putSignedVarLong(long value) {
+        putVarLong((value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Write an unsigned varint
+     *
+     * @param value Value
+     */
+    private void putVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            out[outLength++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[outLength++] = (byte) value;
+    }
+
+    /**
+     * Grow the output buffer if needed. This only happens for very large records
+     *
+     * @param bytes Number of bytes about to be written
+     */
+    private void ensureCapacity(int bytes) {
+        if (outLength + bytes > out.length) {
+            out = Arrays.copyOf(out, Math.max(outLength + bytes, out.length * 2));
+        }
+    }
+}
@@ -0,0 +1,407 @@
+package io.github.frc5024.lib5k.logging;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IllegalFormatException;
+
+import io.github.frc5024.lib5k.logging.RobotLogger.Level;
+
+/**
+ * BinaryLogReader streams events out of a segment written by
+ * {@link BinaryLogWriter}. Only the segment's string table is kept in memory,
+ * so files of any size can be read. Segments stored back to back (like the
+ * files written by {@link LogCollector}) are read as one continuous stream.
+ *
+ * A segment that was cut off part way through a record (for example, by a
+ * brownout) is read up to the last complete record.
+ */
+public class BinaryLogReader implements AutoCloseable {
+
+    /**
+     * A single decoded event. This object is reused by
+     * {@link BinaryLogReader#next(Record)}
+     */
+    public static class Record {
+
+        /** Event time in FPGA microseconds */
+        public long fpgaMicros;
+
+        /** Log level */
+        public Level level;
+
+        /** Call site, in the format "fully.qualified.Class::method()" */
+        public String callSite;
+
+        /** Format string */
+        public String format;
+
+        /** Arguments. Only the first {@link #argCount} are valid */
+        public Object[] args = new Object[LogEvent.MAX_ARGS];
+
+        /** Number of arguments */
+        public int argCount;
+
+        /**
+         * Get the fully qualified class name of the call site
+         *
+         * @return Class name
+         */
+        public String getClassName() {
+            int split = callSite.lastIndexOf("::");
+            return (split < 0) ? callSite : callSite.substring(0, split);
+        }
+
+        /**
+         * Get the short caller name, as it would appear in the text log
+         *
+         * @return Caller name
+         */
+        public String getCallerName() {
+            int split = callSite.lastIndexOf("::");
+            if (split < 0 || !callSite.endsWith("()")) {
+                return callSite;
+            }
+            return CallerResolver.abbreviate(callSite.substring(0, split),
+                    callSite.substring(split + 2, callSite.length() - 2));
+        }
+
+        /**
+         * Format the message
+         *
+         * @return Formatted message
+         */
+        public String formatMessage() {
+            try {
+                return String.format(format, Arrays.copyOf(args, argCount));
+            } catch (IllegalFormatException e) {
+                return String.format("%s [bad format: %s]", format, e.getMessage());
+            }
+        }
+    }
+
+    // Input
+    private final DataInputStream input;
+
+    // First segment header
+    private final int segmentIndex;
+    private final long startWallMillis;
+    private final long startFpgaMicros;
+
+    // Decoding state
+    private final ArrayList<String> strings = new ArrayList<>();
+    private long lastWallMillis;
+    private long lastFpgaMicros;
+    private int segmentCount = 0;
+    private boolean truncated = false;
+
+    /**
+     * Open a segment and read its header
+     *
+     * @param path Segment file
+     * @throws IOException Thrown if the file cannot be read, or is not a binary log
+     */
+    public BinaryLogReader(Path path) throws IOException {
+        this(Files.newInputStream(path));
+    }
+
+    /**
+     * Read a segment from a stream
+     *
+     * @param stream Stream positioned at the start of a segment
+     * @throws IOException Thrown if the stream cannot be read, or is not a binary
+     *                     log
+     */
+    public BinaryLogReader(InputStream stream) throws IOException {
+        this.input = new DataInputStream(new BufferedInputStream(stream, 64 * 1024));
+
+        try {
+            // Check the header
+            byte[] magic = new byte[BinaryLogWriter.MAGIC.length];
+            input.readFully(magic);
+            if (!Arrays.equals(magic, BinaryLogWriter.MAGIC)) {
+                throw new IOException("Not a binary log file");
+            }
+            segmentIndex = readHeader();
+            startWallMillis = lastWallMillis;
+            startFpgaMicros = lastFpgaMicros;
+        } catch (IOException e) {
+            input.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Check if a file starts with a binary log header
+     *
+     * @param path File to check
+     * @return Is a binary log?
+     */
+    public static boolean isBinaryLog(Path path) {
+        if (!Files.isRegularFile(path)) {
+            return false;
+        }
+        try (InputStream stream = Files.newInputStream(path)) {
+            byte[] magic = stream.readNBytes(BinaryLogWriter.MAGIC.length);
+            return Arrays.equals(magic, BinaryLogWriter.MAGIC);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Get the index of the first segment. Segments from the same session are
+     * numbered from 0
+     *
+     * @return Segment index
+     */
+    public int getSegmentIndex() {
+        return segmentIndex;
+    }
+
+    /**
+     * Get the wall clock time the first segment was started at
+     *
+     * @return System time in milliseconds
+     */
+    public long getStartWallMillis() {
+        return startWallMillis;
+    }
+
+    /**
+     * Get the FPGA time the first segment was started at
+     *
+     * @return FPGA time in microseconds
+     */
+    public long getStartFpgaMicros() {
+        return startFpgaMicros;
+    }
+
+    /**
+     * Get the number of segment headers read so far
+     *
+     * @return Segment count
+     */
+    public int getSegmentCount() {
+        return segmentCount;
+    }
+
+    /**
+     * Check if the segment ended part way through a record
+     *
+     * @return Was truncated?
+     */
+    public boolean wasTruncated() {
+        return truncated;
+    }
+
+    /**
+     * Read the next event
+     *
+     * @param record Record to fill in
+     * @return True if an event was read, false at the end of the segment
+     * @throws IOException Thrown if the file cannot be read, or is corrupt
+     */
+    public boolean next(Record record) throws IOException {
+        while (true) {
+
+            // Read the record tag. A clean end of file can only happen here
+            int tag = input.read();
+            if (tag < 0) {
+                return false;
+            }
+
+            try {
+                switch (tag) {
+                    case BinaryLogWriter.TAG_STRING:
+                        readString();
+                        break;
+                    case BinaryLogWriter.TAG_EVENT:
+                        readEvent(record);
+                        return true;
+                    case 'L':
+                        // Start of another segment's magic number
+                        readNextSegment();
+                        break;
+                    default:
+                        throw new IOException(String.format("Corrupt binary log. Unknown record tag: %d", tag));
+                }
+            } catch (EOFException e) {
+                truncated = true;
+                return false;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    /**
+     * Check the rest of the magic number of a segment that follows another one,
+     * and start decoding it
+     *
+     * @throws IOException Thrown if the file cannot be read
+     */
+    private void readNextSegment() throws IOException {
+        byte[] magic = new byte[BinaryLogWriter.MAGIC.length];
+        magic[0] = 'L';
+        input.readFully(magic, 1, magic.length - 1);
+        if (!Arrays.equals(magic, BinaryLogWriter.MAGIC)) {
+            throw new IOException("Corrupt binary log. Bad segment header");
+        }
+        readHeader();
+    }
+
+    /**
+     * Read the part of a segment header after the magic number, and reset the
+     * string table
+     *
+     * @return Segment index
+     * @throws IOException Thrown if the file cannot be read, or the version is not
+     *                     supported
+     */
+    private int readHeader() throws IOException {
+        int version = input.readUnsignedByte();
+        if (version != BinaryLogWriter.VERSION) {
+            throw new IOException(String.format("Unsupported binary log version: %d", version));
+        }
+
+        // Read the time anchor
+        int index = (int) readVarLong();
+        lastWallMillis = readVarLong();
+        lastFpgaMicros = readVarLong();
+
+        strings.clear();
+        segmentCount++;
+        return index;
+    }
+
+    /**
+     * Read a string table entry
+     *
+     * @throws IOException Thrown if the file cannot be read
+     */
+    private void readString() throws IOException {
+        int id = (int) readVarLong();
+        String value = readUTF8();
+        if (id != strings.size()) {
+            throw new IOException(String.format("Corrupt binary log. Expected string %d, got %d", strings.size(), id));
+        }
+        strings.add(value);
+    }
+
+    /**
+     * Read an event record
+     *
+     * @param record Record to fill in
+     * @throws IOException Thrown if the file cannot be read
+     */
+    private void readEvent(Record record) throws IOException {
+
+        // Header
+        lastFpgaMicros += readSignedVarLong();
+        record.fpgaMicros = lastFpgaMicros;
+        int level = input.readUnsignedByte();
+        Level[] levels = Level.values();
+        record.level = (level < levels.length) ? levels[level] : Level.kInfo;
+        record.callSite = getString(readVarLong());
+        record.format = getString(readVarLong());
+
+        // Arguments
+        int count = (int) readVarLong();
+        if (record.args.length < count) {
+            record.args = new Object[count];
+        }
+        for (int i = 0; i < count; i++) {
+            int type = input.readUnsignedByte();
+            switch (type) {
+                case BinaryLogWriter.ARG_DOUBLE:
+                    record.args[i] = Double.longBitsToDouble(Long.reverseBytes(input.readLong()));
+                    break;
+                case BinaryLogWriter.ARG_LONG:
+                    record.args[i] = readSignedVarLong();
+                    break;
+                case BinaryLogWriter.ARG_BOOLEAN:
+                    record.args[i] = input.readUnsignedByte() != 0;
+                    break;
+                case BinaryLogWriter.ARG_STRING:
+                    record.args[i] = readUTF8();
+                    break;
+                case BinaryLogWriter.ARG_NULL:
+                    record.args[i] = null;
+                    break;
+                case BinaryLogWriter.ARG_CHAR:
+                    record.args[i] = (char) readVarLong();
+                    break;
+                default:
+                    throw new IOException(String.format("Corrupt binary log. Unknown argument type: %d", type));
+            }
+        }
+        record.argCount = count;
+    }
+
+    /**
+     * Look up a string by id
+     *
+     * @param id String id
+     * @return String
+     * @throws IOException Thrown if the string was never defined
+     */
+    private String getString(long id) throws IOException {
+        if (id < 0 || id >= strings.size()) {
+            throw new IOException(String.format("Corrupt binary log. Undefined string: %d", id));
+        }
+        return strings.get((int) id);
+    }
+
+    /**
+     * Read a length-prefixed UTF-8 string
+     *
+     * @return String
+     * @throws IOException Thrown if the file cannot be read
+     */
+    private String readUTF8() throws IOException {
+        int length = (int) readVarLong();
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Read a zigzag encoded varint
+     *
+     * @return Value
+     * @throws IOException Thrown if the file cannot be read
+     */
+    private long readSignedVarLong() throws IOException {
+        long raw = readVarLong();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    /**
+     * Read an unsigned varint
+     *
+     * @return Value
+     * @throws IOException Thrown if the file cannot be read
+     */
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = input.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt binary log. Varint too long");
+    }
+}
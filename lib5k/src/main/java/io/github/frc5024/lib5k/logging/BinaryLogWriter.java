@@ -0,0 +1,273 @@
+package io.github.frc5024.lib5k.logging;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import io.github.frc5024.lib5k.hardware.ni.roborio.fpga.FPGAClock;
+import io.github.frc5024.lib5k.utils.FileManagement;
+
+/**
+ * BinaryLogWriter saves {@link RobotLogger} events in a compact binary format.
+ * Messages are never formatted. Instead, each record stores the format string
+ * and raw arguments, and every string is only written once per file.
+ *
+ * A log file (segment) looks like this. Integers are unsigned LEB128 varints,
+ * and signed values are zigzag encoded first:
+ *
+ * <pre>
+ * Header:  "L5KB" | version (byte) | segment index | wall clock ms | FPGA us
+ * String:  0x01 | string id | byte length | UTF-8 bytes
+ * Event:   0x02 | FPGA us delta (signed) | level ordinal (byte) | call site string id
+ *               | format string id | arg count | args...
+ * Arg:     type (byte) | double: 8 bytes little endian
+ *                      | long: signed varint
+ *                      | boolean: byte
+ *                      | string: byte length, UTF-8 bytes
+ *                      | null: nothing
+ *                      | char: varint
+ * </pre>
+ *
+ * String ids start at 0 in every segment, and a string is always defined
+ * before it is used, so every segment can be read on its own. Segments may
+ * also be stored back to back in a single file (see {@link NetworkLogSink}).
+ * Call sites are
+ * stored as "fully.qualified.Class::method()". Event timestamps are in FPGA
+ * time, and each one is stored as a delta from the previous event (the first
+ * is relative to the header).
+ *
+ * Once a segment grows past a configurable size, it is moved to name.1,
+ * name.2, and so on, and a new segment is started. Use
+ * {@link BinaryLogDecoder} to read the files back.
+ */
+public class BinaryLogWriter implements AutoCloseable {
+
+    // Format constants. These are shared with BinaryLogReader
+    static final byte[] MAGIC = { 'L', '5', 'K', 'B' };
+    static final byte VERSION = 1;
+    static final byte TAG_STRING = 0x01;
+    static final byte TAG_EVENT = 0x02;
+    static final byte ARG_DOUBLE = 0;
+    static final byte ARG_LONG = 1;
+    static final byte ARG_BOOLEAN = 2;
+    static final byte ARG_STRING = 3;
+    static final byte ARG_NULL = 4;
+    static final byte ARG_CHAR = 5;
+
+    /**
+     * Default binary log file name in the session directory
+     */
+    public static final String DEFAULT_FILENAME = "robot.l5kb";
+
+    /**
+     * Default size at which a segment is rotated
+     */
+    public static final long DEFAULT_SEGMENT_BYTES = 8 * 1024 * 1024;
+
+    /**
+     * Number of buffered bytes that will trigger a write to disk
+     */
+    public static final int DEFAULT_BUFFER_BYTES = 64 * 1024;
+
+    /**
+     * Use this as a segment size to never rotate the file
+     */
+    public static final long NO_ROTATION = Long.MAX_VALUE;
+
+    // Time between periodic writes to disk
+    private static final long FLUSH_PERIOD_MS = 500;
+
+    // File info
+    private final Path path;
+    private final long maxSegmentBytes;
+    private FileChannel channel;
+    private long segmentBytes = 0;
+    private int segmentIndex = 0;
+
+    // Output buffer
+    private final int bufferBytes;
+    private final BinaryLogEncoder encoder;
+
+    // Settings and state
+    private boolean forceOnFlush = false;
+    private long lastFlushMillis = System.currentTimeMillis();
+    private long totalBytesWritten = 0;
+    private boolean closed = false;
+
+    /**
+     * Create a BinaryLogWriter that writes to "robot.l5kb" in the current session
+     * directory (see {@link FileManagement})
+     *
+     * @throws IOException Thrown if the file cannot be opened
+     */
+    public BinaryLogWriter() throws IOException {
+        this(FileManagement.getSessionFilePath(DEFAULT_FILENAME), DEFAULT_BUFFER_BYTES, DEFAULT_SEGMENT_BYTES);
+    }
+
+    /**
+     * Create a BinaryLogWriter. Any existing file at the path is replaced.
+     *
+     * @param path            File path
+     * @param bufferBytes     Number of buffered bytes that will trigger a write
+     * @param maxSegmentBytes Size at which the file is rotated, or
+     *                        {@link #NO_ROTATION}
+     * @throws IOException Thrown if the file cannot be opened
+     */
+    public BinaryLogWriter(Path path, int bufferBytes, long maxSegmentBytes) throws IOException {
+        this.path = path;
+        this.bufferBytes = bufferBytes;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.encoder = new BinaryLogEncoder(bufferBytes + 256);
+        openSegment();
+    }
+
+    /**
+     * Set if every flush should also force the data onto the storage device
+     *
+     * @param force Force on flush?
+     */
+    public synchronized void setForceOnFlush(boolean force) {
+        this.forceOnFlush = force;
+    }
+
+    /**
+     * Write a single event. Called from the logging thread
+     *
+     * @param event    Event to write
+     * @param resolver Resolver that produced the event's call site id
+     * @throws IOException Thrown if the file cannot be written
+     */
+    synchronized void write(LogEvent event, CallerResolver resolver) throws IOException {
+        if (closed) {
+            return;
+        }
+
+        // Start a new segment if this one is full
+        if (segmentBytes + encoder.getLength() >= maxSegmentBytes) {
+            rotate();
+        }
+
+        encoder.encode(event, resolver);
+
+        // Write out the buffer once it fills up
+        if (encoder.getLength() >= bufferBytes) {
+            writeBuffer();
+        }
+    }
+
+    /**
+     * Write everything buffered to disk if it has been a while since the last
+     * write. Called once per logging cycle
+     *
+     * @param nowMillis System time in milliseconds
+     * @throws IOException Thrown if the file cannot be written
+     */
+    synchronized void flushIfDue(long nowMillis) throws IOException {
+        if (nowMillis - lastFlushMillis >= FLUSH_PERIOD_MS) {
+            flush();
+        }
+    }
+
+    /**
+     * Write everything buffered to disk
+     *
+     * @throws IOException Thrown if the file cannot be written
+     */
+    public synchronized void flush() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        writeBuffer();
+        if (forceOnFlush) {
+            channel.force(false);
+        }
+        lastFlushMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Get the total number of bytes written across all segments
+     *
+     * @return Bytes written
+     */
+    public synchronized long getTotalBytesWritten() {
+        return totalBytesWritten;
+    }
+
+    /**
+     * Get the number of times the file has been rotated
+     *
+     * @return Rotation count
+     */
+    public synchronized int getRotationCount() {
+        return segmentIndex;
+    }
+
+    /**
+     * Flush anything left, and close the file
+     *
+     * @throws IOException Thrown if the file cannot be written or closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!closed) {
+            flush();
+            closed = true;
+            channel.close();
+        }
+    }
+
+    /**
+     * Write the output buffer to the file
+     *
+     * @throws IOException Thrown if the file cannot be written
+     */
+    private void writeBuffer() throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(encoder.getBuffer(), 0, encoder.getLength());
+        try {
+            while (buffer.hasRemaining()) {
+                int written = channel.write(buffer);
+                segmentBytes += written;
+                totalBytesWritten += written;
+            }
+        } finally {
+            // A failed write is dropped rather than written twice
+            encoder.clearBuffer();
+        }
+    }
+
+    /**
+     * Open the file, and write a segment header
+     *
+     * @throws IOException Thrown if the file cannot be opened
+     */
+    private void openSegment() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        segmentBytes = 0;
+
+        // Tie wall clock time to FPGA time, and write the header
+        encoder.beginSegment(segmentIndex, System.currentTimeMillis(),
+                (long) (FPGAClock.getFPGASeconds() * 1000000.0));
+    }
+
+    /**
+     * Move the current file to the next numbered segment, and start a new one
+     *
+     * @throws IOException Thrown if the file cannot be moved or re-opened
+     */
+    private void rotate() throws IOException {
+        writeBuffer();
+        channel.close();
+
+        segmentIndex++;
+        Files.move(path, path.resolveSibling(String.format("%s.%d", path.getFileName(), segmentIndex)),
+                StandardCopyOption.REPLACE_EXISTING);
+
+        openSegment();
+    }
+}
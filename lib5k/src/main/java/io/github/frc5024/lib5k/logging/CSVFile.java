@@ -9,6 +9,9 @@ import io.github.frc5024.lib5k.utils.FileManagement;
  * CSVFile is a class designed for one-time use. Creating an object will open a
  * new session file, and write the CSV headers. You can then push rows to the
  * file, and finally close it.
+ * 
+ * For data logged every loop, use {@link ColumnarCSVFile} instead. It does not
+ * box values, and writes to disk in the background.
  */
 public class CSVFile implements AutoCloseable {
 
@@ -0,0 +1,339 @@
+package io.github.frc5024.lib5k.logging;
+
+import java.lang.StackWalker.Option;
+import java.lang.StackWalker.StackFrame;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * CallerResolver finds the method that called into a logger, and turns it into
+ * a short, human-readable name like: io...cells.SetShooterOutput::execute()
+ *
+ * Every call site (a single line in a method) is given a small integer id the
+ * first time it is seen, so log records can carry an int instead of a string.
+ * Different lines of one method share a name, but get their own ids, so rate
+ * limits and repeat detection treat each log statement separately. After the
+ * first call from a line, the only remaining cost is a walk to the caller's
+ * frame.
+ */
+public class CallerResolver {
+
+    /**
+     * Caller resolution strategy
+     */
+    public enum Mode {
+        /** Materialize the full stack trace on every call (slowest, legacy) */
+        kFullStackTrace,
+        /** Walk to the caller frame with a StackWalker, and cache its name */
+        kStackWalker,
+        /** Do not capture the caller at all */
+        kNone;
+    }
+
+    /**
+     * Name used when no caller could be, or should be, resolved. This still follows
+     * the class::method() format so log parsers do not break
+     */
+    public static final String UNKNOWN_CALLER = "unknown::unknown()";
+
+    /**
+     * Call site id of {@link #UNKNOWN_CALLER}
+     */
+    public static final int UNKNOWN_CALLER_ID = 0;
+
+    // Classes that make up the logger itself, and must be skipped
+    private final Set<String> loggerClassNames;
+
+    // StackWalker state
+    private final StackWalker walker = StackWalker.getInstance(Option.RETAIN_CLASS_REFERENCE);
+    private final Predicate<StackFrame> isCallerFrame;
+    private final Function<Stream<StackFrame>, StackFrame> findCaller;
+
+    // Per-class cache of method name to the call sites in that method
+    private final ClassValue<ConcurrentHashMap<String, MethodCallSites>> idCache = new ClassValue<>() {
+        @Override
+        protected ConcurrentHashMap<String, MethodCallSites> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * The call sites in a single method. Methods only have a few log statements,
+     * so this is a copy-on-write list of packed (line, id) pairs that can be
+     * searched without locking or allocating
+     */
+    private static class MethodCallSites {
+        volatile long[] sites = new long[0];
+
+        /**
+         * Find the id of a line
+         *
+         * @param line Line number
+         * @return Call site id, or -1 if the line is not known yet
+         */
+        int find(int line) {
+            for (long site : sites) {
+                if ((int) (site >>> 32) == line) {
+                    return (int) site;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Add a line
+         *
+         * @param line Line number
+         * @param id   Call site id
+         */
+        synchronized void add(int line, int id) {
+            if (find(line) < 0) {
+                long[] grown = Arrays.copyOf(sites, sites.length + 1);
+                grown[sites.length] = ((long) line << 32) | (id & 0xFFFFFFFFL);
+                sites = grown;
+            }
+        }
+    }
+
+    // Call site registry. Guarded by this
+    private final ArrayList<String> callSiteNames = new ArrayList<>();
+    private final ArrayList<String> callSiteClasses = new ArrayList<>();
+    private final HashMap<String, Integer> callSiteIds = new HashMap<>();
+
+    private volatile Mode mode;
+
+    /**
+     * Create a CallerResolver
+     *
+     * @param mode          Resolution mode
+     * @param loggerClasses Classes that belong to the logger. Frames from these
+     *                      classes are skipped while looking for the caller
+     */
+    public CallerResolver(Mode mode, Class<?>... loggerClasses) {
+        this.mode = mode;
+
+        // Build the set of skipped classes
+        String[] names = new String[loggerClasses.length + 1];
+        for (int i = 0; i < loggerClasses.length; i++) {
+            names[i] = loggerClasses[i].getName();
+        }
+        names[loggerClasses.length] = CallerResolver.class.getName();
+        this.loggerClassNames = Set.of(names);
+
+        // These are built once, so walking does not allocate new lambdas per call
+        this.isCallerFrame = (frame) -> !isLoggerFrame(frame.getClassName());
+        this.findCaller = (frames) -> frames.filter(isCallerFrame).findFirst().orElse(null);
+
+        // Reserve id 0 for unknown callers
+        intern(UNKNOWN_CALLER, "", -1);
+    }
+
+    /**
+     * Set the resolution mode
+     *
+     * @param mode Resolution mode
+     */
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Get the resolution mode
+     *
+     * @return Resolution mode
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Get the friendly name of the first method on the current stack that is not
+     * part of the logger
+     *
+     * @return Friendly caller name
+     */
+    public String resolve() {
+        return getName(resolveId());
+    }
+
+    /**
+     * Get the call site id of the first method on the current stack that is not
+     * part of the logger
+     *
+     * @return Call site id
+     */
+    public int resolveId() {
+        switch (mode) {
+            case kStackWalker:
+                return resolveWithWalker();
+            case kFullStackTrace:
+                return resolveWithStackTrace();
+            default:
+                return UNKNOWN_CALLER_ID;
+        }
+    }
+
+    /**
+     * Get the friendly name of a call site
+     *
+     * @param id Call site id
+     * @return Friendly name
+     */
+    public synchronized String getName(int id) {
+        if (id < 0 || id >= callSiteNames.size()) {
+            return UNKNOWN_CALLER;
+        }
+        return callSiteNames.get(id);
+    }
+
+    /**
+     * Get the fully qualified class name of a call site
+     *
+     * @param id Call site id
+     * @return Class name, or an empty string if unknown
+     */
+    public synchronized String getClassName(int id) {
+        if (id < 0 || id >= callSiteClasses.size()) {
+            return "";
+        }
+        return callSiteClasses.get(id);
+    }
+
+    /**
+     * Get the number of known call sites. Ids are always in the range [0, count)
+     *
+     * @return Call site count
+     */
+    public synchronized int getCallSiteCount() {
+        return callSiteNames.size();
+    }
+
+    /**
+     * Resolve the caller with a StackWalker, and a per-call-site cache
+     *
+     * @return Call site id
+     */
+    private int resolveWithWalker() {
+
+        // Walk only as far as the caller
+        StackFrame frame = walker.walk(findCaller);
+        if (frame == null) {
+            return UNKNOWN_CALLER_ID;
+        }
+
+        // Look up the id in this class's cache
+        ConcurrentHashMap<String, MethodCallSites> classCache = idCache.get(frame.getDeclaringClass());
+        String methodName = frame.getMethodName();
+        MethodCallSites methodSites = classCache.get(methodName);
+        if (methodSites == null) {
+            methodSites = classCache.computeIfAbsent(methodName, (name) -> new MethodCallSites());
+        }
+        int line = frame.getLineNumber();
+        int id = methodSites.find(line);
+
+        // Register the call site on first use
+        if (id < 0) {
+            id = intern(abbreviate(frame.getClassName(), methodName), frame.getClassName(), line);
+            methodSites.add(line, id);
+        }
+
+        return id;
+    }
+
+    /**
+     * Resolve the caller by materializing the full stack trace. This is how
+     * RobotLogger used to work
+     *
+     * @return Call site id
+     */
+    private int resolveWithStackTrace() {
+        for (StackTraceElement element : Thread.currentThread().getStackTrace()) {
+            String className = element.getClassName();
+            if (!isLoggerFrame(className) && !className.equals(Thread.class.getName())) {
+                return intern(abbreviate(className, element.getMethodName()), className, element.getLineNumber());
+            }
+        }
+        return UNKNOWN_CALLER_ID;
+    }
+
+    /**
+     * Get the id for a call site, registering it if needed
+     *
+     * @param name      Friendly name
+     * @param className Fully qualified class name
+     * @param line      Line number, or a negative number if unknown
+     * @return Call site id
+     */
+    private synchronized int intern(String name, String className, int line) {
+
+        // Key on the full class name, since different classes can share a friendly
+        // name, and on the line, since one method can log from many places
+        String key = className + "::" + name + ":" + line;
+        Integer id = callSiteIds.get(key);
+        if (id == null) {
+            id = callSiteNames.size();
+            callSiteNames.add(name);
+            callSiteClasses.add(className);
+            callSiteIds.put(key, id);
+        }
+        return id;
+    }
+
+    /**
+     * Check if a frame belongs to the logger
+     *
+     * @param className Frame class name
+     * @return Is a logger frame?
+     */
+    private boolean isLoggerFrame(String className) {
+        return loggerClassNames.contains(className);
+    }
+
+    /**
+     * Build a friendly name for a method. The idea here is to turn a package name
+     * that might look like:
+     * io.github.frc5024.y2020.darthraider.commands.autonomous.actions.cells.SetShooterOutput
+     * Into one that looks like: io...cells.SetShooterOutput
+     *
+     * @param className  Fully qualified class name
+     * @param methodName Method name
+     * @return Friendly name
+     */
+    public static String abbreviate(String className, String methodName) {
+        StringBuilder builder = new StringBuilder(64);
+
+        // Find the last two seperators
+        int last = className.lastIndexOf('.');
+        int parent = (last > 0) ? className.lastIndexOf('.', last - 1) : -1;
+        int root = className.indexOf('.');
+
+        // Only shorten names with more than 3 segments
+        int segments = 1;
+        for (int i = 0; i < className.length(); i++) {
+            if (className.charAt(i) == '.') {
+                segments++;
+            }
+        }
+
+        if (segments <= 3) {
+            builder.append(className);
+        } else {
+            builder.append(className, 0, root);
+            builder.append("...");
+            builder.append(className, parent + 1, className.length());
+        }
+
+        // Append the method name
+        builder.append("::");
+        builder.append(methodName);
+        builder.append("()");
+
+        return builder.toString();
+    }
+}
@@ -0,0 +1,699 @@
+package io.github.frc5024.lib5k.logging;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import io.github.frc5024.lib5k.logging.RobotLogger.Level;
+import io.github.frc5024.lib5k.utils.FileManagement;
+
+/**
+ * ColumnarCSVFile is a CSV writer for data logged from the main robot loop.
+ * Unlike {@link CSVFile}, every column has a declared type, and values are
+ * passed as primitives. Numbers are encoded straight into a reusable byte
+ * buffer, and full buffers are written to disk by a background thread, so
+ * writing a row does not allocate or block on IO.
+ *
+ * <pre>
+ * ColumnarCSVFile file = new ColumnarCSVFile("Shooter",
+ *         new ColumnarCSVFile.Schema().addDoubleColumn("Time").addDoubleColumn("RPM").addBooleanColumn("Ready"));
+ * file.beginRow().put(time).put(rpm).put(ready).endRow();
+ * </pre>
+ *
+ * If the background thread falls behind and every buffer is full, new rows are
+ * dropped (and counted) instead of blocking the caller.
+ */
+public class ColumnarCSVFile implements AutoCloseable {
+
+    /**
+     * Column data types
+     */
+    public enum ColumnType {
+        kDouble, kLong, kBoolean, kString;
+    }
+
+    /**
+     * A list of named, typed columns
+     */
+    public static class Schema {
+        private final ArrayList<String> names = new ArrayList<>();
+        private final ArrayList<ColumnType> types = new ArrayList<>();
+        private final ArrayList<Integer> decimals = new ArrayList<>();
+
+        /**
+         * Add a floating point column, written with up to 6 decimal places
+         *
+         * @param name Column name
+         * @return This Object
+         */
+        public Schema addDoubleColumn(String name) {
+            return addDoubleColumn(name, 6);
+        }
+
+        /**
+         * Add a floating point column
+         *
+         * @param name          Column name
+         * @param decimalPlaces Maximum number of decimal places to write (0-9)
+         * @return This Object
+         */
+        public Schema addDoubleColumn(String name, int decimalPlaces) {
+            if (decimalPlaces < 0 || decimalPlaces >= POWERS_OF_TEN.length) {
+                throw new IllegalArgumentException(String.format("Invalid decimal places: %d", decimalPlaces));
+            }
+            return add(name, ColumnType.kDouble, decimalPlaces);
+        }
+
+        /**
+         * Add an integer column
+         *
+         * @param name Column name
+         * @return This Object
+         */
+        public Schema addLongColumn(String name) {
+            return add(name, ColumnType.kLong, 0);
+        }
+
+        /**
+         * Add a boolean column
+         *
+         * @param name Column name
+         * @return This Object
+         */
+        public Schema addBooleanColumn(String name) {
+            return add(name, ColumnType.kBoolean, 0);
+        }
+
+        /**
+         * Add a text column
+         *
+         * @param name Column name
+         * @return This Object
+         */
+        public Schema addStringColumn(String name) {
+            return add(name, ColumnType.kString, 0);
+        }
+
+        /**
+         * Get the number of columns
+         *
+         * @return Column count
+         */
+        public int getColumnCount() {
+            return names.size();
+        }
+
+        /**
+         * Add a column
+         *
+         * @param name     Column name
+         * @param type     Column type
+         * @param decimals Decimal places
+         * @return This Object
+         */
+        private Schema add(String name, ColumnType type, int decimals) {
+            this.names.add(name);
+            this.types.add(type);
+            this.decimals.add(decimals);
+            return this;
+        }
+    }
+
+    /**
+     * Default size of each write buffer in bytes
+     */
+    public static final int DEFAULT_BUFFER_BYTES = 64 * 1024;
+
+    /**
+     * Default number of write buffers
+     */
+    public static final int DEFAULT_BUFFER_COUNT = 4;
+
+    // Powers of ten used for fixed point encoding
+    private static final long[] POWERS_OF_TEN = { 1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L,
+            100000000L, 1000000000L };
+
+    // Time after which a partially full buffer is handed off anyway
+    private static final long FLUSH_PERIOD_MS = 1000;
+
+    // Worst case size of a single encoded number
+    private static final int MAX_NUMBER_BYTES = 32;
+
+    // Handed to the writer thread to make it exit
+    private static final ByteBuffer CLOSE_SIGNAL = ByteBuffer.allocate(0);
+
+    // Schema, copied into arrays
+    private final ColumnType[] types;
+    private final long[] scales;
+    private final double[] maxScaled;
+    private final int[] decimals;
+
+    // Buffers. The robot thread only touches the current buffer
+    private final ArrayBlockingQueue<ByteBuffer> freeBuffers;
+    private final ArrayBlockingQueue<ByteBuffer> fullBuffers;
+    private ByteBuffer current;
+
+    // Row state
+    private int column = -1;
+    private int rowStart = 0;
+    private boolean droppingRow = false;
+    private long lastHandoffMillis = System.currentTimeMillis();
+    private long droppedRows = 0;
+
+    // Output
+    private final FileChannel channel;
+    private final Thread writerThread;
+    private volatile IOException writeError = null;
+    private boolean isClosed = false;
+
+    /**
+     * Create a new ColumnarCSVFile in the session directory, with the current
+     * timestamp appended to its name
+     *
+     * @param filename File name, without an extension
+     * @param schema   Column schema
+     * @throws IOException Thrown if there is an issue opening the file
+     */
+    public ColumnarCSVFile(String filename, Schema schema) throws IOException {
+        this(FileManagement.getSessionFilePath(String.format("%s_%d.csv", filename, System.currentTimeMillis())),
+                schema, DEFAULT_BUFFER_BYTES, DEFAULT_BUFFER_COUNT);
+    }
+
+    /**
+     * Create a new ColumnarCSVFile
+     *
+     * @param path        File path. Any existing file is replaced
+     * @param schema      Column schema
+     * @param bufferBytes Size of each write buffer in bytes
+     * @param bufferCount Number of write buffers. At least 2 are needed, so one
+     *                    can be filled while another is written
+     * @throws IOException Thrown if there is an issue opening the file
+     */
+    public ColumnarCSVFile(Path path, Schema schema, int bufferBytes, int bufferCount) throws IOException {
+        if (bufferCount < 2) {
+            throw new IllegalArgumentException(String.format("At least 2 buffers are needed, got %d", bufferCount));
+        }
+
+        // Copy the schema
+        int count = schema.getColumnCount();
+        this.types = schema.types.toArray(new ColumnType[count]);
+        this.decimals = new int[count];
+        this.scales = new long[count];
+        this.maxScaled = new double[count];
+        for (int i = 0; i < count; i++) {
+            decimals[i] = schema.decimals.get(i);
+            scales[i] = POWERS_OF_TEN[decimals[i]];
+            maxScaled[i] = (double) (Long.MAX_VALUE / scales[i] / 2);
+        }
+
+        // Set up the buffers
+        this.freeBuffers = new ArrayBlockingQueue<>(bufferCount);
+        this.fullBuffers = new ArrayBlockingQueue<>(bufferCount + 1);
+        for (int i = 1; i < bufferCount; i++) {
+            freeBuffers.add(ByteBuffer.allocateDirect(bufferBytes));
+        }
+        this.current = ByteBuffer.allocateDirect(bufferBytes);
+
+        // Open the file, and start the writer
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.writerThread = new Thread(this::writeLoop, String.format("ColumnarCSVFile %s", path.getFileName()));
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+
+        // Write the header
+        beginRow();
+        for (int i = 0; i < count; i++) {
+            if (i > 0 && reserve(1)) {
+                current.put((byte) ',');
+            }
+            putText(schema.names.get(i));
+        }
+        column = count;
+        endRow();
+    }
+
+    /**
+     * Start a new row. Every column must then be filled with put(), in order,
+     * before calling {@link #endRow()}
+     *
+     * @return This Object
+     */
+    public ColumnarCSVFile beginRow() {
+        if (isClosed) {
+            throw new IllegalStateException("Cannot write to a closed file");
+        }
+        if (column >= 0) {
+            throw new IllegalStateException("The previous row was not ended");
+        }
+
+        column = 0;
+        rowStart = current.position();
+        droppingRow = false;
+        return this;
+    }
+
+    /**
+     * Write a floating point value to the next column
+     *
+     * @param value Value
+     * @return This Object
+     */
+    public ColumnarCSVFile put(double value) {
+        int i = nextColumn(ColumnType.kDouble);
+        if (reserve(MAX_NUMBER_BYTES)) {
+            encodeDouble(value, i);
+        }
+        return this;
+    }
+
+    /**
+     * Write an integer value to the next column
+     *
+     * @param value Value
+     * @return This Object
+     */
+    public ColumnarCSVFile put(long value) {
+        nextColumn(ColumnType.kLong);
+        if (reserve(MAX_NUMBER_BYTES)) {
+            encodeLong(value);
+        }
+        return this;
+    }
+
+    /**
+     * Write a boolean value to the next column
+     *
+     * @param value Value
+     * @return This Object
+     */
+    public ColumnarCSVFile put(boolean value) {
+        nextColumn(ColumnType.kBoolean);
+        if (reserve(MAX_NUMBER_BYTES)) {
+            encodeAscii(value ? "true" : "false");
+        }
+        return this;
+    }
+
+    /**
+     * Write a text value to the next column
+     *
+     * @param value Value
+     * @return This Object
+     */
+    public ColumnarCSVFile put(CharSequence value) {
+        nextColumn(ColumnType.kString);
+        putText(value);
+        return this;
+    }
+
+    /**
+     * Finish the current row
+     */
+    public void endRow() {
+        if (column != types.length) {
+            throw new IllegalStateException(
+                    String.format("Row has %d of %d columns", Math.max(column, 0), types.length));
+        }
+        column = -1;
+
+        // A row that did not fit is thrown away
+        if (droppingRow || !reserve(1)) {
+            current.position(rowStart);
+            droppedRows++;
+            return;
+        }
+        current.put((byte) '\n');
+
+        // Hand off the buffer if it has been sitting for a while
+        long now = System.currentTimeMillis();
+        if (now - lastHandoffMillis >= FLUSH_PERIOD_MS) {
+
+            // If there are no empty buffers, try again on a later row
+            ByteBuffer next = freeBuffers.poll();
+            if (next != null) {
+                handOff(current.position(), next);
+            }
+        }
+    }
+
+    /**
+     * Write a row of floating point values
+     *
+     * @param a Column 1
+     */
+    public void writeRow(double a) {
+        beginRow().put(a).endRow();
+    }
+
+    /**
+     * Write a row of floating point values
+     *
+     * @param a Column 1
+     * @param b Column 2
+     */
+    public void writeRow(double a, double b) {
+        beginRow().put(a).put(b).endRow();
+    }
+
+    /**
+     * Write a row of floating point values
+     *
+     * @param a Column 1
+     * @param b Column 2
+     * @param c Column 3
+     */
+    public void writeRow(double a, double b, double c) {
+        beginRow().put(a).put(b).put(c).endRow();
+    }
+
+    /**
+     * Write a row of floating point values
+     *
+     * @param a Column 1
+     * @param b Column 2
+     * @param c Column 3
+     * @param d Column 4
+     */
+    public void writeRow(double a, double b, double c, double d) {
+        beginRow().put(a).put(b).put(c).put(d).endRow();
+    }
+
+    /**
+     * Write a row of floating point values
+     *
+     * @param a Column 1
+     * @param b Column 2
+     * @param c Column 3
+     * @param d Column 4
+     * @param e Column 5
+     */
+    public void writeRow(double a, double b, double c, double d, double e) {
+        beginRow().put(a).put(b).put(c).put(d).put(e).endRow();
+    }
+
+    /**
+     * Write a row of floating point values
+     *
+     * @param a Column 1
+     * @param b Column 2
+     * @param c Column 3
+     * @param d Column 4
+     * @param e Column 5
+     * @param f Column 6
+     */
+    public void writeRow(double a, double b, double c, double d, double e, double f) {
+        beginRow().put(a).put(b).put(c).put(d).put(e).put(f).endRow();
+    }
+
+    /**
+     * Get the number of rows that were dropped because every buffer was full
+     *
+     * @return Dropped row count
+     */
+    public long getDroppedRowCount() {
+        return droppedRows;
+    }
+
+    /**
+     * Write everything to disk, and close the file
+     *
+     * @throws IOException Thrown if there is an issue writing or closing the file
+     */
+    @Override
+    public void close() throws IOException {
+        if (isClosed) {
+            return;
+        }
+        isClosed = true;
+
+        // Hand off the last rows, and wait for the writer to finish
+        try {
+            handOff(column >= 0 ? rowStart : current.position(), freeBuffers.take());
+            fullBuffers.put(CLOSE_SIGNAL);
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+
+        if (writeError != null) {
+            throw writeError;
+        }
+    }
+
+    /**
+     * Move to the next column, checking its type
+     *
+     * @param type Type being written
+     * @return Column index
+     */
+    private int nextColumn(ColumnType type) {
+        if (column < 0 || column >= types.length) {
+            throw new IllegalStateException("No column to write to. Call beginRow() first");
+        }
+        if (types[column] != type) {
+            throw new IllegalArgumentException(
+                    String.format("Column %d is a %s column, not %s", column, types[column], type));
+        }
+
+        // Write the seperator
+        int i = column++;
+        if (i > 0 && reserve(1)) {
+            current.put((byte) ',');
+        }
+        return i;
+    }
+
+    /**
+     * Make sure there is space in the current buffer, swapping in a new buffer if
+     * needed. The row written so far is moved to the new buffer
+     *
+     * @param bytes Bytes needed
+     * @return True if there is space, false if this row is being dropped
+     */
+    private boolean reserve(int bytes) {
+        if (droppingRow) {
+            return false;
+        }
+        if (current.remaining() >= bytes) {
+            return true;
+        }
+
+        // Rows bigger than an entire buffer can never be written
+        int rowLength = current.position() - rowStart;
+        if (rowLength + bytes > current.capacity()) {
+            droppingRow = true;
+            return false;
+        }
+
+        // Grab an empty buffer. If there are none, the writer is behind
+        ByteBuffer next = freeBuffers.poll();
+        if (next == null) {
+            droppingRow = true;
+            return false;
+        }
+
+        // Hand off every finished row. The partial row moves to the new buffer
+        handOff(rowStart, next);
+        return true;
+    }
+
+    /**
+     * Hand everything before a position in the current buffer to the writer
+     *
+     * @param end  End position
+     * @param next Empty buffer to continue writing into
+     */
+    private void handOff(int end, ByteBuffer next) {
+
+        // Move anything after the end (a partial row) to the new buffer
+        ByteBuffer full = current;
+        for (int i = end; i < full.position(); i++) {
+            next.put(full.get(i));
+        }
+        full.position(end);
+        full.flip();
+        fullBuffers.offer(full);
+        current = next;
+        rowStart = (column >= 0) ? rowStart - end : 0;
+        lastHandoffMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Write a text value, quoting it if needed
+     *
+     * @param value Text
+     */
+    private void putText(CharSequence value) {
+
+        // Check if the value needs quotes
+        boolean quote = false;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                quote = true;
+                break;
+            }
+        }
+
+        if (quote && reserve(1)) {
+            current.put((byte) '"');
+        }
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+
+            // Quotes are escaped by doubling them
+            if (c == '"' && reserve(1)) {
+                current.put((byte) '"');
+            }
+
+            // UTF-8 encode
+            if (!reserve(4)) {
+                return;
+            }
+            if (c < 0x80) {
+                current.put((byte) c);
+            } else if (c < 0x800) {
+                current.put((byte) (0xC0 | (c >> 6)));
+                current.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                current.put((byte) (0xF0 | (codePoint >> 18)));
+                current.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                current.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                current.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                current.put((byte) '?');
+            } else {
+                current.put((byte) (0xE0 | (c >> 12)));
+                current.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                current.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        if (quote && reserve(1)) {
+            current.put((byte) '"');
+        }
+    }
+
+    /**
+     * Encode a double as fixed point decimal, with trailing zeros removed. Very
+     * large values fall back to {@link Double#toString(double)}
+     *
+     * @param value  Value
+     * @param column Column index
+     */
+    private void encodeDouble(double value, int column) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            encodeAscii(Double.isNaN(value) ? "NaN" : (value > 0 ? "Infinity" : "-Infinity"));
+            return;
+        }
+
+        // Values too large for fixed point are rare enough to allow allocating
+        double magnitude = Math.abs(value);
+        if (magnitude >= maxScaled[column]) {
+            encodeAscii(Double.toString(value));
+            return;
+        }
+
+        // Split into whole and fractional digits
+        long scaled = Math.round(magnitude * scales[column]);
+        long whole = scaled / scales[column];
+        long fraction = scaled % scales[column];
+
+        if (value < 0 && scaled != 0) {
+            current.put((byte) '-');
+        }
+        encodeLong(whole);
+
+        // Write the fraction without trailing zeros
+        if (fraction != 0) {
+            int digits = decimals[column];
+            while (fraction % 10 == 0) {
+                fraction /= 10;
+                digits--;
+            }
+            current.put((byte) '.');
+            for (int d = digits - 1; d >= 0; d--) {
+                current.put((byte) ('0' + (fraction / POWERS_OF_TEN[d]) % 10));
+            }
+        }
+    }
+
+    /**
+     * Encode an integer in base 10
+     *
+     * @param value Value
+     */
+    private void encodeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            encodeAscii("-9223372036854775808");
+            return;
+        }
+        if (value < 0) {
+            current.put((byte) '-');
+            value = -value;
+        }
+
+        // Write digits backwards, then move into place
+        int start = current.position();
+        do {
+            current.put((byte) ('0' + (value % 10)));
+            value /= 10;
+        } while (value != 0);
+        for (int i = start, j = current.position() - 1; i < j; i++, j--) {
+            byte temp = current.get(i);
+            current.put(i, current.get(j));
+            current.put(j, temp);
+        }
+    }
+
+    /**
+     * Encode a constant ASCII string
+     *
+     * @param value String
+     */
+    private void encodeAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            current.put((byte) value.charAt(i));
+        }
+    }
+
+    /**
+     * Background thread that writes full buffers to disk
+     */
+    private void writeLoop() {
+        while (true) {
+            ByteBuffer buffer;
+            try {
+                buffer = fullBuffers.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (buffer == CLOSE_SIGNAL) {
+                return;
+            }
+
+            // Write the buffer. After an error, data is thrown away
+            if (writeError == null) {
+                try {
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                } catch (IOException e) {
+                    writeError = e;
+                    RobotLogger.getInstance().log("Failed to write CSV file: %s", Level.kWarning, e.getMessage());
+                }
+            }
+
+            buffer.clear();
+            freeBuffers.offer(buffer);
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package io.github.frc5024.lib5k.logging;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.github.frc5024.lib5k.logging.NetworkLogSink.Protocol;
+
+/**
+ * LogCollector receives batches from a {@link NetworkLogSink}, and writes them
+ * to a binary log file. Only complete batches are written, so the file can be
+ * read with {@link BinaryLogReader} or {@link BinaryLogDecoder} at any time,
+ * even while the robot is still sending.
+ *
+ * This is meant to run on a driver station or laptop. Run it with:
+ *
+ * <pre>
+ * ./gradlew :lib5k:collectLogs -PlogArgs="--tcp --port 5805 --output robot.l5kb"
+ * </pre>
+ */
+public class LogCollector implements AutoCloseable {
+
+    // Largest batch that will be accepted over TCP
+    private static final int MAX_BATCH_BYTES = 16 * 1024 * 1024;
+
+    // Settings
+    private final Protocol protocol;
+
+    // Output
+    private final FileChannel output;
+
+    // Network
+    private final DatagramChannel datagramChannel;
+    private final ServerSocketChannel serverChannel;
+    private final Thread receiverThread;
+    private volatile boolean closed = false;
+
+    // Statistics
+    private final AtomicLong receivedBatches = new AtomicLong();
+    private final AtomicLong rejectedBatches = new AtomicLong();
+
+    /**
+     * Create a LogCollector, and start listening. Any existing file at the output
+     * path is replaced
+     *
+     * @param protocol Transport protocol the sink uses
+     * @param port     Port to listen on, or 0 to pick any free port
+     * @param output   Binary log file to write
+     * @throws IOException Thrown if the port or file cannot be opened
+     */
+    public LogCollector(Protocol protocol, int port, Path output) throws IOException {
+        this.protocol = protocol;
+        this.output = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+
+        // Open the socket
+        try {
+            if (protocol == Protocol.kUDP) {
+                datagramChannel = DatagramChannel.open().bind(new InetSocketAddress(port));
+                serverChannel = null;
+                receiverThread = new Thread(this::receiveDatagrams, "LogCollector receiver");
+            } else {
+                serverChannel = ServerSocketChannel.open().bind(new InetSocketAddress(port));
+                datagramChannel = null;
+                receiverThread = new Thread(this::acceptConnections, "LogCollector acceptor");
+            }
+        } catch (IOException e) {
+            this.output.close();
+            throw e;
+        }
+
+        receiverThread.setDaemon(true);
+        receiverThread.start();
+    }
+
+    /**
+     * Get the port this collector is listening on
+     *
+     * @return Port
+     */
+    public int getPort() {
+        try {
+            InetSocketAddress address = (InetSocketAddress) ((protocol == Protocol.kUDP)
+                    ? datagramChannel.getLocalAddress()
+                    : serverChannel.getLocalAddress());
+            return address.getPort();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Get the number of batches written to the file
+     *
+     * @return Received batch count
+     */
+    public long getReceivedBatchCount() {
+        return receivedBatches.get();
+    }
+
+    /**
+     * Get the number of batches that were not binary logs, and were ignored
+     *
+     * @return Rejected batch count
+     */
+    public long getRejectedBatchCount() {
+        return rejectedBatches.get();
+    }
+
+    /**
+     * Stop listening, and close the file
+     *
+     * @throws IOException Thrown if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        // Closing the socket stops the receiver
+        if (datagramChannel != null) {
+            datagramChannel.close();
+        }
+        if (serverChannel != null) {
+            serverChannel.close();
+        }
+        try {
+            receiverThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (output) {
+            output.close();
+        }
+    }
+
+    /**
+     * Receiver thread for UDP. Every datagram is one batch
+     */
+    private void receiveDatagrams() {
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        while (!closed) {
+            try {
+                buffer.clear();
+                datagramChannel.receive(buffer);
+                buffer.flip();
+                writeBatch(buffer);
+            } catch (IOException e) {
+                if (!closed) {
+                    System.out.println("Failed to receive log batch: " + e.getMessage());
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Acceptor thread for TCP. Every connection gets its own receiver thread, so a
+     * robot that reconnects is never stuck behind its old connection
+     */
+    private void acceptConnections() {
+        while (!closed) {
+            try {
+                SocketChannel connection = serverChannel.accept();
+                Thread thread = new Thread(() -> receiveStream(connection), "LogCollector connection");
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException e) {
+                if (!closed) {
+                    System.out.println("Failed to accept log connection: " + e.getMessage());
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Receiver thread for a single TCP connection. Batches are prefixed with their
+     * length
+     *
+     * @param connection Connection
+     */
+    private void receiveStream(SocketChannel connection) {
+        ByteBuffer lengthPrefix = ByteBuffer.allocate(4);
+        ByteBuffer buffer = ByteBuffer.allocate(NetworkLogSink.DEFAULT_TCP_BATCH_BYTES * 2);
+
+        try (SocketChannel channel = connection) {
+            while (!closed) {
+
+                // Read the length
+                lengthPrefix.clear();
+                if (!readFully(channel, lengthPrefix)) {
+                    return;
+                }
+                int length = lengthPrefix.getInt(0);
+                if (length < 0 || length > MAX_BATCH_BYTES) {
+                    System.out.println("Closing log connection with a bad batch length: " + length);
+                    return;
+                }
+
+                // Read the batch
+                if (buffer.capacity() < length) {
+                    buffer = ByteBuffer.allocate(length);
+                }
+                buffer.clear().limit(length);
+                if (!readFully(channel, buffer)) {
+                    return;
+                }
+                buffer.flip();
+                writeBatch(buffer);
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                System.out.println("Log connection lost: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Read until a buffer is full
+     *
+     * @param channel Channel to read from
+     * @param buffer  Buffer to fill
+     * @return False if the connection ended first
+     * @throws IOException Thrown if the connection fails
+     */
+    private static boolean readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Append a batch to the file, if it looks like a binary log segment
+     *
+     * @param batch Batch contents
+     * @throws IOException Thrown if the file cannot be written
+     */
+    private void writeBatch(ByteBuffer batch) throws IOException {
+
+        // Ignore anything that does not start with a segment header
+        if (batch.remaining() < BinaryLogWriter.MAGIC.length) {
+            rejectedBatches.incrementAndGet();
+            return;
+        }
+        for (int i = 0; i < BinaryLogWriter.MAGIC.length; i++) {
+            if (batch.get(batch.position() + i) != BinaryLogWriter.MAGIC[i]) {
+                rejectedBatches.incrementAndGet();
+                return;
+            }
+        }
+
+        // Batches from different connections must not be mixed together
+        synchronized (output) {
+            if (!output.isOpen()) {
+                return;
+            }
+            while (batch.hasRemaining()) {
+                output.write(batch);
+            }
+        }
+        receivedBatches.incrementAndGet();
+    }
+
+    /**
+     * Print command line usage
+     *
+     * @param stream Stream to print to
+     */
+    private static void printUsage(PrintStream stream) {
+        stream.println("usage: LogCollector [--tcp] [-p PORT] [-o FILE]");
+        stream.println();
+        stream.println("Receive lib5k logs from a robot's NetworkLogSink, and write them to a binary log");
+        stream.println();
+        stream.println("  --tcp                  Listen for TCP connections instead of UDP datagrams");
+        stream.println("  -p, --port PORT        Port to listen on (default " + NetworkLogSink.DEFAULT_PORT + ")");
+        stream.println("  -o, --output FILE      File to write (default robot_<timestamp>.l5kb)");
+        stream.println("  -h, --help             Show this message");
+    }
+
+    /**
+     * Command line entry point
+     *
+     * @param args Command line arguments
+     */
+    public static void main(String[] args) {
+        Protocol protocol = Protocol.kUDP;
+        int port = NetworkLogSink.DEFAULT_PORT;
+        Path output = Paths.get(
+                String.format("robot_%s.l5kb", new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(new Date())));
+
+        // Parse arguments
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "-h":
+                    case "--help":
+                        printUsage(System.out);
+                        return;
+                    case "--tcp":
+                        protocol = Protocol.kTCP;
+                        break;
+                    case "-p":
+                    case "--port":
+                        port = Integer.parseInt(args[++i]);
+                        break;
+                    case "-o":
+                    case "--output":
+                        output = Paths.get(args[++i]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException(String.format("Unknown argument: %s", args[i]));
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            System.err.println((e instanceof ArrayIndexOutOfBoundsException) ? "Missing option value" : e.getMessage());
+            printUsage(System.err);
+            System.exit(1);
+        }
+
+        // Run until killed
+        try {
+            LogCollector collector = new LogCollector(protocol, port, output);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    collector.close();
+                } catch (IOException e) {
+                    System.err.println(String.format("Failed to close log: %s", e.getMessage()));
+                }
+                System.out.println(String.format("Received %d batches", collector.getReceivedBatchCount()));
+            }));
+
+            System.out.println(String.format("Listening for %s logs on port %d. Writing to %s",
+                    (protocol == Protocol.kUDP) ? "UDP" : "TCP", collector.getPort(), output));
+            collector.receiverThread.join();
+        } catch (IOException e) {
+            System.err.println(String.format("Failed to start collector: %s", e.getMessage()));
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
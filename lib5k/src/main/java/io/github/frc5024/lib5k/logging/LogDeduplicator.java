@@ -0,0 +1,231 @@
+package io.github.frc5024.lib5k.logging;
+
+import java.util.ArrayList;
+
+import io.github.frc5024.lib5k.logging.RobotLogger.Level;
+
+/**
+ * LogDeduplicator collapses runs of identical messages from the same call site.
+ * The first message of a run is logged normally, and the rest are counted. Once
+ * the call site logs something different (or every few seconds, if the run
+ * keeps going), a single summary is logged instead:
+ *
+ * <pre>
+ * WARNING at 12.34s: io...roborio.FaultReporter::handleCANStatus() -> Previous message repeated 61 times in 4.88 s
+ * </pre>
+ *
+ * Messages suppressed by a {@link LogRateLimiter} are reported in the same
+ * summary. This class is only used from the logging thread, and is not thread
+ * safe.
+ */
+public class LogDeduplicator {
+
+    /**
+     * Receives summary messages
+     */
+    public interface SummarySink {
+
+        /**
+         * Log a summary message
+         *
+         * @param callSite        Call site the summary is about
+         * @param level           Level of the summarized messages
+         * @param timestampMillis System time in milliseconds
+         * @param message         Summary message
+         */
+        void emit(int callSite, Level level, long timestampMillis, String message);
+    }
+
+    /**
+     * Run state for a single call site
+     */
+    private static class State {
+        final int callSite;
+        Level level = Level.kInfo;
+        String lastMessage = null;
+        long repeats = 0;
+        long suppressed = 0;
+        long firstRepeatMillis;
+        long lastRepeatMillis;
+        long windowStartMillis;
+        boolean pending = false;
+
+        State(int callSite) {
+            this.callSite = callSite;
+        }
+    }
+
+    /**
+     * Default time between summaries of a run that has not ended
+     */
+    public static final long DEFAULT_SUMMARY_PERIOD_MS = 5000;
+
+    // Output
+    private final SummarySink sink;
+
+    // Call site state, indexed by call site id
+    private final ArrayList<State> states = new ArrayList<>();
+    private final ArrayList<State> pendingStates = new ArrayList<>();
+
+    // Settings
+    private volatile boolean enabled = true;
+    private volatile long summaryPeriodMillis = DEFAULT_SUMMARY_PERIOD_MS;
+
+    /**
+     * Create a LogDeduplicator
+     *
+     * @param sink Where to send summary messages
+     */
+    public LogDeduplicator(SummarySink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * Enable or disable deduplication. Runs are still summarized after disabling
+     *
+     * @param enabled Deduplicate repeated messages?
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Set how often a run that has not ended is summarized
+     *
+     * @param periodMillis Summary period in milliseconds
+     */
+    public void setSummaryPeriod(long periodMillis) {
+        this.summaryPeriodMillis = periodMillis;
+    }
+
+    /**
+     * Check if a message should be logged. Repeats of the previous message from the
+     * same call site are counted instead. If this message ends a run, the run's
+     * summary is emitted first
+     *
+     * @param callSite        Call site id
+     * @param level           Log level
+     * @param message         Formatted message
+     * @param timestampMillis System time in milliseconds
+     * @return True if the message should be logged
+     */
+    public boolean accept(int callSite, Level level, String message, long timestampMillis) {
+        State state = getState(callSite);
+
+        // Count repeats
+        if (enabled && level == state.level && message.equals(state.lastMessage)) {
+            if (state.repeats == 0) {
+                state.firstRepeatMillis = timestampMillis;
+            }
+            state.repeats++;
+            state.lastRepeatMillis = timestampMillis;
+            markPending(state, timestampMillis);
+            return false;
+        }
+
+        // Something new. Close out the previous run
+        summarize(state, timestampMillis);
+        state.level = level;
+        state.lastMessage = message;
+        return true;
+    }
+
+    /**
+     * Record messages from a call site that were suppressed by a rate limit
+     *
+     * @param callSite        Call site id
+     * @param count           Number of suppressed messages
+     * @param timestampMillis System time in milliseconds
+     */
+    public void addSuppressed(int callSite, long count, long timestampMillis) {
+        if (count <= 0) {
+            return;
+        }
+        State state = getState(callSite);
+        state.suppressed += count;
+        markPending(state, timestampMillis);
+    }
+
+    /**
+     * Emit summaries for every run that has been going for longer than the summary
+     * period
+     *
+     * @param nowMillis System time in milliseconds
+     * @param force     Summarize every run, no matter how long it has gone on
+     */
+    public void flushSummaries(long nowMillis, boolean force) {
+        for (int i = pendingStates.size() - 1; i >= 0; i--) {
+            State state = pendingStates.get(i);
+            if (force || nowMillis - state.windowStartMillis >= summaryPeriodMillis) {
+                summarize(state, nowMillis);
+            }
+        }
+    }
+
+    /**
+     * Emit a summary for a call site, if it has anything to report
+     *
+     * @param state     Call site state
+     * @param nowMillis System time in milliseconds
+     */
+    private void summarize(State state, long nowMillis) {
+        if (!state.pending) {
+            return;
+        }
+
+        // Build the summary
+        String summary;
+        double runSeconds = (state.lastRepeatMillis - state.firstRepeatMillis) / 1000.0;
+        if (state.suppressed == 0) {
+            summary = String.format("Previous message repeated %d times in %.2f s", state.repeats, runSeconds);
+        } else if (state.repeats == 0) {
+            summary = String.format("%d messages suppressed by rate limit", state.suppressed);
+        } else {
+            summary = String.format("Previous message repeated %d times in %.2f s, %d messages suppressed by rate limit",
+                    state.repeats, runSeconds, state.suppressed);
+        }
+
+        // Reset the run. The last message is kept, so a run that keeps going keeps
+        // being collapsed
+        state.repeats = 0;
+        state.suppressed = 0;
+        state.pending = false;
+        pendingStates.remove(state);
+
+        sink.emit(state.callSite, state.level, nowMillis, summary);
+    }
+
+    /**
+     * Add a call site to the list of runs waiting to be summarized
+     *
+     * @param state           Call site state
+     * @param timestampMillis System time in milliseconds
+     */
+    private void markPending(State state, long timestampMillis) {
+        if (!state.pending) {
+            state.pending = true;
+            state.windowStartMillis = timestampMillis;
+            pendingStates.add(state);
+        }
+    }
+
+    /**
+     * Get the state for a call site, creating it if needed
+     *
+     * @param callSite Call site id
+     * @return State
+     */
+    private State getState(int callSite) {
+        int index = Math.max(callSite, 0);
+        while (states.size() <= index) {
+            states.add(null);
+        }
+
+        State state = states.get(index);
+        if (state == null) {
+            state = new State(index);
+            states.set(index, state);
+        }
+        return state;
+    }
+}
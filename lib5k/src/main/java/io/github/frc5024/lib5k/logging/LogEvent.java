@@ -0,0 +1,304 @@
+package io.github.frc5024.lib5k.logging;
+
+import java.util.ArrayList;
+import java.util.IllegalFormatException;
+
+import io.github.frc5024.lib5k.logging.RobotLogger.Level;
+
+/**
+ * A LogEvent is a single, reusable log record. It stores everything needed to
+ * build a log line (timestamp, level, call site, format string, and arguments)
+ * without actually formatting anything. The text is only rendered later, on
+ * the logging thread.
+ *
+ * LogEvents are owned by {@link RobotLogger}. Arguments are collected in a
+ * per-thread staging event, which is copied into the logger's buffer on
+ * {@link #commit()}. To write a message with primitive arguments and no
+ * allocation, use:
+ *
+ * <pre>
+ * logger.logEvent("Arm at %.2f degrees, step %d", Level.kDebug).arg(angle).arg(step).commit();
+ * </pre>
+ *
+ * Object arguments added with {@link #arg(Object)} are formatted late, so they
+ * should be immutable (or at least not modified after being logged).
+ */
+public class LogEvent {
+
+    /**
+     * Number of arguments that can be stored without allocating
+     */
+    public static final int MAX_ARGS = 8;
+
+    // Argument type tags
+    static final byte TYPE_DOUBLE = 0;
+    static final byte TYPE_LONG = 1;
+    static final byte TYPE_BOOLEAN = 2;
+    static final byte TYPE_OBJECT = 3;
+    static final byte TYPE_CHAR = 4;
+
+    // Owner
+    private final RobotLogger logger;
+
+    // Position in the owner's buffer, or 0 while staged. -1 if this event is not
+    // writable
+    long sequence = -1;
+
+    // Record header
+    long timestampMillis;
+    Level level;
+    int callSite;
+    String format;
+
+    // Argument slab
+    final byte[] argTypes = new byte[MAX_ARGS];
+    final double[] doubleArgs = new double[MAX_ARGS];
+    final long[] longArgs = new long[MAX_ARGS];
+    final Object[] objectArgs = new Object[MAX_ARGS];
+    int argCount;
+
+    // Arguments past MAX_ARGS. Only allocated if needed
+    Object[] overflowArgs;
+    ArrayList<Object> extraArgs;
+
+    // Rendered text, and if it has already been written to the console
+    String rendered;
+    boolean printed;
+
+    /**
+     * Create a LogEvent
+     *
+     * @param logger Owning logger. If null, this event silently ignores all writes
+     */
+    LogEvent(RobotLogger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Add a floating point argument
+     *
+     * @param value Argument
+     * @return This event
+     */
+    public LogEvent arg(double value) {
+        if (sequence >= 0) {
+            if (argCount < MAX_ARGS) {
+                argTypes[argCount] = TYPE_DOUBLE;
+                doubleArgs[argCount++] = value;
+            } else {
+                addExtra(value);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Add an integer argument
+     *
+     * @param value Argument
+     * @return This event
+     */
+    public LogEvent arg(long value) {
+        if (sequence >= 0) {
+            if (argCount < MAX_ARGS) {
+                argTypes[argCount] = TYPE_LONG;
+                longArgs[argCount++] = value;
+            } else {
+                addExtra(value);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Add a character argument
+     *
+     * @param value Argument
+     * @return This event
+     */
+    public LogEvent arg(char value) {
+        if (sequence >= 0) {
+            if (argCount < MAX_ARGS) {
+                argTypes[argCount] = TYPE_CHAR;
+                longArgs[argCount++] = value;
+            } else {
+                addExtra(value);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Add a boolean argument
+     *
+     * @param value Argument
+     * @return This event
+     */
+    public LogEvent arg(boolean value) {
+        if (sequence >= 0) {
+            if (argCount < MAX_ARGS) {
+                argTypes[argCount] = TYPE_BOOLEAN;
+                longArgs[argCount++] = value ? 1 : 0;
+            } else {
+                addExtra(value);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Add an object argument. This is formatted later, on the logging thread
+     *
+     * @param value Argument
+     * @return This event
+     */
+    public LogEvent arg(Object value) {
+        if (sequence >= 0) {
+            if (argCount < MAX_ARGS) {
+                argTypes[argCount] = TYPE_OBJECT;
+                objectArgs[argCount++] = value;
+            } else {
+                addExtra(value);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Hand this event to the logger. The event must not be touched after this
+     */
+    public void commit() {
+        if (sequence >= 0) {
+            logger.commit(this);
+        }
+    }
+
+    /**
+     * Store an argument past the end of the slab
+     *
+     * @param value Argument
+     */
+    private void addExtra(Object value) {
+        if (extraArgs == null) {
+            extraArgs = new ArrayList<>();
+        }
+        extraArgs.add(value);
+    }
+
+    /**
+     * Get the total number of arguments attached to this event
+     *
+     * @return Argument count
+     */
+    int getTotalArgCount() {
+        if (overflowArgs != null) {
+            return overflowArgs.length;
+        }
+        return argCount + ((extraArgs == null) ? 0 : extraArgs.size());
+    }
+
+    /**
+     * Get a single argument as an object
+     *
+     * @param i Argument index
+     * @return Argument
+     */
+    Object getArg(int i) {
+        if (overflowArgs != null) {
+            return overflowArgs[i];
+        }
+        if (i >= argCount) {
+            return extraArgs.get(i - argCount);
+        }
+        switch (argTypes[i]) {
+            case TYPE_DOUBLE:
+                return doubleArgs[i];
+            case TYPE_LONG:
+                return longArgs[i];
+            case TYPE_BOOLEAN:
+                return longArgs[i] != 0;
+            case TYPE_CHAR:
+                return (char) longArgs[i];
+            default:
+                return objectArgs[i];
+        }
+    }
+
+    /**
+     * Format the message part of this event. This allocates, and should only be
+     * called from the logging thread
+     *
+     * @return Formatted message
+     */
+    String formatMessage() {
+
+        // Collect the arguments
+        int count = getTotalArgCount();
+        Object[] args = new Object[count];
+        for (int i = 0; i < count; i++) {
+            args[i] = getArg(i);
+        }
+
+        // Never let a bad format string take down the logging thread
+        try {
+            return String.format(format, args);
+        } catch (IllegalFormatException e) {
+            return String.format("%s [bad format: %s]", format, e.getMessage());
+        }
+    }
+
+    /**
+     * Prepare this event for a new record
+     *
+     * @param sequence        Buffer sequence number
+     * @param timestampMillis System time in milliseconds
+     * @param level           Log level
+     * @param callSite        Call site id
+     * @param format          Format string
+     */
+    void reset(long sequence, long timestampMillis, Level level, int callSite, String format) {
+        this.sequence = sequence;
+        this.timestampMillis = timestampMillis;
+        this.level = level;
+        this.callSite = callSite;
+        this.format = format;
+        this.argCount = 0;
+        this.overflowArgs = null;
+        this.extraArgs = null;
+        this.rendered = null;
+        this.printed = false;
+    }
+
+    /**
+     * Copy the header and arguments of another event into this one. Object
+     * arguments are moved, not cloned
+     *
+     * @param other    Event to copy
+     * @param sequence Buffer sequence number of this event
+     */
+    void copyFrom(LogEvent other, long sequence) {
+        reset(sequence, other.timestampMillis, other.level, other.callSite, other.format);
+        System.arraycopy(other.argTypes, 0, argTypes, 0, other.argCount);
+        System.arraycopy(other.doubleArgs, 0, doubleArgs, 0, other.argCount);
+        System.arraycopy(other.longArgs, 0, longArgs, 0, other.argCount);
+        System.arraycopy(other.objectArgs, 0, objectArgs, 0, other.argCount);
+        this.argCount = other.argCount;
+        this.overflowArgs = other.overflowArgs;
+        this.extraArgs = other.extraArgs;
+    }
+
+    /**
+     * Let go of every reference held by this event, so the logged objects can be
+     * garbage collected while the slot waits to be reused
+     */
+    void clear() {
+        for (int i = 0; i < argCount; i++) {
+            objectArgs[i] = null;
+        }
+        overflowArgs = null;
+        extraArgs = null;
+        rendered = null;
+        format = null;
+        sequence = -1;
+    }
+}
@@ -0,0 +1,369 @@
+package io.github.frc5024.lib5k.logging;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import edu.wpi.first.networktables.EntryListenerFlags;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEntry;
+import io.github.frc5024.lib5k.logging.RobotLogger.Level;
+
+/**
+ * LogLevelFilter decides which log messages are worth keeping. It has a global
+ * minimum level, and any number of per-package minimum levels. The longest
+ * matching package prefix wins.
+ *
+ * Filtering is done in two steps. First, a message is checked against the
+ * lowest level any rule allows. Messages below that are thrown away before the
+ * caller is even looked up. Only messages that might pass a package rule pay
+ * for a (cached) caller lookup.
+ */
+public class LogLevelFilter {
+
+    /**
+     * A single package rule
+     */
+    private static class Rule {
+        final String prefix;
+        final Level level;
+
+        Rule(String prefix, Level level) {
+            this.prefix = prefix;
+            this.level = level;
+        }
+    }
+
+    // Used to find the class behind a call site
+    private final CallerResolver resolver;
+
+    // Rules. These are replaced, never modified
+    private volatile Level globalLevel = Level.kDebug;
+    private volatile Rule[] rules = new Rule[0];
+
+    // Lowest severity that any rule allows
+    private volatile int minimumSeverity = Level.kDebug.severity;
+
+    // Per-call-site threshold cache. Entries are severity + 1, and 0 means unknown.
+    // The whole array is replaced when the rules change
+    private final AtomicReference<byte[]> thresholdCache = new AtomicReference<>(new byte[64]);
+
+    // NetworkTables entries, if bound
+    private NetworkTableEntry minimumLevelEntry = null;
+    private NetworkTableEntry packageLevelsEntry = null;
+
+    /**
+     * Create a LogLevelFilter
+     *
+     * @param resolver Resolver used to find the class behind each call site
+     */
+    public LogLevelFilter(CallerResolver resolver) {
+        this.resolver = resolver;
+    }
+
+    /**
+     * Check if a message at this level could pass any rule. This is very cheap,
+     * and does not need to know the caller
+     *
+     * @param level Log level
+     * @return Could the message be logged?
+     */
+    public boolean isPossiblyEnabled(Level level) {
+        return level.severity >= minimumSeverity;
+    }
+
+    /**
+     * Check if a message from a call site should be logged
+     *
+     * @param callSite Call site id from {@link CallerResolver}
+     * @param level    Log level
+     * @return Should the message be logged?
+     */
+    public boolean isEnabled(int callSite, Level level) {
+
+        // Read the cache before the rules, so a cache built for new rules is never
+        // filled in using old ones
+        byte[] cache = thresholdCache.get();
+        Rule[] currentRules = rules;
+
+        // Without package rules, there is nothing to look up
+        if (currentRules.length == 0) {
+            return level.severity >= globalLevel.severity;
+        }
+
+        // Check the cache
+        if (callSite >= 0 && callSite < cache.length && cache[callSite] != 0) {
+            return level.severity >= cache[callSite] - 1;
+        }
+
+        // Work out the threshold for this call site, and cache it
+        int threshold = findLevel(currentRules, resolver.getClassName(callSite)).severity;
+        storeThreshold(cache, callSite, threshold);
+
+        return level.severity >= threshold;
+    }
+
+    /**
+     * Set the minimum level for messages that do not match any package rule
+     *
+     * @param level Minimum level
+     */
+    public synchronized void setMinimumLevel(Level level) {
+        globalLevel = level;
+        rulesChanged();
+    }
+
+    /**
+     * Get the minimum level for messages that do not match any package rule
+     *
+     * @return Minimum level
+     */
+    public Level getMinimumLevel() {
+        return globalLevel;
+    }
+
+    /**
+     * Set the minimum level for every class in a package (or a single class)
+     *
+     * @param packagePrefix Package or class name. For example:
+     *                      io.github.frc5024.libkontrol
+     * @param level         Minimum level, or null to remove the rule
+     */
+    public synchronized void setPackageLevel(String packagePrefix, Level level) {
+
+        // Copy every other rule
+        Rule[] newRules = Arrays.stream(rules).filter((rule) -> !rule.prefix.equals(packagePrefix))
+                .toArray(Rule[]::new);
+
+        // Add the new rule
+        if (level != null) {
+            newRules = Arrays.copyOf(newRules, newRules.length + 1);
+            newRules[newRules.length - 1] = new Rule(packagePrefix, level);
+        }
+
+        // Longest prefixes are checked first
+        Arrays.sort(newRules, (a, b) -> b.prefix.length() - a.prefix.length());
+
+        rules = newRules;
+        rulesChanged();
+    }
+
+    /**
+     * Remove every package rule
+     */
+    public synchronized void clearPackageLevels() {
+        rules = new Rule[0];
+        rulesChanged();
+    }
+
+    /**
+     * Replace every package rule with rules from a string like:
+     * "io.github.frc5024.libkontrol=WARNING, frc.robot.subsystems=DEBUG". A
+     * package named "*" sets the global minimum level.
+     *
+     * @param spec Rule string
+     * @throws IllegalArgumentException Thrown if the string cannot be parsed
+     */
+    public synchronized void configure(String spec) {
+
+        // Parse everything before changing anything
+        Rule[] parsed = parseRules(spec);
+
+        // Split out the global rule
+        for (Rule rule : parsed) {
+            if (rule.prefix.equals("*")) {
+                globalLevel = rule.level;
+            }
+        }
+        Rule[] packageRules = Arrays.stream(parsed).filter((rule) -> !rule.prefix.equals("*"))
+                .sorted((a, b) -> b.prefix.length() - a.prefix.length()).toArray(Rule[]::new);
+
+        rules = packageRules;
+        rulesChanged();
+    }
+
+    /**
+     * Get the current package rules in the same format accepted by
+     * {@link #configure(String)}
+     *
+     * @return Rule string
+     */
+    public String getPackageLevels() {
+        StringBuilder builder = new StringBuilder();
+        for (Rule rule : rules) {
+            if (builder.length() > 0) {
+                builder.append(", ");
+            }
+            builder.append(rule.prefix).append("=").append(rule.level.name);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Publish the filter settings to NetworkTables, and apply any changes made to
+     * them from the dashboard. The table gets two string entries: "MinimumLevel",
+     * and "PackageLevels" (see {@link #configure(String)})
+     *
+     * @param table Table to use
+     */
+    public synchronized void bindToTelemetry(NetworkTable table) {
+        if (minimumLevelEntry != null) {
+            return;
+        }
+
+        minimumLevelEntry = table.getEntry("MinimumLevel");
+        packageLevelsEntry = table.getEntry("PackageLevels");
+        publish();
+
+        // Apply remote changes
+        int flags = EntryListenerFlags.kNew | EntryListenerFlags.kUpdate;
+        minimumLevelEntry.addListener((notification) -> {
+            if (notification.value.isString()) {
+                try {
+                    setMinimumLevel(parseLevel(notification.value.getString()));
+                } catch (IllegalArgumentException e) {
+                    RobotLogger.getInstance().log("Ignoring invalid minimum log level: %s", Level.kWarning,
+                            notification.value.getString());
+                }
+            }
+        }, flags);
+        packageLevelsEntry.addListener((notification) -> {
+            if (notification.value.isString()) {
+                try {
+                    configure(notification.value.getString());
+                } catch (IllegalArgumentException e) {
+                    RobotLogger.getInstance().log("Ignoring invalid package log levels: %s", Level.kWarning,
+                            notification.value.getString());
+                }
+            }
+        }, flags);
+    }
+
+    /**
+     * Parse a level name. Both enum names (kWarning) and display names (WARNING)
+     * are accepted
+     *
+     * @param name Level name
+     * @return Level
+     * @throws IllegalArgumentException Thrown if the name is not a level
+     */
+    public static Level parseLevel(String name) {
+        String trimmed = name.trim();
+        for (Level level : Level.values()) {
+            if (level.name().equalsIgnoreCase(trimmed)) {
+                return level;
+            }
+        }
+
+        // Display names are shared by a few levels, so map them explicitly
+        switch (trimmed.toUpperCase()) {
+            case "DEBUG":
+                return Level.kDebug;
+            case "INFO":
+                return Level.kInfo;
+            case "WARNING":
+            case "WARN":
+                return Level.kWarning;
+            default:
+                throw new IllegalArgumentException(String.format("Unknown log level: %s", name));
+        }
+    }
+
+    /**
+     * Parse a rule string
+     *
+     * @param spec Rule string
+     * @return Rules
+     */
+    private static Rule[] parseRules(String spec) {
+        return Arrays.stream(spec.split("[,;]")).map(String::trim).filter((part) -> !part.isEmpty())
+                .map((part) -> {
+                    int split = part.indexOf('=');
+                    if (split <= 0) {
+                        throw new IllegalArgumentException(String.format("Invalid log level rule: %s", part));
+                    }
+                    return new Rule(part.substring(0, split).trim(), parseLevel(part.substring(split + 1)));
+                }).toArray(Rule[]::new);
+    }
+
+    /**
+     * Find the level that applies to a class
+     *
+     * @param currentRules Rules to search
+     * @param className    Fully qualified class name
+     * @return Level
+     */
+    private Level findLevel(Rule[] currentRules, String className) {
+        for (Rule rule : currentRules) {
+            if (matchesPrefix(className, rule.prefix)) {
+                return rule.level;
+            }
+        }
+        return globalLevel;
+    }
+
+    /**
+     * Check if a class is inside a package (or is the class itself). Prefixes only
+     * match whole name segments, so "frc.robot" matches "frc.robot.Main" but not
+     * "frc.robotics.Main"
+     *
+     * @param className     Fully qualified class name
+     * @param packagePrefix Package or class name
+     * @return Does the class match?
+     */
+    static boolean matchesPrefix(String className, String packagePrefix) {
+        return className.startsWith(packagePrefix) && (className.length() == packagePrefix.length()
+                || className.charAt(packagePrefix.length()) == '.'
+                || className.charAt(packagePrefix.length()) == '$');
+    }
+
+    /**
+     * Save a call site's threshold in the cache, growing it if needed
+     *
+     * @param cache     The cache that was read
+     * @param callSite  Call site id
+     * @param threshold Threshold severity
+     */
+    private void storeThreshold(byte[] cache, int callSite, int threshold) {
+        if (callSite < 0) {
+            return;
+        }
+
+        if (callSite < cache.length) {
+            cache[callSite] = (byte) (threshold + 1);
+        } else {
+            byte[] grown = Arrays.copyOf(cache, Math.max(callSite + 1, cache.length * 2));
+            grown[callSite] = (byte) (threshold + 1);
+
+            // If the rules changed in the meantime, just skip caching
+            thresholdCache.compareAndSet(cache, grown);
+        }
+    }
+
+    /**
+     * Recompute derived state after the rules change
+     */
+    private void rulesChanged() {
+
+        // Find the lowest severity any rule allows
+        int lowest = globalLevel.severity;
+        for (Rule rule : rules) {
+            lowest = Math.min(lowest, rule.level.severity);
+        }
+
+        // Invalidate the cache
+        thresholdCache.set(new byte[thresholdCache.get().length]);
+        minimumSeverity = lowest;
+
+        publish();
+    }
+
+    /**
+     * Push the current settings to NetworkTables
+     */
+    private void publish() {
+        if (minimumLevelEntry != null) {
+            minimumLevelEntry.setString(globalLevel.name);
+            packageLevelsEntry.setString(getPackageLevels());
+        }
+    }
+}
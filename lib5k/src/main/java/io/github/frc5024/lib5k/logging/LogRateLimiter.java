@@ -0,0 +1,208 @@
+package io.github.frc5024.lib5k.logging;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.github.frc5024.lib5k.logging.RobotLogger.Level;
+
+/**
+ * LogRateLimiter caps how many messages each call site may log per second.
+ * Every level has its own rate and burst size, so a flood of warnings from one
+ * method cannot fill the log buffer and crowd out everything else.
+ *
+ * Each call site is a single lock-free counter (a generic cell rate algorithm
+ * bucket), so checking a limit costs one clock read and one compare-and-set.
+ * Levels without a limit skip the check entirely. Messages without a known
+ * call site are never limited.
+ */
+public class LogRateLimiter {
+
+    /**
+     * Per-call-site state. Both arrays are replaced together when more call sites
+     * are needed
+     */
+    private static class Slots {
+        // Theoretical arrival time of the next message, in nanoseconds
+        final AtomicLongArray arrivalTimes;
+
+        // Number of messages suppressed since last asked
+        final AtomicLongArray suppressed;
+
+        Slots(int size) {
+            this.arrivalTimes = new AtomicLongArray(size);
+            this.suppressed = new AtomicLongArray(size);
+        }
+    }
+
+    // Per-level limits, indexed by ordinal. An interval of 0 means unlimited.
+    // These arrays are replaced, never modified
+    private volatile long[] intervalNanos = new long[Level.values().length];
+    private volatile long[] toleranceNanos = new long[Level.values().length];
+
+    // Call site state
+    private final AtomicReference<Slots> slots = new AtomicReference<>(new Slots(64));
+
+    // Set when anything has been suppressed, so reporting can skip a scan
+    private volatile boolean anySuppressed = false;
+
+    /**
+     * Limit how often each call site may log at a level
+     *
+     * @param level             Log level
+     * @param messagesPerSecond Sustained messages per second, per call site
+     * @param burst             Number of messages allowed at once before the rate
+     *                          applies
+     */
+    public synchronized void setRateLimit(Level level, double messagesPerSecond, int burst) {
+        if (messagesPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+
+        long interval = Math.max(1, (long) (1e9 / messagesPerSecond));
+        long[] newIntervals = intervalNanos.clone();
+        long[] newTolerances = toleranceNanos.clone();
+        newIntervals[level.ordinal()] = interval;
+        newTolerances[level.ordinal()] = interval * (burst - 1);
+
+        toleranceNanos = newTolerances;
+        intervalNanos = newIntervals;
+    }
+
+    /**
+     * Remove the rate limit from a level
+     *
+     * @param level Log level
+     */
+    public synchronized void clearRateLimit(Level level) {
+        long[] newIntervals = intervalNanos.clone();
+        newIntervals[level.ordinal()] = 0;
+        intervalNanos = newIntervals;
+    }
+
+    /**
+     * Check if a level has a rate limit
+     *
+     * @param level Log level
+     * @return Is limited?
+     */
+    public boolean isLimited(Level level) {
+        return intervalNanos[level.ordinal()] != 0;
+    }
+
+    /**
+     * Check if a call site may log a message right now. If it may not, the message
+     * is counted as suppressed
+     *
+     * @param callSite Call site id from {@link CallerResolver}
+     * @param level    Log level
+     * @return True if the message may be logged
+     */
+    public boolean tryAcquire(int callSite, Level level) {
+
+        // Most levels are not limited, so do not even read the clock
+        if (intervalNanos[level.ordinal()] == 0 || callSite <= CallerResolver.UNKNOWN_CALLER_ID) {
+            return true;
+        }
+        return tryAcquire(callSite, level, System.nanoTime());
+    }
+
+    /**
+     * Check if a call site may log a message at a specific time
+     *
+     * @param callSite Call site id
+     * @param level    Log level
+     * @param nowNanos Current time in nanoseconds
+     * @return True if the message may be logged
+     */
+    boolean tryAcquire(int callSite, Level level, long nowNanos) {
+        long interval = intervalNanos[level.ordinal()];
+        long tolerance = toleranceNanos[level.ordinal()];
+        if (interval == 0 || callSite <= CallerResolver.UNKNOWN_CALLER_ID) {
+            return true;
+        }
+
+        Slots current = getSlots(callSite);
+        while (true) {
+            long arrival = current.arrivalTimes.get(callSite);
+
+            // A zero arrival time means this call site has never logged
+            long earliest = (arrival == 0 || arrival - nowNanos < 0) ? nowNanos : arrival;
+
+            // Too far ahead of schedule
+            if (earliest - nowNanos > tolerance) {
+                current.suppressed.incrementAndGet(callSite);
+                anySuppressed = true;
+                return false;
+            }
+
+            if (current.arrivalTimes.compareAndSet(callSite, arrival, earliest + interval)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Check if any message has been suppressed since the last call to
+     * {@link #takeSuppressedCount(int)}
+     *
+     * @return Anything suppressed?
+     */
+    public boolean hasSuppressed() {
+        return anySuppressed;
+    }
+
+    /**
+     * Get the number of call site ids that may have state
+     *
+     * @return Call site capacity
+     */
+    public int getCallSiteCapacity() {
+        return slots.get().suppressed.length();
+    }
+
+    /**
+     * Get and reset the number of messages a call site has had suppressed
+     *
+     * @param callSite Call site id
+     * @return Suppressed message count
+     */
+    public long takeSuppressedCount(int callSite) {
+        Slots current = slots.get();
+        if (callSite < 0 || callSite >= current.suppressed.length()) {
+            return 0;
+        }
+        return current.suppressed.getAndSet(callSite, 0);
+    }
+
+    /**
+     * Clear the flag set by suppressed messages. Call this before scanning every
+     * call site with {@link #takeSuppressedCount(int)}
+     */
+    public void clearSuppressedFlag() {
+        anySuppressed = false;
+    }
+
+    /**
+     * Get slots large enough to hold a call site, growing them if needed
+     *
+     * @param callSite Call site id
+     * @return Slots
+     */
+    private Slots getSlots(int callSite) {
+        while (true) {
+            Slots current = slots.get();
+            if (callSite < current.arrivalTimes.length()) {
+                return current;
+            }
+
+            // Copy everything into bigger arrays. A racing update to the old arrays can
+            // be lost here, which only means one extra (or one fewer) message
+            Slots grown = new Slots(Math.max(callSite + 1, current.arrivalTimes.length() * 2));
+            for (int i = 0; i < current.arrivalTimes.length(); i++) {
+                grown.arrivalTimes.set(i, current.arrivalTimes.get(i));
+                grown.suppressed.set(i, current.suppressed.get(i));
+            }
+            slots.compareAndSet(current, grown);
+        }
+    }
+}
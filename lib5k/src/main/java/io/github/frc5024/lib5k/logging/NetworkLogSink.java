@@ -0,0 +1,428 @@
+package io.github.frc5024.lib5k.logging;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.UnresolvedAddressException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.github.frc5024.lib5k.hardware.ni.roborio.fpga.FPGAClock;
+
+/**
+ * NetworkLogSink streams {@link RobotLogger} events to another computer (for
+ * example, a laptop running {@link LogCollector}) over UDP or TCP.
+ *
+ * Events are encoded in the {@link BinaryLogWriter} format, and grouped into
+ * batches. Every batch is a complete segment, with its own header and string
+ * table, so any batch can be decoded without the ones before it. Over UDP,
+ * each batch is one datagram. Over TCP, each batch is prefixed with its length
+ * as a 4 byte big endian integer.
+ *
+ * Batches are built on the logging thread, and sent by a background thread
+ * through a bounded queue. If the network can not keep up (or is down), the
+ * oldest waiting batch is thrown away to make room for the newest, so logging
+ * never waits on the network.
+ */
+public class NetworkLogSink implements AutoCloseable {
+
+    /**
+     * Transport protocol
+     */
+    public enum Protocol {
+        kUDP, kTCP;
+    }
+
+    /**
+     * Default port. This is in the range of ports teams may use on the field
+     */
+    public static final int DEFAULT_PORT = 5805;
+
+    /**
+     * Default number of batches that may wait to be sent
+     */
+    public static final int DEFAULT_QUEUE_BATCHES = 64;
+
+    /**
+     * Default batch size for UDP. This keeps datagrams from being fragmented
+     */
+    public static final int DEFAULT_UDP_BATCH_BYTES = 1200;
+
+    /**
+     * Default batch size for TCP
+     */
+    public static final int DEFAULT_TCP_BATCH_BYTES = 16 * 1024;
+
+    // Time a partial batch may wait before being sent
+    private static final long BATCH_PERIOD_MS = 100;
+
+    // TCP connection settings
+    private static final int CONNECT_TIMEOUT_MS = 1000;
+    private static final long RECONNECT_PERIOD_MS = 1000;
+
+    // Time close() waits for queued batches to be sent
+    private static final long CLOSE_TIMEOUT_MS = 2000;
+
+    /**
+     * A batch of encoded events
+     */
+    private static class Batch {
+        byte[] data;
+        int length = 0;
+
+        Batch(int capacity) {
+            this.data = new byte[capacity];
+        }
+    }
+
+    // Destination
+    private final Protocol protocol;
+    private final String host;
+    private final int port;
+    private InetSocketAddress address;
+
+    // Batch building. Only touched from the logging thread
+    private final int maxBatchBytes;
+    private final BinaryLogEncoder encoder;
+    private int batchIndex = 0;
+    private long batchStartMillis;
+
+    // Batches ready to fill, and batches waiting to be sent. There is always one
+    // more batch than the send queue can hold, for the sender to work on
+    private final ArrayBlockingQueue<Batch> freeBatches;
+    private final ArrayBlockingQueue<Batch> queuedBatches;
+
+    // Sender
+    private final Thread senderThread;
+    private volatile DatagramChannel datagramChannel;
+    private volatile SocketChannel socketChannel;
+    private final ByteBuffer lengthPrefix = ByteBuffer.allocate(4);
+    private volatile boolean closed = false;
+
+    // Statistics
+    private final AtomicLong sentBatches = new AtomicLong();
+    private final AtomicLong droppedBatches = new AtomicLong();
+    private volatile boolean connected = false;
+
+    /**
+     * Create a NetworkLogSink with the default batch and queue sizes
+     *
+     * @param protocol Transport protocol
+     * @param host     Host name or address of the collector
+     * @param port     Port the collector listens on
+     */
+    public NetworkLogSink(Protocol protocol, String host, int port) {
+        this(protocol, host, port,
+                (protocol == Protocol.kUDP) ? DEFAULT_UDP_BATCH_BYTES : DEFAULT_TCP_BATCH_BYTES,
+                DEFAULT_QUEUE_BATCHES);
+    }
+
+    /**
+     * Create a NetworkLogSink
+     *
+     * @param protocol      Transport protocol
+     * @param host          Host name or address of the collector
+     * @param port          Port the collector listens on
+     * @param maxBatchBytes Size at which a batch is sent right away
+     * @param queueBatches  Number of batches that may wait to be sent
+     */
+    public NetworkLogSink(Protocol protocol, String host, int port, int maxBatchBytes, int queueBatches) {
+        if (maxBatchBytes < 64 || queueBatches < 1) {
+            throw new IllegalArgumentException("Batches must be at least 64 bytes, and at least one must be queued");
+        }
+
+        this.protocol = protocol;
+        this.host = host;
+        this.port = port;
+
+        // The name is looked up on the sender thread, so this never blocks
+        this.address = InetSocketAddress.createUnresolved(host, port);
+        this.maxBatchBytes = maxBatchBytes;
+        this.encoder = new BinaryLogEncoder(maxBatchBytes + 256);
+
+        // Allocate every batch up front
+        this.freeBatches = new ArrayBlockingQueue<>(queueBatches + 1);
+        this.queuedBatches = new ArrayBlockingQueue<>(queueBatches);
+        for (int i = 0; i < queueBatches + 1; i++) {
+            freeBatches.add(new Batch(maxBatchBytes + 256));
+        }
+
+        // Start sending
+        this.senderThread = new Thread(this::sendLoop, "NetworkLogSink sender");
+        this.senderThread.setDaemon(true);
+        this.senderThread.start();
+    }
+
+    /**
+     * Add a single event to the current batch. Called from the logging thread
+     *
+     * @param event    Event to write
+     * @param resolver Resolver that produced the event's call site id
+     */
+    synchronized void write(LogEvent event, CallerResolver resolver) {
+        if (closed) {
+            return;
+        }
+
+        // Every batch starts its own segment
+        if (encoder.getLength() == 0) {
+            batchStartMillis = System.currentTimeMillis();
+            encoder.beginSegment(batchIndex, batchStartMillis, (long) (FPGAClock.getFPGASeconds() * 1000000.0));
+        }
+
+        encoder.encode(event, resolver);
+
+        // Send the batch once it fills up
+        if (encoder.getLength() >= maxBatchBytes) {
+            enqueueBatch();
+        }
+    }
+
+    /**
+     * Send the current batch if it has been waiting for a while. Called once per
+     * logging cycle
+     *
+     * @param nowMillis System time in milliseconds
+     */
+    synchronized void flushIfDue(long nowMillis) {
+        if (encoder.getLength() > 0 && nowMillis - batchStartMillis >= BATCH_PERIOD_MS) {
+            enqueueBatch();
+        }
+    }
+
+    /**
+     * Queue the current batch to be sent, no matter how small it is
+     */
+    public synchronized void flush() {
+        if (encoder.getLength() > 0) {
+            enqueueBatch();
+        }
+    }
+
+    /**
+     * Get the number of batches sent
+     *
+     * @return Sent batch count
+     */
+    public long getSentBatchCount() {
+        return sentBatches.get();
+    }
+
+    /**
+     * Get the number of batches thrown away because the network could not keep up,
+     * or a send failed
+     *
+     * @return Dropped batch count
+     */
+    public long getDroppedBatchCount() {
+        return droppedBatches.get();
+    }
+
+    /**
+     * Check if the TCP connection is up. UDP is always considered connected
+     *
+     * @return Is connected?
+     */
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * Send anything left, waiting a short time for the queue to empty, and close
+     * the connection
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            flush();
+            closed = true;
+        }
+
+        // Give the sender a chance to empty the queue, then stop it if it is stuck on
+        // the network
+        try {
+            senderThread.join(CLOSE_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        senderThread.interrupt();
+        closeChannels();
+    }
+
+    /**
+     * Move the current batch to the send queue. If the queue is full, the oldest
+     * queued batch is dropped to make room
+     */
+    private void enqueueBatch() {
+
+        // Take a free batch, or steal the oldest one waiting to be sent
+        Batch batch = freeBatches.poll();
+        if (batch == null) {
+            batch = queuedBatches.poll();
+            if (batch == null) {
+                // Should not happen, since there is a spare batch for the sender
+                encoder.clearBuffer();
+                droppedBatches.incrementAndGet();
+                return;
+            }
+            droppedBatches.incrementAndGet();
+        }
+
+        // Copy the encoded bytes
+        int length = encoder.getLength();
+        if (batch.data.length < length) {
+            batch.data = new byte[length];
+        }
+        System.arraycopy(encoder.getBuffer(), 0, batch.data, 0, length);
+        batch.length = length;
+        encoder.clearBuffer();
+        batchIndex++;
+
+        // This can not fail, since a batch was just taken from one of the queues
+        queuedBatches.offer(batch);
+    }
+
+    /**
+     * Sender thread. Sends queued batches until closed
+     */
+    private void sendLoop() {
+        Batch batch = null;
+        while (true) {
+            try {
+                // Wait for something to send
+                if (batch == null) {
+                    batch = queuedBatches.poll(BATCH_PERIOD_MS, TimeUnit.MILLISECONDS);
+                    if (batch == null) {
+                        if (closed) {
+                            return;
+                        }
+                        continue;
+                    }
+                }
+
+                // Hold on to the batch until the link is up. Meanwhile, new batches
+                // keep replacing the oldest queued ones
+                if (!ensureChannel()) {
+                    if (closed) {
+                        droppedBatches.incrementAndGet();
+                        return;
+                    }
+                    Thread.sleep(RECONNECT_PERIOD_MS);
+                    continue;
+                }
+
+                try {
+                    send(batch);
+                    sentBatches.incrementAndGet();
+                } catch (IOException | UnresolvedAddressException e) {
+                    droppedBatches.incrementAndGet();
+                    closeChannels();
+                }
+
+                // Hand the batch back to the logging thread
+                freeBatches.offer(batch);
+                batch = null;
+
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Send a single batch
+     *
+     * @param batch Batch to send
+     * @throws IOException Thrown if the batch can not be sent
+     */
+    private void send(Batch batch) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(batch.data, 0, batch.length);
+
+        // The channels may be closed from another thread at any time
+        DatagramChannel datagram = datagramChannel;
+        SocketChannel socket = socketChannel;
+
+        if (protocol == Protocol.kUDP) {
+            if (datagram == null) {
+                throw new IOException("Channel closed");
+            }
+            datagram.send(buffer, address);
+        } else {
+            if (socket == null) {
+                throw new IOException("Channel closed");
+            }
+            lengthPrefix.clear();
+            lengthPrefix.putInt(batch.length);
+            lengthPrefix.flip();
+            while (lengthPrefix.hasRemaining()) {
+                socket.write(lengthPrefix);
+            }
+            while (buffer.hasRemaining()) {
+                socket.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Open the channel if it is not open
+     *
+     * @return True if the channel is ready
+     */
+    private boolean ensureChannel() {
+        try {
+            // Look up the name, retrying lookups that failed before
+            if (address.isUnresolved()) {
+                address = new InetSocketAddress(host, port);
+                if (address.isUnresolved()) {
+                    return false;
+                }
+            }
+
+            if (protocol == Protocol.kUDP) {
+                if (datagramChannel == null) {
+                    datagramChannel = DatagramChannel.open();
+                    connected = true;
+                }
+            } else if (socketChannel == null) {
+                SocketChannel channel = SocketChannel.open();
+                try {
+                    channel.socket().setTcpNoDelay(true);
+                    channel.socket().connect(address, CONNECT_TIMEOUT_MS);
+                } catch (IOException e) {
+                    channel.close();
+                    throw e;
+                }
+                socketChannel = channel;
+                connected = true;
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Close any open channels
+     */
+    private synchronized void closeChannels() {
+        connected = false;
+        try {
+            if (datagramChannel != null) {
+                datagramChannel.close();
+            }
+            if (socketChannel != null) {
+                socketChannel.close();
+            }
+        } catch (IOException e) {
+            // Nothing else can be done with a broken channel
+        }
+        datagramChannel = null;
+        socketChannel = null;
+    }
+}
@@ -1,12 +1,14 @@
 package io.github.frc5024.lib5k.logging;
 
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Arrays;
+import java.nio.file.Paths;
+import java.util.function.Consumer;
 
 import edu.wpi.first.wpilibj.Notifier;
 import edu.wpi.first.wpilibj.RobotBase;
+import io.github.frc5024.lib5k.telemetry.ComponentTelemetry;
+import io.github.frc5024.lib5k.utils.RingBuffer;
+import io.github.frc5024.lib5k.utils.RingBuffer.OverflowPolicy;
 import io.github.frc5024.lib5k.utils.annotations.FieldTested;
 import io.github.frc5024.lib5k.utils.annotations.Tested;
 import io.github.frc5024.lib5k.utils.annotations.TestedInSimulation;
@@ -20,12 +22,47 @@ import io.github.frc5024.lib5k.utils.annotations.TestedInSimulation;
 public class RobotLogger {
     private static RobotLogger instance = null;
     private Notifier notifier;
-    ArrayList<String> periodic_buffer = new ArrayList<String>();
     private USBLogger m_usbLogger;
+    private BinaryLogWriter m_binaryLogger;
+    private NetworkLogSink m_networkSink;
     private double bootTime;
 
-    // Simulation logfile
-    private FileWriter simWriter;
+    // Buffer of log events shared between every logging thread and the notifier
+    private static final int BUFFER_CAPACITY = 2048;
+    RingBuffer<LogEvent> periodic_buffer = new RingBuffer<>(BUFFER_CAPACITY, () -> new LogEvent(this),
+            OverflowPolicy.kDropNewest);
+    private final Consumer<LogEvent> logPusher = this::pushLog;
+
+    // Handed out in place of a real event when a message is dropped
+    private static final LogEvent DROPPED_EVENT = new LogEvent(null);
+
+    // Arguments are collected here, and only copied into a buffer slot on commit.
+    // This way, an event that is never committed can not hold up the buffer
+    private final ThreadLocal<LogEvent> stagingEvent = ThreadLocal.withInitial(() -> new LogEvent(this));
+
+    // Loss counts that have already been reported
+    private long reportedDropCount = 0;
+    private long reportedOverwriteCount = 0;
+
+    // Finds the method that called the logger
+    private CallerResolver callerResolver = new CallerResolver(CallerResolver.Mode.kStackWalker, RobotLogger.class);
+
+    // Decides which levels are logged
+    private LogLevelFilter levelFilter = new LogLevelFilter(callerResolver);
+
+    // Limits how often each call site can log, and collapses repeated messages
+    private static final double DEFAULT_WARNING_RATE = 5.0;
+    private static final int DEFAULT_WARNING_BURST = 10;
+    private LogRateLimiter rateLimiter = new LogRateLimiter();
+    private LogDeduplicator deduplicator = new LogDeduplicator(this::pushSummary);
+
+    // Reused to send summaries through the same outputs as normal events
+    private final LogEvent summaryEvent = new LogEvent(null);
+
+    // Simulation logfile. This is written in batches from the logging thread
+    private static final long SIM_FLUSH_PERIOD_MS = 500;
+    private static final int SIM_FLUSH_CHARS = 64 * 1024;
+    private BatchedFileWriter simWriter;
 
     /**
      * Log level
@@ -34,17 +71,22 @@ public class RobotLogger {
      * queued until the next notifier cycle
      */
     public enum Level {
-        kRobot("INFO"), kInfo("INFO"), kWarning("WARNING"), kDebug("DEBUG"), kLibrary("INFO");
+        kRobot("INFO", 3), kInfo("INFO", 1), kWarning("WARNING", 2), kDebug("DEBUG", 0), kLibrary("INFO", 1);
 
         public String name;
 
+        // Used for filtering. Higher is more important
+        public int severity;
+
         /**
          * Create a log level
          * 
-         * @param name String name
+         * @param name     String name
+         * @param severity Filtering severity
          */
-        private Level(String name) {
+        private Level(String name, int severity) {
             this.name = name;
+            this.severity = severity;
         }
     }
 
@@ -52,7 +94,10 @@ public class RobotLogger {
      * Create the RobotLogger instance
      */
     private RobotLogger() {
-        this.notifier = new Notifier(this::pushLogs);
+        this.notifier = new Notifier(() -> pushLogs(false));
+
+        // Stop any one call site from flooding the log with warnings
+        rateLimiter.setRateLimit(Level.kWarning, DEFAULT_WARNING_RATE, DEFAULT_WARNING_BURST);
 
         // set boot time
         this.bootTime = (double) System.currentTimeMillis() / 1000.0;
@@ -60,14 +105,16 @@ public class RobotLogger {
         // Try to load sim logger
         if (RobotBase.isSimulation()) {
             try {
-                simWriter = new FileWriter("./FRC_UserProgram.log");
-                simWriter.write("");
+                simWriter = new BatchedFileWriter(Paths.get("FRC_UserProgram.log"));
             } catch (IOException e) {
                 System.out.println("Not writing to simulation logfile because of error");
                 e.printStackTrace();
             }
         }
 
+        // Make sure nothing is lost when the program exits
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "RobotLogger shutdown flush"));
+
     }
 
     /**
@@ -79,6 +126,26 @@ public class RobotLogger {
         m_usbLogger = logger;
     }
 
+    /**
+     * Enable logging to a binary log file. Binary logs are much smaller and faster
+     * to write than text logs, and can be read with {@link BinaryLogDecoder}
+     * 
+     * @param logger Binary log writer
+     */
+    public void enableBinaryLogging(BinaryLogWriter logger) {
+        m_binaryLogger = logger;
+    }
+
+    /**
+     * Enable streaming logs to another computer. Events are sent in the binary log
+     * format, and can be saved with {@link LogCollector}
+     * 
+     * @param sink Network log sink
+     */
+    public void enableNetworkLogging(NetworkLogSink sink) {
+        m_networkSink = sink;
+    }
+
     /**
      * Start the periodic logger
      * 
@@ -86,6 +153,121 @@ public class RobotLogger {
      */
     public void start(double period) {
         this.notifier.startPeriodic(period);
+
+        // Allow log levels to be changed from the dashboard
+        levelFilter.bindToTelemetry(ComponentTelemetry.getInstance().getTableForComponent("RobotLogger"));
+    }
+
+    /**
+     * Set what happens to new messages when the log buffer is full. By default,
+     * new messages are dropped.
+     * 
+     * @param policy Overflow policy
+     */
+    public void setOverflowPolicy(OverflowPolicy policy) {
+        periodic_buffer.setOverflowPolicy(policy);
+    }
+
+    /**
+     * Set the minimum level that will be logged from any package without its own
+     * level (see {@link #setPackageLevel(String, Level)}). By default, everything
+     * is logged.
+     * 
+     * @param level Minimum level
+     */
+    public void setMinimumLevel(Level level) {
+        levelFilter.setMinimumLevel(level);
+    }
+
+    /**
+     * Set the minimum level that will be logged from a package (and all of its
+     * sub-packages). The longest matching package wins.
+     * 
+     * @param packagePrefix Package name. For example: io.github.frc5024.libkontrol
+     * @param level         Minimum level, or null to go back to the global minimum
+     */
+    public void setPackageLevel(String packagePrefix, Level level) {
+        levelFilter.setPackageLevel(packagePrefix, level);
+    }
+
+    /**
+     * Replace all package levels with ones parsed from a string like:
+     * "io.github.frc5024.libkontrol=WARNING, frc.robot=DEBUG". A package of "*"
+     * sets the global minimum level.
+     * 
+     * @param spec Level string
+     * @throws IllegalArgumentException Thrown if the string cannot be parsed
+     */
+    public void configureLevels(String spec) {
+        levelFilter.configure(spec);
+    }
+
+    /**
+     * Limit how many messages each call site can log per second at a level. Extra
+     * messages are thrown away before they reach the log buffer, and are counted in
+     * a summary message. By default, warnings are limited to 5 per second (with
+     * bursts of up to 10) from each call site, and every other level is unlimited.
+     * Limits only apply to messages with a known caller (see
+     * {@link #setCallerResolutionMode(CallerResolver.Mode)}).
+     * 
+     * @param level             Log level
+     * @param messagesPerSecond Sustained messages per second, per call site
+     * @param burst             Number of messages allowed at once before the rate
+     *                          applies
+     */
+    public void setRateLimit(Level level, double messagesPerSecond, int burst) {
+        rateLimiter.setRateLimit(level, messagesPerSecond, burst);
+    }
+
+    /**
+     * Remove the rate limit from a level
+     * 
+     * @param level Log level
+     */
+    public void clearRateLimit(Level level) {
+        rateLimiter.clearRateLimit(level);
+    }
+
+    /**
+     * Enable or disable collapsing of repeated messages. When enabled (the
+     * default), a message identical to the previous one from the same call site is
+     * only counted, and a summary like "Previous message repeated 12 times in
+     * 0.96 s" is logged once the run ends, or every 5 seconds while it continues.
+     * 
+     * @param enabled Collapse repeated messages?
+     */
+    public void setDeduplication(boolean enabled) {
+        deduplicator.setEnabled(enabled);
+    }
+
+    /**
+     * Set how the logger finds the name of the method that wrote each message. By
+     * default, this uses a cached StackWalker. Use {@link CallerResolver.Mode#kNone}
+     * to skip caller capture completely in hot loops.
+     * 
+     * @param mode Caller resolution mode
+     */
+    public void setCallerResolutionMode(CallerResolver.Mode mode) {
+        callerResolver.setMode(mode);
+    }
+
+    /**
+     * Get the number of messages that were dropped because the log buffer was full
+     * 
+     * @return Dropped message count
+     */
+    public long getDroppedMessageCount() {
+        return periodic_buffer.getDroppedCount();
+    }
+
+    /**
+     * Get the number of unread messages that were overwritten because the log
+     * buffer was full
+     * 
+     * @return Overwritten message count
+     */
+    public long getOverwrittenMessageCount() {
+        return periodic_buffer.getOverwrittenCount();
     }
 
     /**
@@ -100,6 +282,25 @@ public class RobotLogger {
         return instance;
     }
 
+    /**
+     * Write a log message to the logfile and message buffer.
+     * 
+     * @param msg Log message (String.format style)
+     */
+    public void log(String msg) {
+        beginEvent(Level.kInfo, msg).commit();
+    }
+
+    /**
+     * Write a log message to the logfile and message buffer.
+     * 
+     * @param msg Log message (String.format style)
+     * @param lvl Log level
+     */
+    public void log(String msg, Level lvl) {
+        beginEvent(lvl, msg).commit();
+    }
+
     /**
      * Write a log message to the logfile and message buffer.
      * 
@@ -107,11 +308,7 @@ public class RobotLogger {
      * @param args Format arguments
      */
     public void log(String msg, Object... args) {
-        // Get stack trace
-        StackTraceElement lastMethod = Thread.currentThread().getStackTrace()[2];
-
-        // Log
-        log(lastMethod, Level.kInfo, msg, args);
+        log(Level.kInfo, msg, args);
     }
 
     /**
@@ -122,11 +319,7 @@ public class RobotLogger {
      * @param args Format arguments
      */
     public void log(String msg, Level lvl, Object... args) {
-        // Get stack trace
-        StackTraceElement lastMethod = Thread.currentThread().getStackTrace()[2];
-
-        // Log
-        log(lastMethod, lvl, msg, args);
+        log(lvl, msg, args);
     }
 
     /**
@@ -138,12 +331,7 @@ public class RobotLogger {
      */
     @Deprecated(since = "July 2020", forRemoval = false)
     public void log(String component, String msg) {
-
-        // Get stack trace
-        StackTraceElement lastMethod = Thread.currentThread().getStackTrace()[2];
-
-        // Log
-        log(lastMethod, Level.kInfo, msg);
+        log(Level.kInfo, msg);
     }
 
     /**
@@ -156,65 +344,166 @@ public class RobotLogger {
      */
     @Deprecated(since = "July 2020", forRemoval = false)
     public void log(String component, String msg, Level log_level) {
+        log(log_level, msg);
+    }
 
-        // Get stack trace
-        StackTraceElement lastMethod = Thread.currentThread().getStackTrace()[2];
-
-        // Log
-        log(lastMethod, log_level, msg);
+    /**
+     * Start building a log message. Arguments are added with
+     * {@link LogEvent#arg(double)} and friends, and the message is sent with
+     * {@link LogEvent#commit()}. Formatting happens later on the logging thread,
+     * so this does not allocate or box primitive arguments:
+     * 
+     * <pre>
+     * logger.logEvent("Shooter at %.2f RPM", Level.kDebug).arg(rpm).commit();
+     * </pre>
+     * 
+     * @param msg Log message (String.format style)
+     * @param lvl Log level
+     * @return Event to add arguments to
+     */
+    public LogEvent logEvent(String msg, Level lvl) {
+        return beginEvent(lvl, msg);
     }
 
     /**
      * Write a log message to the logfile and message buffer
      * 
-     * @param lastMethod Stack trace to calling method
-     * @param lvl        Log level
-     * @param messageF   String.format style string / message
-     * @param args       Any format arguments
+     * @param lvl      Log level
+     * @param messageF String.format style string / message
+     * @param args     Any format arguments
      */
-    private void log(StackTraceElement lastMethod, Level lvl, String messageF, Object... args) {
+    private void log(Level lvl, String messageF, Object... args) {
+        LogEvent event = beginEvent(lvl, messageF);
+
+        // Copy the arguments into the event. Callers of this API expect their
+        // arguments to be read now, so anything mutable is rendered on this thread
+        if (args.length <= LogEvent.MAX_ARGS) {
+            for (Object arg : args) {
+                event.arg(snapshot(arg));
+            }
+        } else {
+            Object[] copy = new Object[args.length];
+            for (int i = 0; i < args.length; i++) {
+                copy[i] = snapshot(args[i]);
+            }
+            event.overflowArgs = copy;
+        }
 
-        // Build message
-        String message = String.format(messageF, args);
+        event.commit();
+    }
 
-        // Get the caller's package name
-        String packageName = getPackageName(lastMethod);
+    /**
+     * Get a copy of an argument that is safe to format later. Strings and boxed
+     * primitives are immutable, and are kept as-is so format specifiers like %.2f
+     * still work. Everything else is turned into text now
+     * 
+     * @param arg Argument
+     * @return Immutable argument
+     */
+    private static Object snapshot(Object arg) {
+        if (arg == null || arg instanceof String || arg instanceof Double || arg instanceof Float
+                || arg instanceof Long || arg instanceof Integer || arg instanceof Short || arg instanceof Byte
+                || arg instanceof Boolean || arg instanceof Character) {
+            return arg;
+        }
+        return String.valueOf(arg);
+    }
 
-        // Get the current system time
-        double time = (double) System.currentTimeMillis() / 1000.0;
+    /**
+     * Fill in the header of a new log event in this thread's staging event
+     * 
+     * @param lvl     Log level
+     * @param formatF String.format style string / message
+     * @return Event, or a no-op event if the message was filtered or dropped
+     */
+    private LogEvent beginEvent(Level lvl, String formatF) {
 
-        // Determine time-since-boot
-        double tsb = time - this.bootTime;
+        // Throw away anything that no rule would allow, before doing any other work
+        if (!levelFilter.isPossiblyEnabled(lvl)) {
+            return DROPPED_EVENT;
+        }
 
-        // Build log string
-        String log = String.format("%s at %.2fs: %s -> %s", lvl.name, tsb, packageName, message);
+        // Capture the caller and time
+        int callSite = callerResolver.resolveId();
+        if (!levelFilter.isEnabled(callSite, lvl)) {
+            return DROPPED_EVENT;
+        }
 
-        // If the log is robot level, push to console
-        if (lvl.equals(Level.kRobot)) {
+        // Stop floods before they reach the buffer
+        if (!rateLimiter.tryAcquire(callSite, lvl)) {
+            return DROPPED_EVENT;
+        }
+        long timestamp = System.currentTimeMillis();
+
+        // If the staging event is still being filled in, it was either abandoned, or
+        // this message is being logged while building one of its arguments. Leave it
+        // to its owner, and stage into a new event from now on
+        LogEvent event = stagingEvent.get();
+        if (event.sequence >= 0) {
+            event = new LogEvent(this);
+            stagingEvent.set(event);
+        }
 
-            // Write log NOW
-            System.out.println(log);
+        event.reset(0, timestamp, lvl, callSite, formatF);
+        return event;
+    }
 
-            // Try to reflect to USB
-            if (m_usbLogger != null) {
-                m_usbLogger.writeln(log);
-            }
+    /**
+     * Copy a filled-in event into the buffer, and publish it to the logging
+     * thread. Called by {@link LogEvent#commit()}
+     * 
+     * @param event Staged event
+     */
+    void commit(LogEvent event) {
 
-        } else {
-            // Add log to buffer
-            this.periodic_buffer.add(log);
+        // Claim a slot only now that the event is complete, so it is always published
+        long sequence = this.periodic_buffer.claim();
+        if (sequence < 0) {
+            event.clear();
+            return;
         }
 
-        // If simulation, write to sim file
-        if (RobotBase.isSimulation() && simWriter != null) {
-            try {
-                simWriter.append(log + "\n");
-                simWriter.flush();
-            } catch (IOException e) {
-                System.out.println("Failed to reflect sim log");
-            }
+        LogEvent slot = this.periodic_buffer.get(sequence);
+        slot.copyFrom(event, sequence);
+        event.clear();
+
+        // If the log is robot level, push to console NOW. It still passes through the
+        // buffer so it gets reflected to USB from the logging thread
+        if (slot.level == Level.kRobot) {
+            slot.rendered = render(slot);
+            slot.printed = true;
+            System.out.println(slot.rendered);
         }
 
+        this.periodic_buffer.publish(sequence);
+    }
+
+    /**
+     * Build the full log line for an event
+     * 
+     * @param event Event
+     * @return Log line
+     */
+    private String render(LogEvent event) {
+        return render(event.level, event.timestampMillis, event.callSite, event.formatMessage());
+    }
+
+    /**
+     * Build a full log line
+     * 
+     * @param level           Log level
+     * @param timestampMillis System time in milliseconds
+     * @param callSite        Call site id
+     * @param message         Formatted message
+     * @return Log line
+     */
+    private String render(Level level, long timestampMillis, int callSite, String message) {
+
+        // Determine time-since-boot
+        double tsb = ((double) timestampMillis / 1000.0) - this.bootTime;
+
+        // Build log string
+        return String.format("%s at %.2fs: %s -> %s", level.name, tsb, callerResolver.getName(callSite), message);
     }
 
     /**
@@ -224,71 +513,186 @@ public class RobotLogger {
      * @return Friendly Name
      */
     protected static String getPackageName(StackTraceElement element) {
+        return CallerResolver.abbreviate(element.getClassName(), element.getMethodName());
+    }
 
-        // Build the package and method string
-        String fullPackageName = element.getClassName();
-        String[] packageSegments = fullPackageName.split("[.]");
-        StringBuilder packageNameBuilder = new StringBuilder();
+    /**
+     * Manually flush the logs, and write every log file to disk. This is done
+     * automatically when the program exits
+     */
+    public void flush(){
+        pushLogs(true);
 
-        // Handle the package name being too short
-        if (packageSegments.length <= 3) {
+        // Files are normally only written every half second
+        if (m_binaryLogger != null) {
+            try {
+                m_binaryLogger.flush();
+            } catch (IOException e) {
+                System.out.println("Failed to write binary log");
+            }
+        }
+        if (m_networkSink != null) {
+            m_networkSink.flush();
+        }
+        if (simWriter != null) {
+            try {
+                simWriter.flush();
+            } catch (IOException e) {
+                System.out.println("Failed to reflect sim log");
+            }
+        }
+        if (m_usbLogger != null) {
+            m_usbLogger.flush();
+        }
+    }
 
-            // Just build the full package name
-            packageNameBuilder.append(fullPackageName);
+    /**
+     * Push all queued messages to netconsole, then report any messages lost to a
+     * full buffer
+     * 
+     * @param summarizeAll Summarize every run of repeated messages, even if it has
+     *                     not ended
+     */
+    private synchronized void pushLogs(boolean summarizeAll) {
+
+        // Push everything in the buffer
+        periodic_buffer.drain(logPusher);
+
+        // Collect messages suppressed by rate limits, and summarize long runs
+        long now = System.currentTimeMillis();
+        if (rateLimiter.hasSuppressed()) {
+            rateLimiter.clearSuppressedFlag();
+            int callSites = rateLimiter.getCallSiteCapacity();
+            for (int i = 0; i < callSites; i++) {
+                deduplicator.addSuppressed(i, rateLimiter.takeSuppressedCount(i), now);
+            }
+        }
+        deduplicator.flushSummaries(now, summarizeAll);
 
-        } else {
-            // The idea here is to turn a package name that might look like:
-            // io.github.frc5024.y2020.darthraider.commands.autonomous.actions.cells.SetShooterOutput
-            // Into one that looks like:
-            // io...cells.SetShooterOutput
+        // Write the binary log to disk every so often
+        if (m_binaryLogger != null) {
+            try {
+                m_binaryLogger.flushIfDue(now);
+            } catch (IOException e) {
+                System.out.println("Failed to write binary log");
+            }
+        }
 
-            // Append the root package
-            packageNameBuilder.append(packageSegments[0]);
+        // Send any partial network batch that has waited long enough
+        if (m_networkSink != null) {
+            m_networkSink.flushIfDue(now);
+        }
 
-            // Append the seperator
-            packageNameBuilder.append("...");
+        // Write the simulation logfile once enough time has passed, or enough text is
+        // waiting
+        if (simWriter != null) {
+            try {
+                simWriter.flushIfDue(now, SIM_FLUSH_PERIOD_MS, SIM_FLUSH_CHARS);
+            } catch (IOException e) {
+                System.out.println("Failed to reflect sim log");
+            }
+        }
 
-            // Append the class's parent package
-            packageNameBuilder.append(packageSegments[packageSegments.length - 2]);
-            packageNameBuilder.append(".");
+        // Report any lost messages
+        long dropCount = periodic_buffer.getDroppedCount();
+        long overwriteCount = periodic_buffer.getOverwrittenCount();
+        if (dropCount != reportedDropCount || overwriteCount != reportedOverwriteCount) {
+            String warning = String.format("WARNING: RobotLogger buffer full. %d messages dropped, %d overwritten",
+                    dropCount - reportedDropCount, overwriteCount - reportedOverwriteCount);
+            System.out.println(warning);
+            if (m_usbLogger != null) {
+                m_usbLogger.writeln(warning);
+            }
 
-            // Append the class name
-            packageNameBuilder.append(packageSegments[packageSegments.length - 1]);
+            reportedDropCount = dropCount;
+            reportedOverwriteCount = overwriteCount;
         }
 
-        // Get the method name
-        String methodName = element.getMethodName();
+    }
+
+    /**
+     * Render a single buffered event, and push it to netconsole, USB, and the
+     * simulation logfile
+     * 
+     * @param event Buffered event
+     */
+    private void pushLog(LogEvent event) {
+
+        // Robot level logs have already been rendered and printed
+        String log;
+        if (event.printed) {
+            log = event.rendered;
+        } else {
+
+            // Collapse repeats of the previous message from this call site
+            String message = event.formatMessage();
+            if (!deduplicator.accept(event.callSite, event.level, message, event.timestampMillis)) {
+                event.clear();
+                return;
+            }
+
+            log = render(event.level, event.timestampMillis, event.callSite, message);
+            System.out.println(log);
+        }
 
-        return String.format("%s::%s()", packageNameBuilder.toString(), methodName.toString());
+        output(event, log);
 
+        // Let go of everything the event references
+        event.clear();
     }
 
     /**
-     * Manually flush the logs (only use this in unit tests)
+     * Push a summary of repeated or suppressed messages. Called by the
+     * deduplicator, from the logging thread
+     * 
+     * @param callSite        Call site the summary is about
+     * @param level           Level of the summarized messages
+     * @param timestampMillis System time in milliseconds
+     * @param message         Summary message
      */
-    public void flush(){
-        pushLogs();
+    private void pushSummary(int callSite, Level level, long timestampMillis, String message) {
+        summaryEvent.reset(0, timestampMillis, level, callSite, "%s");
+        summaryEvent.arg(message);
+
+        String log = render(level, timestampMillis, callSite, message);
+        System.out.println(log);
+        output(summaryEvent, log);
+
+        summaryEvent.clear();
     }
 
     /**
-     * Push all queued messages to netconsole, the clear the buffer
+     * Write a rendered event to USB, the binary log, the network, and the
+     * simulation logfile
+     * 
+     * @param event Event
+     * @param log   Rendered log line
      */
-    private void pushLogs() {
-        try {
-            for (String x : this.periodic_buffer) {
+    private void output(LogEvent event, String log) {
 
-                System.out.println(x);
+        // Check if we should log to USB
+        if (m_usbLogger != null) {
+            m_usbLogger.writeln(log);
+        }
 
-                // Check if we should log to USB
-                if (m_usbLogger != null) {
-                    m_usbLogger.writeln(x);
-                }
+        // Write the raw event to the binary log
+        if (m_binaryLogger != null) {
+            try {
+                m_binaryLogger.write(event, callerResolver);
+            } catch (IOException e) {
+                System.out.println("Failed to write binary log");
             }
-            periodic_buffer.clear();
-        } catch (Exception e) {
-            System.out.println("Tried to push concurrently");
         }
 
+        // Stream the raw event over the network
+        if (m_networkSink != null) {
+            m_networkSink.write(event, callerResolver);
+        }
+
+        // If simulation, write to sim file
+        if (simWriter != null) {
+            simWriter.appendLine(log);
+        }
     }
 
-}
\ No newline at end of file
+}
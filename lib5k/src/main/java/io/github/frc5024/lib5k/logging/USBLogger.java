@@ -1,9 +1,6 @@
 package io.github.frc5024.lib5k.logging;
 
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.ConcurrentModificationException;
 
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.Notifier;
@@ -14,19 +11,27 @@ import io.github.frc5024.lib5k.utils.FileManagement;
  * The USBLogger is a class that is used to save a copy of all logs written to
  * {@link RobotLogger} to their own file. This saved file is located in
  * "robot.log" in the current session directory (see {@link FileManagement}).
- * 
+ *
+ * Lines are collected in memory, and written in one batch every half second.
+ * Once robot.log reaches its size limit, it is moved to robot.log.1,
+ * robot.log.2, and so on, and a new robot.log is started.
+ *
  * To link a USBLogger object to RobotLogger, use
  * RobotLogger.getInstance().enableUSBLogging()
  */
 public class USBLogger implements AutoCloseable {
 
+    /**
+     * Default size at which robot.log is rotated
+     */
+    public static final long DEFAULT_SEGMENT_BYTES = 8 * 1024 * 1024;
+
     private Notifier m_thread;
-    private ArrayList<String> m_messageBuffer = new ArrayList<>();
-    private FileWriter m_file;
+    private BatchedFileWriter m_file;
 
     /**
      * Deprecated
-     * 
+     *
      * @param unused Unused value
      */
     @Deprecated(since = "July 2020", forRemoval = true)
@@ -38,10 +43,20 @@ public class USBLogger implements AutoCloseable {
      * Create a USBLogger
      */
     public USBLogger() {
+        this(DEFAULT_SEGMENT_BYTES);
+    }
+
+    /**
+     * Create a USBLogger with a custom rotation size
+     *
+     * @param maxSegmentBytes Size in bytes at which robot.log is rotated
+     */
+    public USBLogger(long maxSegmentBytes) {
 
         // Create file writer
         try {
-            m_file = FileManagement.createFileWriter("robot.log");
+            m_file = new BatchedFileWriter(FileManagement.getSessionFilePath("robot.log"),
+                    BatchedFileWriter.DEFAULT_BUFFER_BYTES, maxSegmentBytes);
         } catch (IOException e) {
             RobotLogger.getInstance().log("Failed to create robot.log file!!", Level.kWarning);
         }
@@ -52,13 +67,35 @@ public class USBLogger implements AutoCloseable {
 
     }
 
+    /**
+     * Set if each batch should be forced onto the USB stick after being written.
+     * This makes logs more likely to survive a power loss, at the cost of a much
+     * slower write. This is off by default.
+     *
+     * @param force Force each batch?
+     */
+    public void setForceOnFlush(boolean force) {
+        if (m_file != null) {
+            m_file.setForceOnFlush(force);
+        }
+    }
+
     /**
      * Write a line to the USB log
-     * 
+     *
      * @param line Line to write
      */
     protected void writeln(String line) {
-        m_messageBuffer.add(line);
+        if (m_file != null) {
+            m_file.appendLine(line);
+        }
+    }
+
+    /**
+     * Write everything buffered to the USB right away
+     */
+    void flush() {
+        update();
     }
 
     /**
@@ -78,26 +115,19 @@ public class USBLogger implements AutoCloseable {
         // Write data buffer to logfile
         try {
             if (m_file != null) {
-                for (String line : m_messageBuffer) {
-                    m_file.append(String.format("%s%n", line));
-                    m_file.flush();
-                }
+                m_file.flush();
             }
         } catch (IOException e) {
             DriverStation.reportError("Failed to write message buffer to USB", true);
-        } catch (ConcurrentModificationException e) {
-            RobotLogger.getInstance().log("A CMOD occured");
         }
 
-        // Clear the message buffer
-        m_messageBuffer.clear();
-
     }
 
     @Override
     public void close() throws IOException {
+        m_thread.stop();
         if (m_file != null) {
             m_file.close();
         }
     }
-}
\ No newline at end of file
+}
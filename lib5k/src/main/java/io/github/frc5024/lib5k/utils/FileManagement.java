@@ -78,6 +78,16 @@ public class FileManagement {
         return new File(getSessionDirectoryPath());
     }
 
+    /**
+     * Get the path to a file inside the current session
+     * 
+     * @param filename File name
+     * @return Session file path
+     */
+    public static Path getSessionFilePath(String filename) {
+        return Paths.get(getSessionDirectoryPath(), filename);
+    }
+
     /**
      * Create a FileWriter for a file inside the current session
      * 
@@ -0,0 +1,280 @@
+package io.github.frc5024.lib5k.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * RingBuffer is a bounded, preallocated, multi-producer / single-consumer
+ * queue used to move data from any robot thread to a single worker thread. It
+ * is used by RobotLogger to move log events to the logging thread, and by the
+ * asynchal EventDispatcher to move sensor events to its dispatch thread.
+ *
+ * Every slot is allocated once when the buffer is created. Producers claim a
+ * slot, fill in its fields, then publish it. The consumer drains published
+ * slots in order, and hands them back to the producers. Nothing is ever
+ * allocated, locked, or thrown on the producer side. When the buffer is full,
+ * the configured {@link OverflowPolicy} decides which item gets lost, and
+ * the loss is counted.
+ *
+ * The slot sequencing is based on Dmitry Vyukov's bounded MPMC queue.
+ *
+ * @param <T> Slot type
+ */
+public class RingBuffer<T> {
+
+    /**
+     * What to do when a producer finds the buffer full
+     */
+    public enum OverflowPolicy {
+        /** Throw away the item being written */
+        kDropNewest,
+        /** Throw away the oldest unread item to make room */
+        kOverwriteOldest;
+    }
+
+    // Number of times a producer will try to make room before giving up
+    private static final int MAX_OVERWRITE_ATTEMPTS = 4;
+
+    // Slot storage
+    private final Object[] slots;
+    private final AtomicLongArray sequences;
+    private final int capacity;
+    private final int mask;
+
+    // Read and write cursors
+    private final AtomicLong head = new AtomicLong(0);
+    private final AtomicLong tail = new AtomicLong(0);
+
+    // Loss tracking
+    private final AtomicLong droppedCount = new AtomicLong(0);
+    private final AtomicLong overwrittenCount = new AtomicLong(0);
+
+    private volatile OverflowPolicy policy;
+
+    /**
+     * Create a RingBuffer
+     *
+     * @param capacity Minimum number of slots. This is rounded up to the next
+     *                 power of two
+     * @param factory  Slot factory. Called once per slot
+     * @param policy   Overflow policy
+     */
+    public RingBuffer(int capacity, Supplier<T> factory, OverflowPolicy policy) {
+
+        // Round the capacity up to a power of two so indexing is a mask
+        int size = 1;
+        while (size < Math.max(capacity, 2)) {
+            size <<= 1;
+        }
+        this.capacity = size;
+        this.mask = size - 1;
+
+        // Preallocate every slot
+        this.slots = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            slots[i] = factory.get();
+            sequences.set(i, i);
+        }
+
+        this.policy = policy;
+    }
+
+    /**
+     * Claim a slot for writing. The caller must fill the slot returned by
+     * {@link #get(long)}, then call {@link #publish(long)}.
+     *
+     * @return The claimed sequence number, or -1 if the item must be dropped
+     */
+    public long claim() {
+        int overwriteAttempts = 0;
+
+        while (true) {
+            long pos = tail.get();
+            long diff = sequences.get(index(pos)) - pos;
+
+            if (diff == 0) {
+                // Slot is free, try to take it
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    return pos;
+                }
+
+            } else if (diff < 0) {
+                // Buffer is full
+                if (policy == OverflowPolicy.kOverwriteOldest && overwriteAttempts < MAX_OVERWRITE_ATTEMPTS) {
+                    overwriteAttempts++;
+
+                    // Throw away the oldest item, then try again. Only the item in the slot we
+                    // need is thrown away. If the consumer is still reading that slot, making
+                    // room elsewhere would not help, so nothing is thrown away
+                    long oldest = pos - capacity;
+                    if (acquire(oldest)) {
+                        release(oldest);
+                        overwrittenCount.incrementAndGet();
+                    }
+                    continue;
+                }
+
+                droppedCount.incrementAndGet();
+                return -1;
+            }
+
+            // Otherwise, another producer beat us to this slot. Retry
+        }
+    }
+
+    /**
+     * Get the slot for a claimed sequence number
+     *
+     * @param sequence Sequence number from {@link #claim()}
+     * @return Slot
+     */
+    @SuppressWarnings("unchecked")
+    public T get(long sequence) {
+        return (T) slots[index(sequence)];
+    }
+
+    /**
+     * Make a claimed slot visible to the consumer
+     *
+     * @param sequence Sequence number from {@link #claim()}
+     */
+    public void publish(long sequence) {
+        sequences.lazySet(index(sequence), sequence + 1);
+    }
+
+    /**
+     * Hand every published slot to a handler, oldest first. Slots are returned to
+     * the producers as soon as the handler returns, so the handler must not keep
+     * references to them.
+     *
+     * @param handler Slot handler
+     * @return Number of slots handled
+     */
+    @SuppressWarnings("unchecked")
+    public int drain(Consumer<T> handler) {
+        int count = 0;
+
+        long pos;
+        while ((pos = acquireHead()) >= 0) {
+            try {
+                handler.accept((T) slots[index(pos)]);
+            } finally {
+                release(pos);
+            }
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Set the overflow policy
+     *
+     * @param policy Overflow policy
+     */
+    public void setOverflowPolicy(OverflowPolicy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * Get the overflow policy
+     *
+     * @return Overflow policy
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        return policy;
+    }
+
+    /**
+     * Get the number of slots in the buffer
+     *
+     * @return Capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Get the number of claimed slots that have not been drained yet. This is only
+     * a snapshot, and may be stale by the time it is read
+     *
+     * @return Number of unread slots
+     */
+    public int size() {
+        long depth = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(depth, capacity));
+    }
+
+    /**
+     * Get the number of items that were thrown away because the buffer was full
+     *
+     * @return Dropped item count
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * Get the number of unread items that were replaced by newer ones
+     *
+     * @return Overwritten item count
+     */
+    public long getOverwrittenCount() {
+        return overwrittenCount.get();
+    }
+
+    /**
+     * Take ownership of the oldest published slot
+     *
+     * @return Sequence number, or -1 if nothing is published
+     */
+    private long acquireHead() {
+        while (true) {
+            long pos = head.get();
+            long diff = sequences.get(index(pos)) - (pos + 1);
+
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    return pos;
+                }
+            } else if (diff < 0) {
+                // Nothing published yet
+                return -1;
+            }
+
+            // Otherwise, the head moved under us. Retry
+        }
+    }
+
+    /**
+     * Take ownership of a slot, if it is published and the oldest unread one
+     *
+     * @param pos Sequence number of the slot
+     * @return Was the slot taken?
+     */
+    private boolean acquire(long pos) {
+        return sequences.get(index(pos)) == pos + 1 && head.compareAndSet(pos, pos + 1);
+    }
+
+    /**
+     * Return a slot to the producers
+     *
+     * @param pos Sequence number of the slot
+     */
+    private void release(long pos) {
+        sequences.lazySet(index(pos), pos + capacity);
+    }
+
+    /**
+     * Convert a sequence number into a slot index
+     *
+     * @param sequence Sequence number
+     * @return Slot index
+     */
+    private int index(long sequence) {
+        return (int) (sequence & mask);
+    }
+}
@@ -146,7 +146,7 @@ public class StateMachine<T> {
      */
     public void setState(T key) {
         if (desiredStateKey != null && !desiredStateKey.equals(key)) {
-            logger.log("Switching to state: %s", Level.kDebug, key);
+            logger.logEvent("Switching to state: %s", Level.kDebug).arg(key).commit();
         }
         desiredStateKey = key;
     }
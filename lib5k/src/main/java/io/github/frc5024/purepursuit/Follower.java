@@ -2,7 +2,9 @@ package io.github.frc5024.purepursuit;
 
 import edu.wpi.first.wpilibj.geometry.Pose2d;
 import edu.wpi.first.wpilibj.geometry.Translation2d;
+import io.github.frc5024.purepursuit.pathgen.LookaheadTable;
 import io.github.frc5024.purepursuit.pathgen.Path;
+import io.github.frc5024.purepursuit.pathgen.PathBuffer;
 
 /**
  * A lookahead finder for finding new points in a 2D path.
@@ -19,11 +21,13 @@ public class Follower {
 
     // Lookahead settings
     private double m_lookaheadDist, m_lookaheadGain;
-    private Integer m_lastLookaheadIndex = null;
+    private int m_lastLookaheadIndex = -1;
+    private LookaheadTable m_lookaheadTable = null;
 
     // Drivebase info
     private double m_drivebaseWidth;
-    private Pose2d m_lastPose = null;
+    private double m_lastX, m_lastY;
+    private boolean m_hasLastPose = false;
 
     /**
      * Create a path follower
@@ -78,6 +82,35 @@ public class Follower {
         return m_lookaheadGain;
     }
 
+    /**
+     * Precompute lookahead goals, so picking a goal is a table lookup instead of a
+     * search. The lookahead distance used each update is the distance the robot
+     * moved since the last update, times the lookahead distance. It is rounded to
+     * the nearest of the given number of levels
+     * 
+     * @param maxDistance Longest lookahead to precompute in meters. Longer
+     *                    lookaheads are searched for
+     * @param levels      Number of lookahead distances to precompute, at least 2
+     * @return The new table
+     */
+    public LookaheadTable precomputeLookahead(double maxDistance, int levels) {
+        if (levels < 2) {
+            throw new IllegalArgumentException("At least 2 lookahead levels are needed");
+        }
+        m_lookaheadTable = new LookaheadTable(m_path.getBuffer(), maxDistance / (levels - 1), levels);
+        return m_lookaheadTable;
+    }
+
+    /**
+     * Set a precomputed lookahead table. Tables can be shared between followers of
+     * the same path
+     * 
+     * @param table Lookahead table, or null to search for every goal
+     */
+    public void setLookaheadTable(LookaheadTable table) {
+        this.m_lookaheadTable = table;
+    }
+
     /**
      * Get the width of the drivebase
      * 
@@ -91,8 +124,30 @@ public class Follower {
      * Reset the follower
      */
     public void reset() {
-        m_lastLookaheadIndex = null;
-        m_lastPose = null;
+        m_lastLookaheadIndex = -1;
+        m_hasLastPose = false;
+    }
+
+    /**
+     * Relocalize the follower after the robot pose has been reset. The goal search
+     * restarts from the path point nearest the new pose, and the pose jump is not
+     * counted as robot motion
+     * 
+     * @param robotPose Robot's new pose
+     */
+    public void relocalize(Pose2d robotPose) {
+        relocalize(robotPose.getTranslation().getX(), robotPose.getTranslation().getY());
+    }
+
+    /**
+     * Relocalize the follower after the robot pose has been reset
+     * 
+     * @param x Robot's new X position in meters
+     * @param y Robot's new Y position in meters
+     */
+    public void relocalize(double x, double y) {
+        m_lastLookaheadIndex = m_path.getIndex().getNearestIndex(x, y);
+        m_hasLastPose = false;
     }
 
     /**
@@ -102,62 +157,51 @@ public class Follower {
      * @return Next goal in path
      */
     public Translation2d getNextPoint(Pose2d robotPose) {
+        int index = getNextIndex(robotPose.getTranslation().getX(), robotPose.getTranslation().getY());
+        return m_path.getBuffer().getPoint(index);
+    }
 
-        // Cast the pose up to a drivebase state
-        Translation2d robotVector = robotPose.getTranslation();
-
-        // Max nearest pose
-        Translation2d nearest = new Translation2d(Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY);
+    /**
+     * Get the path index of the next goal pose. This does not allocate, so it is
+     * safe to call every control loop. The goal position can be read from
+     * {@link Path#getBuffer()}
+     * 
+     * @param x Robot's current X position in meters
+     * @param y Robot's current Y position in meters
+     * @return Index of the next goal in the path
+     */
+    public int getNextIndex(double x, double y) {
+        PathBuffer points = m_path.getBuffer();
 
         // Check if this is the first run
-        if (m_lastLookaheadIndex == null) {
+        if (m_lastLookaheadIndex < 0) {
 
             // Search for the nearest pose
-            for (int i = 0; i < m_path.getPoses().length; i++) {
-
-                // Determine diff
-                double dx = robotVector.getX() - m_path.getPoses()[i].getX();
-                double dy = robotVector.getY() - m_path.getPoses()[i].getY();
-
-                // Determine distance
-                double d = Math.hypot(dx, dy);
-
-                // If d is closer than the nearest, we have found a new nearest point
-                if (d < Math.hypot(robotVector.getX() - nearest.getX(), robotVector.getY() - nearest.getY())) {
-
-                    // Set the nearest translation
-                    nearest = m_path.getPoses()[i];
-
-                    // Set the lookahead index
-                    m_lastLookaheadIndex = i;
-                }
-            }
+            m_lastLookaheadIndex = m_path.getIndex().getNearestIndex(x, y);
         } else {
 
+            // Distances are compared squared, to skip the square roots
+            double gainSquared = m_lookaheadGain * m_lookaheadGain;
+
             // Determine the distance from the current point
-            double thisDist = robotVector.getDistance(m_path.getPoses()[m_lastLookaheadIndex]);
+            double dx = x - points.getX(m_lastLookaheadIndex);
+            double dy = y - points.getY(m_lastLookaheadIndex);
+            double thisDist = dx * dx + dy * dy;
 
-            // Tracker for path pose index
+            // Walk forward while the robot has reached each goal
             int nextIndex = m_lastLookaheadIndex;
-
-            // Look for a new pose
-            // TODO: make this a FOR loop starting at m_lastLookaheadIndex
-            while (true) {
-
-                // Keep using the current goal if we have not reached it
-                if (thisDist > m_lookaheadGain) {
-                    break;
-                }
+            while (thisDist <= gainSquared) {
 
                 // Attempt to incr our search index
-                nextIndex = ((nextIndex + 1) < m_path.getPoses().length) ? nextIndex + 1 : nextIndex;
+                nextIndex = ((nextIndex + 1) < points.size()) ? nextIndex + 1 : nextIndex;
 
                 // Find the distance to the new pose
-                double nextDist = robotVector.getDistance(m_path.getPoses()[nextIndex]);
+                dx = x - points.getX(nextIndex);
+                dy = y - points.getY(nextIndex);
+                double nextDist = dx * dx + dy * dy;
 
                 // If this new pose is closer, choose it
-                if (thisDist < nextDist || nextIndex + 1 == m_path.getPoses().length) {
-                    nearest = m_path.getPoses()[nextIndex];
+                if (thisDist < nextDist || nextIndex + 1 == points.size()) {
                     break;
                 }
 
@@ -172,44 +216,87 @@ public class Follower {
 
         // Determine our velocity from the last pose
         double v;
-        if (m_lastPose != null) {
-            double dx = robotPose.getTranslation().getX() - m_lastPose.getTranslation().getX();
-            double dy = robotPose.getTranslation().getY() - m_lastPose.getTranslation().getY();
-
-            // Calc V
-            v = Math.hypot(dx, dy);
+        if (m_hasLastPose) {
+            double dx = x - m_lastX;
+            double dy = y - m_lastY;
+            v = Math.sqrt(dx * dx + dy * dy);
         } else {
             v = 0.0;
         }
 
         // Set the last pose
-        m_lastPose = robotPose;
+        m_lastX = x;
+        m_lastY = y;
+        m_hasLastPose = true;
 
-        // Set a Lookahead
-        double L = 0.0;
-        double LF = v * m_lookaheadDist;
+        // Look for the target a lookahead distance further along the path
+        return getIndexAhead(m_lastLookaheadIndex, v * m_lookaheadDist);
+    }
+
+    /**
+     * Find the point a distance further along the path, from the lookahead table
+     * if there is one. Tables made for a different set of points are ignored
+     * 
+     * @param index    Starting point index
+     * @param distance Distance to look ahead in meters
+     * @return Point index
+     */
+    private int getIndexAhead(int index, double distance) {
+        if (m_lookaheadTable != null && m_lookaheadTable.getBuffer() == m_path.getBuffer()) {
+            return m_lookaheadTable.getIndexAhead(index, distance);
+        }
+        return m_path.getIndex().getIndexAhead(index, distance);
+    }
 
-        // Look for target
-        int ind = m_lastLookaheadIndex;
-        while ((LF > L) && (ind + 1) < m_path.getPoses().length) {
-            // Determine L
-            L = robotVector.getDistance(m_path.getPoses()[ind]);
+    /**
+     * Get the index of the path point the robot was last tracked to. This is
+     * updated by {@link #getNextIndex(double, double)}
+     * 
+     * @return Point index, or 0 before the first update
+     */
+    public int getCurrentIndex() {
+        return Math.max(m_lastLookaheadIndex, 0);
+    }
 
-            // Update ind
-            ind++;
+    /**
+     * Get the index of the path point nearest the robot. The tracked point can be
+     * up to the lookahead gain away from the robot, so only points within the
+     * lookahead gain of it, measured along the path, are searched. Unlike a search
+     * of the whole path, this never picks a point on another part of a path that
+     * crosses or doubles back on itself
+     * 
+     * @param x Robot's current X position in meters
+     * @param y Robot's current Y position in meters
+     * @return Point index, or 0 before the first update
+     */
+    public int getNearestTrackedIndex(double x, double y) {
+        PathBuffer points = m_path.getBuffer();
+        int current = getCurrentIndex();
+        if (current >= points.size()) {
+            return current;
         }
 
-        // Limit index
-        if (m_lastLookaheadIndex >= ind) {
-            ind = m_lastLookaheadIndex;
+        // Search the window around the tracked point
+        double startDistance = points.getDistance(current) - m_lookaheadGain;
+        double endDistance = points.getDistance(current) + m_lookaheadGain;
+        int nearest = current;
+        double nearestDist = Double.POSITIVE_INFINITY;
+
+        int i = current;
+        while (i > 0 && points.getDistance(i - 1) >= startDistance) {
+            i--;
         }
-        if (ind >= m_path.getPoses().length) {
-            ind = m_path.getPoses().length - 1;
+        for (; i < points.size() && points.getDistance(i) <= endDistance; i++) {
+            double dx = x - points.getX(i);
+            double dy = y - points.getY(i);
+            double dist = dx * dx + dy * dy;
+            if (dist < nearestDist) {
+                nearest = i;
+                nearestDist = dist;
+            }
         }
 
-        // Return the found pose
-        return m_path.getPoses()[ind];
-
+        return nearest;
     }
 
     /**
@@ -217,6 +304,6 @@ public class Follower {
      * @return Final pose
      */
     public Translation2d getFinalPose() {
-        return m_path.getPoses()[m_path.getPoses().length - 1];
+        return m_path.getBuffer().getPoint(m_path.getBuffer().size() - 1);
     }
 }
\ No newline at end of file
@@ -2,10 +2,12 @@ package io.github.frc5024.purepursuit;
 
 import ca.retrylife.ewmath.MathUtils;
 import edu.wpi.first.wpilibj.geometry.Pose2d;
-import edu.wpi.first.wpilibj.geometry.Rotation2d;
 import edu.wpi.first.wpilibj.geometry.Translation2d;
+import edu.wpi.first.wpilibj.kinematics.ChassisSpeeds;
 import edu.wpi.first.wpilibj.kinematics.DifferentialDriveWheelSpeeds;
 import io.github.frc5024.purepursuit.pathgen.Path;
+import io.github.frc5024.purepursuit.pathgen.PathBuffer;
+import io.github.frc5024.purepursuit.pathgen.Trajectory;
 
 /**
  * A pure pursuit controller implementation
@@ -16,11 +18,18 @@ public class PurePursuitController {
     private Follower m_follower;
 
     // Tracker for last robot pose
-    private Pose2d m_lastPose = null;
+    private double m_lastX, m_lastY;
+    private boolean m_hasLastPose = false;
+
+    // Rotated goal from the last update
+    private double m_delta, m_alpha;
 
     // Maximum speed
     private double kMaxOutput;
 
+    // Optional velocity plan
+    private Trajectory m_trajectory = null;
+
     // Flag for following path in reverse
     private boolean followReverse;
 
@@ -64,7 +73,18 @@ public class PurePursuitController {
      */
     public void reset() {
         m_follower.reset();
-        m_lastPose = null;
+        m_hasLastPose = false;
+    }
+
+    /**
+     * Relocalize the controller after the robot pose has been reset, without
+     * restarting the path from scratch
+     *
+     * @param robotPose Robot's new pose
+     */
+    public void relocalize(Pose2d robotPose) {
+        m_follower.relocalize(robotPose);
+        m_hasLastPose = false;
     }
 
     /**
@@ -88,47 +108,94 @@ public class PurePursuitController {
     }
 
     /**
-     * Get the goal, but rotated to be relative to the robot, not the field
+     * Precompute lookahead goals for the path, so each update picks its goal with a
+     * table lookup. See {@link Follower#precomputeLookahead(double, int)}
      * 
-     * @param robotPose Robot's pose
-     * @return Rotated goal
+     * @param maxDistance Longest lookahead to precompute in meters
+     * @param levels      Number of lookahead distances to precompute, at least 2
      */
-    private Translation2d getRotatedGoal(Pose2d robotPose) {
+    public void configLookaheadTable(double maxDistance, int levels) {
+        m_follower.precomputeLookahead(maxDistance, levels);
+    }
 
-        // Get our goal pose from the follower
-        Translation2d goal = m_follower.getNextPoint(robotPose);
+    /**
+     * Set a velocity plan for the path. Outputs are scaled by the planned speed at
+     * the robot's position, so the robot speeds up on straights and slows down
+     * for turns and the end of the path. The plan's max velocity is full output,
+     * and replaces the max output percent and the slow-down for large turns, since
+     * the plan already limits speed through turns
+     * 
+     * @param trajectory Velocity plan for this controller's path, or null to
+     *                   drive at the max output
+     */
+    public void setTrajectory(Trajectory trajectory) {
+        this.m_trajectory = trajectory;
+    }
+
+    /**
+     * Check if there is a velocity plan for the path being followed. Plans made
+     * for a different set of points are ignored
+     * 
+     * @return Is there a plan?
+     */
+    private boolean hasTrajectory() {
+        return m_trajectory != null && m_trajectory.getBuffer() == m_follower.m_path.getBuffer();
+    }
+
+    /**
+     * Get the planned speed at the robot's position, as a percent of full output.
+     * The plan is read at the path point nearest the robot, near where the
+     * follower has tracked it to, so the robot does not brake early for turns it
+     * has not reached yet
+     * 
+     * @param x Robot X position
+     * @param y Robot Y position
+     * @return Speed percent
+     */
+    private double getPlannedSpeedPercent(double x, double y) {
+        return m_trajectory.getSpeedPercent(m_follower.getNearestTrackedIndex(x, y));
+    }
 
-        // Determine chassis coords on the field
-        Translation2d chassisCoords = robotPose.getTranslation();
-        Rotation2d chassisAngle = robotPose.getRotation();
+    /**
+     * Find the goal, rotated to be relative to the robot, not the field. The
+     * result is left in m_delta and m_alpha, so nothing is allocated
+     * 
+     * @param x     Robot's X position in meters
+     * @param y     Robot's Y position in meters
+     * @param theta Robot's heading in radians
+     */
+    private void updateRotatedGoal(double x, double y, double theta) {
+
+        // Get our goal pose from the follower
+        int goalIndex = m_follower.getNextIndex(x, y);
+        PathBuffer points = m_follower.m_path.getBuffer();
+        double goalX = points.getX(goalIndex);
+        double goalY = points.getY(goalIndex);
 
         // Determine goal alpha
         double alpha = 0.0;
 
         // Flip front and back if following backwards
         if (followReverse) {
-            // chassisAngle = chassisAngle.plus(Rotation2d.fromDegrees(180.0));
-            alpha = Math.atan2(chassisCoords.getY() - goal.getY(), chassisCoords.getX() - goal.getX())
-                    - chassisAngle.getRadians();
+            alpha = Math.atan2(y - goalY, x - goalX) - theta;
         } else {
-            alpha = Math.atan2(goal.getY() - chassisCoords.getY(), goal.getX() - chassisCoords.getX())
-                    - chassisAngle.getRadians();
+            alpha = Math.atan2(goalY - y, goalX - x) - theta;
         }
 
         // Determine our velocity from the last pose
         double v;
-        if (m_lastPose != null) {
-            double dx = robotPose.getTranslation().getX() - m_lastPose.getTranslation().getX();
-            double dy = robotPose.getTranslation().getY() - m_lastPose.getTranslation().getY();
-
-            // Calc V
-            v = Math.hypot(dx, dy);
+        if (m_hasLastPose) {
+            double dx = x - m_lastX;
+            double dy = y - m_lastY;
+            v = Math.sqrt(dx * dx + dy * dy);
         } else {
             v = 0.0;
         }
 
         // Set the last pose
-        m_lastPose = robotPose;
+        m_lastX = x;
+        m_lastY = y;
+        m_hasLastPose = true;
 
         // Determine lookahead
         double LF = m_follower.getLookaheadGain() * v * m_follower.getLookaheadDistance();
@@ -142,8 +209,9 @@ public class PurePursuitController {
         double delta = 0.0;
 
         if (MathUtils.epsilonEquals(alpha, 0.0, 1e-12)) {
-            delta = MathUtils.clamp(Math.hypot(goal.getX() - chassisCoords.getX(), goal.getY() - chassisCoords.getY()),
-                    -1, 1);
+            double dx = goalX - x;
+            double dy = goalY - y;
+            delta = MathUtils.clamp(Math.sqrt(dx * dx + dy * dy), -1, 1);
         } else {
             delta = Math.atan2(2.0 * m_follower.getDrivebaseWidth() * Math.sin(alpha) / LF, 1.0);
         }
@@ -153,7 +221,8 @@ public class PurePursuitController {
             delta *= -1;
         }
 
-        return new Translation2d(delta, alpha);
+        m_delta = delta;
+        m_alpha = alpha;
     }
 
     /**
@@ -163,23 +232,46 @@ public class PurePursuitController {
      * @return Output velocity percentages
      */
     public DifferentialDriveWheelSpeeds calculateTank(Pose2d robotPose) {
+        DifferentialDriveWheelSpeeds output = new DifferentialDriveWheelSpeeds();
+        calculateTank(robotPose.getTranslation().getX(), robotPose.getTranslation().getY(),
+                robotPose.getRotation().getRadians(), output);
+        return output;
+    }
+
+    /**
+     * Calculate outputs for a tank drivebase, without allocating. Call this every
+     * loop with the same output object
+     * 
+     * @param x      Robot's X position in meters
+     * @param y      Robot's Y position in meters
+     * @param theta  Robot's heading in radians
+     * @param output Wheel speeds to write output velocity percentages into
+     */
+    public void calculateTank(double x, double y, double theta, DifferentialDriveWheelSpeeds output) {
 
         // Get the rotated goal from the current pose
-        Translation2d goal = getRotatedGoal(robotPose);
+        updateRotatedGoal(x, y, theta);
 
         // Multiplier for speed. Can be affected by multiple factors to make motion look
         // smoother
         double speedMul = 1.0;
+        double maxOutput = kMaxOutput;
+
+        if (hasTrajectory()) {
 
-        // If the turn is too big, slow down the chassis to allow for the turn to be
-        // taken safely
-        if (Math.abs(goal.getY()) > 1.0) {
+            // Follow the plan, which already slows down for turns
+            speedMul = getPlannedSpeedPercent(x, y);
+            maxOutput = 1.0;
+        } else if (Math.abs(m_alpha) > 1.0) {
+
+            // If the turn is too big, slow down the chassis to allow for the turn to be
+            // taken safely
             speedMul = 0.1;
         }
 
         // Determine left and right velocity goals
-        double left = (goal.getX() * speedMul) + goal.getY();
-        double right = (goal.getX() * speedMul) - goal.getY();
+        double left = (m_delta * speedMul) + m_alpha;
+        double right = (m_delta * speedMul) - m_alpha;
 
         // Find the maximum magnitude between both velocities
         double magnitude = Math.max(Math.abs(left), Math.abs(right));
@@ -191,10 +283,8 @@ public class PurePursuitController {
         }
 
         // Limit left and right
-        left *= kMaxOutput;
-        right *= kMaxOutput;
-
-        return new DifferentialDriveWheelSpeeds(left, right);
+        output.leftMetersPerSecond = left * maxOutput;
+        output.rightMetersPerSecond = right * maxOutput;
 
     }
 
@@ -206,18 +296,34 @@ public class PurePursuitController {
      *         matching the desired speed
      */
     public Translation2d calculateHolonomic(Pose2d robotPose) {
+        ChassisSpeeds output = new ChassisSpeeds();
+        calculateHolonomic(robotPose.getTranslation().getX(), robotPose.getTranslation().getY(), output);
+        return new Translation2d(output.vxMetersPerSecond, output.vyMetersPerSecond);
+    }
 
-        // Get the rotated goal from the current pose
-        Translation2d goal = m_follower.getNextPoint(robotPose);
+    /**
+     * Calculate outputs for a holonomic drivebase, without allocating. Call this
+     * every loop with the same output object
+     * 
+     * @param x      Robot's X position in meters
+     * @param y      Robot's Y position in meters
+     * @param output Speeds to write the desired direction of travel into, with
+     *               magnitude matching the desired speed. No rotation is
+     *               requested
+     */
+    public void calculateHolonomic(double x, double y, ChassisSpeeds output) {
 
-        // Clamp the speeds
-        double x = MathUtils.clamp(goal.getX() - robotPose.getTranslation().getX(), -kMaxOutput, kMaxOutput);
-        double y = MathUtils.clamp(goal.getY() - robotPose.getTranslation().getY(), -kMaxOutput, kMaxOutput);
+        // Get the goal from the current pose
+        int goalIndex = m_follower.getNextIndex(x, y);
+        PathBuffer points = m_follower.m_path.getBuffer();
 
         // We can just treat the goal as a unit vector pointing at the direction we want
-        // to move.
-        return new Translation2d(x, y);
+        // to move. Clamp the speeds
+        double limit = hasTrajectory() ? getPlannedSpeedPercent(x, y) : kMaxOutput;
+        output.vxMetersPerSecond = MathUtils.clamp(points.getX(goalIndex) - x, -limit, limit);
+        output.vyMetersPerSecond = MathUtils.clamp(points.getY(goalIndex) - y, -limit, limit);
+        output.omegaRadiansPerSecond = 0.0;
 
     }
 
-}
\ No newline at end of file
+}
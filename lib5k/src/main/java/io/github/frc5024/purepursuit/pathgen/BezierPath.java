@@ -1,22 +1,47 @@
 package io.github.frc5024.purepursuit.pathgen;
 
-import java.util.ArrayList;
-import ca.retrylife.ewmath.MathUtils;
+import java.util.Arrays;
+
 import edu.wpi.first.wpilibj.geometry.Translation2d;
 import edu.wpi.first.wpilibj.util.Units;
 
 /**
- * This class is used to generate points along a bezier curves
+ * This class is used to generate points along a bezier curves. The curve is
+ * split into flat pieces with de Casteljau's algorithm, then points are placed
+ * along it at an even spacing
  */
 public class BezierPath extends Path {
 
-	// Maximum space allowed between points
+	// Space between points
 	private double maxSeperation;
 
+	// Maximum distance the generated points may stray from the true curve
+	private double flatness;
+
 	private static final double DEFAULT_POINT_SPACING = Units.inchesToMeters(6);
+	static final double DEFAULT_FLATNESS = 0.001;
 
-	// The lookup table
-	private static ArrayList<int[]> binomialLookUpTable;
+	// Curves are never split more than this many times deep
+	private static final int MAX_SUBDIVISION_DEPTH = 20;
+
+	/**
+	 * A growable list of points
+	 */
+	private static class Polyline {
+		double[] x = new double[64];
+		double[] y = new double[64];
+		int size = 0;
+
+		void add(double px, double py) {
+			if (size == x.length) {
+				x = Arrays.copyOf(x, size * 2);
+				y = Arrays.copyOf(y, size * 2);
+			}
+			x[size] = px;
+			y[size] = py;
+			size++;
+		}
+	}
 
 	/**
 	 * 
@@ -41,182 +66,174 @@ public class BezierPath extends Path {
 	 * @param wayPoints The waypoints of the bezier curve
 	 * @param weights   The weights for each point point 0 and 2 should stay as
 	 *                  close to 1 as possible
-	 * @param spacing   the maximum amount of spacing allowed
+	 * @param spacing   the distance along the curve between points
 	 */
 	public BezierPath(Translation2d[] wayPoints, double[] weights, double spacing) {
+		this(wayPoints, weights, spacing, DEFAULT_FLATNESS);
+	}
+
+	/**
+	 * 
+	 * @param wayPoints The waypoints of the bezier curve
+	 * @param weights   The weights for each point point 0 and 2 should stay as
+	 *                  close to 1 as possible
+	 * @param spacing   the distance along the curve between points
+	 * @param flatness  the maximum distance in meters the points may stray from
+	 *                  the true curve. Smaller values take longer to generate
+	 */
+	public BezierPath(Translation2d[] wayPoints, double[] weights, double spacing, double flatness) {
 		this.name = "BezierPath";
 		this.waypoints = wayPoints;
-		this.points = new ArrayList<>();
 		this.maxSeperation = spacing;
+		this.flatness = flatness;
 
-		if (binomialLookUpTable == null) {
-			initilizeLookupTable();
-		}
+		beginTimingGeneration();
 
-		// This makes sure the proper length of weights is provided
-		double[] newWeights = new double[wayPoints.length];
+		// Each weight scales its control point. Missing weights are 1
+		double[] controlX = new double[wayPoints.length];
+		double[] controlY = new double[wayPoints.length];
 
 		for (int i = 0; i < wayPoints.length; i++) {
-			if (i < weights.length) {
-				newWeights[i] = weights[i];
-			} else {
-				newWeights[i] = 1;
-			}
+			double weight = (i < weights.length) ? weights[i] : 1;
+			controlX[i] = wayPoints[i].getX() * weight;
+			controlY[i] = wayPoints[i].getY() * weight;
 		}
 
 		// Calculates the points
-		calculatePoints(wayPoints, newWeights);
+		Polyline line = new Polyline();
+		if (wayPoints.length > 0) {
+			line.add(controlX[0], controlY[0]);
+		}
+		if (wayPoints.length > 1) {
+			flatten(controlX, controlY, 0, line);
+		}
+		setBuffer(resample(line));
+
+		saveAndLogGenerationTime();
 
 	}
 
 	/**
+	 * Turns a curve into a line made of straight segments. The curve is split in
+	 * half until each piece is flat enough to be a single segment, so gentle
+	 * curves need few segments and tight ones get more
 	 * 
-	 * @param n row of lut
-	 * @param k coloumn of lut
-	 * @return a binomial from the lut
+	 * @param controlX the X positions of the curve's control points
+	 * @param controlY the Y positions of the curve's control points
+	 * @param depth    how many times the curve has been split
+	 * @param line     the line to add the end of each flat piece to
 	 */
-	private double binomial(int k, int n) {
-		// Adds new entries to LUT table if they are missing.
-		while (n >= binomialLookUpTable.size()) {
-			// continues pascal triangle
-			int lutSize = binomialLookUpTable.size();
+	private void flatten(double[] controlX, double[] controlY, int depth, Polyline line) {
+		int n = controlX.length - 1;
 
-			int[] newRow = new int[lutSize + 1];
-			newRow[0] = 1;
+		if (depth >= MAX_SUBDIVISION_DEPTH || isFlat(controlX, controlY)) {
+			line.add(controlX[n], controlY[n]);
+			return;
+		}
 
-			for (int i = 1, prev = lutSize - 1; i < lutSize; i++) {
-				newRow[i] = binomialLookUpTable.get(prev)[i - 1] + binomialLookUpTable.get(prev)[i];
+		// Split the curve at t = 0.5 with de Casteljau's algorithm. Each pass
+		// averages neighbouring points, and the first and last point of every pass
+		// are control points of the two halves
+		double[] workX = controlX.clone();
+		double[] workY = controlY.clone();
+		double[] leftX = new double[n + 1];
+		double[] leftY = new double[n + 1];
+		double[] rightX = new double[n + 1];
+		double[] rightY = new double[n + 1];
+
+		leftX[0] = workX[0];
+		leftY[0] = workY[0];
+		rightX[n] = workX[n];
+		rightY[n] = workY[n];
+		for (int r = 1; r <= n; r++) {
+			for (int i = 0; i <= n - r; i++) {
+				workX[i] = (workX[i] + workX[i + 1]) * 0.5;
+				workY[i] = (workY[i] + workY[i + 1]) * 0.5;
 			}
-
-			newRow[lutSize] = 1;
-
-			binomialLookUpTable.add(lutSize, newRow);
+			leftX[r] = workX[0];
+			leftY[r] = workY[0];
+			rightX[n - r] = workX[n - r];
+			rightY[n - r] = workY[n - r];
 		}
 
-		// Looks up value
-		return binomialLookUpTable.get(n)[k];
-	}
-
-	/**
-	 * Calculates the bezier values
-	 * 
-	 * @param t      t value for equation between 0, 1
-	 * @param i      the current point
-	 * @param n      the number of points starting at 0
-	 * @param weight the weight to mulitply the value by
-	 * @return the bezier value to add to point x,y
-	 */
-	private double calculateBezier(double t, int i, int n, double weight) {
-
-		// Formula to calculate value
-		return weight * binomial(i, n) * Math.pow(t, i) * Math.pow((1 - t), (n - i));
+		flatten(leftX, leftY, depth + 1, line);
+		flatten(rightX, rightY, depth + 1, line);
 	}
 
 	/**
-	 * calculates points along a bezier curve
+	 * Checks if a curve is close enough to a straight line. A curve always stays
+	 * inside the shape made by its control points, so it is flat enough if every
+	 * control point is close to the line segment between its ends. Points past
+	 * either end are measured from that end, so a curve that overshoots and comes
+	 * back is not flat
 	 * 
-	 * @param wayPoints the waypoints to form the hull
-	 * @param weights   values to increase each points weight by
+	 * @param controlX the X positions of the curve's control points
+	 * @param controlY the Y positions of the curve's control points
+	 * @return is the curve flat?
 	 */
-	private void calculatePoints(Translation2d[] wayPoints, double[] weights) {
-		// The number of waypoints starting from 1
-		int numberOfWayPoints = wayPoints.length - 1;
-
-		// Add first waypoints
-		points.add(wayPoints[0]);
-
-		// Increases the t at the rate of 1 %
-		for (int i = 1; i < 101; i++) {
-
-			// Resets x, y variables
-			double x = 0;
-			double y = 0;
-
-			// Calculates the T value
-			double t = .01 * i;
-
-			// calculates x, y value for each point
-			for (int j = 0; j < numberOfWayPoints + 1; j++) {
-				double bezierNumber = calculateBezier(t, j, numberOfWayPoints, weights[j]);
-				x += wayPoints[j].getX() * bezierNumber;
-				y += wayPoints[j].getY() * bezierNumber;
+	private boolean isFlat(double[] controlX, double[] controlY) {
+		int n = controlX.length - 1;
+		double chordX = controlX[n] - controlX[0];
+		double chordY = controlY[n] - controlY[0];
+		double chordLengthSq = chordX * chordX + chordY * chordY;
+
+		for (int i = 1; i < n; i++) {
+			double dx = controlX[i] - controlX[0];
+			double dy = controlY[i] - controlY[0];
+
+			// Find the nearest point on the chord, or use the start if the ends meet
+			double t = (chordLengthSq == 0.0) ? 0.0
+					: Math.max(0.0, Math.min(1.0, (dx * chordX + dy * chordY) / chordLengthSq));
+			if (Math.hypot(dx - t * chordX, dy - t * chordY) > flatness) {
+				return false;
 			}
-
-			populatePoints(x, y);
-
-			// Adds point to arraylist
-			points.add(new Translation2d(x, y));
 		}
+		return true;
 	}
 
 	/**
-	 * Populates points between x,y and the most recent point
+	 * Places points along a line at exactly the point spacing, measured along the
+	 * line. The last point is always the end of the line
 	 * 
-	 * @param x the x point
-	 * @param y the y point
+	 * @param line the line to place points on
+	 * @return the placed points
 	 */
-	private void populatePoints(double x, double y) {
-		// the deltas between the last point and the new one
-		double xDelta = x - points.get(points.size() - 1).getX();
-		double yDelta = y - points.get(points.size() - 1).getY();
-		double pointsDelta = Math.hypot(xDelta, yDelta);
-
-		// If the delta is larger than max allowed add more spaces
-		if (pointsDelta > maxSeperation) {
-
-			// Calculate the amount of points need and their required seperation
-			double factor = pointsDelta / maxSeperation;
-			double xSpacing = xDelta / factor;
-			double ySpacing = yDelta / factor;
-
-			// add the points
-			for (int i = 1; i < (int) (factor) + 1; i++) {
-				points.add(new Translation2d(xSpacing + points.get(points.size() - 1).getX(),
-						ySpacing + points.get(points.size() - 1).getY()));
-			}
-
+	private PathBuffer resample(Polyline line) {
+		Polyline output = new Polyline();
+		if (line.size == 0) {
+			return new PathBuffer(new double[0], new double[0]);
 		}
-	}
-
-	/**
-	 * Initalizes the lookup table with 5 rows
-	 */
-	private void initilizeLookupTable() {
-		initilizeLookupTable(5);
-	}
 
-	/**
-	 * Initalizes the lookup table, the lookup table takes the form of pascals
-	 * triangle https://en.wikipedia.org/wiki/Pascal%27s_triangle
-	 * 
-	 * @param size the amount of rows to initalizes.
-	 */
-	private void initilizeLookupTable(int size) {
-		// Intializes the lookup table
-		binomialLookUpTable = new ArrayList<>();
-
-		// Adds the first to rows
-		binomialLookUpTable.add(0, new int[] { 1 });
-		binomialLookUpTable.add(1, new int[] { 1, 1 });
-
-		// start on the third row then generate values for the new row
-		for (int i = 2; i < size; i++) {
-			// Create a new row 1 larger than its index
-			int[] newRow = new int[i + 1];
-
-			// For each coloumn add the 2 values in the above row
-			for (int j = 1; j < newRow.length - 1; j++) {
-				newRow[j] = binomialLookUpTable.get(i - 1)[j - 1] + binomialLookUpTable.get(i - 1)[j];
+		// Start at the first point, and walk each segment placing points
+		output.add(line.x[0], line.y[0]);
+		double target = maxSeperation;
+		double travelled = 0.0;
+		for (int i = 1; i < line.size; i++) {
+			double dx = line.x[i] - line.x[i - 1];
+			double dy = line.y[i] - line.y[i - 1];
+			double length = Math.hypot(dx, dy);
+
+			while (target <= travelled + length) {
+				double fraction = (target - travelled) / length;
+				output.add(line.x[i - 1] + dx * fraction, line.y[i - 1] + dy * fraction);
+				target += maxSeperation;
 			}
+			travelled += length;
+		}
 
-			// Set the ends of each row to 1
-			newRow[0] = 1;
-			newRow[i] = 1;
-
-			// Adds the new row to the LUT
-			binomialLookUpTable.add(i, newRow);
+		// Finish exactly on the end of the curve. A point that landed right next to
+		// it is moved onto it instead
+		double endX = line.x[line.size - 1];
+		double endY = line.y[line.size - 1];
+		if (output.size > 1 && Math.hypot(endX - output.x[output.size - 1],
+				endY - output.y[output.size - 1]) < maxSeperation * 1e-3) {
+			output.size--;
+		}
+		if (line.size > 1) {
+			output.add(endX, endY);
 		}
 
+		return new PathBuffer(Arrays.copyOf(output.x, output.size), Arrays.copyOf(output.y, output.size));
 	}
 
 }
@@ -0,0 +1,136 @@
+package io.github.frc5024.purepursuit.pathgen;
+
+/**
+ * A precomputed table of lookahead goals for a {@link Path}.
+ *
+ * For each of a small number of lookahead distances, the table stores the
+ * index of the point that distance further along the path from every point. A
+ * follower can then pick its goal with an array lookup instead of a search.
+ *
+ * Distances are quantized to a fixed resolution. Level k of the table holds
+ * goals for a lookahead of k * resolution meters, and lookups round to the
+ * nearest level. Lookups past the last level fall back to a binary search, so
+ * any distance still gives a goal.
+ *
+ * The table takes levels * size ints. A LookaheadTable is immutable once built,
+ * and is safe to share between threads.
+ */
+public class LookaheadTable {
+
+    // Points the table was built from
+    private final PathBuffer buffer;
+    private final int size;
+
+    // Quantization
+    private final double resolution;
+    private final int levels;
+
+    // Goal index for level k and point i, at [k * size + i]
+    private final int[] table;
+
+    /**
+     * Build a table for a single fixed lookahead distance
+     *
+     * @param buffer   Path points
+     * @param distance Lookahead distance in meters
+     */
+    public LookaheadTable(PathBuffer buffer, double distance) {
+        this(buffer, distance, 2);
+    }
+
+    /**
+     * Build a table for quantized lookahead distances from 0 to (levels - 1) *
+     * resolution
+     *
+     * @param buffer     Path points
+     * @param resolution Distance between levels in meters
+     * @param levels     Number of levels
+     */
+    public LookaheadTable(PathBuffer buffer, double resolution, int levels) {
+        if (resolution <= 0.0 || levels < 1) {
+            throw new IllegalArgumentException("Lookahead tables need a positive resolution and at least one level");
+        }
+
+        this.buffer = buffer;
+        this.size = buffer.size();
+        this.resolution = resolution;
+        this.levels = levels;
+        this.table = new int[levels * size];
+
+        for (int k = 0; k < levels; k++) {
+            fillLevel(k, k * resolution);
+        }
+    }
+
+    /**
+     * Fill one level of the table. Goals only ever move forward as the start point
+     * does, so this is a single pass over the path
+     *
+     * @param level    Level
+     * @param distance Lookahead distance of the level
+     */
+    private void fillLevel(int level, double distance) {
+        int offset = level * size;
+        int goal = 0;
+
+        for (int i = 0; i < size; i++) {
+
+            // Find the first point at or past the distance, matching
+            // PathIndex.getIndexAhead()
+            double target = buffer.distance[i] + distance;
+            goal = Math.max(goal, i);
+            while (goal < size - 1 && buffer.distance[goal] < target) {
+                goal++;
+            }
+            table[offset + i] = goal;
+        }
+    }
+
+    /**
+     * Get the points the table was built from
+     *
+     * @return Path buffer
+     */
+    public PathBuffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Get the distance between levels
+     *
+     * @return Resolution in meters
+     */
+    public double getResolution() {
+        return resolution;
+    }
+
+    /**
+     * Get the longest lookahead distance in the table
+     *
+     * @return Distance in meters
+     */
+    public double getMaxDistance() {
+        return (levels - 1) * resolution;
+    }
+
+    /**
+     * Get the point a lookahead distance further along the path, rounded to the
+     * nearest table level
+     *
+     * @param index    Starting point index
+     * @param distance Distance to look ahead in meters
+     * @return Point index
+     */
+    public int getIndexAhead(int index, double distance) {
+        int level = (int) (distance / resolution + 0.5);
+
+        if (level < 0) {
+            level = 0;
+        } else if (level >= levels) {
+            return Math.max(index, buffer.getIndexAtDistance(buffer.distance[index] + distance));
+        }
+
+        return table[level * size + index];
+    }
+
+}
@@ -21,15 +21,24 @@ import org.knowm.xchart.style.Styler.LegendPosition;
  */
 public class Path {
 
-    // Path points
+    // Path points. Generators fill the points list, then call buildBuffer(). The
+    // generators in this package only read the buffer after that, so they drop
+    // the list. It is kept in step with the buffer for other subclasses, which
+    // may still read it
     protected ArrayList<Translation2d> points;
     protected Translation2d[] waypoints;
+    private PathBuffer buffer = new PathBuffer(new double[0], new double[0]);
     private Translation2d[] innerPoints = null;
+    private PathIndex index = null;
 
     // Timer for path generation
     protected double pathGenStartTimeMs = 0.0;
     protected double pathGenTimeMs = 0.0;
 
+    // Should generation times be logged? RobotLogger needs the HAL, so this is
+    // turned off when paths are compiled at build time
+    private static volatile boolean logGenerationTime = true;
+
     // Metadata
     protected String name = "Path";
 
@@ -91,6 +100,7 @@ public class Path {
             // Remove the first point, as it may cause bugs with followers
             this.points.remove(0);
         }
+        buildBuffer();
 
         // Log path generation time
         saveAndLogGenerationTime();
@@ -109,21 +119,100 @@ public class Path {
      */
     protected void saveAndLogGenerationTime() {
         pathGenTimeMs = FPGAClock.getFPGAMilliseconds() - pathGenStartTimeMs;
-        RobotLogger.getInstance().log(String.format("%s generation finished in: %.4fms", name, pathGenTimeMs));
+        if (logGenerationTime) {
+            RobotLogger.getInstance().log(String.format("%s generation finished in: %.4fms", name, pathGenTimeMs));
+        }
+    }
+
+    /**
+     * Enable or disable logging of path generation times
+     * 
+     * @param enabled Should generation times be logged?
+     */
+    static void setGenerationLogging(boolean enabled) {
+        logGenerationTime = enabled;
+    }
+
+    /**
+     * Pack the generated points list into the path buffer
+     */
+    protected void buildBuffer() {
+        replaceBuffer(new PathBuffer(points), points);
+    }
+
+    /**
+     * Replace the path points. For subclasses that read the points list, it is
+     * refilled from the buffer, so they still see the same points
+     * 
+     * @param buffer New path points
+     */
+    protected void setBuffer(PathBuffer buffer) {
+        replaceBuffer(buffer, keepsPointsList() ? new ArrayList<>(Arrays.asList(buffer.toArray())) : null);
+    }
+
+    /**
+     * Replace the path points, and drop anything built from the old ones
+     * 
+     * @param buffer New path points
+     * @param points The same points, as a list
+     */
+    private void replaceBuffer(PathBuffer buffer, ArrayList<Translation2d> points) {
+        this.buffer = buffer;
+        this.points = keepsPointsList() ? points : null;
+        innerPoints = null;
+        index = null;
+    }
+
+    /**
+     * Check if this path keeps the points list once it is generated. The
+     * generators in this package only read the buffer, so only subclasses from
+     * outside it need the list
+     * 
+     * @return Should the list be kept?
+     */
+    private boolean keepsPointsList() {
+        Class<?> type = getClass();
+        return type != Path.class && type != SmoothPath.class && type != BezierPath.class && type != RawPath.class;
+    }
+
+    /**
+     * Get the path points, along with the distance, heading, and curvature at
+     * each one
+     * 
+     * @return Path buffer
+     */
+    public PathBuffer getBuffer() {
+        return buffer;
     }
 
     /**
-     * Get a list of all poses along the path
+     * Get a list of all poses along the path. The poses are copied out of the
+     * path buffer (or the points list, if it is kept) the first time this is
+     * called, so followers should prefer {@link #getBuffer()}
      * 
      * @return Poses
      */
     public Translation2d[] getPoses() {
         if (innerPoints == null) {
-            innerPoints = this.points.toArray(new Translation2d[this.points.size()]);
+            innerPoints = (points != null) ? points.toArray(new Translation2d[0]) : buffer.toArray();
         }
         return innerPoints;
     }
 
+    /**
+     * Get a spatial index over the path points, for finding the nearest point to
+     * the robot, or the point a distance further along the path. The index is
+     * built the first time this is called, and reused after that
+     * 
+     * @return Path index
+     */
+    public PathIndex getIndex() {
+        if (index == null) {
+            index = new PathIndex(buffer);
+        }
+        return index;
+    }
+
     @Override
     public String toString() {
         return String.format("<Path: %s>", Arrays.deepToString(getPoses()));
@@ -138,15 +227,13 @@ public class Path {
     public XYChart getPathVisualization() {
 
         // Create X and Y datasets for points
-        double[] xData = new double[this.points.size()];
-        double[] yData = new double[this.points.size()];
+        double[] xData = new double[buffer.size()];
+        double[] yData = new double[buffer.size()];
 
         // Save each point as an X and a Y
-        int i = 0;
-        for (Translation2d point : this.points) {
-            xData[i] = point.getX();
-            yData[i] = point.getY();
-            i++;
+        for (int i = 0; i < buffer.size(); i++) {
+            xData[i] = buffer.getX(i);
+            yData[i] = buffer.getY(i);
         }
 
         // Create X and Y datasets for waypoints
@@ -154,7 +241,7 @@ public class Path {
         double[] wyData = new double[this.waypoints.length];
 
         // Save each point as an X and a Y
-        i = 0;
+        int i = 0;
         for (Translation2d point : this.waypoints) {
             wxData[i] = point.getX();
             wyData[i] = point.getY();
@@ -0,0 +1,245 @@
+package io.github.frc5024.purepursuit.pathgen;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import edu.wpi.first.wpilibj.geometry.Translation2d;
+
+/**
+ * A compact, immutable store of path points.
+ *
+ * Instead of one object per point, a PathBuffer keeps parallel arrays of the X
+ * and Y position, cumulative distance along the path, heading, and curvature at
+ * every point. Everything is computed once when the buffer is built, so
+ * followers can read it without allocating.
+ */
+public class PathBuffer {
+
+    // Point data, by index. Package-private so other path classes can read it
+    // without copying
+    final double[] x;
+    final double[] y;
+    final double[] distance;
+    final double[] heading;
+    final double[] curvature;
+
+    /**
+     * Build a PathBuffer from point coordinates. The arrays are owned by the
+     * buffer afterwards, and must not be modified
+     *
+     * @param x Point X positions in meters
+     * @param y Point Y positions in meters
+     */
+    public PathBuffer(double[] x, double[] y) {
+        if (x.length != y.length) {
+            throw new IllegalArgumentException("X and Y arrays must be the same length");
+        }
+
+        int n = x.length;
+        this.x = x;
+        this.y = y;
+        this.distance = new double[n];
+        this.heading = new double[n];
+        this.curvature = new double[n];
+
+        // Distance and heading come from the segment leaving each point
+        for (int i = 1; i < n; i++) {
+            double dx = x[i] - x[i - 1];
+            double dy = y[i] - y[i - 1];
+            distance[i] = distance[i - 1] + Math.hypot(dx, dy);
+            heading[i - 1] = Math.atan2(dy, dx);
+        }
+
+        // The last point keeps the heading of the segment leading to it
+        if (n > 1) {
+            heading[n - 1] = heading[n - 2];
+        }
+
+        // Curvature is that of the circle through each point and its neighbours.
+        // Positive curvature turns left
+        for (int i = 1; i < n - 1; i++) {
+            double ax = x[i] - x[i - 1];
+            double ay = y[i] - y[i - 1];
+            double bx = x[i + 1] - x[i];
+            double by = y[i + 1] - y[i];
+            double denominator = Math.hypot(ax, ay) * Math.hypot(bx, by) * Math.hypot(ax + bx, ay + by);
+            curvature[i] = (denominator == 0.0) ? 0.0 : 2.0 * (ax * by - ay * bx) / denominator;
+        }
+    }
+
+    /**
+     * Build a PathBuffer from a list of points
+     *
+     * @param points Path points, in order
+     */
+    public PathBuffer(List<Translation2d> points) {
+        this(xOf(points), yOf(points));
+    }
+
+    /**
+     * Build a PathBuffer from an array of points
+     *
+     * @param points Path points, in order
+     */
+    public PathBuffer(Translation2d[] points) {
+        this(Arrays.asList(points));
+    }
+
+    /**
+     * Copy the X positions out of a list of points
+     *
+     * @param points Points
+     * @return X positions
+     */
+    private static double[] xOf(List<Translation2d> points) {
+        double[] output = new double[points.size()];
+        for (int i = 0; i < output.length; i++) {
+            output[i] = points.get(i).getX();
+        }
+        return output;
+    }
+
+    /**
+     * Copy the Y positions out of a list of points
+     *
+     * @param points Points
+     * @return Y positions
+     */
+    private static double[] yOf(List<Translation2d> points) {
+        double[] output = new double[points.size()];
+        for (int i = 0; i < output.length; i++) {
+            output[i] = points.get(i).getY();
+        }
+        return output;
+    }
+
+    /**
+     * Get the number of points
+     *
+     * @return Point count
+     */
+    public int size() {
+        return x.length;
+    }
+
+    /**
+     * Get the X position of a point
+     *
+     * @param index Point index
+     * @return X position in meters
+     */
+    public double getX(int index) {
+        return x[index];
+    }
+
+    /**
+     * Get the Y position of a point
+     *
+     * @param index Point index
+     * @return Y position in meters
+     */
+    public double getY(int index) {
+        return y[index];
+    }
+
+    /**
+     * Get the distance along the path to a point
+     *
+     * @param index Point index
+     * @return Distance from the first point in meters
+     */
+    public double getDistance(int index) {
+        return distance[index];
+    }
+
+    /**
+     * Get the direction of travel at a point
+     *
+     * @param index Point index
+     * @return Heading in radians
+     */
+    public double getHeading(int index) {
+        return heading[index];
+    }
+
+    /**
+     * Get the path curvature at a point. The first and last points have no
+     * curvature
+     *
+     * @param index Point index
+     * @return Curvature in 1/meters. Positive values turn left
+     */
+    public double getCurvature(int index) {
+        return curvature[index];
+    }
+
+    /**
+     * Get the total length of the path
+     *
+     * @return Length in meters
+     */
+    public double getLength() {
+        return (x.length == 0) ? 0.0 : distance[x.length - 1];
+    }
+
+    /**
+     * Find the first point at least a distance along the path
+     *
+     * @param distance Distance from the first point in meters
+     * @return Point index. Distances past the end of the path give the last point
+     */
+    public int getIndexAtDistance(double distance) {
+        int lo = 0;
+        int hi = x.length - 1;
+
+        // Find the first distance that is not less than the target
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (this.distance[mid] < distance) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Get a point as a Translation2d. This allocates, so followers should prefer
+     * {@link #getX(int)} and {@link #getY(int)}
+     *
+     * @param index Point index
+     * @return Point
+     */
+    public Translation2d getPoint(int index) {
+        return new Translation2d(x[index], y[index]);
+    }
+
+    /**
+     * Copy every point out as a Translation2d
+     *
+     * @return Points
+     */
+    public Translation2d[] toArray() {
+        Translation2d[] output = new Translation2d[x.length];
+        for (int i = 0; i < output.length; i++) {
+            output[i] = getPoint(i);
+        }
+        return output;
+    }
+
+    /**
+     * Copy every point out as a Translation2d
+     *
+     * @return Points
+     */
+    public ArrayList<Translation2d> toList() {
+        ArrayList<Translation2d> output = new ArrayList<>(x.length);
+        for (int i = 0; i < x.length; i++) {
+            output.add(getPoint(i));
+        }
+        return output;
+    }
+
+}
@@ -0,0 +1,96 @@
+package io.github.frc5024.purepursuit.pathgen;
+
+import java.io.File;
+import java.io.IOException;
+
+import edu.wpi.first.wpilibj.Filesystem;
+import io.github.frc5024.lib5k.hardware.ni.roborio.fpga.FPGAClock;
+import io.github.frc5024.lib5k.logging.RobotLogger;
+import io.github.frc5024.lib5k.logging.RobotLogger.Level;
+
+/**
+ * PathCache loads paths that were pre-generated at build time by
+ * {@link PathCompiler}, so autonomous paths do not have to be generated in
+ * robotInit.
+ *
+ * Each path is looked up by name in the deploy directory. If the file is
+ * missing, unreadable, or was made from a different {@link PathSpec} than the
+ * one passed in, the path is generated at runtime instead, so a stale cache can
+ * never produce the wrong path.
+ *
+ * <pre>
+ * Path path = PathCache.load("leftAuto", PathSpec.smooth(0.15, 0.5, 0.5, 0.001, waypoints));
+ * </pre>
+ */
+public class PathCache {
+
+    /**
+     * Name of the directory inside the deploy directory that holds path files
+     */
+    public static final String DIRECTORY = "paths";
+
+    /**
+     * This is a util
+     */
+    private PathCache() {
+    }
+
+    /**
+     * Get the file a path is cached in
+     *
+     * @param directory Path file directory
+     * @param name      Path name
+     * @return Path file
+     */
+    public static File getFile(File directory, String name) {
+        return new File(directory, name + PathFile.EXTENSION);
+    }
+
+    /**
+     * Load a path from the deploy directory, or generate it if there is no
+     * matching file
+     *
+     * @param name Path name
+     * @param spec How to generate the path
+     * @return Path
+     */
+    public static Path load(String name, PathSpec spec) {
+        return load(new File(Filesystem.getDeployDirectory(), DIRECTORY), name, spec);
+    }
+
+    /**
+     * Load a path from a directory, or generate it if there is no matching file
+     *
+     * @param directory Path file directory
+     * @param name      Path name
+     * @param spec      How to generate the path
+     * @return Path
+     */
+    public static Path load(File directory, String name, PathSpec spec) {
+        RobotLogger logger = RobotLogger.getInstance();
+        File file = getFile(directory, name);
+
+        if (file.exists()) {
+            double startMs = FPGAClock.getFPGAMilliseconds();
+            try {
+                PathBuffer buffer = PathFile.read(file, spec.getKey());
+                if (buffer != null) {
+                    Path path = new RawPath(buffer);
+                    path.name = name;
+                    path.waypoints = spec.getWaypoints();
+                    logger.log("Loaded path %s from %s in %.4fms", name, file,
+                            FPGAClock.getFPGAMilliseconds() - startMs);
+                    return path;
+                }
+                logger.log("Path file %s does not match the spec for %s. Generating at runtime", Level.kWarning,
+                        file, name);
+            } catch (IOException e) {
+                logger.log("Could not read path file %s (%s). Generating at runtime", Level.kWarning, file,
+                        e.getMessage());
+            }
+        }
+
+        return spec.generate();
+    }
+
+}
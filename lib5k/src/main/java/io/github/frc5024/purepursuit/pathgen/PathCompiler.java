@@ -0,0 +1,136 @@
+package io.github.frc5024.purepursuit.pathgen;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import io.github.frc5024.lib5k.hardware.ni.roborio.fpga.FPGAClock;
+
+/**
+ * PathCompiler pre-generates paths at build time, so {@link PathCache} can
+ * load them on the robot instead of generating them in robotInit.
+ *
+ * Paths are declared in a JSON file, as an object mapping path names to
+ * {@link PathSpec}s. Any setting that is left out uses the generator's
+ * default:
+ *
+ * <pre>
+ * {
+ *     "leftAuto": {
+ *         "type": "smooth",
+ *         "spacing": 0.15,
+ *         "weight": 0.5,
+ *         "smoothing": 0.5,
+ *         "tolerance": 0.001,
+ *         "waypoints": [[0.0, 0.0], [1.0, 3.0], [2.0, 2.0]]
+ *     },
+ *     "rightAuto": {
+ *         "type": "bezier",
+ *         "waypoints": [[0.0, 0.0], [2.0, 0.0], [2.0, 2.0]]
+ *     }
+ * }
+ * </pre>
+ *
+ * This is also a command line tool. From the lib5k project, run:
+ *
+ * <pre>
+ * ./gradlew :lib5k:runPathCompiler -PpathArgs="paths.json src/main/deploy/paths"
+ * </pre>
+ *
+ * Paths whose file already matches their spec are skipped.
+ */
+public class PathCompiler {
+
+    /**
+     * This is a util
+     */
+    private PathCompiler() {
+    }
+
+    /**
+     * Read path declarations from a JSON file
+     *
+     * @param declarations JSON file
+     * @return Specs, by path name, in file order
+     * @throws IOException Thrown if the file cannot be read
+     */
+    public static Map<String, PathSpec> readDeclarations(File declarations) throws IOException {
+        Type mapType = new TypeToken<LinkedHashMap<String, PathSpec>>() {
+        }.getType();
+
+        try (Reader reader = new FileReader(declarations)) {
+            Map<String, PathSpec> specs = new Gson().fromJson(reader, mapType);
+            return (specs == null) ? new LinkedHashMap<>() : specs;
+        }
+    }
+
+    /**
+     * Generate and write every declared path that is missing or out of date
+     *
+     * @param specs     Specs, by path name
+     * @param directory Directory to write path files to
+     * @param out       Stream to report progress on
+     * @return Number of paths written
+     * @throws IOException Thrown if a path file cannot be written
+     */
+    public static int compile(Map<String, PathSpec> specs, File directory, PrintStream out) throws IOException {
+        int written = 0;
+
+        for (Map.Entry<String, PathSpec> entry : specs.entrySet()) {
+            File file = PathCache.getFile(directory, entry.getKey());
+            long key = entry.getValue().getKey();
+
+            // Skip paths that are already up to date
+            if (file.exists()) {
+                try {
+                    if (PathFile.readKey(file) == key) {
+                        out.printf("%s is up to date%n", entry.getKey());
+                        continue;
+                    }
+                } catch (IOException e) {
+                    // Overwrite anything that is not a valid path file
+                }
+            }
+
+            long start = System.nanoTime();
+            PathBuffer buffer = entry.getValue().generate().getBuffer();
+            PathFile.write(file, key, buffer);
+            out.printf("%s: %d points in %.2fms -> %s%n", entry.getKey(), buffer.size(),
+                    (System.nanoTime() - start) / 1e6, file);
+            written++;
+        }
+
+        return written;
+    }
+
+    /**
+     * Command line entrypoint
+     *
+     * @param args Declaration file, then output directory
+     * @throws IOException Thrown if a file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: PathCompiler <declarations.json> <output directory>");
+            System.exit(1);
+        }
+
+        // There is no FPGA or HAL at build time, so generators are timed from a fixed
+        // clock, and do not log
+        FPGAClock.enableSystemClockOverride(true, 0.0);
+        Path.setGenerationLogging(false);
+
+        Map<String, PathSpec> specs = readDeclarations(new File(args[0]));
+        int written = compile(specs, new File(args[1]), System.out);
+        System.out.printf("Compiled %d of %d paths%n", written, specs.size());
+    }
+
+}
@@ -0,0 +1,166 @@
+package io.github.frc5024.purepursuit.pathgen;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * PathFile reads and writes pre-generated paths in a compact binary format.
+ *
+ * A file is a fixed 24 byte header followed by every X position, then every Y
+ * position, as big-endian doubles:
+ *
+ * <pre>
+ * int    magic     "L5KP"
+ * short  version
+ * short  flags     (reserved, 0)
+ * long   key       {@link PathSpec#getKey()} of the spec that made the path
+ * int    count     number of points
+ * int    reserved  (0, keeps the doubles 8 byte aligned)
+ * double x[count]
+ * double y[count]
+ * </pre>
+ *
+ * Files are read through a memory map, so the points are copied straight from
+ * the page cache into a {@link PathBuffer} without any parsing.
+ */
+public class PathFile {
+
+    // Format
+    static final int MAGIC = 0x4C354B50;
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 24;
+
+    /**
+     * File extension for path files
+     */
+    public static final String EXTENSION = ".l5kp";
+
+    /**
+     * This is a util
+     */
+    private PathFile() {
+    }
+
+    /**
+     * Write a path to a file. Missing parent directories are created
+     *
+     * @param file   File to write
+     * @param key    Key of the spec that generated the path
+     * @param buffer Path points
+     * @throws IOException Thrown if the file cannot be written
+     */
+    public static void write(File file, long key, PathBuffer buffer) throws IOException {
+        int count = buffer.size();
+        ByteBuffer output = ByteBuffer.allocate(HEADER_SIZE + count * 2 * Double.BYTES);
+
+        // Header
+        output.putInt(MAGIC);
+        output.putShort(VERSION);
+        output.putShort((short) 0);
+        output.putLong(key);
+        output.putInt(count);
+        output.putInt(0);
+
+        // Points
+        DoubleBuffer doubles = output.asDoubleBuffer();
+        doubles.put(buffer.x);
+        doubles.put(buffer.y);
+        output.rewind();
+
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (output.hasRemaining()) {
+                channel.write(output);
+            }
+        }
+    }
+
+    /**
+     * Read the key a file was written with
+     *
+     * @param file File to read
+     * @return Spec key
+     * @throws IOException Thrown if the file cannot be read, or is not a path file
+     */
+    public static long readKey(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return readHeader(map(channel)).getLong(8);
+        }
+    }
+
+    /**
+     * Read a path from a file
+     *
+     * @param file        File to read
+     * @param expectedKey Key of the spec the caller would generate the path from
+     * @return Path points, or null if the file was made from a different spec
+     * @throws IOException Thrown if the file cannot be read, or is not a path file
+     */
+    public static PathBuffer read(File file, long expectedKey) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer map = readHeader(map(channel));
+
+            // Stale files are not an error, the path just has to be regenerated
+            if (map.getLong(8) != expectedKey) {
+                return null;
+            }
+
+            int count = map.getInt(16);
+            if (count < 0 || channel.size() < HEADER_SIZE + (long) count * 2 * Double.BYTES) {
+                throw new IOException("Path file is truncated: " + file);
+            }
+
+            // Copy the points straight out of the map
+            map.position(HEADER_SIZE);
+            DoubleBuffer doubles = map.asDoubleBuffer();
+            double[] x = new double[count];
+            double[] y = new double[count];
+            doubles.get(x);
+            doubles.get(y);
+
+            return new PathBuffer(x, y);
+        }
+    }
+
+    /**
+     * Map a whole file into memory
+     *
+     * @param channel File
+     * @return Mapped file
+     * @throws IOException Thrown if the file cannot be mapped
+     */
+    private static MappedByteBuffer map(FileChannel channel) throws IOException {
+        if (channel.size() < HEADER_SIZE) {
+            throw new IOException("Path file is too short for a header");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+
+    /**
+     * Check a file's header
+     *
+     * @param map Mapped file
+     * @return The mapped file
+     * @throws IOException Thrown if this is not a path file, or is from an
+     *                     unsupported version
+     */
+    private static MappedByteBuffer readHeader(MappedByteBuffer map) throws IOException {
+        if (map.getInt(0) != MAGIC) {
+            throw new IOException("Not a path file");
+        }
+        short version = map.getShort(4);
+        if (version != VERSION) {
+            throw new IOException(String.format("Unsupported path file version %d (expected %d)", version, VERSION));
+        }
+        return map;
+    }
+
+}
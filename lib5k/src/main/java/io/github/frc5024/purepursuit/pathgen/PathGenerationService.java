@@ -0,0 +1,136 @@
+package io.github.frc5024.purepursuit.pathgen;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import io.github.frc5024.lib5k.hardware.ni.roborio.fpga.FPGAClock;
+import io.github.frc5024.lib5k.logging.RobotLogger;
+import io.github.frc5024.lib5k.logging.RobotLogger.Level;
+
+/**
+ * PathGenerationService generates paths in the background, so building a list
+ * of autonomous paths does not block the thread that asks for them.
+ *
+ * Every path is generated independently on a small {@link ForkJoinPool}. By
+ * default, the pool has one thread per core, up to the roboRIO's two cores.
+ * Each request returns a {@link CompletableFuture} that can be passed straight
+ * to AbstractDriveTrain.createPathingCommand():
+ *
+ * <pre>
+ * CompletableFuture&lt;Path&gt; path = PathGenerationService.getInstance().generate(spec);
+ * Command auto = driveTrain.createPathingCommand(path, 0.2);
+ * </pre>
+ */
+public class PathGenerationService {
+
+    /**
+     * Number of threads the shared service uses, at most
+     */
+    public static final int MAX_DEFAULT_PARALLELISM = 2;
+
+    private static PathGenerationService instance = null;
+
+    // Worker threads
+    private final ForkJoinPool pool;
+
+    /**
+     * Create a PathGenerationService. Most code should use
+     * {@link #getInstance()} instead
+     *
+     * @param parallelism Maximum number of paths to generate at once
+     */
+    public PathGenerationService(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism, (p) -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName("Path generation " + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Get the shared PathGenerationService instance
+     *
+     * @return PathGenerationService
+     */
+    public static synchronized PathGenerationService getInstance() {
+        if (instance == null) {
+            instance = new PathGenerationService(
+                    Math.min(MAX_DEFAULT_PARALLELISM, Runtime.getRuntime().availableProcessors()));
+        }
+        return instance;
+    }
+
+    /**
+     * Generate a path in the background
+     *
+     * @param spec How to generate the path
+     * @return Future path
+     */
+    public CompletableFuture<Path> generate(PathSpec spec) {
+        return submit(spec.getType().toString(), spec::generate);
+    }
+
+    /**
+     * Load a pre-generated path from the deploy directory in the background, or
+     * generate it if there is no matching file. See {@link PathCache}
+     *
+     * @param name Path name
+     * @param spec How to generate the path
+     * @return Future path
+     */
+    public CompletableFuture<Path> load(String name, PathSpec spec) {
+        return submit(name, () -> PathCache.load(name, spec));
+    }
+
+    /**
+     * Build any path in the background. This is useful for paths that are made
+     * directly from their constructors
+     *
+     * <pre>
+     * service.submit("leftAuto", () -&gt; new SmoothPath(0.15, 0.5, 0.5, 0.001, waypoints));
+     * </pre>
+     *
+     * @param name      Name to log the path under
+     * @param generator Path constructor
+     * @return Future path
+     */
+    public CompletableFuture<Path> submit(String name, Supplier<Path> generator) {
+        return CompletableFuture.supplyAsync(() -> {
+            double startMs = FPGAClock.getFPGAMilliseconds();
+            Path path = generator.get();
+            RobotLogger.getInstance().log("Generated path %s in the background in %.2fms", name,
+                    FPGAClock.getFPGAMilliseconds() - startMs);
+            return path;
+        }, pool).whenComplete((path, error) -> {
+            if (error != null) {
+                RobotLogger.getInstance().log("Failed to generate path %s: %s", Level.kWarning, name, error);
+            }
+        });
+    }
+
+    /**
+     * Get the number of paths that are waiting for, or being generated
+     *
+     * @return Number of pending paths
+     */
+    public int getPendingCount() {
+        return pool.getQueuedSubmissionCount() + pool.getActiveThreadCount();
+    }
+
+    /**
+     * Stop accepting paths, and wait for queued paths to finish
+     *
+     * @param timeoutMs Maximum time to wait
+     * @return True if every path finished
+     * @throws InterruptedException Thrown if interrupted while waiting
+     */
+    public boolean shutdown(long timeoutMs) throws InterruptedException {
+        pool.shutdown();
+        return pool.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+}
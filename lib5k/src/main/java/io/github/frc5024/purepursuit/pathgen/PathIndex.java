@@ -0,0 +1,271 @@
+package io.github.frc5024.purepursuit.pathgen;
+
+import edu.wpi.first.wpilibj.geometry.Translation2d;
+
+/**
+ * A spatial index over the points of a {@link Path}.
+ *
+ * The points are stored in a balanced 2D KD-tree, so finding the point nearest
+ * the robot takes O(log n) instead of a scan over the whole path. Distance
+ * lookups use the cumulative distance stored in the {@link PathBuffer}, so the
+ * point a given distance further along the path can be found with a binary
+ * search.
+ *
+ * A PathIndex is immutable once built, and is safe to share between threads.
+ */
+public class PathIndex {
+
+    // Indexed points
+    private final PathBuffer buffer;
+    private final double[] xs;
+    private final double[] ys;
+
+    // Path indices, in KD-tree order. The root of any range [lo, hi) is at the
+    // middle of the range, and the split axis alternates with depth
+    private final int[] tree;
+
+    /**
+     * Build a PathIndex
+     *
+     * @param buffer Path points
+     */
+    public PathIndex(PathBuffer buffer) {
+        this.buffer = buffer;
+        this.xs = buffer.x;
+        this.ys = buffer.y;
+        this.tree = new int[xs.length];
+        for (int i = 0; i < tree.length; i++) {
+            tree[i] = i;
+        }
+
+        build(0, tree.length, 0);
+    }
+
+    /**
+     * Build a PathIndex
+     *
+     * @param points Path points, in order
+     */
+    public PathIndex(Translation2d[] points) {
+        this(new PathBuffer(points));
+    }
+
+    /**
+     * Get the indexed points
+     *
+     * @return Path buffer
+     */
+    public PathBuffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Get the number of points in the path
+     *
+     * @return Point count
+     */
+    public int size() {
+        return xs.length;
+    }
+
+    /**
+     * Get the total length of the path
+     *
+     * @return Length in meters
+     */
+    public double getLength() {
+        return buffer.getLength();
+    }
+
+    /**
+     * Get the distance along the path to a point
+     *
+     * @param index Point index
+     * @return Distance from the first point in meters
+     */
+    public double getDistanceAlong(int index) {
+        return buffer.getDistance(index);
+    }
+
+    /**
+     * Find the point nearest to a position. If several points are equally near,
+     * the one earliest in the path is returned
+     *
+     * @param x X position in meters
+     * @param y Y position in meters
+     * @return Index of the nearest point, or -1 if the path is empty
+     */
+    public int getNearestIndex(double x, double y) {
+        return search(x, y, 0, xs.length, 0, -1);
+    }
+
+    /**
+     * Find the point nearest to a position
+     *
+     * @param position Position
+     * @return Index of the nearest point, or -1 if the path is empty
+     */
+    public int getNearestIndex(Translation2d position) {
+        return getNearestIndex(position.getX(), position.getY());
+    }
+
+    /**
+     * Find the first point at least a distance along the path
+     *
+     * @param distance Distance from the first point in meters
+     * @return Point index. Distances past the end of the path give the last point
+     */
+    public int getIndexAtDistance(double distance) {
+        return buffer.getIndexAtDistance(distance);
+    }
+
+    /**
+     * Find the point a distance further along the path from another point
+     *
+     * @param index    Starting point index
+     * @param distance Distance to look ahead in meters
+     * @return Point index
+     */
+    public int getIndexAhead(int index, double distance) {
+        return Math.max(index, getIndexAtDistance(buffer.getDistance(index) + distance));
+    }
+
+    /**
+     * Arrange a range of the tree around its median
+     *
+     * @param lo    First index in the range
+     * @param hi    One past the last index in the range
+     * @param depth Tree depth
+     */
+    private void build(int lo, int hi, int depth) {
+        if (hi - lo <= 1) {
+            return;
+        }
+
+        int mid = (lo + hi) >>> 1;
+        select(lo, hi - 1, mid, (depth & 1) == 0);
+
+        build(lo, mid, depth + 1);
+        build(mid + 1, hi, depth + 1);
+    }
+
+    /**
+     * Partially sort part of the tree, so the k-th element is in place, smaller
+     * elements come before it, and larger elements come after it
+     *
+     * @param left  First index
+     * @param right Last index
+     * @param k     Index to put in place
+     * @param byX   Sort by X? Otherwise, by Y
+     */
+    private void select(int left, int right, int k, boolean byX) {
+        while (right > left) {
+
+            // Partition around the middle element
+            int pivot = tree[(left + right) >>> 1];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (compare(tree[i], pivot, byX) < 0) {
+                    i++;
+                }
+                while (compare(tree[j], pivot, byX) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    int temp = tree[i];
+                    tree[i] = tree[j];
+                    tree[j] = temp;
+                    i++;
+                    j--;
+                }
+            }
+
+            // Keep going on the side holding k
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Compare two points along an axis. Ties are broken by path index, so every
+     * point has a unique place
+     *
+     * @param a   First point index
+     * @param b   Second point index
+     * @param byX Compare X? Otherwise, Y
+     * @return Comparison
+     */
+    private int compare(int a, int b, boolean byX) {
+        int result = byX ? Double.compare(xs[a], xs[b]) : Double.compare(ys[a], ys[b]);
+        return (result != 0) ? result : Integer.compare(a, b);
+    }
+
+    /**
+     * Search a range of the tree for the nearest point. The best point so far is
+     * passed in and returned, so searching never allocates
+     *
+     * @param x     X position in meters
+     * @param y     Y position in meters
+     * @param lo    First index in the range
+     * @param hi    One past the last index in the range
+     * @param depth Tree depth
+     * @param best  Index of the nearest point so far, or -1
+     * @return Index of the nearest point
+     */
+    private int search(double x, double y, int lo, int hi, int depth, int best) {
+        if (lo >= hi) {
+            return best;
+        }
+
+        // Check the root of this range
+        int mid = (lo + hi) >>> 1;
+        int point = tree[mid];
+        double dx = x - xs[point];
+        double dy = y - ys[point];
+        double distanceSquared = dx * dx + dy * dy;
+        double bestDistanceSquared = distanceSquared(x, y, best);
+        if (distanceSquared < bestDistanceSquared || (distanceSquared == bestDistanceSquared && point < best)) {
+            best = point;
+        }
+
+        // Search the near side first. The far side can only hold a nearer point if
+        // the splitting line is closer than the best so far
+        double split = ((depth & 1) == 0) ? dx : dy;
+        if (split < 0) {
+            best = search(x, y, lo, mid, depth + 1, best);
+            if (split * split <= distanceSquared(x, y, best)) {
+                best = search(x, y, mid + 1, hi, depth + 1, best);
+            }
+        } else {
+            best = search(x, y, mid + 1, hi, depth + 1, best);
+            if (split * split <= distanceSquared(x, y, best)) {
+                best = search(x, y, lo, mid, depth + 1, best);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Get the squared distance from a position to a point
+     *
+     * @param x     X position in meters
+     * @param y     Y position in meters
+     * @param index Point index, or -1 for no point
+     * @return Squared distance, or infinity for no point
+     */
+    private double distanceSquared(double x, double y, int index) {
+        if (index < 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double dx = x - xs[index];
+        double dy = y - ys[index];
+        return dx * dx + dy * dy;
+    }
+
+}
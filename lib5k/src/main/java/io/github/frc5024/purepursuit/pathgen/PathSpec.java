@@ -0,0 +1,208 @@
+package io.github.frc5024.purepursuit.pathgen;
+
+import com.google.gson.annotations.SerializedName;
+
+import edu.wpi.first.wpilibj.geometry.Translation2d;
+import edu.wpi.first.wpilibj.util.Units;
+
+/**
+ * A PathSpec describes how to generate a path: the generator, its parameters,
+ * and its waypoints. Specs can be written in code, or loaded from a JSON
+ * declaration file by {@link PathCompiler}.
+ *
+ * Every spec has a key, which is a hash of everything that affects the
+ * generated points. {@link PathCache} uses the key to check that a
+ * pre-generated path still matches the code asking for it.
+ */
+public class PathSpec {
+
+    /**
+     * Path generators
+     */
+    public enum Type {
+        /** {@link Path} */
+        @SerializedName("linear")
+        kLinear,
+
+        /** {@link SmoothPath} */
+        @SerializedName("smooth")
+        kSmooth,
+
+        /** {@link BezierPath} */
+        @SerializedName("bezier")
+        kBezier;
+    }
+
+    // Bump this when a generator changes its output, so old files are not used
+    private static final long GENERATOR_REVISION = 1;
+
+    // Generator. Defaults match the generator constructors, and are kept when
+    // fields are missing from a JSON declaration
+    private Type type = Type.kLinear;
+    private double spacing = Units.inchesToMeters(6.0);
+
+    // SmoothPath settings
+    private double weight = 0.0;
+    private double smoothing = 0.0;
+    private double tolerance = 0.0;
+
+    // BezierPath settings
+    private double[] weights = new double[0];
+    private double flatness = BezierPath.DEFAULT_FLATNESS;
+
+    // Waypoints, as [x, y] pairs in meters
+    private double[][] waypoints = new double[0][];
+
+    /**
+     * Used by Gson
+     */
+    private PathSpec() {
+    }
+
+    /**
+     * Describe a {@link Path}
+     *
+     * @param spacing   Amount of space between "inner" points in meters
+     * @param waypoints Path waypoints to follow
+     * @return Path spec
+     */
+    public static PathSpec linear(double spacing, Translation2d... waypoints) {
+        PathSpec spec = new PathSpec();
+        spec.type = Type.kLinear;
+        spec.spacing = spacing;
+        spec.setWaypoints(waypoints);
+        return spec;
+    }
+
+    /**
+     * Describe a {@link SmoothPath}
+     *
+     * @param spacing   Amount of space between "inner" points in meters
+     * @param weight    Weight of smoothing
+     * @param smoothing How smooth the path is
+     * @param tolerance How much the path is allowed to change
+     * @param waypoints Path waypoints to follow
+     * @return Path spec
+     */
+    public static PathSpec smooth(double spacing, double weight, double smoothing, double tolerance,
+            Translation2d... waypoints) {
+        PathSpec spec = new PathSpec();
+        spec.type = Type.kSmooth;
+        spec.spacing = spacing;
+        spec.weight = weight;
+        spec.smoothing = smoothing;
+        spec.tolerance = tolerance;
+        spec.setWaypoints(waypoints);
+        return spec;
+    }
+
+    /**
+     * Describe a {@link BezierPath}
+     *
+     * @param spacing   Distance along the curve between points in meters
+     * @param weights   Weight of each control point. Missing weights are 1
+     * @param waypoints Control points
+     * @return Path spec
+     */
+    public static PathSpec bezier(double spacing, double[] weights, Translation2d... waypoints) {
+        PathSpec spec = new PathSpec();
+        spec.type = Type.kBezier;
+        spec.spacing = spacing;
+        spec.weights = weights.clone();
+        spec.setWaypoints(waypoints);
+        return spec;
+    }
+
+    /**
+     * Store waypoints as coordinate pairs
+     *
+     * @param points Waypoints
+     */
+    private void setWaypoints(Translation2d[] points) {
+        this.waypoints = new double[points.length][];
+        for (int i = 0; i < points.length; i++) {
+            this.waypoints[i] = new double[] { points[i].getX(), points[i].getY() };
+        }
+    }
+
+    /**
+     * Get the path generator
+     *
+     * @return Generator type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Get the waypoints
+     *
+     * @return Waypoints
+     */
+    public Translation2d[] getWaypoints() {
+        Translation2d[] output = new Translation2d[waypoints.length];
+        for (int i = 0; i < output.length; i++) {
+            output[i] = new Translation2d(waypoints[i][0], waypoints[i][1]);
+        }
+        return output;
+    }
+
+    /**
+     * Run the generator
+     *
+     * @return Generated path
+     */
+    public Path generate() {
+        switch (type) {
+            case kSmooth:
+                return new SmoothPath(spacing, weight, smoothing, tolerance, getWaypoints());
+            case kBezier:
+                return new BezierPath(getWaypoints(), weights, spacing, flatness);
+            default:
+                return new Path(spacing, getWaypoints());
+        }
+    }
+
+    /**
+     * Get a 64-bit FNV-1a hash of everything that affects the generated points
+     *
+     * @return Spec key
+     */
+    public long getKey() {
+        long hash = 0xcbf29ce484222325L;
+        hash = mix(hash, PathFile.VERSION);
+        hash = mix(hash, GENERATOR_REVISION);
+        hash = mix(hash, type.ordinal());
+        hash = mix(hash, Double.doubleToLongBits(spacing));
+        hash = mix(hash, Double.doubleToLongBits(weight));
+        hash = mix(hash, Double.doubleToLongBits(smoothing));
+        hash = mix(hash, Double.doubleToLongBits(tolerance));
+        hash = mix(hash, Double.doubleToLongBits(flatness));
+        hash = mix(hash, weights.length);
+        for (double w : weights) {
+            hash = mix(hash, Double.doubleToLongBits(w));
+        }
+        hash = mix(hash, waypoints.length);
+        for (double[] point : waypoints) {
+            hash = mix(hash, Double.doubleToLongBits(point[0]));
+            hash = mix(hash, Double.doubleToLongBits(point[1]));
+        }
+        return hash;
+    }
+
+    /**
+     * Mix the bytes of a value into an FNV-1a hash
+     *
+     * @param hash  Hash so far
+     * @param value Value to add
+     * @return New hash
+     */
+    private static long mix(long hash, long value) {
+        for (int i = 0; i < 8; i++) {
+            hash ^= (value >>> (i * 8)) & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+}
@@ -29,6 +29,27 @@ public class RawPath extends Path {
         this.waypoints = new Translation2d[2];
         this.waypoints[0] = this.points.get(0);
         this.waypoints[1] = this.points.get(this.points.size() - 1);
+        buildBuffer();
     }
 
-}
\ No newline at end of file
+    /**
+     * Create a raw path from pre-generated points that are already packed into a
+     * path buffer
+     * 
+     * @param buffer Points
+     */
+    public RawPath(PathBuffer buffer) {
+        this.name = "RawPath";
+        setBuffer(buffer);
+
+        // Set the first and last point as waypoints
+        if (buffer.size() == 0) {
+            this.waypoints = new Translation2d[0];
+        } else {
+            this.waypoints = new Translation2d[2];
+            this.waypoints[0] = buffer.getPoint(0);
+            this.waypoints[1] = buffer.getPoint(buffer.size() - 1);
+        }
+    }
+
+}
@@ -38,7 +38,10 @@ public class SmoothPath extends Path {
 
         // Smooth the generated path
         beginTimingGeneration();
-        points = Smoothing.smooth(points, weight, smoothing, tolerance);
+        double[] x = getBuffer().x.clone();
+        double[] y = getBuffer().y.clone();
+        Smoothing.smooth(x, y, weight, smoothing, tolerance);
+        setBuffer(new PathBuffer(x, y));
         saveAndLogGenerationTime();
 
     }
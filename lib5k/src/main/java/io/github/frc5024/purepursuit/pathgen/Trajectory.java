@@ -0,0 +1,300 @@
+package io.github.frc5024.purepursuit.pathgen;
+
+/**
+ * A Trajectory is a velocity plan for a {@link Path}.
+ *
+ * The plan is made with a forward-backward pass over the path points. Each
+ * point is first capped at the max velocity, and at the speed that keeps
+ * centripetal acceleration through the point's curvature in limits. The
+ * forward pass then limits how quickly the robot can speed up, and the
+ * backward pass limits how quickly it can slow down, so the robot starts and
+ * ends at rest and brakes before tight turns.
+ *
+ * Between points, acceleration is constant. The time, velocity and
+ * acceleration at every point are stored in packed arrays alongside the
+ * {@link PathBuffer}, so looking up the plan for a point is an array read, and
+ * sampling it at a time is a binary search.
+ *
+ * A Trajectory is immutable once built, and is safe to share between threads.
+ */
+public class Trajectory {
+
+    /**
+     * Lowest speed percent {@link #getSpeedPercent(int)} will give, so a robot
+     * near the end of the path does not stop short of it
+     */
+    public static final double MIN_SPEED_PERCENT = 0.1;
+
+    // Points the plan was made for
+    private final PathBuffer buffer;
+
+    // Constraints
+    private final double maxVelocity;
+    private final double maxAcceleration;
+    private final double maxCentripetalAcceleration;
+
+    // Plan at each point. Acceleration is for the segment to the next point
+    final double[] time;
+    final double[] velocity;
+    final double[] acceleration;
+
+    /**
+     * Plan a trajectory for a path
+     *
+     * @param path                       Path to plan for
+     * @param maxVelocity                Max velocity in meters per second
+     * @param maxAcceleration            Max acceleration and deceleration in
+     *                                   meters per second squared
+     * @param maxCentripetalAcceleration Max acceleration towards the centre of
+     *                                   turns in meters per second squared
+     */
+    public Trajectory(Path path, double maxVelocity, double maxAcceleration, double maxCentripetalAcceleration) {
+        this(path.getBuffer(), maxVelocity, maxAcceleration, maxCentripetalAcceleration);
+    }
+
+    /**
+     * Plan a trajectory for a set of path points
+     *
+     * @param buffer                     Path points
+     * @param maxVelocity                Max velocity in meters per second
+     * @param maxAcceleration            Max acceleration and deceleration in
+     *                                   meters per second squared
+     * @param maxCentripetalAcceleration Max acceleration towards the centre of
+     *                                   turns in meters per second squared
+     */
+    public Trajectory(PathBuffer buffer, double maxVelocity, double maxAcceleration,
+            double maxCentripetalAcceleration) {
+        if (maxVelocity <= 0.0 || maxAcceleration <= 0.0 || maxCentripetalAcceleration <= 0.0) {
+            throw new IllegalArgumentException("Trajectory constraints must be positive");
+        }
+
+        this.buffer = buffer;
+        this.maxVelocity = maxVelocity;
+        this.maxAcceleration = maxAcceleration;
+        this.maxCentripetalAcceleration = maxCentripetalAcceleration;
+
+        int size = buffer.size();
+        this.time = new double[size];
+        this.velocity = new double[size];
+        this.acceleration = new double[size];
+
+        plan();
+    }
+
+    /**
+     * Run the forward-backward pass, then integrate the velocities into times
+     */
+    private void plan() {
+        int size = velocity.length;
+        if (size == 0) {
+            return;
+        }
+
+        // Cap each point by the max velocity and its curvature
+        for (int i = 0; i < size; i++) {
+            double curvature = Math.abs(buffer.curvature[i]);
+            velocity[i] = maxVelocity;
+            if (curvature > 0.0) {
+                velocity[i] = Math.min(velocity[i], Math.sqrt(maxCentripetalAcceleration / curvature));
+            }
+        }
+
+        // Start and end at rest
+        velocity[0] = 0.0;
+        velocity[size - 1] = 0.0;
+
+        // Forward pass: v^2 = u^2 + 2as
+        for (int i = 1; i < size; i++) {
+            double ds = buffer.distance[i] - buffer.distance[i - 1];
+            double reachable = Math.sqrt(velocity[i - 1] * velocity[i - 1] + 2.0 * maxAcceleration * ds);
+            velocity[i] = Math.min(velocity[i], reachable);
+        }
+
+        // Backward pass, braking into each point
+        for (int i = size - 2; i >= 0; i--) {
+            double ds = buffer.distance[i + 1] - buffer.distance[i];
+            double reachable = Math.sqrt(velocity[i + 1] * velocity[i + 1] + 2.0 * maxAcceleration * ds);
+            velocity[i] = Math.min(velocity[i], reachable);
+        }
+
+        // Integrate, with constant acceleration over each segment
+        time[0] = 0.0;
+        for (int i = 0; i < size - 1; i++) {
+            double ds = buffer.distance[i + 1] - buffer.distance[i];
+            double vSum = velocity[i] + velocity[i + 1];
+
+            if (ds <= 0.0 || vSum <= 0.0) {
+                acceleration[i] = 0.0;
+                time[i + 1] = time[i];
+            } else {
+                acceleration[i] = (velocity[i + 1] * velocity[i + 1] - velocity[i] * velocity[i]) / (2.0 * ds);
+                time[i + 1] = time[i] + 2.0 * ds / vSum;
+            }
+        }
+        acceleration[size - 1] = 0.0;
+    }
+
+    /**
+     * Get the points the plan was made for
+     *
+     * @return Path buffer
+     */
+    public PathBuffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Get the number of points
+     *
+     * @return Number of points
+     */
+    public int size() {
+        return velocity.length;
+    }
+
+    /**
+     * Get the max velocity constraint
+     *
+     * @return Max velocity in meters per second
+     */
+    public double getMaxVelocity() {
+        return maxVelocity;
+    }
+
+    /**
+     * Get the max acceleration constraint
+     *
+     * @return Max acceleration in meters per second squared
+     */
+    public double getMaxAcceleration() {
+        return maxAcceleration;
+    }
+
+    /**
+     * Get the max centripetal acceleration constraint
+     *
+     * @return Max centripetal acceleration in meters per second squared
+     */
+    public double getMaxCentripetalAcceleration() {
+        return maxCentripetalAcceleration;
+    }
+
+    /**
+     * Get the time the robot should reach a point
+     *
+     * @param index Point index
+     * @return Time since the start of the path in seconds
+     */
+    public double getTime(int index) {
+        return time[index];
+    }
+
+    /**
+     * Get the planned velocity at a point
+     *
+     * @param index Point index
+     * @return Velocity in meters per second
+     */
+    public double getVelocity(int index) {
+        return velocity[index];
+    }
+
+    /**
+     * Get the planned acceleration from a point to the next one
+     *
+     * @param index Point index
+     * @return Acceleration in meters per second squared
+     */
+    public double getAcceleration(int index) {
+        return acceleration[index];
+    }
+
+    /**
+     * Get the time it should take to drive the whole path
+     *
+     * @return Total time in seconds
+     */
+    public double getTotalTime() {
+        return (time.length == 0) ? 0.0 : time[time.length - 1];
+    }
+
+    /**
+     * Get the planned speed for a robot at a point, as a percent of the max
+     * velocity. The velocity of the next point is used, so a robot at the start
+     * is not told to stay still, and the result is never below
+     * {@link #MIN_SPEED_PERCENT}
+     *
+     * @param index Index of the point nearest the robot
+     * @return Speed percent
+     */
+    public double getSpeedPercent(int index) {
+        int next = Math.min(index + 1, velocity.length - 1);
+        return Math.max(velocity[next] / maxVelocity, MIN_SPEED_PERCENT);
+    }
+
+    /**
+     * Get the last point the robot should have reached by a time
+     *
+     * @param seconds Time since the start of the path in seconds
+     * @return Point index
+     */
+    public int getIndexAtTime(double seconds) {
+        int lo = 0;
+        int hi = time.length - 1;
+
+        // Find the last time that is not past the target
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (time[mid] <= seconds) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Sample the planned velocity at a time
+     *
+     * @param seconds Time since the start of the path in seconds
+     * @return Velocity in meters per second
+     */
+    public double getVelocityAtTime(double seconds) {
+        if (time.length == 0) {
+            return 0.0;
+        }
+
+        int index = getIndexAtTime(seconds);
+        double dt = Math.max(seconds - time[index], 0.0);
+        if (index == time.length - 1) {
+            return velocity[index];
+        }
+
+        // Stay within the segment's end speeds
+        double v = velocity[index] + acceleration[index] * dt;
+        return Math.max(Math.min(v, Math.max(velocity[index], velocity[index + 1])),
+                Math.min(velocity[index], velocity[index + 1]));
+    }
+
+    /**
+     * Sample the planned distance along the path at a time
+     *
+     * @param seconds Time since the start of the path in seconds
+     * @return Distance from the first point in meters
+     */
+    public double getDistanceAtTime(double seconds) {
+        if (time.length == 0) {
+            return 0.0;
+        }
+
+        int index = getIndexAtTime(seconds);
+        if (index == time.length - 1) {
+            return buffer.distance[index];
+        }
+
+        double dt = Math.min(Math.max(seconds - time[index], 0.0), time[index + 1] - time[index]);
+        return buffer.distance[index] + velocity[index] * dt + 0.5 * acceleration[index] * dt * dt;
+    }
+
+}
@@ -1,63 +1,190 @@
 package io.github.frc5024.purepursuit.util;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
-import java.lang.reflect.Type;
-import java.util.List;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
 
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
 
-import edu.wpi.first.wpilibj.geometry.Translation2d;
+import io.github.frc5024.lib5k.hardware.ni.roborio.fpga.FPGAClock;
+import io.github.frc5024.lib5k.logging.RobotLogger;
+import io.github.frc5024.purepursuit.pathgen.PathBuffer;
 import io.github.frc5024.purepursuit.pathgen.RawPath;
 
 /**
- * The PathImporter is a tool for importing Paths from config files
+ * The PathImporter is a tool for importing Paths from config files.
+ *
+ * PathWeaver JSON files are streamed. Only each point's translation is read,
+ * straight into a {@link PathBuffer}, and everything else in the file is
+ * skipped without being parsed into objects. Files may be gzip compressed.
  */
 public class PathImporter {
 
+    // Field width. PathWeaver puts 0.0 at the edge of the field, and 5024 puts it
+    // at the centre
+    private static final double FIELD_WIDTH = 8.23;
+
+    // Initial point capacity. Grows as needed
+    private static final int INITIAL_CAPACITY = 256;
+
     /**
-     * Load a WPILib PathWeaver JSON file as a Lib5K Path
-     * 
+     * Load a WPILib PathWeaver JSON file as a Lib5K Path. The file may be gzip
+     * compressed
+     *
      * @param jsonFile JSON file
      * @return Loaded Path object
      * @throws IOException           Thrown if something goes wrong parsing the file
      * @throws FileNotFoundException Thrown if the file does not exist
      */
     public static RawPath jsonToPath(File jsonFile) throws IOException, FileNotFoundException {
+        double startMs = FPGAClock.getFPGAMilliseconds();
+
+        PathBuffer buffer;
+        try (Reader reader = openReader(jsonFile)) {
+            buffer = jsonToBuffer(reader);
+        }
+
+        // Point storage is two doubles per point
+        RobotLogger.getInstance().log("Imported %d points from %s in %.2fms (%d bytes of point data)",
+                buffer.size(), jsonFile.getName(), FPGAClock.getFPGAMilliseconds() - startMs,
+                buffer.size() * 2L * Double.BYTES);
+
+        // Build a path object
+        return new RawPath(buffer);
+    }
+
+    /**
+     * Open a file for reading, decompressing it if it starts with the gzip magic
+     * number
+     *
+     * @param file File
+     * @return Reader
+     * @throws IOException Thrown if the file cannot be opened
+     */
+    private static Reader openReader(File file) throws IOException {
+        InputStream input = new BufferedInputStream(new FileInputStream(file));
+
+        try {
+            input.mark(2);
+            int magic = input.read() | (input.read() << 8);
+            input.reset();
+
+            if (magic == GZIPInputStream.GZIP_MAGIC) {
+                input = new GZIPInputStream(input);
+            }
+        } catch (IOException e) {
+            input.close();
+            throw e;
+        }
 
-        // Create a file reader
-        FileReader reader = new FileReader(jsonFile);
+        return new InputStreamReader(input, StandardCharsets.UTF_8);
+    }
 
-        // Create a new datatype for a list of WPI_PathPoints
-        Type listType = new TypeToken<List<WPI_PathPoint>>() {
-        }.getType();
+    /**
+     * Read the points of a WPILib PathWeaver JSON trajectory
+     *
+     * @param reader JSON source
+     * @return Points, in the 5024 coordinate system (0.0 is centre of the field
+     *         width)
+     * @throws IOException Thrown if the JSON cannot be read, or a point has no
+     *                     translation
+     */
+    public static PathBuffer jsonToBuffer(Reader reader) throws IOException {
+        JsonReader json = new JsonReader(reader);
 
-        // Parse with Gson
-        Gson gson = new Gson();
-        List<WPI_PathPoint> rawPoints = gson.fromJson(reader, listType);
+        double[] x = new double[INITIAL_CAPACITY];
+        double[] y = new double[INITIAL_CAPACITY];
+        int count = 0;
 
-        // Strip out only the info we need from the JSON file
-        Translation2d[] points = new Translation2d[rawPoints.size()];
+        json.beginArray();
+        while (json.hasNext()) {
 
-        int i = 0;
-        for (WPI_PathPoint point : rawPoints) {
+            // Grow the point arrays
+            if (count == x.length) {
+                x = Arrays.copyOf(x, count * 2);
+                y = Arrays.copyOf(y, count * 2);
+            }
 
-            // Get the generated position
-            Translation2d genPose = point.getTranslation();
+            // Store the point's translation in the next slot
+            if (!readPoint(json, x, y, count)) {
+                throw new IOException("Path point " + count + " has no translation");
+            }
 
-            // Modify the point to match the 5024 coordinate system (0.0 is centre of the
-            // field width)
-            points[i] = new Translation2d(genPose.getX(), genPose.getY() + (8.23 / 2.0));
-            i++;
+            // Modify the point to match the 5024 coordinate system
+            y[count] += FIELD_WIDTH / 2.0;
+            count++;
         }
+        json.endArray();
 
-        // Build a path object
-        RawPath path = new RawPath(points);
+        return new PathBuffer(Arrays.copyOf(x, count), Arrays.copyOf(y, count));
+    }
+
+    /**
+     * Read one point object, keeping only pose.translation
+     *
+     * @param json  JSON source, positioned at the point
+     * @param x     X output
+     * @param y     Y output
+     * @param index Output index
+     * @return True if a translation was found
+     * @throws IOException Thrown if the JSON cannot be read
+     */
+    private static boolean readPoint(JsonReader json, double[] x, double[] y, int index) throws IOException {
+        boolean found = false;
+
+        json.beginObject();
+        while (json.hasNext()) {
+            if (json.nextName().equals("pose")) {
+                json.beginObject();
+                while (json.hasNext()) {
+                    if (json.nextName().equals("translation")) {
+                        readTranslation(json, x, y, index);
+                        found = true;
+                    } else {
+                        json.skipValue();
+                    }
+                }
+                json.endObject();
+            } else {
+                json.skipValue();
+            }
+        }
+        json.endObject();
 
-        return path;
+        return found;
+    }
 
+    /**
+     * Read a translation object
+     *
+     * @param json  JSON source, positioned at the translation
+     * @param x     X output
+     * @param y     Y output
+     * @param index Output index
+     * @throws IOException Thrown if the JSON cannot be read
+     */
+    private static void readTranslation(JsonReader json, double[] x, double[] y, int index) throws IOException {
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "x":
+                    x[index] = json.nextDouble();
+                    break;
+                case "y":
+                    y[index] = json.nextDouble();
+                    break;
+                default:
+                    json.skipValue();
+            }
+        }
+        json.endObject();
     }
-}
\ No newline at end of file
+}
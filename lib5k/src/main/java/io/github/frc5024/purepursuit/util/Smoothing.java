@@ -1,11 +1,46 @@
 package io.github.frc5024.purepursuit.util;
 
 import java.util.ArrayList;
+import java.util.stream.IntStream;
 
 import edu.wpi.first.wpilibj.geometry.Translation2d;
 
 public class Smoothing {
 
+    /**
+     * Ways to solve for the smoothed path.
+     *
+     * Smoothing pulls every inner point towards its original position (weighted
+     * by weight_data) and towards the midpoint of its neighbours (weighted by
+     * weight_smooth). The smoothed path is where those pulls balance out, which
+     * is a tridiagonal system of equations.
+     */
+    public enum Method {
+        /**
+         * Solve the system exactly in one pass. This is the fastest method, and
+         * ignores the tolerance
+         */
+        kDirect,
+
+        /**
+         * Sweep over the points with successive over-relaxation until the total
+         * change in a sweep is under the tolerance
+         */
+        kSOR,
+
+        /**
+         * Successive over-relaxation, but every other point is updated in parallel.
+         * Only worth it for very long paths
+         */
+        kParallelRedBlack;
+    }
+
+    // Iterative methods give up after this many sweeps
+    private static final int MAX_SWEEPS = 10000;
+
+    // Points per task when sweeping in parallel
+    private static final int PARALLEL_CHUNK_SIZE = 4096;
+
     /**
      * This is a util
      */
@@ -14,54 +49,251 @@ public class Smoothing {
 
     /**
      * This is an algorithm taken from team 2168 to smooth paths
-     * 
-     * @param positions     an array list of positions to smooth
-     * @param weight_data   changes the amount of smoothing
+     *
+     * @param positions     an array list of positions to smooth. This is not
+     *                      modified
+     * @param weight_data   how strongly points are held at their original position
      * @param weight_smooth the larger this is the smoother the path is
      * @param tolerance     amount the path will change
      * @return a smoothed path
      */
     public static ArrayList<Translation2d> smooth(ArrayList<Translation2d> positions, double weight_data,
             double weight_smooth, double tolerance) {
-        // Make a copy of list of positions
-        ArrayList<Translation2d> newPositions = positions;
 
-        // Change variable
-        double change = tolerance;
+        // Split the points into arrays
+        double[] x = new double[positions.size()];
+        double[] y = new double[positions.size()];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = positions.get(i).getX();
+            y[i] = positions.get(i).getY();
+        }
 
-        // This exists to prevent an infinite loop
-        int countdown = 10000;
+        smooth(x, y, weight_data, weight_smooth, tolerance);
 
-        // Run erosion until we reach a timeout, or the tolerance
-        while (change >= tolerance && countdown > 0) {
-            change = 0.0;
+        // Pack them back up
+        ArrayList<Translation2d> newPositions = new ArrayList<>(x.length);
+        for (int i = 0; i < x.length; i++) {
+            newPositions.add(new Translation2d(x[i], y[i]));
+        }
+        return newPositions;
+    }
 
-            // Erode every point once
-            for (int i = 1; i < positions.size() - 1; i++) {
+    /**
+     * Smooth a path in place, using {@link Method#kDirect}
+     *
+     * @param x             X positions. Replaced with the smoothed positions
+     * @param y             Y positions. Replaced with the smoothed positions
+     * @param weight_data   how strongly points are held at their original position
+     * @param weight_smooth the larger this is the smoother the path is
+     * @param tolerance     amount the path will change
+     */
+    public static void smooth(double[] x, double[] y, double weight_data, double weight_smooth, double tolerance) {
+        smooth(x, y, weight_data, weight_smooth, tolerance, Method.kDirect);
+    }
+
+    /**
+     * Smooth a path in place. The first and last points never move
+     *
+     * @param x             X positions. Replaced with the smoothed positions
+     * @param y             Y positions. Replaced with the smoothed positions
+     * @param weight_data   how strongly points are held at their original position
+     * @param weight_smooth the larger this is the smoother the path is
+     * @param tolerance     amount the path will change. Ignored by
+     *                      {@link Method#kDirect}
+     * @param method        How to solve for the smoothed path
+     */
+    public static void smooth(double[] x, double[] y, double weight_data, double weight_smooth, double tolerance,
+            Method method) {
+        if (x.length != y.length) {
+            throw new IllegalArgumentException("X and Y arrays must be the same length");
+        }
 
-                // Get the state of this point in the last erosion step
-                Translation2d previousPointState = newPositions.get(i);
+        // Nothing to do without inner points, or without any pull on them
+        if (x.length < 3 || weight_data + 2.0 * weight_smooth == 0.0) {
+            return;
+        }
 
-                // Compute the first erosion factor
-                Translation2d firstFactor = previousPointState
-                        .plus(positions.get(i).minus(previousPointState).times(weight_data));
+        switch (method) {
+            case kDirect:
+                solveDirect(x, y, weight_data, weight_smooth);
+                break;
+            case kSOR:
+                solveSOR(x, y, weight_data, weight_smooth, tolerance);
+                break;
+            case kParallelRedBlack:
+                solveRedBlack(x, y, weight_data, weight_smooth, tolerance);
+                break;
+        }
+    }
 
-                // Compute the second erosion factor
-                Translation2d secondFactor = newPositions.get(i - 1).plus(newPositions.get(i + 1))
-                        .minus(previousPointState.times(2.0)).times(weight_smooth);
+    /**
+     * Solve the smoothing system with the Thomas algorithm. Both axes share the
+     * same matrix, so its factorization is only done once
+     *
+     * @param x             X positions
+     * @param y             Y positions
+     * @param weight_data   Data weight
+     * @param weight_smooth Smoothing weight
+     */
+    private static void solveDirect(double[] x, double[] y, double weight_data, double weight_smooth) {
+        int n = x.length;
+        double diagonal = weight_data + 2.0 * weight_smooth;
+        double offDiagonal = -weight_smooth;
 
-                // Save the eroded point
-                newPositions.set(i, firstFactor.plus(secondFactor));
+        // Forward sweep over the inner points. The fixed end points are folded into
+        // the right hand side. X and Y are overwritten with the modified right hand
+        // side as they go, since each original point is only needed once
+        double[] upper = new double[n];
+        double pivot = diagonal;
+        upper[1] = offDiagonal / pivot;
+        x[1] = (weight_data * x[1] + weight_smooth * x[0]) / pivot;
+        y[1] = (weight_data * y[1] + weight_smooth * y[0]) / pivot;
+        for (int i = 2; i < n - 1; i++) {
+            pivot = diagonal - offDiagonal * upper[i - 1];
+            upper[i] = offDiagonal / pivot;
 
-                // Calculate the amount of change
-                Translation2d erosionDifference = previousPointState.minus(newPositions.get(i));
-                change += Math.abs(erosionDifference.getX()) + Math.abs(erosionDifference.getY());
+            double rhsX = weight_data * x[i];
+            double rhsY = weight_data * y[i];
+            if (i == n - 2) {
+                rhsX += weight_smooth * x[n - 1];
+                rhsY += weight_smooth * y[n - 1];
             }
+            x[i] = (rhsX - offDiagonal * x[i - 1]) / pivot;
+            y[i] = (rhsY - offDiagonal * y[i - 1]) / pivot;
+        }
 
-            countdown -= 1;
+        // The last inner point was folded in above if there is more than one
+        if (n == 3) {
+            x[1] += weight_smooth * x[2] / diagonal;
+            y[1] += weight_smooth * y[2] / diagonal;
+        }
 
+        // Back substitution
+        for (int i = n - 3; i >= 1; i--) {
+            x[i] -= upper[i] * x[i + 1];
+            y[i] -= upper[i] * y[i + 1];
         }
+    }
 
-        return newPositions;
+    /**
+     * Find the best over-relaxation factor for the smoothing system
+     *
+     * @param innerCount    Number of inner points
+     * @param weight_data   Data weight
+     * @param weight_smooth Smoothing weight
+     * @return Relaxation factor, from 1 to 2
+     */
+    private static double getRelaxationFactor(int innerCount, double weight_data, double weight_smooth) {
+
+        // Spectral radius of the Jacobi iteration
+        double rho = 2.0 * weight_smooth * Math.cos(Math.PI / (innerCount + 1)) / (weight_data + 2.0 * weight_smooth);
+        return 2.0 / (1.0 + Math.sqrt(Math.max(0.0, 1.0 - rho * rho)));
+    }
+
+    /**
+     * Solve the smoothing system with successive over-relaxation
+     *
+     * @param x             X positions
+     * @param y             Y positions
+     * @param weight_data   Data weight
+     * @param weight_smooth Smoothing weight
+     * @param tolerance     Stop once a sweep moves the points less than this
+     */
+    private static void solveSOR(double[] x, double[] y, double weight_data, double weight_smooth,
+            double tolerance) {
+        int n = x.length;
+        double[] originalX = x.clone();
+        double[] originalY = y.clone();
+        double omega = getRelaxationFactor(n - 2, weight_data, weight_smooth);
+
+        double change = tolerance;
+        for (int sweep = 0; sweep < MAX_SWEEPS && change >= tolerance; sweep++) {
+            change = sweepRange(x, y, originalX, originalY, weight_data, weight_smooth, omega, 1, n - 1, 1);
+        }
+    }
+
+    /**
+     * Solve the smoothing system with red-black successive over-relaxation. Odd
+     * points only depend on even points and the other way around, so each half
+     * can be updated in parallel
+     *
+     * @param x             X positions
+     * @param y             Y positions
+     * @param weight_data   Data weight
+     * @param weight_smooth Smoothing weight
+     * @param tolerance     Stop once a sweep moves the points less than this
+     */
+    private static void solveRedBlack(double[] x, double[] y, double weight_data, double weight_smooth,
+            double tolerance) {
+        int n = x.length;
+        double[] originalX = x.clone();
+        double[] originalY = y.clone();
+        double omega = getRelaxationFactor(n - 2, weight_data, weight_smooth);
+
+        // Split the inner points into chunks, each handled by one task
+        int chunks = (n - 2 + PARALLEL_CHUNK_SIZE - 1) / PARALLEL_CHUNK_SIZE;
+        double[] chunkChange = new double[chunks];
+
+        double change = tolerance;
+        for (int sweep = 0; sweep < MAX_SWEEPS && change >= tolerance; sweep++) {
+            change = 0.0;
+
+            // Update odd points, then even points
+            for (int first = 1; first <= 2; first++) {
+                final int start = first;
+                IntStream.range(0, chunks).parallel().forEach((chunk) -> {
+                    int lo = 1 + chunk * PARALLEL_CHUNK_SIZE;
+                    int hi = Math.min(n - 1, lo + PARALLEL_CHUNK_SIZE);
+
+                    // Line up with the right colour
+                    if ((lo & 1) != (start & 1)) {
+                        lo++;
+                    }
+                    chunkChange[chunk] = sweepRange(x, y, originalX, originalY, weight_data, weight_smooth, omega,
+                            lo, hi, 2);
+                });
+
+                for (int chunk = 0; chunk < chunks; chunk++) {
+                    change += chunkChange[chunk];
+                }
+            }
+        }
+    }
+
+    /**
+     * Relax a range of points once
+     *
+     * @param x             X positions
+     * @param y             Y positions
+     * @param originalX     Original X positions
+     * @param originalY     Original Y positions
+     * @param weight_data   Data weight
+     * @param weight_smooth Smoothing weight
+     * @param omega         Relaxation factor
+     * @param lo            First point to update
+     * @param hi            One past the last point that may be updated
+     * @param step          Distance between updated points
+     * @return Total change in the points
+     */
+    private static double sweepRange(double[] x, double[] y, double[] originalX, double[] originalY,
+            double weight_data, double weight_smooth, double omega, int lo, int hi, int step) {
+        double diagonal = weight_data + 2.0 * weight_smooth;
+        double change = 0.0;
+
+        for (int i = lo; i < hi; i += step) {
+
+            // Where this point would balance, given its neighbours
+            double balancedX = (weight_data * originalX[i] + weight_smooth * (x[i - 1] + x[i + 1])) / diagonal;
+            double balancedY = (weight_data * originalY[i] + weight_smooth * (y[i - 1] + y[i + 1])) / diagonal;
+
+            // Move past it by the relaxation factor
+            double dx = omega * (balancedX - x[i]);
+            double dy = omega * (balancedY - y[i]);
+            x[i] += dx;
+            y[i] += dy;
+
+            change += Math.abs(dx) + Math.abs(dy);
+        }
+        return change;
     }
-}
\ No newline at end of file
+}
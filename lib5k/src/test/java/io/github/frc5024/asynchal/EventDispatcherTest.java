@@ -0,0 +1,127 @@
+package io.github.frc5024.asynchal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.github.frc5024.lib5k.hardware.ni.roborio.fpga.FPGAClock;
+
+public class EventDispatcherTest {
+
+    /**
+     * An executor that only runs tasks when asked to
+     */
+    private static class ManualExecutor implements Executor {
+        final ArrayList<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                tasks.remove(0).run();
+            }
+        }
+    }
+
+    @Before
+    public void setUp() {
+        FPGAClock.enableSystemClockOverride(true, 1.0);
+    }
+
+    @After
+    public void tearDown() {
+        FPGAClock.enableSystemClockOverride(false, 0.0);
+    }
+
+    @Test
+    public void testEventsAreDeferred() {
+        ManualExecutor executor = new ManualExecutor();
+        ArrayList<String> handled = new ArrayList<>();
+        EventDispatcher dispatcher = new EventDispatcher((e) -> handled.add(e.getType() + "=" + e.getValue()), 8,
+                executor);
+
+        dispatcher.post(SensorEvent.Type.kRisingEdge, 1.0);
+        dispatcher.post(SensorEvent.Type.kFallingEdge, 0.0);
+
+        // Nothing runs on the posting thread, and only one drain is queued
+        assertTrue("Not handled yet", handled.isEmpty());
+        assertEquals("Queued drains", 1, executor.tasks.size());
+        assertEquals("Queue depth", 2, dispatcher.getQueueDepth());
+
+        executor.runAll();
+        assertEquals("Handled in order", "[kRisingEdge=1.0, kFallingEdge=0.0]", handled.toString());
+        assertEquals("Queue depth after drain", 0, dispatcher.getQueueDepth());
+        assertEquals("Max queue depth", 2, dispatcher.getMaxQueueDepth());
+        assertEquals("Handled count", 2, dispatcher.getHandledCount());
+    }
+
+    @Test
+    public void testFullQueueDrops() {
+        ManualExecutor executor = new ManualExecutor();
+        EventDispatcher dispatcher = new EventDispatcher((e) -> {
+        }, 4, executor);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue("Post " + i, dispatcher.post(SensorEvent.Type.kChange, i));
+        }
+        assertFalse("Post past capacity", dispatcher.post(SensorEvent.Type.kChange, 4));
+
+        executor.runAll();
+        assertEquals("Posted", 4, dispatcher.getPostedCount());
+        assertEquals("Dropped", 1, dispatcher.getDroppedCount());
+        assertEquals("Handled", 4, dispatcher.getHandledCount());
+    }
+
+    @Test
+    public void testLatency() {
+        ManualExecutor executor = new ManualExecutor();
+        EventDispatcher dispatcher = new EventDispatcher((e) -> {
+            assertEquals("Event timestamp", 1.0, e.getTimestamp(), 1e-9);
+        }, 8, executor);
+
+        dispatcher.post(SensorEvent.Type.kChange, 0.0);
+
+        // The callback starts 20ms after the sample
+        FPGAClock.enableSystemClockOverride(true, 1.02);
+        executor.runAll();
+
+        assertEquals("Average latency", 0.02, dispatcher.getAverageLatency(), 1e-5);
+        assertEquals("Max latency", 0.02, dispatcher.getMaxLatency(), 1e-5);
+
+        dispatcher.resetStatistics();
+        assertEquals("Reset latency", 0.0, dispatcher.getAverageLatency(), 1e-9);
+    }
+
+    @Test
+    public void testThrowingHandler() {
+        ManualExecutor executor = new ManualExecutor();
+        int[] calls = new int[1];
+        EventDispatcher dispatcher = new EventDispatcher((e) -> {
+            calls[0]++;
+            throw new RuntimeException("Test");
+        }, 8, executor);
+
+        dispatcher.post(SensorEvent.Type.kMotion, 0.0);
+        dispatcher.post(SensorEvent.Type.kMotion, 0.0);
+        executor.runAll();
+
+        // Both events are still handled
+        assertEquals("Calls", 2, calls[0]);
+        assertEquals("Failed", 2, dispatcher.getFailedCount());
+
+        // And later events still schedule a drain
+        dispatcher.post(SensorEvent.Type.kMotion, 0.0);
+        assertEquals("Queued drains", 1, executor.tasks.size());
+    }
+
+}
@@ -0,0 +1,61 @@
+package io.github.frc5024.asynchal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+public class ListenerSetTest {
+
+    @Test
+    public void testFireInOrder() {
+        ArrayList<String> calls = new ArrayList<>();
+        DoubleListenerSet set = new DoubleListenerSet();
+        set.add((v) -> calls.add("a" + v));
+        set.add((v) -> calls.add("b" + v));
+
+        set.fire(1.5);
+        assertEquals("Calls", "[a1.5, b1.5]", calls.toString());
+    }
+
+    @Test
+    public void testAddAndRemove() {
+        BooleanEdgeListenerSet set = new BooleanEdgeListenerSet();
+        int[] count = new int[1];
+        BooleanEdgeListener listener = (rising) -> count[0]++;
+
+        assertTrue("Starts empty", set.isEmpty());
+        set.add(listener);
+        set.add(listener);
+        assertEquals("Duplicates ignored", 1, set.size());
+
+        set.fire(true);
+        assertTrue("Removed", set.remove(listener));
+        assertFalse("Removed twice", set.remove(listener));
+        set.fire(false);
+
+        assertEquals("Calls", 1, count[0]);
+        assertTrue("Empty again", set.isEmpty());
+    }
+
+    @Test
+    public void testRemoveWhileFiring() {
+        DoubleListenerSet set = new DoubleListenerSet();
+        ArrayList<String> calls = new ArrayList<>();
+        DoubleListener second = (v) -> calls.add("second");
+        set.add((v) -> {
+            calls.add("first");
+            set.remove(second);
+        });
+        set.add(second);
+
+        // The set being fired is a snapshot, so the removal applies next time
+        set.fire(0.0);
+        set.fire(0.0);
+        assertEquals("Calls", "[first, second, first]", calls.toString());
+    }
+
+}
@@ -0,0 +1,221 @@
+package io.github.frc5024.asynchal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.github.frc5024.lib5k.hardware.ni.roborio.fpga.FPGAClock;
+
+public class PollerTest {
+
+    private static final long MS = 1000;
+
+    /**
+     * A pollable that counts its polls
+     */
+    private static class Counter implements Pollable {
+        int count = 0;
+
+        @Override
+        public void checkForUpdates() {
+            count++;
+        }
+    }
+
+    /**
+     * A pollable that takes a fixed amount of time, by moving the clock forward
+     */
+    private static class SlowPollable implements Pollable {
+        final long durationMicros;
+        long nowMicros = 0;
+
+        SlowPollable(long durationMicros) {
+            this.durationMicros = durationMicros;
+        }
+
+        @Override
+        public void checkForUpdates() {
+            nowMicros += durationMicros;
+            FPGAClock.enableSystemClockOverride(true, nowMicros / 1000000.0);
+        }
+    }
+
+    /**
+     * Run the poller at a time, with the clock set to match
+     *
+     * @param poller    Poller
+     * @param pollable  Pollable whose clock should be moved too
+     * @param nowMicros Time in microseconds
+     * @return Next wakeup
+     */
+    private static long step(Poller poller, SlowPollable pollable, long nowMicros) {
+        pollable.nowMicros = nowMicros;
+        FPGAClock.enableSystemClockOverride(true, nowMicros / 1000000.0);
+        return poller.update(nowMicros);
+    }
+
+    @Before
+    public void setUp() {
+        FPGAClock.enableSystemClockOverride(true, 0.0);
+    }
+
+    @After
+    public void tearDown() {
+        FPGAClock.enableSystemClockOverride(false, 0.0);
+    }
+
+    @Test
+    public void testMultiRate() {
+        Poller poller = new Poller(false);
+        Counter fast = new Counter();
+        Counter slow = new Counter();
+        poller.register(fast, 0.001);
+        poller.register(slow, 0.05);
+
+        // Step through 100ms, one millisecond at a time
+        for (long t = 0; t < 100; t++) {
+            poller.update(t * MS);
+        }
+
+        assertEquals("Fast pollable", 100, fast.count);
+        assertEquals("Slow pollable", 2, slow.count);
+    }
+
+    @Test
+    public void testLongPeriod() {
+        Poller poller = new Poller(false);
+        Counter counter = new Counter();
+        poller.register(counter, 0.5);
+
+        // Periods longer than the wheel are only polled when due
+        for (long t = 0; t <= 1000; t++) {
+            poller.update(t * MS);
+        }
+
+        assertEquals("Polls", 3, counter.count);
+    }
+
+    @Test
+    public void testNextWakeup() {
+        Poller poller = new Poller(false);
+        poller.register(new Counter(), 0.02);
+
+        assertEquals("First wakeup", 20 * MS, poller.update(0));
+        assertEquals("Sleep until due", 20 * MS, poller.update(5 * MS));
+    }
+
+    @Test
+    public void testSkipsMissedPolls() {
+        Poller poller = new Poller(false);
+        Counter counter = new Counter();
+        poller.register(counter, 0.01);
+        poller.update(0);
+
+        // A long stall only causes one catch-up poll
+        poller.update(95 * MS);
+        assertEquals("Polls after stall", 2, counter.count);
+        assertEquals("Next poll", 96 * MS, poller.update(95 * MS));
+    }
+
+    @Test
+    public void testPriority() {
+        Poller poller = new Poller(false);
+        ArrayList<String> order = new ArrayList<>();
+        poller.register(() -> order.add("low"), 0.01, -1);
+        poller.register(() -> order.add("high"), 0.01, 10);
+        poller.register(() -> order.add("default"), 0.01);
+
+        poller.update(0);
+
+        assertEquals("Poll order", "[high, default, low]", order.toString());
+    }
+
+    @Test
+    public void testDeregisterDuringPoll() {
+        Poller poller = new Poller(false);
+        Counter other = new Counter();
+        Pollable[] self = new Pollable[1];
+        self[0] = () -> poller.deregister(self[0]);
+        poller.register(self[0], 0.001);
+        poller.register(other, 0.001);
+
+        poller.update(0);
+        poller.update(1 * MS);
+
+        assertFalse("Removed itself", poller.isRegistered(self[0]));
+        assertTrue("Other still registered", poller.isRegistered(other));
+        assertEquals("Other polls", 2, other.count);
+    }
+
+    @Test
+    public void testReregisterChangesPeriod() {
+        Poller poller = new Poller(false);
+        Counter counter = new Counter();
+        poller.register(counter, 0.001);
+        poller.update(0);
+        poller.register(counter, 0.01);
+
+        for (long t = 1; t <= 20; t++) {
+            poller.update(t * MS);
+        }
+
+        // Polled at 0ms under the old period, then at 1ms and 11ms under the new
+        // one
+        assertEquals("Polls", 3, counter.count);
+    }
+
+    @Test
+    public void testExecutionStatistics() {
+        Poller poller = new Poller(false);
+        SlowPollable slow = new SlowPollable(300);
+        poller.register(slow, 0.01);
+
+        step(poller, slow, 0);
+        step(poller, slow, 10 * MS);
+
+        PollStatistics stats = poller.getStatistics(slow);
+        assertEquals("Polls", 2, stats.getExecutionTime().getSampleCount());
+        assertEquals("Max time", 300, stats.getExecutionTime().getMaxMicros());
+        assertEquals("P95", 300, stats.getExecutionTime().getPercentileMicros(0.95));
+        assertEquals("Overruns", 0, stats.getOverrunCount());
+        assertEquals("Period", 0.01, stats.getPeriod(), 1e-9);
+
+        // Snapshots do not change after they are taken
+        step(poller, slow, 20 * MS);
+        assertEquals("Snapshot polls", 2, stats.getExecutionTime().getSampleCount());
+        assertEquals("Live polls", 3, poller.getStatistics(slow).getExecutionTime().getSampleCount());
+    }
+
+    @Test
+    public void testOverrunsAndJitter() {
+        Poller poller = new Poller(false);
+        SlowPollable slow = new SlowPollable(3 * MS);
+        poller.register(slow, 0.002);
+
+        // Polled on time, but takes longer than its period
+        step(poller, slow, 0);
+
+        // Polled 3ms late, and skips the 4ms poll
+        step(poller, slow, 5 * MS);
+
+        PollStatistics stats = poller.getStatistics(slow);
+        assertEquals("Overruns", 2, stats.getOverrunCount());
+        assertEquals("Missed polls", 1, stats.getMissedPollCount());
+        assertEquals("Max jitter", 3 * MS, stats.getJitter().getMaxMicros());
+
+        // The cycle ran past the next due poll
+        PollStatistics cycle = poller.getCycleStatistics();
+        assertEquals("Cycles", 2, cycle.getExecutionTime().getSampleCount());
+        assertEquals("Cycle overruns", 2, cycle.getOverrunCount());
+
+        poller.resetStatistics();
+        assertEquals("Reset", 0, poller.getStatistics(slow).getOverrunCount());
+    }
+
+}
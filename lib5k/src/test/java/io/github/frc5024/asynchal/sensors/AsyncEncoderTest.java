@@ -0,0 +1,79 @@
+package io.github.frc5024.asynchal.sensors;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import io.github.frc5024.asynchal.Poller;
+import io.github.frc5024.lib5k.hardware.common.sensors.interfaces.CommonEncoder;
+
+public class AsyncEncoderTest {
+
+    /**
+     * An encoder whose readings are set by the test
+     */
+    private static class FakeEncoder implements CommonEncoder {
+        double position = 0.0;
+        double velocity = 0.0;
+
+        @Override
+        public void setPhaseInverted(boolean inverted) {
+        }
+
+        @Override
+        public boolean getInverted() {
+            return false;
+        }
+
+        @Override
+        public double getPosition() {
+            return position;
+        }
+
+        @Override
+        public double getVelocity() {
+            return velocity;
+        }
+
+        @Override
+        public void reset() {
+            position = 0.0;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    @Test
+    public void testDeadbands() {
+        FakeEncoder fake = new FakeEncoder();
+        AsyncEncoder encoder = new AsyncEncoder(fake, 0.01, 0.5, 10.0);
+
+        // Poll by hand, and handle events right away
+        Poller.getInstance().deregister(encoder);
+        encoder.getEventDispatcher().setExecutor(Runnable::run);
+
+        ArrayList<Double> positions = new ArrayList<>();
+        ArrayList<Double> velocities = new ArrayList<>();
+        encoder.addPositionListener(positions::add);
+        encoder.addVelocityListener(velocities::add);
+
+        // The first poll reports the starting values
+        encoder.checkForUpdates();
+
+        // Changes inside the deadband are not reported, and do not move the reference
+        fake.position = 0.4;
+        fake.velocity = 5.0;
+        encoder.checkForUpdates();
+        fake.position = 0.6;
+        fake.velocity = 12.0;
+        encoder.checkForUpdates();
+
+        assertEquals("Positions", "[0.0, 0.6]", positions.toString());
+        assertEquals("Velocities", "[0.0, 12.0]", velocities.toString());
+    }
+
+}
@@ -0,0 +1,116 @@
+package io.github.frc5024.lib5k.hardware.common.sensors.snapshot;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.github.frc5024.lib5k.hardware.common.sensors.interfaces.CommonEncoder;
+import io.github.frc5024.lib5k.hardware.ni.roborio.fpga.FPGAClock;
+
+public class SensorSnapshotCacheTest {
+
+    /**
+     * An encoder that counts how often it is read
+     */
+    private static class CountingEncoder implements CommonEncoder {
+        double position = 0.0;
+        int reads = 0;
+
+        @Override
+        public void setPhaseInverted(boolean inverted) {
+        }
+
+        @Override
+        public boolean getInverted() {
+            return false;
+        }
+
+        @Override
+        public double getPosition() {
+            reads++;
+            return position;
+        }
+
+        @Override
+        public double getVelocity() {
+            reads++;
+            return 0.0;
+        }
+
+        @Override
+        public void reset() {
+            position = 0.0;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    @Before
+    public void setUp() {
+        FPGAClock.enableSystemClockOverride(true, 2.0);
+    }
+
+    @After
+    public void tearDown() {
+        FPGAClock.enableSystemClockOverride(false, 0.0);
+    }
+
+    @Test
+    public void testOneReadPerCycle() {
+        SensorSnapshotCache cache = new SensorSnapshotCache();
+        CountingEncoder raw = new CountingEncoder();
+        CachedEncoder encoder = new CachedEncoder(raw, cache);
+
+        // Before the first sample, reads go to the hardware
+        raw.position = 1.0;
+        assertEquals("Pass-through", 1.0, encoder.getPosition(), 1e-9);
+        raw.reads = 0;
+
+        // Many readers in one cycle only cost one sample
+        cache.sample();
+        raw.position = 2.0;
+        for (int i = 0; i < 10; i++) {
+            assertEquals("Cached position", 1.0, encoder.getPosition(), 1e-9);
+            encoder.getVelocity();
+        }
+        assertEquals("Hardware reads", 2, raw.reads);
+        assertEquals("Timestamp", 2.0, encoder.getTimestamp(), 1e-9);
+
+        // The opt-out always reads the hardware
+        assertEquals("Fresh position", 2.0, encoder.getFreshPosition(), 1e-9);
+
+        // The next cycle sees the new value
+        cache.sample();
+        assertEquals("Next cycle", 2.0, encoder.getPosition(), 1e-9);
+    }
+
+    @Test
+    public void testResetResamples() {
+        SensorSnapshotCache cache = new SensorSnapshotCache();
+        CountingEncoder raw = new CountingEncoder();
+        CachedEncoder encoder = new CachedEncoder(raw, cache);
+
+        raw.position = 5.0;
+        cache.sample();
+        encoder.reset();
+
+        assertEquals("Position after reset", 0.0, encoder.getPosition(), 1e-9);
+    }
+
+    @Test
+    public void testDisabled() {
+        SensorSnapshotCache cache = new SensorSnapshotCache();
+        CountingEncoder raw = new CountingEncoder();
+        CachedEncoder encoder = new CachedEncoder(raw, cache);
+        cache.sample();
+
+        cache.setEnabled(false);
+        raw.position = 3.0;
+        assertEquals("Disabled cache reads hardware", 3.0, encoder.getPosition(), 1e-9);
+    }
+
+}
@@ -0,0 +1,98 @@
+package io.github.frc5024.lib5k.logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Test;
+
+public class BatchedFileWriterTest {
+
+    @Test
+    public void testLinesAreWrittenOnFlush() throws IOException {
+        Path file = Files.createTempFile("BatchedFileWriterTest", ".log");
+
+        try (BatchedFileWriter writer = new BatchedFileWriter(file)) {
+            writer.appendLine("first");
+            writer.appendLine("second \u00b0");
+
+            // Nothing should hit the disk until a flush
+            assertEquals("Size before flush", 0, Files.size(file));
+
+            writer.flush();
+            List<String> lines = Files.readAllLines(file);
+            assertEquals("Line count", 2, lines.size());
+            assertEquals("Unicode line", "second \u00b0", lines.get(1));
+        }
+    }
+
+    @Test
+    public void testLargeBatchesSpanBuffers() throws IOException {
+        Path file = Files.createTempFile("BatchedFileWriterTest", ".log");
+
+        // Use a buffer much smaller than the batch
+        try (BatchedFileWriter writer = new BatchedFileWriter(file, 64, BatchedFileWriter.NO_ROTATION)) {
+            for (int i = 0; i < 1000; i++) {
+                writer.appendLine("Line number " + i);
+            }
+            writer.flush();
+
+            List<String> lines = Files.readAllLines(file);
+            assertEquals("Line count", 1000, lines.size());
+            assertEquals("Last line", "Line number 999", lines.get(999));
+        }
+    }
+
+    @Test
+    public void testFlushByTimeOrSize() throws IOException {
+        Path file = Files.createTempFile("BatchedFileWriterTest", ".log");
+
+        try (BatchedFileWriter writer = new BatchedFileWriter(file)) {
+            long now = System.currentTimeMillis();
+
+            // Not enough time or text
+            writer.appendLine("short");
+            assertFalse("Too early", writer.flushIfDue(now, 10000, 1024));
+            assertEquals("Pending", 6, writer.getPendingChars());
+
+            // Enough text
+            writer.appendLine("a longer line of text");
+            assertTrue("Size flush", writer.flushIfDue(now, 10000, 16));
+            assertEquals("Flushed lines", 2, Files.readAllLines(file).size());
+
+            // Enough time
+            writer.appendLine("later");
+            assertTrue("Time flush", writer.flushIfDue(now + 20000, 10000, 1024));
+            assertEquals("Flushed lines", 3, Files.readAllLines(file).size());
+        }
+    }
+
+    @Test
+    public void testRotation() throws IOException {
+        Path file = Files.createTempFile("BatchedFileWriterTest", ".log");
+
+        try (BatchedFileWriter writer = new BatchedFileWriter(file, 1024, 10)) {
+
+            // Each flush fills a segment, so the next one must rotate
+            writer.appendLine("segment 0 data");
+            writer.flush();
+            writer.appendLine("segment 1 data");
+            writer.flush();
+            writer.appendLine("segment 2 data");
+            writer.flush();
+
+            assertEquals("Rotation count", 2, writer.getRotationCount());
+        }
+
+        Path first = file.resolveSibling(file.getFileName() + ".1");
+        assertTrue("First segment exists", Files.exists(first));
+        assertEquals("First segment", "segment 0 data", Files.readAllLines(first).get(0));
+        assertEquals("Current segment", "segment 2 data", Files.readAllLines(file).get(0));
+    }
+
+}
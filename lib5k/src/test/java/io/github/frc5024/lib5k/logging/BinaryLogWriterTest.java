@@ -0,0 +1,155 @@
+package io.github.frc5024.lib5k.logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.github.frc5024.lib5k.hardware.ni.roborio.fpga.FPGAClock;
+import io.github.frc5024.lib5k.logging.RobotLogger.Level;
+
+public class BinaryLogWriterTest {
+
+    private final CallerResolver resolver = new CallerResolver(CallerResolver.Mode.kStackWalker);
+
+    /**
+     * Build an event like RobotLogger would
+     */
+    private LogEvent makeEvent(long timestampMillis, Level level, String format) {
+        LogEvent event = new LogEvent(null);
+        event.reset(0, timestampMillis, level, resolver.resolveId(), format);
+        return event;
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Path file = Files.createTempFile("BinaryLogWriterTest", ".l5kb");
+        FPGAClock.enableSystemClockOverride(true, 100.0);
+
+        long start;
+        try (BinaryLogWriter writer = new BinaryLogWriter(file, 1024, BinaryLogWriter.NO_ROTATION)) {
+            start = System.currentTimeMillis();
+
+            // Primitive arguments
+            writer.write(makeEvent(start + 500, Level.kWarning, "Arm at %.2f, step %d, ok %b, mode %c").arg(1.5)
+                    .arg(3).arg(true).arg('A'), resolver);
+
+            // Boxed and object arguments, with a repeated format string
+            LogEvent event = makeEvent(start + 250, Level.kDebug, "Name: %s, count: %d");
+            event.overflowArgs = new Object[] { "drive \u00b0", 7 };
+            writer.write(event, resolver);
+            writer.write(makeEvent(start + 750, Level.kDebug, "Name: %s, count: %d").arg("x").arg((Object) 9),
+                    resolver);
+        } finally {
+            FPGAClock.enableSystemClockOverride(false, 0.0);
+        }
+
+        try (BinaryLogReader reader = new BinaryLogReader(file)) {
+            assertEquals("Segment index", 0, reader.getSegmentIndex());
+            long offset = (start - reader.getStartWallMillis()) * 1000 + reader.getStartFpgaMicros();
+
+            BinaryLogReader.Record record = new BinaryLogReader.Record();
+            assertTrue("First record", reader.next(record));
+            assertEquals("Level", Level.kWarning, record.level);
+            assertEquals("Timestamp", offset + 500000, record.fpgaMicros);
+            assertEquals("Message", "Arm at 1.50, step 3, ok true, mode A", record.formatMessage());
+            assertEquals("Class", BinaryLogWriterTest.class.getName(), record.getClassName());
+            assertEquals("Caller", "io...logging.BinaryLogWriterTest::makeEvent()", record.getCallerName());
+
+            // Out of order timestamps must survive the delta encoding
+            assertTrue("Second record", reader.next(record));
+            assertEquals("Timestamp", offset + 250000, record.fpgaMicros);
+            assertEquals("Message", "Name: drive \u00b0, count: 7", record.formatMessage());
+
+            assertTrue("Third record", reader.next(record));
+            assertEquals("Message", "Name: x, count: 9", record.formatMessage());
+
+            assertFalse("End of file", reader.next(record));
+            assertFalse("Not truncated", reader.wasTruncated());
+        }
+    }
+
+    @Test
+    public void testRotationAndDecoding() throws IOException {
+        Path directory = Files.createTempDirectory("BinaryLogWriterTest");
+        long start = System.currentTimeMillis();
+
+        // Use tiny segments, so nearly every event rotates
+        FPGAClock.enableSystemClockOverride(true, 100.0);
+        try (BinaryLogWriter writer = new BinaryLogWriter(directory.resolve("robot.l5kb"), 16, 64)) {
+            for (int i = 0; i < 20; i++) {
+                writer.write(makeEvent(start + i * 1000, (i % 2 == 0) ? Level.kWarning : Level.kDebug, "Event %d")
+                        .arg(i), resolver);
+            }
+            assertTrue("Rotated", writer.getRotationCount() > 1);
+        } finally {
+            FPGAClock.enableSystemClockOverride(false, 0.0);
+        }
+
+        // Every segment must be found, in order
+        List<Path> segments = BinaryLogDecoder.findSegments(directory);
+        assertTrue("Multiple segments", segments.size() > 1);
+
+        List<String> lines = new ArrayList<>();
+        BinaryLogDecoder decoder = new BinaryLogDecoder();
+        assertEquals("All lines", 20, decoder.decode(directory, lines::add));
+        assertTrue("First line", lines.get(0).endsWith("-> Event 0"));
+        assertTrue("Last line", lines.get(19).endsWith("-> Event 19"));
+
+        // Filter by time. Event i happens about i seconds after the 100s anchor
+        BinaryLogDecoder timeDecoder = new BinaryLogDecoder();
+        timeDecoder.setTimeRange(104.5, 109.5);
+        assertEquals("Time range", 5, timeDecoder.decode(directory, (line) -> {
+        }));
+
+        // Filter by level
+        decoder.setMinimumLevel(Level.kWarning);
+        assertEquals("Warnings", 10, decoder.decode(directory, (line) -> {
+        }));
+
+        // Filter by package
+        decoder.addPackage("io.github.frc5024.libkontrol");
+        assertEquals("Other package", 0, decoder.decode(directory, (line) -> {
+        }));
+        decoder.addPackage("io.github.frc5024.lib5k.logging");
+        assertEquals("This package", 10, decoder.decode(directory, (line) -> {
+        }));
+    }
+
+    @Test
+    public void testTruncatedFile() throws IOException {
+        Path file = Files.createTempFile("BinaryLogWriterTest", ".l5kb");
+
+        FPGAClock.enableSystemClockOverride(true, 100.0);
+        try (BinaryLogWriter writer = new BinaryLogWriter(file, 1024, BinaryLogWriter.NO_ROTATION)) {
+            for (int i = 0; i < 5; i++) {
+                writer.write(makeEvent(System.currentTimeMillis(), Level.kInfo, "Value %f").arg(i * 0.5), resolver);
+            }
+        } finally {
+            FPGAClock.enableSystemClockOverride(false, 0.0);
+        }
+
+        // Cut the last record in half
+        byte[] data = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(data, data.length - 4));
+
+        try (BinaryLogReader reader = new BinaryLogReader(file)) {
+            BinaryLogReader.Record record = new BinaryLogReader.Record();
+            int count = 0;
+            while (reader.next(record)) {
+                count++;
+            }
+            assertEquals("Complete records", 4, count);
+            assertTrue("Truncated", reader.wasTruncated());
+        }
+    }
+
+}
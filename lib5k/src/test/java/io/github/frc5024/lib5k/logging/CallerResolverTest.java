@@ -0,0 +1,60 @@
+package io.github.frc5024.lib5k.logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Test;
+
+public class CallerResolverTest {
+
+    @Test
+    public void testStackWalkerResolvesCaller() {
+        CallerResolver resolver = new CallerResolver(CallerResolver.Mode.kStackWalker);
+
+        // Resolve twice to exercise the cache
+        assertEquals("First lookup", "io...logging.CallerResolverTest::testStackWalkerResolvesCaller()",
+                resolver.resolve());
+        assertEquals("Cached lookup", "io...logging.CallerResolverTest::testStackWalkerResolvesCaller()",
+                resolver.resolve());
+    }
+
+    @Test
+    public void testFullStackTraceResolvesCaller() {
+        CallerResolver resolver = new CallerResolver(CallerResolver.Mode.kFullStackTrace);
+
+        assertEquals("Caller", "io...logging.CallerResolverTest::testFullStackTraceResolvesCaller()",
+                resolver.resolve());
+    }
+
+    @Test
+    public void testDisabledResolution() {
+        CallerResolver resolver = new CallerResolver(CallerResolver.Mode.kNone);
+
+        assertEquals("Caller", CallerResolver.UNKNOWN_CALLER, resolver.resolve());
+    }
+
+    @Test
+    public void testShortNamesAreNotAbbreviated() {
+        assertEquals("Short name", "a.b.C::run()", CallerResolver.abbreviate("a.b.C", "run"));
+        assertEquals("Default package", "C::run()", CallerResolver.abbreviate("C", "run"));
+    }
+
+    @Test
+    public void testEachLineHasItsOwnId() {
+        CallerResolver resolver = new CallerResolver(CallerResolver.Mode.kStackWalker);
+
+        // Two log statements in one method
+        int first = resolver.resolveId();
+        int second = resolver.resolveId();
+        assertNotEquals("Ids of different lines", first, second);
+        assertEquals("Names of different lines", resolver.getName(first), resolver.getName(second));
+
+        // One log statement, called repeatedly
+        int[] ids = new int[2];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = resolver.resolveId();
+        }
+        assertEquals("Ids of the same line", ids[0], ids[1]);
+    }
+
+}
@@ -0,0 +1,87 @@
+package io.github.frc5024.lib5k.logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ColumnarCSVFileTest {
+
+    @Test
+    public void testTypedRows() throws IOException {
+        Path file = Files.createTempFile("ColumnarCSVFileTest", ".csv");
+
+        ColumnarCSVFile.Schema schema = new ColumnarCSVFile.Schema().addDoubleColumn("Value, in m")
+                .addDoubleColumn("Rounded", 3).addLongColumn("Count").addBooleanColumn("Ready")
+                .addStringColumn("Note");
+
+        try (ColumnarCSVFile csv = new ColumnarCSVFile(file, schema, 1024, 2)) {
+            csv.beginRow().put(1.5).put(2.0).put(-42).put(true).put("plain").endRow();
+            csv.beginRow().put(0.1234567).put(-0.0001).put(Long.MIN_VALUE).put(false).put("a,\"b\"").endRow();
+            csv.beginRow().put(Double.NaN).put(1e20).put(0).put(false).put("\u00b0").endRow();
+        }
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals("Line count", 4, lines.size());
+        assertEquals("Header", "\"Value, in m\",Rounded,Count,Ready,Note", lines.get(0));
+        assertEquals("Row 1", "1.5,2,-42,true,plain", lines.get(1));
+        assertEquals("Row 2", "0.123457,0,-9223372036854775808,false,\"a,\"\"b\"\"\"", lines.get(2));
+        assertEquals("Row 3", "NaN,1.0E20,0,false,\u00b0", lines.get(3));
+    }
+
+    @Test
+    public void testRowsSpanBuffers() throws IOException {
+        Path file = Files.createTempFile("ColumnarCSVFileTest", ".csv");
+
+        // Use buffers that only fit a few rows each
+        long dropped;
+        try (ColumnarCSVFile csv = new ColumnarCSVFile(file,
+                new ColumnarCSVFile.Schema().addDoubleColumn("A").addDoubleColumn("B"), 64, 4)) {
+            for (int i = 0; i < 1000; i++) {
+                csv.writeRow(i, i * 0.5);
+            }
+            dropped = csv.getDroppedRowCount();
+        }
+
+        // If the writer fell behind, rows may be dropped, but never split
+        List<String> lines = Files.readAllLines(file);
+        assertEquals("Row count", 1000 - dropped, lines.size() - 1);
+        for (String line : lines.subList(1, lines.size())) {
+            String[] values = line.split(",");
+            assertEquals("Column count", 2, values.length);
+            assertEquals("Row contents", Double.parseDouble(values[0]) * 0.5, Double.parseDouble(values[1]), 1e-9);
+        }
+    }
+
+    @Test
+    public void testRowValidation() throws IOException {
+        Path file = Files.createTempFile("ColumnarCSVFileTest", ".csv");
+
+        try (ColumnarCSVFile csv = new ColumnarCSVFile(file,
+                new ColumnarCSVFile.Schema().addDoubleColumn("A").addLongColumn("B"), 1024, 2)) {
+
+            // Wrong type
+            csv.beginRow();
+            assertThrows(IllegalArgumentException.class, () -> csv.put(true));
+
+            // Missing column
+            csv.put(1.0);
+            assertThrows(IllegalStateException.class, () -> csv.endRow());
+        }
+    }
+
+    @Test
+    public void testSingleBufferIsRejected() throws IOException {
+        Path file = Files.createTempFile("ColumnarCSVFileTest", ".csv");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new ColumnarCSVFile(file, new ColumnarCSVFile.Schema().addDoubleColumn("A"), 1024, 1));
+    }
+
+}
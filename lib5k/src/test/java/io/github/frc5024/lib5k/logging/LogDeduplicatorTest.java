@@ -0,0 +1,70 @@
+package io.github.frc5024.lib5k.logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.github.frc5024.lib5k.logging.RobotLogger.Level;
+
+public class LogDeduplicatorTest {
+
+    @Test
+    public void testRepeatsAreCollapsed() {
+        List<String> summaries = new ArrayList<>();
+        LogDeduplicator deduplicator = new LogDeduplicator((callSite, level, time, message) -> summaries.add(message));
+
+        // The first message passes, and identical ones are counted
+        assertTrue("First", deduplicator.accept(1, Level.kWarning, "CAN bus busy", 1000));
+        for (int i = 1; i <= 10; i++) {
+            assertFalse("Repeat " + i, deduplicator.accept(1, Level.kWarning, "CAN bus busy", 1000 + i * 80));
+        }
+
+        // Other call sites are unaffected
+        assertTrue("Other call site", deduplicator.accept(2, Level.kWarning, "CAN bus busy", 1900));
+        assertEquals("No summary yet", 0, summaries.size());
+
+        // A new message ends the run
+        assertTrue("New message", deduplicator.accept(1, Level.kWarning, "CAN bus fine", 2000));
+        assertEquals("Summary", List.of("Previous message repeated 10 times in 0.72 s"), summaries);
+    }
+
+    @Test
+    public void testLongRunsAreSummarized() {
+        List<String> summaries = new ArrayList<>();
+        LogDeduplicator deduplicator = new LogDeduplicator((callSite, level, time, message) -> summaries.add(message));
+        deduplicator.setSummaryPeriod(1000);
+
+        deduplicator.accept(1, Level.kInfo, "Stuck", 0);
+        deduplicator.accept(1, Level.kInfo, "Stuck", 500);
+        deduplicator.flushSummaries(900, false);
+        assertEquals("Too early", 0, summaries.size());
+
+        deduplicator.flushSummaries(1600, false);
+        assertEquals("Periodic summary", List.of("Previous message repeated 1 times in 0.00 s"), summaries);
+
+        // The run keeps being collapsed after a summary
+        assertFalse("Still a repeat", deduplicator.accept(1, Level.kInfo, "Stuck", 1700));
+
+        // Rate limited messages are included
+        deduplicator.addSuppressed(1, 4, 1700);
+        deduplicator.flushSummaries(1800, true);
+        assertEquals("Combined summary",
+                "Previous message repeated 1 times in 0.00 s, 4 messages suppressed by rate limit", summaries.get(1));
+    }
+
+    @Test
+    public void testDisabled() {
+        LogDeduplicator deduplicator = new LogDeduplicator((callSite, level, time, message) -> {
+        });
+        deduplicator.setEnabled(false);
+
+        assertTrue("First", deduplicator.accept(1, Level.kInfo, "Same", 0));
+        assertTrue("Second", deduplicator.accept(1, Level.kInfo, "Same", 10));
+    }
+
+}
@@ -0,0 +1,65 @@
+package io.github.frc5024.lib5k.logging;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import io.github.frc5024.lib5k.logging.RobotLogger.Level;
+
+public class LogEventTest {
+
+    /**
+     * Create an event that is ready to accept arguments
+     * 
+     * @param format Format string
+     * @return Event
+     */
+    private LogEvent createEvent(String format) {
+        LogEvent event = new LogEvent(null);
+        event.reset(0, 0, Level.kInfo, 0, format);
+        return event;
+    }
+
+    @Test
+    public void testPrimitiveArguments() {
+        LogEvent event = createEvent("%.2f %d %b %s");
+        event.arg(1.234).arg(42).arg(true).arg("text");
+
+        assertEquals("Formatted message", "1.23 42 true text", event.formatMessage());
+    }
+
+    @Test
+    public void testCharArguments() {
+        LogEvent event = createEvent("%c %c %d");
+        event.arg('a').arg((Object) 'b').arg((int) 'c');
+
+        assertEquals("Formatted message", "a b 99", event.formatMessage());
+    }
+
+    @Test
+    public void testArgumentsPastSlab() {
+        LogEvent event = createEvent("%d %d %d %d %d %d %d %d %d %d");
+        for (int i = 0; i < 10; i++) {
+            event.arg(i);
+        }
+
+        assertEquals("Formatted message", "0 1 2 3 4 5 6 7 8 9", event.formatMessage());
+    }
+
+    @Test
+    public void testBadFormatDoesNotThrow() {
+        LogEvent event = createEvent("%d");
+        event.arg("not a number");
+
+        assert event.formatMessage().startsWith("%d [bad format");
+    }
+
+    @Test
+    public void testUnclaimedEventIgnoresWrites() {
+        LogEvent event = new LogEvent(null);
+        event.arg(1.0).arg(2).commit();
+
+        assertEquals("Argument count", 0, event.getTotalArgCount());
+    }
+
+}
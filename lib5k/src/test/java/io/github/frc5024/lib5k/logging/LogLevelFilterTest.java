@@ -0,0 +1,67 @@
+package io.github.frc5024.lib5k.logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import io.github.frc5024.lib5k.logging.RobotLogger.Level;
+
+public class LogLevelFilterTest {
+
+    @Test
+    public void testGlobalLevel() {
+        LogLevelFilter filter = new LogLevelFilter(new CallerResolver(CallerResolver.Mode.kStackWalker));
+
+        // Everything is enabled by default
+        assertTrue("Debug enabled by default", filter.isPossiblyEnabled(Level.kDebug));
+
+        // Raising the minimum should reject debug messages without a caller
+        filter.setMinimumLevel(Level.kWarning);
+        assertFalse("Debug disabled", filter.isPossiblyEnabled(Level.kDebug));
+        assertFalse("Info disabled", filter.isPossiblyEnabled(Level.kInfo));
+        assertTrue("Warning enabled", filter.isPossiblyEnabled(Level.kWarning));
+        assertTrue("Robot enabled", filter.isPossiblyEnabled(Level.kRobot));
+    }
+
+    @Test
+    public void testPackageLevels() {
+        CallerResolver resolver = new CallerResolver(CallerResolver.Mode.kStackWalker);
+        LogLevelFilter filter = new LogLevelFilter(resolver);
+        int callSite = resolver.resolveId();
+
+        // Quiet this package, but let debug messages through everywhere else
+        filter.setPackageLevel("io.github.frc5024.lib5k.logging", Level.kWarning);
+        assertTrue("Debug could be enabled somewhere", filter.isPossiblyEnabled(Level.kDebug));
+        assertFalse("Debug disabled here", filter.isEnabled(callSite, Level.kDebug));
+        assertTrue("Warning enabled here", filter.isEnabled(callSite, Level.kWarning));
+
+        // A longer prefix should win
+        filter.setPackageLevel("io.github.frc5024.lib5k.logging.LogLevelFilterTest", Level.kDebug);
+        assertTrue("Debug enabled for this class", filter.isEnabled(callSite, Level.kDebug));
+
+        // Prefixes only match whole package names
+        filter.clearPackageLevels();
+        filter.setMinimumLevel(Level.kWarning);
+        filter.setPackageLevel("io.github.frc5024.lib5k.log", Level.kDebug);
+        assertFalse("Partial package name ignored", filter.isEnabled(callSite, Level.kDebug));
+    }
+
+    @Test
+    public void testConfigureFromString() {
+        LogLevelFilter filter = new LogLevelFilter(new CallerResolver(CallerResolver.Mode.kStackWalker));
+
+        filter.configure("*=WARNING, io.github.frc5024.libkontrol=DEBUG");
+        assertEquals("Global level", Level.kWarning, filter.getMinimumLevel());
+        assertEquals("Package levels", "io.github.frc5024.libkontrol=DEBUG", filter.getPackageLevels());
+    }
+
+    @Test
+    public void testInvalidLevel() {
+        assertThrows(IllegalArgumentException.class, () -> LogLevelFilter.parseLevel("LOUD"));
+        assertEquals("Display names are accepted", Level.kWarning, LogLevelFilter.parseLevel("warning"));
+    }
+
+}
@@ -0,0 +1,56 @@
+package io.github.frc5024.lib5k.logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import io.github.frc5024.lib5k.logging.RobotLogger.Level;
+
+public class LogRateLimiterTest {
+
+    private static final long SECOND = 1000000000L;
+
+    @Test
+    public void testBurstThenRate() {
+        LogRateLimiter limiter = new LogRateLimiter();
+        limiter.setRateLimit(Level.kWarning, 2.0, 3);
+        long start = 5 * SECOND;
+
+        // The burst is allowed all at once
+        for (int i = 0; i < 3; i++) {
+            assertTrue("Burst message " + i, limiter.tryAcquire(1, Level.kWarning, start));
+        }
+        assertFalse("Past burst", limiter.tryAcquire(1, Level.kWarning, start));
+        assertTrue("Suppressed flag", limiter.hasSuppressed());
+        assertEquals("Suppressed count", 1, limiter.takeSuppressedCount(1));
+        assertEquals("Suppressed count reset", 0, limiter.takeSuppressedCount(1));
+
+        // After that, one message every half second
+        assertFalse("Too soon", limiter.tryAcquire(1, Level.kWarning, start + SECOND / 4));
+        assertTrue("On schedule", limiter.tryAcquire(1, Level.kWarning, start + SECOND / 2));
+    }
+
+    @Test
+    public void testLimitsAreSeparate() {
+        LogRateLimiter limiter = new LogRateLimiter();
+        limiter.setRateLimit(Level.kWarning, 1.0, 1);
+        long start = 5 * SECOND;
+
+        assertTrue("Call site 1", limiter.tryAcquire(1, Level.kWarning, start));
+        assertFalse("Call site 1 limited", limiter.tryAcquire(1, Level.kWarning, start));
+
+        // Other call sites, other levels, and unknown callers are not affected
+        assertTrue("Call site 200", limiter.tryAcquire(200, Level.kWarning, start));
+        assertTrue("Unlimited level", limiter.tryAcquire(1, Level.kDebug, start));
+        assertTrue("Unknown caller", limiter.tryAcquire(CallerResolver.UNKNOWN_CALLER_ID, Level.kWarning, start));
+        assertTrue("Unknown caller", limiter.tryAcquire(CallerResolver.UNKNOWN_CALLER_ID, Level.kWarning, start));
+
+        // Removing the limit allows everything
+        limiter.clearRateLimit(Level.kWarning);
+        assertFalse("Not limited", limiter.isLimited(Level.kWarning));
+        assertTrue("Call site 1 unlimited", limiter.tryAcquire(1, Level.kWarning, start));
+    }
+
+}
@@ -0,0 +1,108 @@
+package io.github.frc5024.lib5k.logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+import io.github.frc5024.lib5k.hardware.ni.roborio.fpga.FPGAClock;
+import io.github.frc5024.lib5k.logging.NetworkLogSink.Protocol;
+import io.github.frc5024.lib5k.logging.RobotLogger.Level;
+
+public class NetworkLogSinkTest {
+
+    private final CallerResolver resolver = new CallerResolver(CallerResolver.Mode.kStackWalker);
+
+    /**
+     * Build an event like RobotLogger would
+     */
+    private LogEvent makeEvent(int i) {
+        LogEvent event = new LogEvent(null);
+        event.reset(0, System.currentTimeMillis(), Level.kInfo, resolver.resolveId(), "Event %d at %.1f m");
+        return event.arg(i).arg(i * 0.5);
+    }
+
+    /**
+     * Send events through a sink to a local collector, and read back what it wrote
+     */
+    private void roundTrip(Protocol protocol) throws IOException, InterruptedException {
+        Path file = Files.createTempFile("NetworkLogSinkTest", ".l5kb");
+
+        FPGAClock.enableSystemClockOverride(true, 100.0);
+        try (LogCollector collector = new LogCollector(protocol, 0, file)) {
+
+            // Use small batches, so the events are spread over several of them. Closing
+            // the sink sends everything left
+            NetworkLogSink sink = new NetworkLogSink(protocol, "localhost", collector.getPort(), 128, 64);
+            for (int i = 0; i < 50; i++) {
+                sink.write(makeEvent(i), resolver);
+            }
+            sink.close();
+            long sent = sink.getSentBatchCount();
+            assertEquals("Dropped batches", 0, sink.getDroppedBatchCount());
+
+            // Wait for everything to arrive
+            for (int i = 0; i < 200 && collector.getReceivedBatchCount() < sent; i++) {
+                Thread.sleep(10);
+            }
+            assertTrue("Several batches", sent > 1);
+            assertEquals("Received batches", sent, collector.getReceivedBatchCount());
+        } finally {
+            FPGAClock.enableSystemClockOverride(false, 0.0);
+        }
+
+        // Every event must be readable, in order
+        try (BinaryLogReader reader = new BinaryLogReader(file)) {
+            BinaryLogReader.Record record = new BinaryLogReader.Record();
+            for (int i = 0; i < 50; i++) {
+                assertTrue("Record " + i, reader.next(record));
+                assertEquals("Message", String.format("Event %d at %.1f m", i, i * 0.5), record.formatMessage());
+                assertEquals("Class", NetworkLogSinkTest.class.getName(), record.getClassName());
+            }
+            assertFalse("End of file", reader.next(record));
+            assertFalse("Not truncated", reader.wasTruncated());
+            assertTrue("One segment per batch", reader.getSegmentCount() > 1);
+        }
+    }
+
+    @Test
+    public void testUDPRoundTrip() throws IOException, InterruptedException {
+        roundTrip(Protocol.kUDP);
+    }
+
+    @Test
+    public void testTCPRoundTrip() throws IOException, InterruptedException {
+        roundTrip(Protocol.kTCP);
+    }
+
+    @Test
+    public void testDropsOldestWithoutBlocking() throws IOException {
+
+        // Find a port nobody is listening on
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        try (NetworkLogSink sink = new NetworkLogSink(Protocol.kTCP, "localhost", port, 64, 4)) {
+            long start = System.nanoTime();
+            for (int i = 0; i < 1000; i++) {
+                sink.write(makeEvent(i), resolver);
+            }
+            long elapsedMillis = (System.nanoTime() - start) / 1000000;
+
+            // The link is down, so almost everything must be thrown away instead of
+            // waiting
+            assertFalse("Not connected", sink.isConnected());
+            assertTrue("Dropped batches", sink.getDroppedBatchCount() > 10);
+            assertTrue("Did not block", elapsedMillis < 1000);
+        }
+    }
+
+}
@@ -4,6 +4,8 @@ import static org.junit.Assert.assertEquals;
 
 import org.junit.Test;
 
+import io.github.frc5024.lib5k.logging.RobotLogger.Level;
+
 public class RobotLoggerTest {
 
     /**
@@ -24,4 +26,54 @@ public class RobotLoggerTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testUncommittedEventDoesNotBlockBuffer() {
+        RobotLogger logger = RobotLogger.getInstance();
+        logger.periodic_buffer.drain(LogEvent::clear);
+
+        // Start an event, but never commit it
+        logger.logEvent("Abandoned %d", Level.kInfo).arg(1);
+
+        // Fill and empty the buffer a few times
+        int capacity = logger.periodic_buffer.getCapacity();
+        for (int pass = 0; pass < 3; pass++) {
+            for (int i = 0; i < capacity; i++) {
+                logger.log("Message %d", i);
+            }
+            assertEquals("Messages drained", capacity, logger.periodic_buffer.drain(LogEvent::clear));
+        }
+    }
+
+    @Test
+    public void testLegacyLogReadsArgumentsImmediately() {
+        RobotLogger logger = RobotLogger.getInstance();
+        logger.periodic_buffer.drain(LogEvent::clear);
+
+        // Change an argument after it was logged
+        StringBuilder value = new StringBuilder("before");
+        logger.log("Value is %s", value);
+        value.replace(0, value.length(), "after");
+
+        String[] message = new String[1];
+        logger.periodic_buffer.drain((event) -> message[0] = event.formatMessage());
+        assertEquals("Logged message", "Value is before", message[0]);
+    }
+
+    @Test
+    public void testRateLimitIsPerLogStatement() {
+        RobotLogger logger = RobotLogger.getInstance();
+        logger.periodic_buffer.drain(LogEvent::clear);
+
+        // Use up the warning burst from one line, then warn from another line in the
+        // same method
+        for (int i = 0; i < 100; i++) {
+            logger.log("First warning", Level.kWarning);
+        }
+        logger.log("Second warning", Level.kWarning);
+
+        boolean[] found = new boolean[1];
+        logger.periodic_buffer.drain((event) -> found[0] |= event.format.equals("Second warning"));
+        assert found[0] : "Second warning was rate limited with the first";
+    }
+
+}
@@ -0,0 +1,140 @@
+package io.github.frc5024.lib5k.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import io.github.frc5024.lib5k.utils.RingBuffer.OverflowPolicy;
+
+public class RingBufferTest {
+
+    /**
+     * Mutable slot used for testing
+     */
+    private static class Slot {
+        int value;
+    }
+
+    /**
+     * Write a value to the buffer
+     *
+     * @param buffer Buffer
+     * @param value  Value
+     * @return Was the value accepted?
+     */
+    private boolean write(RingBuffer<Slot> buffer, int value) {
+        long sequence = buffer.claim();
+        if (sequence < 0) {
+            return false;
+        }
+        buffer.get(sequence).value = value;
+        buffer.publish(sequence);
+        return true;
+    }
+
+    @Test
+    public void testCapacityIsRoundedUp() {
+        RingBuffer<Slot> buffer = new RingBuffer<>(5, Slot::new, OverflowPolicy.kDropNewest);
+        assertEquals("Capacity", 8, buffer.getCapacity());
+    }
+
+    @Test
+    public void testDropNewest() {
+        RingBuffer<Slot> buffer = new RingBuffer<>(4, Slot::new, OverflowPolicy.kDropNewest);
+
+        // Overfill the buffer
+        for (int i = 0; i < 6; i++) {
+            write(buffer, i);
+        }
+
+        // The first 4 values should survive
+        ArrayList<Integer> output = new ArrayList<>();
+        buffer.drain((slot) -> output.add(slot.value));
+        assertEquals("Drained count", 4, output.size());
+        assertEquals("Oldest value", 0, (int) output.get(0));
+        assertEquals("Dropped count", 2, buffer.getDroppedCount());
+        assertEquals("Overwritten count", 0, buffer.getOverwrittenCount());
+
+        // Slots should be reusable after draining
+        assertTrue("Write after drain", write(buffer, 10));
+    }
+
+    @Test
+    public void testOverwriteOldest() {
+        RingBuffer<Slot> buffer = new RingBuffer<>(4, Slot::new, OverflowPolicy.kOverwriteOldest);
+
+        // Overfill the buffer
+        for (int i = 0; i < 6; i++) {
+            write(buffer, i);
+        }
+
+        // The last 4 values should survive
+        ArrayList<Integer> output = new ArrayList<>();
+        buffer.drain((slot) -> output.add(slot.value));
+        assertEquals("Drained count", 4, output.size());
+        assertEquals("Oldest value", 2, (int) output.get(0));
+        assertEquals("Newest value", 5, (int) output.get(3));
+        assertEquals("Dropped count", 0, buffer.getDroppedCount());
+        assertEquals("Overwritten count", 2, buffer.getOverwrittenCount());
+    }
+
+    @Test
+    public void testOverwriteWhileConsumerHoldsSlot() {
+        RingBuffer<Slot> buffer = new RingBuffer<>(4, Slot::new, OverflowPolicy.kOverwriteOldest);
+
+        // Fill the buffer
+        for (int i = 0; i < 4; i++) {
+            write(buffer, i);
+        }
+
+        // Write while the consumer is still reading the slot the write needs
+        ArrayList<Integer> output = new ArrayList<>();
+        buffer.drain((slot) -> {
+            if (slot.value == 0) {
+                assertTrue("Write into a held slot", !write(buffer, 10));
+            }
+            output.add(slot.value);
+        });
+
+        // Only the new value should be lost
+        assertEquals("Drained count", 4, output.size());
+        assertEquals("Newest value", 3, (int) output.get(3));
+        assertEquals("Dropped count", 1, buffer.getDroppedCount());
+        assertEquals("Overwritten count", 0, buffer.getOverwrittenCount());
+    }
+
+    @Test
+    public void testConcurrentProducers() throws InterruptedException {
+        RingBuffer<Slot> buffer = new RingBuffer<>(1024, Slot::new, OverflowPolicy.kDropNewest);
+
+        // Write from a few threads at once
+        Thread[] producers = new Thread[4];
+        for (int t = 0; t < producers.length; t++) {
+            producers[t] = new Thread(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    write(buffer, 1);
+                }
+            });
+            producers[t].start();
+        }
+
+        // Drain while the producers are running
+        long[] total = new long[1];
+        boolean running = true;
+        while (running) {
+            running = false;
+            for (Thread producer : producers) {
+                running |= producer.isAlive();
+            }
+            buffer.drain((slot) -> total[0] += slot.value);
+        }
+        buffer.drain((slot) -> total[0] += slot.value);
+
+        // Every message must be accounted for
+        assertEquals("Delivered + dropped", 4 * 5000, total[0] + buffer.getDroppedCount());
+    }
+
+}
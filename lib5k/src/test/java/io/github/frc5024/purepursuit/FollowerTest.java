@@ -112,4 +112,59 @@ public class FollowerTest {
         assertEquals("Farthest acceptable pose", true, MathUtils
                 .epsilonEquals(new Translation2d(0.0, 0.0).getDistance(lastPose), GAIN, Units.inchesToMeters(6.0)));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testRelocalize() {
+
+        // Follower to test against
+        Follower follower = new Follower(new Path(new Translation2d(0.0, 0.0), new Translation2d(10.0, 0.0)),
+                LOOKAHEAD, GAIN, Units.inchesToMeters(28.0));
+
+        // Start at the beginning of the path
+        Translation2d goal = follower.getNextPoint(new Pose2d(0.0, 0.0, Rotation2d.fromDegrees(0.0)));
+        assertEquals("Starting goal", 0.0, goal.getDistance(new Translation2d(0.15, 0.0)), 0.01);
+
+        // Jump the robot halfway down the path. The jump should not look like motion
+        follower.relocalize(new Pose2d(5.0, 0.5, Rotation2d.fromDegrees(0.0)));
+        goal = follower.getNextPoint(new Pose2d(5.0, 0.5, Rotation2d.fromDegrees(0.0)));
+        assertEquals("Relocalized goal", 0.0, goal.getDistance(new Translation2d(5.0, 0.0)), 0.1);
+    }
+
+    @Test
+    public void testLookaheadTableMatchesSearch() {
+        Path path = new Path(0.15, new Translation2d(0.0, 0.0), new Translation2d(4.0, 1.0),
+                new Translation2d(8.0, 0.0));
+        Follower searching = new Follower(path, 2.0, GAIN, Units.inchesToMeters(28.0));
+        Follower table = new Follower(path, 2.0, GAIN, Units.inchesToMeters(28.0));
+        table.precomputeLookahead(0.2, 5);
+
+        // Drive 5cm per update, so every lookahead is 10cm, which is a table level
+        for (int i = 0; i < 150; i++) {
+            double x = i * 0.05;
+            assertEquals("Step " + i, searching.getNextIndex(x, 0.1), table.getNextIndex(x, 0.1));
+        }
+    }
+
+    @Test
+    public void testNearestTrackedIndexStaysOnLeg() {
+
+        // A path that goes out and comes most of the way back just beside itself
+        Path path = new Path(0.1, new Translation2d(0.0, 0.0), new Translation2d(2.0, 0.0),
+                new Translation2d(0.5, 0.04));
+        Follower follower = new Follower(path, LOOKAHEAD, GAIN, Units.inchesToMeters(28.0));
+
+        // Drive out, between the two legs but closer to the return leg
+        follower.getNextIndex(0.0, 0.0);
+        for (int i = 1; i <= 16; i++) {
+            follower.getNextIndex(i * 0.05, 0.03);
+        }
+
+        // A search of the whole path finds the return leg, but the robot is still on
+        // the way out
+        int halfway = path.getBuffer().size() / 2;
+        assert path.getIndex().getNearestIndex(0.8, 0.03) > halfway;
+        int nearest = follower.getNearestTrackedIndex(0.8, 0.03);
+        assert nearest < halfway;
+        assertEquals("Nearest point", 0.8, path.getBuffer().getX(nearest), 0.1);
+    }
+}
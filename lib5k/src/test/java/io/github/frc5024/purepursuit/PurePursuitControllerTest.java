@@ -1,14 +1,21 @@
 package io.github.frc5024.purepursuit;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 import org.junit.Test;
 
 import ca.retrylife.ewmath.MathUtils;
 import edu.wpi.first.wpilibj.geometry.Pose2d;
 import edu.wpi.first.wpilibj.geometry.Rotation2d;
 import edu.wpi.first.wpilibj.geometry.Translation2d;
+import edu.wpi.first.wpilibj.kinematics.ChassisSpeeds;
 import edu.wpi.first.wpilibj.kinematics.DifferentialDriveWheelSpeeds;
 import edu.wpi.first.wpilibj.util.Units;
+import io.github.frc5024.purepursuit.pathgen.BezierPath;
 import io.github.frc5024.purepursuit.pathgen.Path;
+import io.github.frc5024.purepursuit.pathgen.PathBuffer;
+import io.github.frc5024.purepursuit.pathgen.Trajectory;
 
 public class PurePursuitControllerTest {
 
@@ -293,4 +300,144 @@ public class PurePursuitControllerTest {
         assert goal.getY() == 0.0;
 
     }
-}
\ No newline at end of file
+
+    @Test
+    /**
+     * Test that the primitive API gives the same outputs as the Pose2d API
+     */
+    public void testPrimitiveTankMatchesPose() {
+        Path path = new Path(new Translation2d(0.0, 0.0), new Translation2d(1.0, 0.5), new Translation2d(2.0, 0.0));
+        PurePursuitController poseController = new PurePursuitController(path, 0.2, 0.1, Units.inchesToMeters(28.0),
+                1.0);
+        PurePursuitController primitiveController = new PurePursuitController(path, 0.2, 0.1,
+                Units.inchesToMeters(28.0), 1.0);
+        DifferentialDriveWheelSpeeds output = new DifferentialDriveWheelSpeeds();
+
+        // Drive along a line near the path
+        for (int i = 0; i < 50; i++) {
+            double x = i * 0.04;
+            double y = 0.1;
+            double theta = 0.2;
+
+            DifferentialDriveWheelSpeeds expected = poseController.calculateTank(new Pose2d(x, y, new Rotation2d(theta)));
+            primitiveController.calculateTank(x, y, theta, output);
+
+            assertEquals("Left " + i, expected.leftMetersPerSecond, output.leftMetersPerSecond, 0.0);
+            assertEquals("Right " + i, expected.rightMetersPerSecond, output.rightMetersPerSecond, 0.0);
+        }
+    }
+
+    @Test
+    /**
+     * Test that a trajectory slows the robot at the start of a path, and lets it
+     * drive at the max output once it is up to speed
+     */
+    public void testTrajectoryScalesSpeed() {
+        Path path = new Path(0.05, new Translation2d(0.0, 0.0), new Translation2d(10.0, 0.0));
+        PurePursuitController flat = new PurePursuitController(path, 0.2, 0.1, Units.inchesToMeters(28.0), 1.0);
+        PurePursuitController planned = new PurePursuitController(path, 0.2, 0.1, Units.inchesToMeters(28.0), 1.0);
+        planned.setTrajectory(new Trajectory(path, 3.0, 2.0, 1.5));
+        DifferentialDriveWheelSpeeds flatOutput = new DifferentialDriveWheelSpeeds();
+        DifferentialDriveWheelSpeeds plannedOutput = new DifferentialDriveWheelSpeeds();
+
+        // Drive along the path, slightly to one side
+        for (int i = 0; i < 100; i++) {
+            double x = i * 0.05;
+            flat.calculateTank(x, 0.1, 0.0, flatOutput);
+            planned.calculateTank(x, 0.1, 0.0, plannedOutput);
+
+            double flatForward = (flatOutput.leftMetersPerSecond + flatOutput.rightMetersPerSecond) / 2.0;
+            double plannedForward = (plannedOutput.leftMetersPerSecond + plannedOutput.rightMetersPerSecond) / 2.0;
+
+            if (i > 0 && i < 10) {
+                assertTrue("Slower at the start " + i, Math.abs(plannedForward) < Math.abs(flatForward));
+            } else if (i > 60) {
+                assertEquals("Full speed " + i, flatForward, plannedForward, 1e-12);
+            }
+        }
+    }
+
+    @Test
+    /**
+     * Test that a trajectory is not held to the slow-down for large turns, since
+     * the plan already slows down for them
+     */
+    public void testTrajectoryReplacesTurnSlowdown() {
+        Path path = new Path(0.05, new Translation2d(0.0, 0.0), new Translation2d(10.0, 0.0));
+        PurePursuitController flat = new PurePursuitController(path, 0.2, 0.1, Units.inchesToMeters(28.0), 1.0);
+        PurePursuitController planned = new PurePursuitController(path, 0.2, 0.1, Units.inchesToMeters(28.0), 1.0);
+        planned.setTrajectory(new Trajectory(path, 3.0, 2.0, 1.5));
+        DifferentialDriveWheelSpeeds flatOutput = new DifferentialDriveWheelSpeeds();
+        DifferentialDriveWheelSpeeds plannedOutput = new DifferentialDriveWheelSpeeds();
+
+        // Face away from the path, on a part of it the plan drives at full speed
+        flat.calculateTank(5.0, 0.0, Math.PI / 2.0, flatOutput);
+        planned.calculateTank(5.0, 0.0, Math.PI / 2.0, plannedOutput);
+
+        double flatForward = (flatOutput.leftMetersPerSecond + flatOutput.rightMetersPerSecond) / 2.0;
+        double plannedForward = (plannedOutput.leftMetersPerSecond + plannedOutput.rightMetersPerSecond) / 2.0;
+
+        // The flat controller is held to 10% forward speed, the plan is not
+        assertTrue(Math.abs(plannedForward) > Math.abs(flatForward) * 2.0);
+    }
+
+    /**
+     * Drive a simulated holonomic robot along a path
+     * 
+     * @param path       Path to follow
+     * @param controller Controller for the path
+     * @param topSpeed   Robot speed at full output in meters per second
+     * @return Number of 20ms updates it took to reach the end of the path
+     */
+    private int driveHolonomic(Path path, PurePursuitController controller, double topSpeed) {
+        PathBuffer points = path.getBuffer();
+        double endX = points.getX(points.size() - 1);
+        double endY = points.getY(points.size() - 1);
+        ChassisSpeeds output = new ChassisSpeeds();
+        double x = 0.0;
+        double y = 0.0;
+
+        for (int i = 0; i < 1000; i++) {
+            if (Math.hypot(endX - x, endY - y) < 0.1) {
+                return i;
+            }
+
+            controller.calculateHolonomic(x, y, output);
+            x += output.vxMetersPerSecond * topSpeed * 0.02;
+            y += output.vyMetersPerSecond * topSpeed * 0.02;
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    @Test
+    /**
+     * Test that a trajectory gets around a curved path faster than driving the
+     * whole path at a speed that is safe for its tightest turn
+     */
+    public void testTrajectoryBeatsFlatOnCurve() {
+        Path path = new BezierPath(new Translation2d[] { new Translation2d(0.0, 0.0), new Translation2d(4.0, 0.0),
+                new Translation2d(4.0, 0.0), new Translation2d(4.0, 4.0) });
+        double topSpeed = 3.0;
+        double maxCentripetal = 1.5;
+
+        // Find the fastest flat speed that keeps within the centripetal limit
+        PathBuffer points = path.getBuffer();
+        double maxCurvature = 0.0;
+        for (int i = 0; i < points.size(); i++) {
+            maxCurvature = Math.max(maxCurvature, Math.abs(points.getCurvature(i)));
+        }
+        double safeOutput = Math.sqrt(maxCentripetal / maxCurvature) / topSpeed;
+
+        PurePursuitController flat = new PurePursuitController(path, 0.2, 1.0, Units.inchesToMeters(28.0),
+                safeOutput);
+        PurePursuitController planned = new PurePursuitController(path, 0.2, 1.0, Units.inchesToMeters(28.0),
+                safeOutput);
+        planned.setTrajectory(new Trajectory(path, topSpeed, 2.0, maxCentripetal));
+
+        int flatSteps = driveHolonomic(path, flat, topSpeed);
+        int plannedSteps = driveHolonomic(path, planned, topSpeed);
+
+        assertTrue("Flat run finished", flatSteps < 1000);
+        assertTrue("Planned " + plannedSteps + " vs flat " + flatSteps, plannedSteps < flatSteps);
+    }
+}
@@ -3,6 +3,8 @@ package io.github.frc5024.purepursuit.pathgen;
 import java.io.IOException;
 import java.util.ArrayList;
 
+import static org.junit.Assert.assertEquals;
+
 import org.junit.Test;
 import org.knowm.xchart.BitmapEncoder;
 import org.knowm.xchart.XYChart;
@@ -85,4 +87,114 @@ public class BezierPathTest {
 		
 	}
 
+	/**
+	 * Evaluates a bezier curve the slow way
+	 * 
+	 * @param points the control points
+	 * @param t      t value between 0 and 1
+	 * @return point on the curve
+	 */
+	private Translation2d evaluate(Translation2d[] points, double t) {
+		int n = points.length - 1;
+		double x = 0;
+		double y = 0;
+		double binomial = 1;
+		for (int i = 0; i <= n; i++) {
+			double basis = binomial * Math.pow(t, i) * Math.pow(1 - t, n - i);
+			x += points[i].getX() * basis;
+			y += points[i].getY() * basis;
+			binomial = binomial * (n - i) / (i + 1);
+		}
+		return new Translation2d(x, y);
+	}
+
+	@Test
+	public void testEvenSpacing() {
+		BezierPath path = new BezierPath(wayPoints6, new double[0], 0.25);
+		PathBuffer buffer = path.getBuffer();
+
+		// Ends are the first and last control points
+		assertEquals("Start", new Translation2d(10, 10), buffer.getPoint(0));
+		assertEquals("End", new Translation2d(5, 5), buffer.getPoint(buffer.size() - 1));
+
+		// Every point but the last is exactly one spacing further along the path
+		for (int i = 1; i < buffer.size() - 1; i++) {
+			assertEquals("Spacing " + i, 0.25, buffer.getDistance(i) - buffer.getDistance(i - 1), 1e-4);
+		}
+		assert buffer.getDistance(buffer.size() - 1) - buffer.getDistance(buffer.size() - 2) <= 0.25 + 1e-9;
+	}
+
+	@Test
+	public void testPointsFollowCurve() {
+		BezierPath path = new BezierPath(wayPoints6, new double[0], 0.25);
+		PathBuffer buffer = path.getBuffer();
+
+		// Sample the true curve densely
+		Translation2d[] curve = new Translation2d[20001];
+		for (int i = 0; i < curve.length; i++) {
+			curve[i] = evaluate(wayPoints6, i / 20000.0);
+		}
+
+		// Every point should be within the flatness of the curve
+		for (int i = 0; i < buffer.size(); i++) {
+			double px = buffer.getX(i);
+			double py = buffer.getY(i);
+			double nearest = Double.POSITIVE_INFINITY;
+			for (int j = 1; j < curve.length; j++) {
+
+				// Distance to the segment between two samples
+				double sx = curve[j].getX() - curve[j - 1].getX();
+				double sy = curve[j].getY() - curve[j - 1].getY();
+				double t = ((px - curve[j - 1].getX()) * sx + (py - curve[j - 1].getY()) * sy) / (sx * sx + sy * sy);
+				t = Math.max(0, Math.min(1, t));
+				double dx = curve[j - 1].getX() + sx * t - px;
+				double dy = curve[j - 1].getY() + sy * t - py;
+				nearest = Math.min(nearest, Math.hypot(dx, dy));
+			}
+			assertEquals("Point " + i, 0.0, nearest, 0.0011);
+		}
+	}
+
+	@Test
+	public void testOvershootIsNotFlat() {
+
+		// All control points are on one line, but the curve goes past the end and
+		// comes back to it
+		Translation2d[] overshoot = { new Translation2d(0, 0), new Translation2d(2, 0), new Translation2d(1, 0) };
+		PathBuffer buffer = new BezierPath(overshoot, new double[0], 0.05).getBuffer();
+
+		double furthest = 0.0;
+		for (int i = 0; i < buffer.size(); i++) {
+			furthest = Math.max(furthest, buffer.getX(i));
+		}
+		assertEquals("Furthest point", 4.0 / 3.0, furthest, 0.05);
+		assertEquals("Length", 5.0 / 3.0, buffer.getLength(), 0.05);
+	}
+
+	@Test
+	public void testManyControlPoints() {
+
+		// Evenly spaced control points on a line make a straight curve
+		Translation2d[] line = new Translation2d[40];
+		for (int i = 0; i < line.length; i++) {
+			line[i] = new Translation2d(i, 0.5 * i);
+		}
+		PathBuffer buffer = new BezierPath(line).getBuffer();
+
+		for (int i = 0; i < buffer.size(); i++) {
+			assertEquals("Point " + i, 0.5 * buffer.getX(i), buffer.getY(i), 1e-9);
+		}
+		assertEquals("End", new Translation2d(39, 19.5), buffer.getPoint(buffer.size() - 1));
+	}
+
+	@Test
+	public void testPointCountTracksLength() {
+
+		// A straight line is split once, and gets points only for its length
+		BezierPath path = new BezierPath(new Translation2d[] { new Translation2d(0, 0), new Translation2d(1, 0) },
+				new double[0], 0.1);
+
+		assertEquals("Point count", 11, path.getBuffer().size());
+	}
+
 }
@@ -0,0 +1,57 @@
+package io.github.frc5024.purepursuit.pathgen;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import edu.wpi.first.wpilibj.geometry.Translation2d;
+
+public class LookaheadTableTest {
+
+    // A winding path with uneven spacing between its waypoints
+    private static final Path PATH = new Path(0.05, new Translation2d(0.0, 0.0), new Translation2d(3.0, 1.0),
+            new Translation2d(3.01, 1.0), new Translation2d(1.0, 4.0), new Translation2d(5.0, 5.0));
+
+    @Test
+    public void testLevelsMatchSearch() {
+        PathIndex index = PATH.getIndex();
+        LookaheadTable table = new LookaheadTable(PATH.getBuffer(), 0.1, 8);
+
+        assertEquals("Max distance", 0.7, table.getMaxDistance(), 1e-12);
+
+        for (int k = 0; k < 8; k++) {
+            for (int i = 0; i < PATH.getBuffer().size(); i++) {
+                assertEquals("Level " + k + ", point " + i, index.getIndexAhead(i, k * 0.1),
+                        table.getIndexAhead(i, k * 0.1));
+            }
+        }
+    }
+
+    @Test
+    public void testQuantization() {
+        PathIndex index = PATH.getIndex();
+        LookaheadTable table = new LookaheadTable(PATH.getBuffer(), 0.1, 8);
+
+        for (int i = 0; i < PATH.getBuffer().size(); i++) {
+
+            // Round to the nearest level
+            assertEquals("Round down " + i, index.getIndexAhead(i, 3 * 0.1), table.getIndexAhead(i, 0.34));
+            assertEquals("Round up " + i, index.getIndexAhead(i, 4 * 0.1), table.getIndexAhead(i, 0.36));
+            assertEquals("Negative " + i, i, table.getIndexAhead(i, -1.0));
+
+            // Past the table, the exact distance is searched for
+            assertEquals("Past the table " + i, index.getIndexAhead(i, 1.234), table.getIndexAhead(i, 1.234));
+        }
+    }
+
+    @Test
+    public void testFixedDistance() {
+        PathIndex index = PATH.getIndex();
+        LookaheadTable table = new LookaheadTable(PATH.getBuffer(), 0.25);
+
+        for (int i = 0; i < PATH.getBuffer().size(); i++) {
+            assertEquals("Point " + i, index.getIndexAhead(i, 0.25), table.getIndexAhead(i, 0.25));
+        }
+    }
+
+}
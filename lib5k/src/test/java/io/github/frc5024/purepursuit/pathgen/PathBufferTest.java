@@ -0,0 +1,76 @@
+package io.github.frc5024.purepursuit.pathgen;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import edu.wpi.first.wpilibj.geometry.Translation2d;
+
+public class PathBufferTest {
+
+    @Test
+    public void testStraightLine() {
+
+        // Create a path with spacing of 25cm for 1m displacement
+        PathBuffer buffer = new Path(0.25, new Translation2d(0.0, 0.0), new Translation2d(1.0, 0.0)).getBuffer();
+
+        assertEquals("Size", 4, buffer.size());
+        assertEquals("Length", 0.75, buffer.getLength(), 1e-9);
+
+        for (int i = 0; i < buffer.size(); i++) {
+            assertEquals("Distance " + i, 0.25 * i, buffer.getDistance(i), 1e-9);
+            assertEquals("Heading " + i, 0.0, buffer.getHeading(i), 1e-9);
+            assertEquals("Curvature " + i, 0.0, buffer.getCurvature(i), 1e-9);
+        }
+
+        // Lookups give the first point at or past the distance
+        assertEquals("At 0.3", 2, buffer.getIndexAtDistance(0.3));
+        assertEquals("Before the start", 0, buffer.getIndexAtDistance(-1.0));
+        assertEquals("Past the end", 3, buffer.getIndexAtDistance(10.0));
+    }
+
+    @Test
+    public void testCircle() {
+
+        // Points on a 2m circle, driven counter-clockwise
+        int count = 90;
+        double radius = 2.0;
+        double[] x = new double[count];
+        double[] y = new double[count];
+        for (int i = 0; i < count; i++) {
+            double angle = Math.PI * i / count;
+            x[i] = radius * Math.cos(angle);
+            y[i] = radius * Math.sin(angle);
+        }
+        PathBuffer buffer = new PathBuffer(x, y);
+
+        // Half the circumference, less one segment
+        double segment = 2.0 * radius * Math.sin(Math.PI / count / 2.0);
+        assertEquals("Length", segment * (count - 1), buffer.getLength(), 1e-9);
+
+        // Curvature is 1 / radius, turning left, everywhere except the ends
+        assertEquals("First curvature", 0.0, buffer.getCurvature(0), 1e-9);
+        assertEquals("Middle curvature", 1.0 / radius, buffer.getCurvature(count / 2), 1e-9);
+        assertEquals("Last curvature", 0.0, buffer.getCurvature(count - 1), 1e-9);
+
+        // At the top of the circle, the path heads in -X
+        assertEquals("Top heading", Math.PI, Math.abs(buffer.getHeading(count / 2)), Math.PI / count);
+    }
+
+    @Test
+    public void testPosesMatchBuffer() {
+        Path path = new SmoothPath(0.1, 0.3, 0.75, 0.001, new Translation2d(0.0, 0.0), new Translation2d(1.0, 1.0),
+                new Translation2d(2.0, 0.0));
+        Translation2d[] poses = path.getPoses();
+        PathBuffer buffer = path.getBuffer();
+
+        assertEquals("Size", buffer.size(), poses.length);
+        for (int i = 0; i < poses.length; i++) {
+            assertEquals("X " + i, buffer.getX(i), poses[i].getX(), 0.0);
+            assertEquals("Y " + i, buffer.getY(i), poses[i].getY(), 0.0);
+        }
+
+        // The compatibility view is only built once
+        assert path.getPoses() == poses;
+    }
+}
@@ -0,0 +1,128 @@
+package io.github.frc5024.purepursuit.pathgen;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import edu.wpi.first.wpilibj.geometry.Translation2d;
+import edu.wpi.first.wpilibj.util.Units;
+
+public class PathCacheTest {
+
+    private static final Translation2d[] WAYPOINTS = { new Translation2d(0.0, 0.0), new Translation2d(1.0, 3.0),
+            new Translation2d(2.0, 2.0) };
+
+    /**
+     * Check two paths have the same points
+     *
+     * @param expected Expected path
+     * @param actual   Actual path
+     */
+    private static void assertSamePoints(Path expected, Path actual) {
+        assertArrayEquals("X", expected.getBuffer().x, actual.getBuffer().x, 0.0);
+        assertArrayEquals("Y", expected.getBuffer().y, actual.getBuffer().y, 0.0);
+    }
+
+    @Test
+    public void testKeyTracksSpec() {
+        PathSpec spec = PathSpec.smooth(0.15, 0.5, 0.5, 0.001, WAYPOINTS);
+
+        assertEquals("Same spec", spec.getKey(), PathSpec.smooth(0.15, 0.5, 0.5, 0.001, WAYPOINTS).getKey());
+        assertNotEquals("Different weight", spec.getKey(),
+                PathSpec.smooth(0.15, 0.4, 0.5, 0.001, WAYPOINTS).getKey());
+        assertNotEquals("Different generator", spec.getKey(), PathSpec.linear(0.15, WAYPOINTS).getKey());
+        assertNotEquals("Different waypoint", spec.getKey(), PathSpec.smooth(0.15, 0.5, 0.5, 0.001,
+                new Translation2d(0.0, 0.0), new Translation2d(1.0, 3.0), new Translation2d(2.0, 2.5)).getKey());
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        File directory = Files.createTempDirectory("PathCacheTest").toFile();
+        PathSpec spec = PathSpec.bezier(0.1, new double[0], WAYPOINTS);
+        Path generated = spec.generate();
+
+        PathFile.write(PathCache.getFile(directory, "auto"), spec.getKey(), generated.getBuffer());
+        Path loaded = PathCache.load(directory, "auto", spec);
+
+        assertTrue("Loaded from file", loaded instanceof RawPath);
+        assertEquals("Name", "auto", loaded.name);
+        assertSamePoints(generated, loaded);
+        assertEquals("Length", generated.getBuffer().getLength(), loaded.getBuffer().getLength(), 1e-12);
+    }
+
+    @Test
+    public void testStaleFileIsRegenerated() throws IOException {
+        File directory = Files.createTempDirectory("PathCacheTest").toFile();
+        PathSpec oldSpec = PathSpec.linear(0.25, WAYPOINTS);
+        PathSpec newSpec = PathSpec.linear(0.1, WAYPOINTS);
+
+        PathFile.write(PathCache.getFile(directory, "auto"), oldSpec.getKey(), oldSpec.generate().getBuffer());
+        assertNull("Key mismatch", PathFile.read(PathCache.getFile(directory, "auto"), newSpec.getKey()));
+
+        Path loaded = PathCache.load(directory, "auto", newSpec);
+        assertFalse("Generated", loaded instanceof RawPath);
+        assertSamePoints(newSpec.generate(), loaded);
+    }
+
+    @Test
+    public void testCorruptFileIsRegenerated() throws IOException {
+        File directory = Files.createTempDirectory("PathCacheTest").toFile();
+        PathSpec spec = PathSpec.linear(0.25, WAYPOINTS);
+
+        try (FileWriter writer = new FileWriter(PathCache.getFile(directory, "auto"))) {
+            writer.write("this is not a path file");
+        }
+
+        assertSamePoints(spec.generate(), PathCache.load(directory, "auto", spec));
+        assertSamePoints(spec.generate(), PathCache.load(directory, "missing", spec));
+    }
+
+    @Test
+    public void testCompilerSkipsUpToDatePaths() throws IOException {
+        File directory = Files.createTempDirectory("PathCacheTest").toFile();
+        Map<String, PathSpec> specs = new LinkedHashMap<>();
+        specs.put("left", PathSpec.linear(0.25, WAYPOINTS));
+        specs.put("right", PathSpec.smooth(0.15, 0.5, 0.5, 0.001, WAYPOINTS));
+
+        PrintStream out = new PrintStream(new ByteArrayOutputStream());
+        assertEquals("First build", 2, PathCompiler.compile(specs, directory, out));
+        assertEquals("Second build", 0, PathCompiler.compile(specs, directory, out));
+
+        specs.put("right", PathSpec.smooth(0.15, 0.4, 0.5, 0.001, WAYPOINTS));
+        assertEquals("Changed spec", 1, PathCompiler.compile(specs, directory, out));
+        assertSamePoints(specs.get("right").generate(), PathCache.load(directory, "right", specs.get("right")));
+    }
+
+    @Test
+    public void testReadDeclarations() throws IOException {
+        File declarations = Files.createTempFile("PathCacheTest", ".json").toFile();
+        try (FileWriter writer = new FileWriter(declarations)) {
+            writer.write("{\"auto\": {\"type\": \"smooth\", \"spacing\": 0.15, \"weight\": 0.5, \"smoothing\": 0.5,"
+                    + " \"tolerance\": 0.001, \"waypoints\": [[0.0, 0.0], [1.0, 3.0], [2.0, 2.0]]},"
+                    + " \"straight\": {\"waypoints\": [[0.0, 0.0], [1.0, 0.0]]}}");
+        }
+
+        Map<String, PathSpec> specs = PathCompiler.readDeclarations(declarations);
+
+        assertEquals("Count", 2, specs.size());
+        assertEquals("Same key as code", PathSpec.smooth(0.15, 0.5, 0.5, 0.001, WAYPOINTS).getKey(),
+                specs.get("auto").getKey());
+        assertEquals("Defaults", PathSpec.linear(Units.inchesToMeters(6.0), new Translation2d(0.0, 0.0),
+                new Translation2d(1.0, 0.0)).getKey(), specs.get("straight").getKey());
+    }
+
+}
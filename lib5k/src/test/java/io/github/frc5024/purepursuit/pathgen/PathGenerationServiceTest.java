@@ -0,0 +1,86 @@
+package io.github.frc5024.purepursuit.pathgen;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import edu.wpi.first.wpilibj.geometry.Translation2d;
+
+public class PathGenerationServiceTest {
+
+    private static final Translation2d[] WAYPOINTS = { new Translation2d(0.0, 0.0), new Translation2d(1.0, 3.0),
+            new Translation2d(2.0, 2.0) };
+
+    @Test
+    public void testMatchesBlockingGeneration() throws InterruptedException {
+        PathGenerationService service = new PathGenerationService(2);
+
+        PathSpec[] specs = { PathSpec.linear(0.1, WAYPOINTS), PathSpec.smooth(0.15, 0.5, 0.5, 0.001, WAYPOINTS),
+                PathSpec.bezier(0.1, new double[0], WAYPOINTS) };
+
+        List<CompletableFuture<Path>> futures = new ArrayList<>();
+        for (PathSpec spec : specs) {
+            futures.add(service.generate(spec));
+        }
+
+        for (int i = 0; i < specs.length; i++) {
+            Path expected = specs[i].generate();
+            Path actual = futures.get(i).join();
+            assertArrayEquals("X " + i, expected.getBuffer().x, actual.getBuffer().x, 0.0);
+            assertArrayEquals("Y " + i, expected.getBuffer().y, actual.getBuffer().y, 0.0);
+        }
+
+        assertTrue("Shutdown", service.shutdown(1000));
+    }
+
+    @Test
+    public void testParallelismIsBounded() throws InterruptedException {
+        PathGenerationService service = new PathGenerationService(2);
+        AtomicInteger running = new AtomicInteger(0);
+        AtomicInteger maxRunning = new AtomicInteger(0);
+
+        List<CompletableFuture<Path>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(service.submit("path" + i, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                return new Path(0.1, WAYPOINTS);
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        assertTrue("At most two at once", maxRunning.get() <= 2);
+        assertTrue("Shutdown", service.shutdown(1000));
+    }
+
+    @Test
+    public void testFailureIsReported() throws InterruptedException {
+        PathGenerationService service = new PathGenerationService(1);
+
+        CompletableFuture<Path> future = service.submit("broken", () -> {
+            throw new IllegalStateException("bad waypoints");
+        });
+
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            assertEquals("Cause", IllegalStateException.class, e.getCause().getClass());
+        }
+        assertTrue("Failed", future.isCompletedExceptionally());
+        assertTrue("Shutdown", service.shutdown(1000));
+    }
+
+}
@@ -0,0 +1,84 @@
+package io.github.frc5024.purepursuit.pathgen;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import edu.wpi.first.wpilibj.geometry.Translation2d;
+
+public class PathIndexTest {
+
+    /**
+     * Find the nearest point the slow way
+     *
+     * @param points Points to search
+     * @param x      X position
+     * @param y      Y position
+     * @return Index of the first nearest point
+     */
+    private int bruteForceNearest(Translation2d[] points, double x, double y) {
+        int best = -1;
+        double bestDistance = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < points.length; i++) {
+            double d = Math.hypot(x - points[i].getX(), y - points[i].getY());
+            if (d < bestDistance) {
+                bestDistance = d;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    @Test
+    public void testNearestMatchesLinearScan() {
+
+        // Build a winding path
+        Path path = new Path(0.05, new Translation2d(0.0, 0.0), new Translation2d(3.0, 1.0),
+                new Translation2d(1.0, 4.0), new Translation2d(5.0, 5.0), new Translation2d(2.0, -1.0));
+        Translation2d[] poses = path.getPoses();
+        PathIndex index = path.getIndex();
+
+        // Query from random positions around the path
+        Random random = new Random(5024);
+        for (int i = 0; i < 500; i++) {
+            double x = random.nextDouble() * 8.0 - 1.5;
+            double y = random.nextDouble() * 8.0 - 2.0;
+
+            assertEquals("Nearest to " + x + ", " + y, bruteForceNearest(poses, x, y), index.getNearestIndex(x, y));
+        }
+    }
+
+    @Test
+    public void testNearestPrefersEarlierPoint() {
+
+        // This path passes the same point twice
+        PathIndex index = new PathIndex(new Translation2d[] { new Translation2d(0.0, 0.0), new Translation2d(1.0, 0.0),
+                new Translation2d(1.0, 1.0), new Translation2d(1.0, 0.0), new Translation2d(2.0, 0.0) });
+
+        assertEquals("Repeated point", 1, index.getNearestIndex(1.0, -0.1));
+    }
+
+    @Test
+    public void testDistanceLookup() {
+
+        // Create a path with spacing of 25cm for 1m displacement
+        Path path = new Path(0.25, new Translation2d(0.0, 0.0), new Translation2d(1.0, 0.0));
+        PathIndex index = path.getIndex();
+
+        // Distances are measured from the first path point
+        assertEquals("Length", 0.75, index.getLength(), 1e-9);
+        assertEquals("Distance to point 2", 0.5, index.getDistanceAlong(2), 1e-9);
+
+        // Lookups give the first point at or past the distance
+        assertEquals("At 0", 0, index.getIndexAtDistance(0.0));
+        assertEquals("At 0.3", 2, index.getIndexAtDistance(0.3));
+        assertEquals("At 0.5", 2, index.getIndexAtDistance(0.5));
+        assertEquals("Past the end", 3, index.getIndexAtDistance(10.0));
+
+        // And lookahead is relative to a starting point
+        assertEquals("Ahead of 1 by 0.25", 2, index.getIndexAhead(1, 0.25));
+        assertEquals("Ahead of 1 by 0", 1, index.getIndexAhead(1, 0.0));
+    }
+}
@@ -63,4 +63,35 @@ public class PathTest {
         assert comparePoses(poses[5], new Translation2d(1.0, 1.0));
 
     }
-}
\ No newline at end of file
+
+    @Test
+    /**
+     * Test that the points list subclasses can read matches the path buffer, and
+     * that the generators in this package drop it
+     */
+    public void testPointsMatchBuffer() {
+
+        // The built-in generators only keep the buffer
+        Path generated = new Path(0.25, new Translation2d(0.0, 0.0), new Translation2d(1.0, 1.0));
+        assert generated.points == null;
+        assert new RawPath(generated.getBuffer()).points == null;
+
+        // Other subclasses keep the list, whether it was built from the points list
+        // or straight into a buffer
+        Path listed = new Path(0.25, new Translation2d(0.0, 0.0), new Translation2d(1.0, 1.0)) {
+        };
+        Path buffered = new RawPath(generated.getBuffer()) {
+        };
+
+        for (Path path : new Path[] { listed, buffered }) {
+            assert path.points.size() == path.getBuffer().size();
+            Translation2d[] poses = path.getPoses();
+            for (int i = 0; i < path.points.size(); i++) {
+                assert comparePoses(path.points.get(i), path.getBuffer().getPoint(i));
+
+                // Poses share the list's points
+                assert poses[i] == path.points.get(i);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.frc5024.purepursuit.pathgen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import edu.wpi.first.wpilibj.geometry.Translation2d;
+
+public class TrajectoryTest {
+
+    private static final double MAX_VELOCITY = 3.0;
+    private static final double MAX_ACCELERATION = 2.0;
+    private static final double MAX_CENTRIPETAL = 1.5;
+
+    @Test
+    public void testStraightLineIsTrapezoidal() {
+        Path path = new Path(0.05, new Translation2d(0.0, 0.0), new Translation2d(10.0, 0.0));
+        Trajectory trajectory = new Trajectory(path, MAX_VELOCITY, MAX_ACCELERATION, MAX_CENTRIPETAL);
+        double length = path.getBuffer().getLength();
+
+        assertEquals("Starts at rest", 0.0, trajectory.getVelocity(0), 0.0);
+        assertEquals("Ends at rest", 0.0, trajectory.getVelocity(trajectory.size() - 1), 0.0);
+
+        // Speed up for 1.5s, cruise, then slow down for 1.5s
+        double rampDistance = MAX_VELOCITY * MAX_VELOCITY / (2.0 * MAX_ACCELERATION);
+        double expected = 2.0 * MAX_VELOCITY / MAX_ACCELERATION + (length - 2.0 * rampDistance) / MAX_VELOCITY;
+        assertEquals("Total time", expected, trajectory.getTotalTime(), 1e-9);
+
+        for (int i = 0; i < trajectory.size(); i++) {
+            assertTrue("Velocity " + i, trajectory.getVelocity(i) <= MAX_VELOCITY + 1e-9);
+            assertTrue("Acceleration " + i, Math.abs(trajectory.getAcceleration(i)) <= MAX_ACCELERATION + 1e-9);
+        }
+    }
+
+    @Test
+    public void testSlowsForTurns() {
+        Path path = new SmoothPath(0.05, 0.3, 0.7, 0.0001, new Translation2d(0.0, 0.0), new Translation2d(3.0, 0.0),
+                new Translation2d(3.0, 3.0), new Translation2d(6.0, 3.0));
+        Trajectory trajectory = new Trajectory(path, MAX_VELOCITY, MAX_ACCELERATION, MAX_CENTRIPETAL);
+        PathBuffer buffer = path.getBuffer();
+
+        double slowest = MAX_VELOCITY;
+        for (int i = 1; i < trajectory.size() - 1; i++) {
+            double v = trajectory.getVelocity(i);
+            assertTrue("Centripetal " + i, v * v * Math.abs(buffer.getCurvature(i)) <= MAX_CENTRIPETAL + 1e-9);
+            if (buffer.getDistance(i) > 2.0 && buffer.getDistance(i) < buffer.getLength() - 2.0) {
+                slowest = Math.min(slowest, v);
+            }
+        }
+        assertTrue("Slower in the turns", slowest < MAX_VELOCITY);
+
+        // Faster than driving the whole path at the slowest turn speed
+        assertTrue("Faster than a flat speed", trajectory.getTotalTime() < buffer.getLength() / slowest);
+    }
+
+    @Test
+    public void testTimeSampling() {
+        Path path = new Path(0.05, new Translation2d(0.0, 0.0), new Translation2d(4.0, 1.0),
+                new Translation2d(8.0, 0.0));
+        Trajectory trajectory = new Trajectory(path, MAX_VELOCITY, MAX_ACCELERATION, MAX_CENTRIPETAL);
+        PathBuffer buffer = path.getBuffer();
+
+        for (int i = 0; i < trajectory.size() - 1; i++) {
+            double t = trajectory.getTime(i);
+            assertEquals("Index " + i, i, trajectory.getIndexAtTime(t));
+            assertEquals("Velocity " + i, trajectory.getVelocity(i), trajectory.getVelocityAtTime(t), 1e-9);
+            assertEquals("Distance " + i, buffer.getDistance(i), trajectory.getDistanceAtTime(t), 1e-9);
+
+            // Halfway between points, with constant acceleration
+            double dt = (trajectory.getTime(i + 1) - t) / 2.0;
+            assertEquals("Mid velocity " + i, trajectory.getVelocity(i) + trajectory.getAcceleration(i) * dt,
+                    trajectory.getVelocityAtTime(t + dt), 1e-9);
+            double mid = trajectory.getDistanceAtTime(t + dt);
+            assertTrue("Mid distance " + i, mid >= buffer.getDistance(i) && mid <= buffer.getDistance(i + 1));
+        }
+
+        // Before the start, and after the end
+        assertEquals("Before", 0, trajectory.getIndexAtTime(-1.0));
+        assertEquals("After", trajectory.size() - 1, trajectory.getIndexAtTime(trajectory.getTotalTime() + 1.0));
+        assertEquals("After velocity", 0.0, trajectory.getVelocityAtTime(trajectory.getTotalTime() + 1.0), 0.0);
+        assertEquals("After distance", buffer.getLength(),
+                trajectory.getDistanceAtTime(trajectory.getTotalTime() + 1.0), 1e-9);
+    }
+
+    @Test
+    public void testSpeedPercent() {
+        Path path = new Path(0.05, new Translation2d(0.0, 0.0), new Translation2d(10.0, 0.0));
+        Trajectory trajectory = new Trajectory(path, MAX_VELOCITY, MAX_ACCELERATION, MAX_CENTRIPETAL);
+
+        assertTrue("Moving at the start", trajectory.getSpeedPercent(0) > 0.0);
+        assertEquals("Full speed in the middle", 1.0, trajectory.getSpeedPercent(trajectory.size() / 2), 1e-9);
+        assertEquals("Never stops", Trajectory.MIN_SPEED_PERCENT,
+                trajectory.getSpeedPercent(trajectory.size() - 1), 0.0);
+    }
+
+}
@@ -0,0 +1,87 @@
+package io.github.frc5024.purepursuit.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import edu.wpi.first.wpilibj.Filesystem;
+import io.github.frc5024.purepursuit.pathgen.PathBuffer;
+import io.github.frc5024.purepursuit.pathgen.RawPath;
+
+public class PathImporterTest {
+
+    @Test
+    public void testReadsOnlyTranslations() throws IOException {
+
+        // Fields are out of order, and there are extra fields to skip
+        String json = "[{\"time\":0.0,\"pose\":{\"rotation\":{\"radians\":1.0},\"translation\":{\"x\":1.0,\"y\":-2.0}}},"
+                + "{\"pose\":{\"translation\":{\"y\":0.5,\"x\":3.0,\"z\":[1,2]}},\"curvature\":0.2,\"extra\":{\"a\":[]}}]";
+
+        PathBuffer buffer = PathImporter.jsonToBuffer(new StringReader(json));
+
+        assertEquals("Size", 2, buffer.size());
+        assertEquals("X 0", 1.0, buffer.getX(0), 0.0);
+        assertEquals("Y 0", -2.0 + 8.23 / 2.0, buffer.getY(0), 1e-12);
+        assertEquals("X 1", 3.0, buffer.getX(1), 0.0);
+        assertEquals("Y 1", 0.5 + 8.23 / 2.0, buffer.getY(1), 1e-12);
+    }
+
+    @Test(expected = IOException.class)
+    public void testMissingTranslation() throws IOException {
+        PathImporter.jsonToBuffer(new StringReader("[{\"pose\":{\"rotation\":{\"radians\":1.0}}}]"));
+    }
+
+    @Test
+    public void testMatchesGsonParse() throws IOException {
+        File file = new File(Filesystem.getDeployDirectory() + "/Complex_Routing.wpilib.json");
+
+        // Parse the whole file into objects for reference
+        Type listType = new TypeToken<List<WPI_PathPoint>>() {
+        }.getType();
+        List<WPI_PathPoint> expected;
+        try (FileReader reader = new FileReader(file)) {
+            expected = new Gson().fromJson(reader, listType);
+        }
+
+        PathBuffer buffer = PathImporter.jsonToPath(file).getBuffer();
+
+        assertEquals("Size", expected.size(), buffer.size());
+        for (int i = 0; i < buffer.size(); i++) {
+            assertEquals("X " + i, expected.get(i).pose.translation.x, buffer.getX(i), 0.0);
+            assertEquals("Y " + i, expected.get(i).pose.translation.y + 8.23 / 2.0, buffer.getY(i), 0.0);
+        }
+    }
+
+    @Test
+    public void testGzip() throws IOException {
+        File source = new File(Filesystem.getDeployDirectory() + "/Example_Curve.wpilib.json");
+        File compressed = Files.createTempFile("PathImporterTest", ".json.gz").toFile();
+        try (OutputStream output = new GZIPOutputStream(new FileOutputStream(compressed))) {
+            Files.copy(source.toPath(), output);
+        }
+
+        PathBuffer expected = PathImporter.jsonToPath(source).getBuffer();
+        RawPath path = PathImporter.jsonToPath(compressed);
+
+        assertEquals("Size", expected.size(), path.getBuffer().size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals("X " + i, expected.getX(i), path.getBuffer().getX(i), 0.0);
+            assertEquals("Y " + i, expected.getY(i), path.getBuffer().getY(i), 0.0);
+        }
+    }
+
+}
@@ -35,10 +35,71 @@ public class SmoothingTest{
         
     }
 
+    /**
+     * Make a zig-zag path
+     * 
+     * @param count Number of points
+     * @return X and Y positions
+     */
+    private double[][] zigZag(int count) {
+        double[][] path = new double[2][count];
+        for (int i = 0; i < count; i++) {
+            path[0][i] = i * 0.1;
+            path[1][i] = (i % 2 == 0) ? 0.0 : 0.2;
+        }
+        return path;
+    }
 
+    @Test
+    public void testDirectSolveBalances() {
+        double[][] original = zigZag(20);
+        double[] x = original[0].clone();
+        double[] y = original[1].clone();
+        Smoothing.smooth(x, y, 0.3, 0.5, 0.0, Smoothing.Method.kDirect);
+
+        // End points never move
+        assertEquals("First X", original[0][0], x[0], 0.0);
+        assertEquals("Last Y", original[1][19], y[19], 0.0);
+
+        // Every inner point balances its pull to the original point and its
+        // neighbours
+        for (int i = 1; i < 19; i++) {
+            double residualX = 0.3 * (original[0][i] - x[i]) + 0.5 * (x[i - 1] + x[i + 1] - 2.0 * x[i]);
+            double residualY = 0.3 * (original[1][i] - y[i]) + 0.5 * (y[i - 1] + y[i + 1] - 2.0 * y[i]);
+            assertEquals("X residual " + i, 0.0, residualX, 1e-12);
+            assertEquals("Y residual " + i, 0.0, residualY, 1e-12);
+        }
+    }
 
+    @Test
+    public void testMethodsAgree() {
+        for (int count : new int[] { 3, 4, 50, 10000 }) {
+            double[][] direct = zigZag(count);
+            double[][] sor = zigZag(count);
+            double[][] redBlack = zigZag(count);
+
+            Smoothing.smooth(direct[0], direct[1], 0.5, 0.5, 1e-10, Smoothing.Method.kDirect);
+            Smoothing.smooth(sor[0], sor[1], 0.5, 0.5, 1e-10, Smoothing.Method.kSOR);
+            Smoothing.smooth(redBlack[0], redBlack[1], 0.5, 0.5, 1e-10, Smoothing.Method.kParallelRedBlack);
+
+            for (int i = 0; i < count; i++) {
+                assertEquals("SOR " + count + " point " + i, direct[1][i], sor[1][i], 1e-9);
+                assertEquals("Red-black " + count + " point " + i, direct[1][i], redBlack[1][i], 1e-9);
+            }
+        }
+    }
 
+    @Test
+    public void testListIsNotModified() {
+        ArrayList<Translation2d> path = new ArrayList<>();
+        path.add(new Translation2d(0, 0));
+        path.add(new Translation2d(1, 1));
+        path.add(new Translation2d(2, 0));
 
+        ArrayList<Translation2d> smoothed = Smoothing.smooth(path, 0.5, 0.5, 0.001);
 
-
-}
\ No newline at end of file
+        // The input stays put, and the data weight holds the middle point part way
+        assertEquals("Input", new Translation2d(1, 1), path.get(1));
+        assertEquals("Middle point", 1.0 / 3.0, smoothed.get(1).getY(), 1e-9);
+    }
+}